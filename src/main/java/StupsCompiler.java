@@ -1,23 +1,31 @@
+import codegen.analysis.Analysis;
+import codegen.analysis.AnalysisManager;
 import codegen.analysis.dataflow.DataFlowGraph;
 import codegen.analysis.liveness.LivenessAnalysis;
+import codegen.analysis.liveness.ParallelGraphColoring;
+import codegen.flowgraph.BlockProfile;
+import codegen.flowgraph.BlockProfiler;
 import codegen.flowgraph.FlowGraph;
 import codegen.flowgraph.FlowGraphGenerator;
+import codegen.flowgraph.JasminEmitter;
+import codegen.optimization.BlockLayout;
+import codegen.optimization.MethodSplitter;
+import codegen.optimization.OptimizationLevel;
+import codegen.optimization.PassManager;
 import lexer.StupsLexer;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.Lexer;
 import parser.StupsParser;
+import parser.ast.CompactSyntaxTree;
 import parser.ast.SyntaxTree;
-import parser.ast.SyntaxTreeNode;
 import parser.grammar.Grammar;
 import typechecker.TypeChecker;
 import util.Logger;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
-import java.util.Map;
 
 public final class StupsCompiler {
 
@@ -26,34 +34,100 @@ public final class StupsCompiler {
     public static void main(String[] args) {
         System.out.println("StupsCompiler: " + Arrays.toString(args) + "\n");
 
-        if (args.length != 2) {
+        if (args.length < 2) {
             System.out.println("Falsche Argumente.");
             return;
         }
 
+        // Optionen nach dem Dateinamen: Optimierungsstufe, -buffer[=Zeichen] für gepufferte Ausgabe,
+        // -profile für Ausführungszähler pro Block, -useprofile für die Blockanordnung nach diesen Zählern,
+        // -unroll[=Faktor] für das Vervielfachen von Zählschleifen und bei -liveness -parallel[=Threads]
+        // für die zusätzliche parallele Färbung des Interferenzgraphen
+        OptimizationLevel level = OptimizationLevel.O0;
+        int outputBuffer = 0;
+        int unrollFactor = 1;
+        int parallelism = 0;
+        boolean profile = false;
+        boolean useProfile = false;
+        for (int i = 2; i < args.length; i++) {
+            if (OptimizationLevel.isFlag(args[i])) {
+                level = OptimizationLevel.fromFlag(args[i]);
+            } else if ("-profile".equals(args[i])) {
+                profile = true;
+            } else if ("-useprofile".equals(args[i])) {
+                useProfile = true;
+            } else if (parseIntOption(args[i], "-buffer", FlowGraphGenerator.DEFAULT_OUTPUT_BUFFER) > 0) {
+                outputBuffer = parseIntOption(args[i], "-buffer", FlowGraphGenerator.DEFAULT_OUTPUT_BUFFER);
+            } else if (parseIntOption(args[i], "-unroll", FlowGraphGenerator.DEFAULT_UNROLL_FACTOR) > 0) {
+                unrollFactor = parseIntOption(args[i], "-unroll", FlowGraphGenerator.DEFAULT_UNROLL_FACTOR);
+            } else if (parseIntOption(args[i], "-parallel", Runtime.getRuntime().availableProcessors()) > 0) {
+                parallelism = parseIntOption(args[i], "-parallel", Runtime.getRuntime().availableProcessors());
+            } else {
+                System.out.println("Falsche Argumente.");
+                return;
+            }
+        }
+
         switch (args[0]) {
-            case "-compile" -> compile(args[1]);
-            case "-liveness" -> liveness(args[1]);
+            case "-compile" -> compile(args[1], level, outputBuffer, unrollFactor, profile, useProfile);
+            case "-liveness" -> liveness(args[1], parallelism);
+            case "-profileimage" -> profileImage(args[1], level, outputBuffer, unrollFactor);
             default -> System.out.println("Falsche Argumente.");
         }
     }
 
-    private static void compile(String filename) {
+    /**
+     * @return Der Wert aus "-name=Wert", der Standardwert für "-name", -1 wenn das Flag nicht passt.
+     */
+    private static int parseIntOption(String flag, String name, int defaultValue) {
+        if (name.equals(flag)) {
+            return defaultValue;
+        }
+        if (!flag.startsWith(name + "=")) {
+            return -1;
+        }
+
+        try {
+            return Integer.parseInt(flag.substring(name.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void compile(String filename, OptimizationLevel level, int outputBuffer, int unrollFactor,
+                                boolean profile, boolean useProfile) {
         System.out.println("Kompiliere " + filename);
 //        final long begin = System.nanoTime();
 
-        final FlowGraphGenerator gen = getFlowGraphGen(filename);
-        final FlowGraph graph = gen.generateGraph();
+        final FlowGraphGenerator gen = getFlowGraphGen(filename, outputBuffer, unrollFactor);
+        final PassManager passManager = PassManager.fromLevel(level);
+        final FlowGraph graph = passManager.run(gen.generateGraph());
+
+        if (level != OptimizationLevel.O0) {
+            System.out.println("Optimierungen (" + level.getFlag() + "):\n" + passManager.printStatistics() + "\n");
+        }
+
+        if (useProfile) {
+            layoutFromProfile(graph);
+        }
 
         Logger.logDebugSupplier(graph::printToImage, StupsCompiler.class);
 
+        if (profile) {
+            BlockProfiler.instrument(graph);
+            System.out.println("Das Programm schreibt die Ausführungszähler nach " + graph.getHead().getProfileFile());
+        }
+
         // Codegeneration + Output
         final String fileExtension = filename.substring(filename.lastIndexOf('.') + 1);
         final String outputName = filename.replaceFirst("\\." + fileExtension, ".j");
-        final String sourceCode = graph.toString();
         try {
             final Path outputFile = Paths.get(System.getProperty("user.dir") + "/" + outputName);
-            Files.writeString(outputFile, sourceCode);
+            if (MethodSplitter.methodSize(graph) > MethodSplitter.HUGE_METHOD_LIMIT) {
+                JasminEmitter.emit(MethodSplitter.split(graph, MethodSplitter.PART_SIZE), outputFile);
+            } else {
+                JasminEmitter.emit(graph, outputFile);
+            }
         } catch (IOException e) {
             System.out.println("Datei konnte nicht geschrieben werden.");
             return;
@@ -73,26 +147,83 @@ public final class StupsCompiler {
 //        System.out.printf("%nCompilation completed in %dms.%n", (end - begin) / 1_000_000);
     }
 
-    private static void liveness(String filename) {
+    /**
+     * Ordnet die Blöcke nach den Zählern eines mit -profile übersetzten Programms neu an.
+     * Das Profil passt nur, wenn mit denselben Optionen übersetzt wurde, sonst bleibt die bisherige Anordnung.
+     */
+    private static void layoutFromProfile(FlowGraph graph) {
+        final BlockProfile profile;
+        try {
+            profile = BlockProfile.fromFile(Paths.get(System.getProperty("user.dir") + "/" + graph.getHead().getProfileFile()));
+        } catch (IOException e) {
+            System.out.println("Das Profil " + graph.getHead().getProfileFile() + " konnte nicht gelesen werden.");
+            return;
+        }
+
+        if (!profile.matches(graph)) {
+            System.out.println("Das Profil passt nicht zum Programm, wurde es mit denselben Optionen übersetzt?");
+            return;
+        }
+
+        System.out.println("Blockanordnung nach " + graph.getHead().getProfileFile() + ": "
+                           + BlockLayout.run(graph, profile) + " Änderungen\n");
+    }
+
+    /**
+     * Zeichnet die Ausführungszähler eines mit -profile übersetzten Programms in den Flussgraphen.
+     * Optimierungsstufe und Optionen müssen dieselben wie beim Übersetzen sein, sonst passen die Blöcke nicht.
+     */
+    private static void profileImage(String filename, OptimizationLevel level, int outputBuffer, int unrollFactor) {
+        System.out.println("Profil für " + filename);
+
+        final FlowGraph graph = PassManager.fromLevel(level).run(getFlowGraphGen(filename, outputBuffer, unrollFactor).generateGraph());
+
+        final BlockProfile profile;
+        try {
+            profile = BlockProfile.fromFile(Paths.get(System.getProperty("user.dir") + "/" + graph.getHead().getProfileFile()));
+        } catch (IOException e) {
+            System.out.println("Das Profil " + graph.getHead().getProfileFile() + " konnte nicht gelesen werden.");
+            return;
+        }
+
+        if (!profile.matches(graph)) {
+            System.out.println("Das Profil passt nicht zum Programm, wurde es mit denselben Optionen übersetzt?");
+            return;
+        }
+
+        System.out.println(graph.printToImage(profile));
+    }
+
+    /**
+     * @param parallelism Threads für die parallele Färbung nach Jones und Plassmann, 0 wenn nicht parallel gefärbt wird.
+     */
+    private static void liveness(String filename, int parallelism) {
         System.out.println("Liveness-Analyse für " + filename);
 
-        final FlowGraphGenerator gen = getFlowGraphGen(filename);
+        final FlowGraphGenerator gen = getFlowGraphGen(filename, 0, 1);
         final FlowGraph graph = gen.generateGraph();
 
         Logger.logDebugSupplier(graph::printToImage, StupsCompiler.class);
 
-        final DataFlowGraph dataFlowGraph = DataFlowGraph.fromFlowGraph(graph);
+        final AnalysisManager analyses = new AnalysisManager();
+        final DataFlowGraph dataFlowGraph = analyses.get(Analysis.DATA_FLOW_GRAPH, graph);
 
         Logger.logDebugSupplier(dataFlowGraph::printToImage, StupsCompiler.class);
 
-        final LivenessAnalysis liveness = LivenessAnalysis.fromDataFlowGraph(dataFlowGraph, gen.getVarMap());
+        final LivenessAnalysis liveness = analyses.get(Analysis.liveness(gen.getVarMap()), graph);
         final int registers = liveness.doLivenessAnalysis();
 
         System.out.println("Liveness-Analyse abgeschlossen.");
-        System.out.println("Registers: " + registers);
+        System.out.println("Registers: " + registers + " (greedy coloring: " + liveness.doGreedyColoring()
+                           + ", coalesced copies: " + liveness.getRegisterColoring().getCoalescedMoves() + ")");
+
+        if (parallelism > 0) {
+            System.out.println("Parallel coloring (" + parallelism + " threads): "
+                               + liveness.doParallelColoring(ParallelGraphColoring.DEFAULT_SEED, parallelism));
+        }
     }
 
-    private static FlowGraphGenerator getFlowGraphGen(String filename) {
+    private static FlowGraphGenerator getFlowGraphGen(String filename, int outputBuffer, int unrollFactor) {
         // File opening + Lexing
         Lexer lexer;
         try {
@@ -133,8 +264,12 @@ public final class StupsCompiler {
 
         final SyntaxTree abstractSyntaxTree = SyntaxTree.toAbstractSyntaxTree(parseTree, grammar);
 
-        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(abstractSyntaxTree);
+        // Ab hier nur noch der kompakte Baum, der Objektbaum wird nicht mehr gebraucht
+        final CompactSyntaxTree compactSyntaxTree = CompactSyntaxTree.fromSyntaxTree(abstractSyntaxTree);
+
+        final String[] nodeTypes = TypeChecker.validate(compactSyntaxTree);
 
-        return FlowGraphGenerator.fromAST(abstractSyntaxTree, nodeTable, filename);
+        return FlowGraphGenerator.fromAST(compactSyntaxTree, nodeTypes, filename, outputBuffer)
+                                 .unrollLoops(unrollFactor, MethodSplitter.HUGE_METHOD_LIMIT);
     }
 }
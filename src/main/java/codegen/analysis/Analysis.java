@@ -0,0 +1,123 @@
+package codegen.analysis;
+
+import codegen.analysis.dataflow.AvailableExpressionsProblem;
+import codegen.analysis.dataflow.DataFlowGraph;
+import codegen.analysis.dataflow.GenKillProblem;
+import codegen.analysis.dataflow.GenKillResult;
+import codegen.analysis.dataflow.GenKillSolver;
+import codegen.analysis.dataflow.LivenessProblem;
+import codegen.analysis.dataflow.ReachingDefinitionsProblem;
+import codegen.analysis.dominance.DominatorTree;
+import codegen.analysis.dominance.LoopNestingForest;
+import codegen.analysis.liveness.LivenessAnalysis;
+import codegen.flowgraph.FlowGraph;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Eine Analyse eines {@link FlowGraph}, deren Ergebnis vom {@link AnalysisManager} zwischengespeichert wird.
+ * Die Instanzen dienen als Schlüssel, jede Analyse legt fest, durch welche {@link GraphChange}s sie ungültig wird.
+ *
+ * @param <T> Der Typ des Ergebnisses.
+ */
+public final class Analysis<T> {
+
+    /**
+     * Ab dieser Blockanzahl werden die gen/kill-Analysen parallel über starke Zusammenhangskomponenten gelöst,
+     * bei kleineren Graphen überwiegt der Aufwand für Zerlegung und Tasks.
+     */
+    public static final int PARALLEL_BLOCKS = 20_000;
+
+    public static final Analysis<BlockGraph> BLOCK_GRAPH =
+            new Analysis<>("block-graph", EnumSet.of(GraphChange.CONTROL_FLOW),
+                           (graph, manager) -> BlockGraph.fromFlowGraph(graph));
+
+    public static final Analysis<DominatorTree> DOMINATOR_TREE =
+            new Analysis<>("dominator-tree", EnumSet.of(GraphChange.CONTROL_FLOW),
+                           (graph, manager) -> DominatorTree.fromBlockGraph(manager.get(BLOCK_GRAPH, graph)));
+
+    public static final Analysis<LoopNestingForest> LOOP_NESTING_FOREST =
+            new Analysis<>("loop-nesting-forest", EnumSet.of(GraphChange.CONTROL_FLOW),
+                           (graph, manager) -> LoopNestingForest.fromDominatorTree(manager.get(DOMINATOR_TREE, graph)));
+
+    public static final Analysis<DataFlowGraph> DATA_FLOW_GRAPH =
+            new Analysis<>("data-flow-graph", EnumSet.allOf(GraphChange.class),
+                           (graph, manager) -> DataFlowGraph.fromFlowGraph(graph));
+
+    public static final Analysis<StackDepthAnalysis> STACK_DEPTH =
+            new Analysis<>("stack-depth", EnumSet.allOf(GraphChange.class),
+                           (graph, manager) -> StackDepthAnalysis.fromBlockGraph(manager.get(BLOCK_GRAPH, graph)));
+
+    public static final Analysis<GenKillResult> LIVE_VARIABLES =
+            new Analysis<>("live-variables", EnumSet.allOf(GraphChange.class),
+                           (graph, manager) -> solve(LivenessProblem::fromBlockGraph, manager.get(BLOCK_GRAPH, graph)));
+
+    public static final Analysis<GenKillResult> REACHING_DEFINITIONS =
+            new Analysis<>("reaching-definitions", EnumSet.allOf(GraphChange.class),
+                           (graph, manager) -> solve(ReachingDefinitionsProblem::fromBlockGraph, manager.get(BLOCK_GRAPH, graph)));
+
+    public static final Analysis<GenKillResult> AVAILABLE_EXPRESSIONS =
+            new Analysis<>("available-expressions", EnumSet.allOf(GraphChange.class),
+                           (graph, manager) -> solve(AvailableExpressionsProblem::fromBlockGraph, manager.get(BLOCK_GRAPH, graph)));
+
+    private final String name;
+    private final Set<GraphChange> invalidatedBy;
+    private final BiFunction<FlowGraph, AnalysisManager, T> computation;
+
+    private Analysis(String name, Set<GraphChange> invalidatedBy, BiFunction<FlowGraph, AnalysisManager, T> computation) {
+        this.name = name;
+        this.invalidatedBy = invalidatedBy;
+        this.computation = computation;
+    }
+
+    /**
+     * Die Liveness-Analyse hängt zusätzlich von den Variablen des Programms ab.
+     * Der zurückgegebene Schlüssel muss für jede Abfrage wiederverwendet werden, sonst wird neu berechnet.
+     */
+    public static Analysis<LivenessAnalysis> liveness(Map<String, Integer> varMap) {
+        return new Analysis<>("liveness", EnumSet.allOf(GraphChange.class),
+                              (graph, manager) -> LivenessAnalysis.fromDataFlowGraph(manager.get(DATA_FLOW_GRAPH, graph), varMap));
+    }
+
+    private static GenKillResult solve(Function<BlockGraph, GenKillProblem> problem, BlockGraph blockGraph) {
+        return solve(problem, blockGraph, PARALLEL_BLOCKS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Löst parallel, wenn der Graph mindestens threshold Blöcke hat und mehr als ein Thread zur Verfügung steht.
+     */
+    static GenKillResult solve(Function<BlockGraph, GenKillProblem> problem, BlockGraph blockGraph, int threshold, int parallelism) {
+        final GenKillProblem genKillProblem = problem.apply(blockGraph);
+
+        if (parallelism > 1 && blockGraph.size() >= threshold) {
+            return GenKillSolver.solveParallel(blockGraph, genKillProblem, parallelism);
+        }
+
+        return GenKillSolver.solve(blockGraph, genKillProblem);
+    }
+
+    T compute(FlowGraph graph, AnalysisManager manager) {
+        return this.computation.apply(graph, manager);
+    }
+
+    public boolean isInvalidatedBy(GraphChange change) {
+        return this.invalidatedBy.contains(change);
+    }
+
+    // Getters
+
+    public String getName() {
+        return this.name;
+    }
+
+    // Overrides
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
@@ -0,0 +1,92 @@
+package codegen.analysis;
+
+import codegen.flowgraph.FlowGraph;
+import util.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Berechnet {@link Analysis}-Ergebnisse für {@link FlowGraph}s bei Bedarf und speichert sie zwischen.
+ * <p>
+ * Transformationen melden ihre Veränderungen über {@link #invalidate(FlowGraph, GraphChange)},
+ * dabei werden nur die Ergebnisse verworfen, die von der Art der Veränderung betroffen sind.
+ * Eine Transformation, die nur Instructions verändert, behält z.B. den {@link codegen.analysis.dominance.DominatorTree}.
+ * <p>
+ * Die Graphen werden über ihre Identität unterschieden und nur schwach referenziert,
+ * Ergebnisse nicht mehr verwendeter Graphen verschwinden also mit diesen.
+ */
+public final class AnalysisManager {
+
+    private final Map<FlowGraph, Map<Analysis<?>, Object>> cache;
+
+    private int computations;
+    private int hits;
+
+    public AnalysisManager() {
+        this.cache = new WeakHashMap<>();
+    }
+
+    /**
+     * Liefert das Ergebnis der Analyse, berechnet wird nur, wenn kein gültiges Ergebnis vorhanden ist.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Analysis<T> analysis, FlowGraph graph) {
+        final Map<Analysis<?>, Object> results = this.cache.computeIfAbsent(graph, key -> new HashMap<>());
+
+        if (results.containsKey(analysis)) {
+            this.hits++;
+            return (T) results.get(analysis);
+        }
+
+        Logger.logInfo(" :: Computing " + analysis, AnalysisManager.class);
+
+        // Nicht über computeIfAbsent, die Berechnung fragt eventuell weitere Analysen an
+        final T result = analysis.compute(graph, this);
+        this.cache.computeIfAbsent(graph, key -> new HashMap<>()).put(analysis, result);
+        this.computations++;
+
+        return result;
+    }
+
+    public boolean isCached(Analysis<?> analysis, FlowGraph graph) {
+        return this.cache.containsKey(graph) && this.cache.get(graph).containsKey(analysis);
+    }
+
+    /**
+     * Verwirft alle Ergebnisse, die durch die Veränderung ungültig werden.
+     */
+    public void invalidate(FlowGraph graph, GraphChange change) {
+        final Map<Analysis<?>, Object> results = this.cache.get(graph);
+
+        if (results != null) {
+            Logger.logInfo(" :: Invalidating analyses after " + change + " change", AnalysisManager.class);
+
+            results.keySet().removeIf(analysis -> analysis.isInvalidatedBy(change));
+        }
+    }
+
+    /**
+     * Verwirft alle Ergebnisse eines Graphen.
+     */
+    public void clear(FlowGraph graph) {
+        this.cache.remove(graph);
+    }
+
+    // Getters
+
+    /**
+     * Die Anzahl tatsächlich berechneter Analysen.
+     */
+    public int getComputations() {
+        return this.computations;
+    }
+
+    /**
+     * Die Anzahl der Abfragen, die aus dem Zwischenspeicher beantwortet wurden.
+     */
+    public int getHits() {
+        return this.hits;
+    }
+}
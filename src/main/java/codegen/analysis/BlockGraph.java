@@ -0,0 +1,133 @@
+package codegen.analysis;
+
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexbasierte Sicht auf die {@link FlowBasicBlock}s eines {@link FlowGraph}.
+ * Jeder Block bekommt seine Position im Graph als Index, die Kanten werden als int-Arrays gespeichert.
+ * Der Block mit Index 0 ist immer der Einstiegsblock.
+ * <p>
+ * Analysen arbeiten auf den Indizes, damit nicht für jede Kante über die HashSets der Blöcke gegangen werden muss.
+ */
+public final class BlockGraph {
+
+    private final List<FlowBasicBlock> blocks;
+    private final Map<FlowBasicBlock, Integer> indexMap;
+
+    /**
+     * Die Successor-Indizes jedes Blockes, aufsteigend sortiert.
+     */
+    private final int[][] successors;
+
+    /**
+     * Die Predecessor-Indizes jedes Blockes, aufsteigend sortiert.
+     */
+    private final int[][] predecessors;
+
+    private BlockGraph(List<FlowBasicBlock> blocks, Map<FlowBasicBlock, Integer> indexMap, int[][] successors, int[][] predecessors) {
+        this.blocks = blocks;
+        this.indexMap = indexMap;
+        this.successors = successors;
+        this.predecessors = predecessors;
+    }
+
+    public static BlockGraph fromFlowGraph(FlowGraph flowGraph) {
+        final List<FlowBasicBlock> blocks = new ArrayList<>();
+        flowGraph.forEach(blocks::add);
+
+        return fromBlocks(blocks);
+    }
+
+    /**
+     * @param blocks Die Blöcke in Programmreihenfolge, der erste Block ist der Einstiegsblock.
+     *               Kanten zu Blöcken, die nicht in der Liste enthalten sind, werden ignoriert.
+     */
+    public static BlockGraph fromBlocks(List<FlowBasicBlock> blocks) {
+        final int size = blocks.size();
+
+        final Map<FlowBasicBlock, Integer> indexMap = new HashMap<>(2 * size);
+        for (int i = 0; i < size; i++) {
+            indexMap.put(blocks.get(i), i);
+        }
+
+        final int[][] successors = new int[size][];
+        final int[][] predecessors = new int[size][];
+        for (int i = 0; i < size; i++) {
+            successors[i] = toSortedIndices(blocks.get(i).getBlockSuccessorSet(), indexMap);
+            predecessors[i] = toSortedIndices(blocks.get(i).getBlockPredecessorSet(), indexMap);
+        }
+
+        return new BlockGraph(Collections.unmodifiableList(blocks), indexMap, successors, predecessors);
+    }
+
+    private static int[] toSortedIndices(Iterable<FlowBasicBlock> blocks, Map<FlowBasicBlock, Integer> indexMap) {
+        int[] indices = new int[4];
+        int count = 0;
+
+        for (FlowBasicBlock block : blocks) {
+            final Integer index = indexMap.get(block);
+
+            if (index == null) {
+                continue;
+            }
+
+            if (count == indices.length) {
+                indices = Arrays.copyOf(indices, 2 * count);
+            }
+            indices[count] = index;
+            count++;
+        }
+
+        final int[] result = Arrays.copyOf(indices, count);
+        Arrays.sort(result);
+
+        return result;
+    }
+
+    // Getters
+
+    public int size() {
+        return this.blocks.size();
+    }
+
+    public boolean isEmpty() {
+        return this.blocks.isEmpty();
+    }
+
+    public FlowBasicBlock getBlock(int index) {
+        return this.blocks.get(index);
+    }
+
+    public List<FlowBasicBlock> getBlocks() {
+        return this.blocks;
+    }
+
+    /**
+     * @return Der Index des Blockes oder -1, wenn der Block nicht zu diesem Graph gehört.
+     */
+    public int indexOf(FlowBasicBlock block) {
+        return this.indexMap.getOrDefault(block, -1);
+    }
+
+    /**
+     * Das zurückgegebene Array darf nicht verändert werden.
+     */
+    public int[] getSuccessors(int index) {
+        return this.successors[index];
+    }
+
+    /**
+     * Das zurückgegebene Array darf nicht verändert werden.
+     */
+    public int[] getPredecessors(int index) {
+        return this.predecessors[index];
+    }
+}
@@ -0,0 +1,18 @@
+package codegen.analysis;
+
+/**
+ * Die Art der Veränderung, die eine Transformation an einem {@link codegen.flowgraph.FlowGraph} vornimmt.
+ * Bestimmt, welche zwischengespeicherten {@link Analysis}-Ergebnisse ungültig werden.
+ */
+public enum GraphChange {
+
+    /**
+     * Nur Instructions innerhalb der Blöcke wurden verändert, Blöcke und Sprungziele sind unverändert.
+     */
+    INSTRUCTIONS,
+
+    /**
+     * Blöcke wurden entfernt, hinzugefügt oder verschoben, oder Sprungziele wurden verändert.
+     */
+    CONTROL_FLOW
+}
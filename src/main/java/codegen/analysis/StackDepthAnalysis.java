@@ -0,0 +1,129 @@
+package codegen.analysis;
+
+import codegen.CodeGenerationException;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowInstruction;
+import util.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Ermittelt die Stacktiefe am Anfang und Ende jedes Blockes eines {@link FlowGraph}
+ * und die maximal benötigte Stacktiefe.
+ * Im Gegensatz zum {@link StackSizeAnalyzer} arbeitet die Analyse auf dem erzeugten Code,
+ * sie bleibt also auch nach Transformationen des Graphen korrekt.
+ */
+public final class StackDepthAnalysis {
+
+    private static final int UNREACHABLE = -1;
+
+    private final BlockGraph graph;
+    private final int[] entryDepth;
+    private final int[] exitDepth;
+    private final int maxDepth;
+
+    private StackDepthAnalysis(BlockGraph graph, int[] entryDepth, int[] exitDepth, int maxDepth) {
+        this.graph = graph;
+        this.entryDepth = entryDepth;
+        this.exitDepth = exitDepth;
+        this.maxDepth = maxDepth;
+    }
+
+    public static StackDepthAnalysis fromFlowGraph(FlowGraph flowGraph) {
+        return fromBlockGraph(BlockGraph.fromFlowGraph(flowGraph));
+    }
+
+    public static StackDepthAnalysis fromBlockGraph(BlockGraph graph) {
+        Logger.logDebug("Determining stack-depth of generated code", StackDepthAnalysis.class);
+
+        final int size = graph.size();
+        final int[] entryDepth = new int[size];
+        final int[] exitDepth = new int[size];
+        Arrays.fill(entryDepth, UNREACHABLE);
+        Arrays.fill(exitDepth, UNREACHABLE);
+
+        if (size == 0) {
+            return new StackDepthAnalysis(graph, entryDepth, exitDepth, 0);
+        }
+
+        final int[] worklist = new int[size];
+        int top = 0;
+        int maxDepth = 0;
+
+        entryDepth[0] = 0;
+        worklist[top] = 0;
+        top++;
+
+        while (top > 0) {
+            top--;
+            final int block = worklist[top];
+
+            int depth = entryDepth[block];
+            for (FlowInstruction instruction : graph.getBlock(block)) {
+                depth += stackEffect(instruction);
+
+                if (depth < 0) {
+                    throw new CodeGenerationException("Stack underflow at \"" + instruction.toString().trim() + "\"");
+                }
+                maxDepth = Math.max(maxDepth, depth);
+            }
+            exitDepth[block] = depth;
+
+            for (int successor : graph.getSuccessors(block)) {
+                if (entryDepth[successor] == UNREACHABLE) {
+                    entryDepth[successor] = depth;
+                    worklist[top] = successor;
+                    top++;
+                } else if (entryDepth[successor] != depth) {
+                    throw new CodeGenerationException("Inconsistent stack-depth at block \""
+                                                      + graph.getBlock(successor).getLabel() + "\": "
+                                                      + entryDepth[successor] + " and " + depth);
+                }
+            }
+        }
+
+        Logger.logDebug("Found maximal stack-depth " + maxDepth, StackDepthAnalysis.class);
+
+        return new StackDepthAnalysis(graph, entryDepth, exitDepth, maxDepth);
+    }
+
+    /**
+     * Die Veränderung der Stacktiefe durch eine Instruction.
+     */
+    public static int stackEffect(FlowInstruction instruction) {
+        return instruction.getStackEffect();
+    }
+
+    // Getters
+
+    public BlockGraph getBlockGraph() {
+        return this.graph;
+    }
+
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * @return Die Stacktiefe am Anfang des Blockes oder -1, wenn der Block unerreichbar ist.
+     */
+    public int getEntryDepth(int block) {
+        return this.entryDepth[block];
+    }
+
+    public int getEntryDepth(FlowBasicBlock block) {
+        return this.entryDepth[this.graph.indexOf(block)];
+    }
+
+    /**
+     * @return Die Stacktiefe am Ende des Blockes oder -1, wenn der Block unerreichbar ist.
+     */
+    public int getExitDepth(int block) {
+        return this.exitDepth[block];
+    }
+
+    public int getExitDepth(FlowBasicBlock block) {
+        return this.exitDepth[this.graph.indexOf(block)];
+    }
+}
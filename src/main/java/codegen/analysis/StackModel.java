@@ -1,6 +1,5 @@
 package codegen.analysis;
 
-import parser.ast.SyntaxTreeNode;
 import util.Logger;
 
 import java.util.ArrayDeque;
@@ -8,10 +7,11 @@ import java.util.Deque;
 
 /**
  * Simuliert den Laufzeit-Stack während einer Programmausführung.
+ * Auf dem Stack liegen die Indizes der Knoten im {@link parser.ast.CompactSyntaxTree}, die den Wert erzeugt haben.
  */
 public class StackModel {
 
-    private final Deque<SyntaxTreeNode> stack;
+    private final Deque<Integer> stack;
 
     /**
      * Speichert die maximale Stacktiefe während der Ausführung.
@@ -22,8 +22,8 @@ public class StackModel {
         this.stack = new ArrayDeque<>();
     }
 
-    public void push(SyntaxTreeNode root) {
-        this.stack.push(root);
+    public void push(int node) {
+        this.stack.push(node);
         this.updateMax();
     }
 
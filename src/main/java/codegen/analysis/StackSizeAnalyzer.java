@@ -1,102 +1,148 @@
 package codegen.analysis;
 
+import parser.ast.CompactSyntaxTree;
+import parser.ast.Operator;
+import parser.ast.SethiUllmanLabeling;
 import parser.ast.SyntaxTree;
-import parser.ast.SyntaxTreeNode;
+import parser.ast.SyntaxTreeCursor;
 import util.Logger;
 
 import java.util.Set;
 
 /**
  * Ermittelt die maximal benötigte Stacktiefe für ein Programm.
- * Das Programm wird übergeben als {@link SyntaxTree}.
+ * Das Programm wird übergeben als {@link CompactSyntaxTree} oder {@link SyntaxTree}.
+ * Die Auswertungsreihenfolge folgt dem Codegenerator, der rechte Operanden mit höherem
+ * Stackbedarf zuerst berechnet ({@link SethiUllmanLabeling#isRightFirst(parser.ast.SyntaxTreeNode)}).
  */
 public final class StackSizeAnalyzer {
 
     private static final Set<String> mod;
-    private static final Set<String> binaryOperators;
 
     static {
         mod = Set.of("assignment", "expr", "INTEGER_LIT", "BOOLEAN_LIT", "STRING_LIT", "IDENTIFIER", "print");
-        binaryOperators = Set.of("AND", "OR", "ADD", "SUB", "MUL", "DIV", "MOD", "LESS", "LESS_EQUAL", "GREATER", "GREATER_EQUAL", "EQUAL", "NOT_EQUAL");
     }
 
-    private StackSizeAnalyzer() {}
+    private final CompactSyntaxTree tree;
+    private final SyntaxTreeCursor cursor;
+    private final StackModel stack;
+
+    /**
+     * Die Sethi-Ullman-Zahlen aller Knoten.
+     */
+    private final int[] needs;
+
+    private StackSizeAnalyzer(CompactSyntaxTree tree) {
+        this.tree = tree;
+        this.cursor = tree.cursor();
+        this.stack = new StackModel();
+        this.needs = SethiUllmanLabeling.getNeeds(tree);
+    }
 
     public static int runStackModel(SyntaxTree tree) {
+        return runStackModel(CompactSyntaxTree.fromSyntaxTree(tree));
+    }
+
+    public static int runStackModel(CompactSyntaxTree tree) {
         Logger.logDebug("Determining minimal stack-depth", StackSizeAnalyzer.class);
 
-        final StackModel stack = new StackModel();
+        final StackSizeAnalyzer analyzer = new StackSizeAnalyzer(tree);
 
-        if (tree.getRoot().getChildren().size() > 1) {
+        if (tree.getChildCount(0) > 1) {
             // Or else main-method would be empty
 
-            runStackModel(tree.getRoot().getChildren().get(1), stack);
+            analyzer.cursor.toChild(1);
+            analyzer.runStackModel();
         }
 
-        Logger.logDebug("Found required stack-depth", StackSizeAnalyzer.class);
-        return stack.getMax();
+        Logger.logDebug("Found required stack-depth: " + analyzer.stack.getMax(), StackSizeAnalyzer.class);
+        return analyzer.stack.getMax();
     }
 
-    private static void runStackModel(SyntaxTreeNode root, StackModel stack) {
-        if (mod.contains(root.getName())) {
-            switch (root.getName()) {
-                case "assignment" -> assignment(root, stack);
-                case "INTEGER_LIT", "BOOLEAN_LIT", "STRING_LIT", "IDENTIFIER" -> literal(root, stack);
-                case "expr" -> expr(root, stack);
-                case "print" -> println(root, stack);
-                default -> throw new IllegalStateException("Unexpected value: " + root.getName());
-            }
-        } else {
-            for (SyntaxTreeNode child : root.getChildren()) {
-                runStackModel(child, stack);
+    /**
+     * Simuliert den Teilbaum unter dem Cursor, der Cursor steht danach wieder auf demselben Knoten.
+     */
+    private void runStackModel() {
+        if (mod.contains(this.cursor.getName())) {
+            switch (this.cursor.getName()) {
+                case "assignment" -> this.assignment();
+                case "INTEGER_LIT", "BOOLEAN_LIT", "STRING_LIT", "IDENTIFIER" -> this.literal();
+                case "expr" -> this.expr();
+                case "print" -> this.println();
+                default -> throw new IllegalStateException("Unexpected value: " + this.cursor.getName());
             }
+        } else if (this.cursor.toFirstChild()) {
+            do {
+                this.runStackModel();
+            } while (this.cursor.toNextSibling());
+
+            this.cursor.toParent();
         }
     }
 
+    /**
+     * Simuliert das i-te Kind des Knotens unter dem Cursor.
+     */
+    private void runChild(int i) {
+        this.cursor.toChild(i);
+        this.runStackModel();
+        this.cursor.toParent();
+    }
+
     // Simulate instructions
 
-    private static void literal(SyntaxTreeNode root, StackModel stack) {
-        stack.push(root);
+    private void literal() {
+        this.stack.push(this.cursor.getNode());
     }
 
-    private static void assignment(SyntaxTreeNode root, StackModel stack) {
-        runStackModel(root.getChildren().get(0), stack);
+    private void assignment() {
+        this.runChild(0);
 
-        stack.pop();
+        this.stack.pop();
     }
 
-    private static void println(SyntaxTreeNode root, StackModel stack) {
-        stack.push(root); // Getstatic
+    private void println() {
+        this.stack.push(this.cursor.getNode()); // Getstatic
 
-        runStackModel(root.getChildren().get(0).getChildren().get(0), stack);
+        this.cursor.toChild(0);
+        this.runChild(0);
+        this.cursor.toParent();
 
-        stack.pop(); // Objectref
-        stack.pop(); // Argument
+        this.stack.pop(); // Objectref
+        this.stack.pop(); // Argument
     }
 
-    private static void expr(SyntaxTreeNode root, StackModel stack) {
-        if (root.getChildren().size() == 2 && binaryOperators.contains(root.getValue())) {
-            // Expression with binary operator
+    private void expr() {
+        final int node = this.cursor.getNode();
+        final Operator operator = this.cursor.getOperator();
+        final int children = this.cursor.getChildCount();
+
+        if (operator == null || !operator.accepts(children)) {
+            return;
+        }
 
-            runStackModel(root.getChildren().get(0), stack);
-            runStackModel(root.getChildren().get(1), stack);
+        if (children == 2) {
+            // Expression with binary operator
 
-            stack.pop(); // Argument
-            stack.pop(); // Argument
-            stack.push(root); // Result
-        } else if (root.getChildren().size() == 1 && "NOT".equals(root.getValue())) {
-            // Expression with NOT
+            final boolean rightFirst = SethiUllmanLabeling.isRightFirst(this.tree, this.needs, node);
+            this.runChild(rightFirst ? 1 : 0);
+            this.runChild(rightFirst ? 0 : 1);
 
-            runStackModel(root.getChildren().get(0), stack);
+            // Ein swap ändert die Stacktiefe nicht
+            this.stack.pop(); // Argument
+            this.stack.pop(); // Argument
+            this.stack.push(node); // Result
+        } else {
+            // Expression with unary operator, NOT needs a 1 for xor
 
-            stack.push(new SyntaxTreeNode("1 (XOR)", 0)); // 1 for xor
-            stack.pop(); // xor
-            stack.pop(); // xor
-            stack.push(root); // result
-        } else if (root.getChildren().size() == 1) {
-            // Expression with other unary operators
+            this.runChild(0);
 
-            runStackModel(root.getChildren().get(0), stack);
+            for (int i = 0; i < operator.getExtraStack(); i++) {
+                this.stack.push(CompactSyntaxTree.NONE);
+            }
+            for (int i = 0; i < operator.getExtraStack(); i++) {
+                this.stack.pop();
+            }
         }
     }
 }
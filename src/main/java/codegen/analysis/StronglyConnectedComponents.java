@@ -0,0 +1,163 @@
+package codegen.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Die starken Zusammenhangskomponenten eines {@link BlockGraph} nach Tarjan.
+ * Jede Schleife liegt vollständig in einer Komponente, die Komponenten bilden zusammen einen azyklischen Graph.
+ * <p>
+ * Die Komponenten werden in umgekehrter topologischer Reihenfolge nummeriert:
+ * Kanten zwischen Komponenten führen immer von einer höheren zu einer niedrigeren Nummer.
+ */
+public final class StronglyConnectedComponents {
+
+    private static final int UNDEFINED = -1;
+
+    /**
+     * Die Komponente jedes Blockes.
+     */
+    private final int[] component;
+
+    /**
+     * Die Blöcke jeder Komponente liegen in members zwischen memberStart[c] und memberStart[c + 1], aufsteigend sortiert.
+     */
+    private final int[] memberStart;
+    private final int[] members;
+
+    private StronglyConnectedComponents(int[] component, int[] memberStart, int[] members) {
+        this.component = component;
+        this.memberStart = memberStart;
+        this.members = members;
+    }
+
+    /**
+     * Iterative Variante, damit auch sehr lange Blockketten keinen StackOverflow auslösen.
+     */
+    public static StronglyConnectedComponents fromBlockGraph(BlockGraph graph) {
+        final int size = graph.size();
+
+        final int[] component = new int[size];
+        final int[] number = new int[size];
+        final int[] lowlink = new int[size];
+        final boolean[] onStack = new boolean[size];
+        Arrays.fill(number, UNDEFINED);
+
+        final int[] sccStack = new int[size];
+        final int[] callStack = new int[size];
+        final int[] nextSuccessor = new int[size];
+        int sccTop = 0;
+        int counter = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < size; root++) {
+            if (number[root] != UNDEFINED) {
+                continue;
+            }
+
+            int callTop = 0;
+            callStack[callTop] = root;
+            callTop++;
+            number[root] = counter;
+            lowlink[root] = counter;
+            counter++;
+            sccStack[sccTop] = root;
+            sccTop++;
+            onStack[root] = true;
+
+            while (callTop > 0) {
+                final int current = callStack[callTop - 1];
+                final int[] successors = graph.getSuccessors(current);
+
+                if (nextSuccessor[current] < successors.length) {
+                    final int successor = successors[nextSuccessor[current]];
+                    nextSuccessor[current]++;
+
+                    if (number[successor] == UNDEFINED) {
+                        number[successor] = counter;
+                        lowlink[successor] = counter;
+                        counter++;
+                        sccStack[sccTop] = successor;
+                        sccTop++;
+                        onStack[successor] = true;
+
+                        callStack[callTop] = successor;
+                        callTop++;
+                    } else if (onStack[successor]) {
+                        lowlink[current] = Math.min(lowlink[current], number[successor]);
+                    }
+
+                    continue;
+                }
+
+                callTop--;
+
+                if (callTop > 0) {
+                    final int parent = callStack[callTop - 1];
+                    lowlink[parent] = Math.min(lowlink[parent], lowlink[current]);
+                }
+
+                if (lowlink[current] == number[current]) {
+                    // current ist die Wurzel einer Komponente
+
+                    int member;
+                    do {
+                        sccTop--;
+                        member = sccStack[sccTop];
+                        onStack[member] = false;
+                        component[member] = componentCount;
+                    } while (member != current);
+
+                    componentCount++;
+                }
+            }
+        }
+
+        // Blöcke nach Komponente gruppieren (Counting Sort, innerhalb einer Komponente aufsteigend)
+        final int[] memberStart = new int[componentCount + 1];
+        for (int block = 0; block < size; block++) {
+            memberStart[component[block] + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            memberStart[c + 1] += memberStart[c];
+        }
+
+        final int[] members = new int[size];
+        final int[] fill = Arrays.copyOf(memberStart, componentCount);
+        for (int block = 0; block < size; block++) {
+            members[fill[component[block]]] = block;
+            fill[component[block]]++;
+        }
+
+        return new StronglyConnectedComponents(component, memberStart, members);
+    }
+
+    // Getters
+
+    public int getComponentCount() {
+        return this.memberStart.length - 1;
+    }
+
+    public int getComponent(int block) {
+        return this.component[block];
+    }
+
+    public int[] getMembers(int component) {
+        return Arrays.copyOfRange(this.members, this.memberStart[component], this.memberStart[component + 1]);
+    }
+
+    public int getMemberCount(int component) {
+        return this.memberStart[component + 1] - this.memberStart[component];
+    }
+
+    /**
+     * Ob die Komponente einen Zyklus enthält, also eine Schleife oder ein Block mit Kante auf sich selbst ist.
+     */
+    public boolean isCyclic(BlockGraph graph, int component) {
+        if (this.getMemberCount(component) > 1) {
+            return true;
+        }
+
+        final int block = this.members[this.memberStart[component]];
+        return Arrays.binarySearch(graph.getSuccessors(block), block) >= 0;
+    }
+}
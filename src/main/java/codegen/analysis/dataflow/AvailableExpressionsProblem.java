@@ -0,0 +1,162 @@
+package codegen.analysis.dataflow;
+
+import codegen.analysis.BlockGraph;
+import codegen.flowgraph.FlowInstruction;
+import codegen.flowgraph.Opcode;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Available Expressions als {@link GenKillProblem}: Vorwärts, Schnitt.
+ * <p>
+ * Auf der Stackmaschine ist ein Ausdruck eine binäre Operation, deren beide Operanden direkt davor
+ * als Variable oder Konstante geladen werden (z.B. iload 1, iconst_2, iadd).
+ * Eine Zuweisung an eine der Variablen tötet den Ausdruck.
+ */
+public final class AvailableExpressionsProblem implements GenKillProblem {
+
+    private static final Set<String> binaryInstructions = Set.of("iadd", "isub", "imul", "idiv", "irem",
+                                                                 "iand", "ior", "ixor",
+                                                                 "ishl", "ishr", "iushr");
+
+    private final List<String> expressions;
+    private final BitSet[] gen;
+    private final BitSet[] kill;
+
+    private AvailableExpressionsProblem(List<String> expressions, BitSet[] gen, BitSet[] kill) {
+        this.expressions = expressions;
+        this.gen = gen;
+        this.kill = kill;
+    }
+
+    public static AvailableExpressionsProblem fromBlockGraph(BlockGraph graph) {
+        final List<String> expressions = new ArrayList<>();
+        final Map<String, Integer> expressionIndices = new HashMap<>();
+        final Map<Integer, BitSet> slotExpressions = new HashMap<>();
+
+        // Pro Block die Folge von Ereignissen: Ausdruck i ist >= 0, Zuweisung an Slot s ist -(s + 1)
+        final int[][] events = new int[graph.size()][];
+
+        for (int block = 0; block < graph.size(); block++) {
+            final List<FlowInstruction> instructions = LivenessProblem.instructionsOf(graph.getBlock(block));
+            final List<Integer> blockEvents = new ArrayList<>();
+
+            for (int i = 0; i < instructions.size(); i++) {
+                final FlowInstruction instruction = instructions.get(i);
+
+                if (LivenessProblem.isStore(instruction)) {
+                    blockEvents.add(-(LivenessProblem.slotOf(instruction) + 1));
+                } else if (i >= 2 && binaryInstructions.contains(instruction.getInstruction())
+                           && isOperand(instructions.get(i - 2)) && isOperand(instructions.get(i - 1))) {
+
+                    final FlowInstruction left = instructions.get(i - 2);
+                    final FlowInstruction right = instructions.get(i - 1);
+                    final String expression = operandString(left) + " " + instruction.getInstruction() + " " + operandString(right);
+
+                    final Integer known = expressionIndices.get(expression);
+                    final int index = known != null ? known : expressions.size();
+                    if (known == null) {
+                        expressionIndices.put(expression, index);
+                        expressions.add(expression);
+
+                        for (FlowInstruction operand : List.of(left, right)) {
+                            if (LivenessProblem.isLoad(operand)) {
+                                slotExpressions.computeIfAbsent(LivenessProblem.slotOf(operand), key -> new BitSet()).set(index);
+                            }
+                        }
+                    }
+
+                    blockEvents.add(index);
+                }
+            }
+
+            events[block] = blockEvents.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        final BitSet[] gen = new BitSet[graph.size()];
+        final BitSet[] kill = new BitSet[graph.size()];
+        final BitSet none = new BitSet();
+
+        for (int block = 0; block < graph.size(); block++) {
+            gen[block] = new BitSet();
+            kill[block] = new BitSet();
+
+            for (int event : events[block]) {
+                if (event >= 0) {
+                    gen[block].set(event);
+                } else {
+                    final BitSet killed = slotExpressions.getOrDefault(-event - 1, none);
+                    gen[block].andNot(killed);
+                    kill[block].or(killed);
+                }
+            }
+        }
+
+        return new AvailableExpressionsProblem(expressions, gen, kill);
+    }
+
+    private static boolean isOperand(FlowInstruction instruction) {
+        final Opcode opcode = instruction.getOpcode();
+
+        return opcode == Opcode.ILOAD || opcode == Opcode.LDC || opcode.isIntConstant();
+    }
+
+    private static String operandString(FlowInstruction instruction) {
+        final Opcode opcode = instruction.getOpcode();
+
+        if (opcode == Opcode.ILOAD) {
+            return "v" + instruction.getSlot();
+        }
+        if (opcode.isIntConstant()) {
+            return String.valueOf(opcode.getIntConstant(instruction.getOperand()));
+        }
+
+        return instruction.getArgs()[0];
+    }
+
+    // Getters
+
+    public int indexOf(String expression) {
+        return this.expressions.indexOf(expression);
+    }
+
+    @Override
+    public String getName() {
+        return "available-expressions";
+    }
+
+    @Override
+    public FlowDirection getDirection() {
+        return FlowDirection.FORWARD;
+    }
+
+    @Override
+    public MeetOperator getMeet() {
+        return MeetOperator.INTERSECTION;
+    }
+
+    @Override
+    public int getDomainSize() {
+        return this.expressions.size();
+    }
+
+    @Override
+    public BitSet getGen(int block) {
+        return this.gen[block];
+    }
+
+    @Override
+    public BitSet getKill(int block) {
+        return this.kill[block];
+    }
+
+    @Override
+    public String getElement(int index) {
+        return this.expressions.get(index);
+    }
+}
@@ -0,0 +1,43 @@
+package codegen.analysis.dataflow;
+
+import java.util.BitSet;
+
+/**
+ * Die Darstellung der Bitmengen, mit denen der {@link GenKillSolver} rechnet.
+ * Alle Operationen verändern nur das erste Argument.
+ *
+ * @param <S> Der Typ einer Bitmenge.
+ */
+public interface BitLattice<S> {
+
+    /**
+     * Bitmengen als {@link BitSet}, die Größe passt sich an das höchste gesetzte Bit an.
+     */
+    BitLattice<BitSet> BIT_SET = new BitSetLattice();
+
+    /**
+     * Bitmengen als long[] fester Länge, alle Operationen laufen ohne Allokation über die Wörter.
+     */
+    BitLattice<long[]> WORDS = new WordLattice();
+
+    S empty(int size);
+
+    S full(int size);
+
+    S fromBitSet(BitSet bits, int size);
+
+    BitSet toBitSet(S bits);
+
+    void assign(S target, S source);
+
+    void union(S target, S other);
+
+    void intersect(S target, S other);
+
+    /**
+     * Berechnet target = gen ∪ (source \ kill).
+     *
+     * @return Ob sich target dadurch verändert hat.
+     */
+    boolean transfer(S target, S source, S gen, S kill);
+}
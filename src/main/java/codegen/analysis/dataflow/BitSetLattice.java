@@ -0,0 +1,59 @@
+package codegen.analysis.dataflow;
+
+import java.util.BitSet;
+
+final class BitSetLattice implements BitLattice<BitSet> {
+
+    @Override
+    public BitSet empty(int size) {
+        return new BitSet(size);
+    }
+
+    @Override
+    public BitSet full(int size) {
+        final BitSet bits = new BitSet(size);
+        bits.set(0, size);
+
+        return bits;
+    }
+
+    @Override
+    public BitSet fromBitSet(BitSet bits, int size) {
+        return (BitSet) bits.clone();
+    }
+
+    @Override
+    public BitSet toBitSet(BitSet bits) {
+        return (BitSet) bits.clone();
+    }
+
+    @Override
+    public void assign(BitSet target, BitSet source) {
+        target.clear();
+        target.or(source);
+    }
+
+    @Override
+    public void union(BitSet target, BitSet other) {
+        target.or(other);
+    }
+
+    @Override
+    public void intersect(BitSet target, BitSet other) {
+        target.and(other);
+    }
+
+    @Override
+    public boolean transfer(BitSet target, BitSet source, BitSet gen, BitSet kill) {
+        final BitSet result = (BitSet) source.clone();
+        result.andNot(kill);
+        result.or(gen);
+
+        if (result.equals(target)) {
+            return false;
+        }
+
+        this.assign(target, result);
+        return true;
+    }
+}
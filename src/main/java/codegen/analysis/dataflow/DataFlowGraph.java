@@ -8,8 +8,10 @@ import util.Logger;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -29,16 +31,19 @@ public final class DataFlowGraph implements Iterable<DataFlowNode> {
         Logger.logDebug("Beginning data-flow-graph generation", DataFlowGraph.class);
 
         final List<DataFlowNode> dataFlowNodes = new ArrayList<>();
+        final Map<FlowInstruction, DataFlowNode> nodeMap = new HashMap<>();
 
         // Initialize all DataFlowNodes
         for (FlowBasicBlock basicBlock : flowGraph) {
             for (FlowInstruction instruction : basicBlock) {
-                dataFlowNodes.add(DataFlowNode.fromFlowNode(instruction));
+                final DataFlowNode node = DataFlowNode.fromFlowNode(instruction);
+                dataFlowNodes.add(node);
+                nodeMap.put(instruction, node);
             }
         }
 
         final DataFlowGraph dataFlowGraph = new DataFlowGraph(dataFlowNodes);
-        initNodePosition(flowGraph, dataFlowGraph);
+        initNodePosition(flowGraph, nodeMap);
 
         Logger.logDebug("Successfully generated data-flow-graph", DataFlowGraph.class);
 
@@ -49,33 +54,31 @@ public final class DataFlowGraph implements Iterable<DataFlowNode> {
      * Jeder {@link DataFlowNode} im {@link DataFlowGraph} wird anhand des {@link FlowGraph} positioniert.
      * Dabei werden für den Node die Predecessors und Successors gesetzt.
      */
-    private static void initNodePosition(FlowGraph flowGraph, DataFlowGraph dataFlowGraph) {
+    private static void initNodePosition(FlowGraph flowGraph, Map<FlowInstruction, DataFlowNode> nodeMap) {
         for (FlowBasicBlock basicBlock : flowGraph) {
             for (FlowInstruction instruction : basicBlock) {
 
-                final Optional<DataFlowNode> currentNode = getNodeByInstructionId(instruction, dataFlowGraph);
+                final Optional<DataFlowNode> currentNode = getNodeByInstruction(instruction, nodeMap);
 
                 if (currentNode.isEmpty()) {
                     continue;
                 }
 
                 for (FlowInstruction predecessor : basicBlock.getInstructionPredecessorSet(instruction)) {
-                    final Optional<DataFlowNode> currentPredecessor = getNodeByInstructionId(predecessor, dataFlowGraph);
+                    final Optional<DataFlowNode> currentPredecessor = getNodeByInstruction(predecessor, nodeMap);
                     currentPredecessor.ifPresent(dataFlowNode -> currentNode.get().addPredecessor(dataFlowNode));
                 }
 
                 for (FlowInstruction successor : basicBlock.getInstructionSuccessorSet(instruction)) {
-                    final Optional<DataFlowNode> currentSuccessor = getNodeByInstructionId(successor, dataFlowGraph);
+                    final Optional<DataFlowNode> currentSuccessor = getNodeByInstruction(successor, nodeMap);
                     currentSuccessor.ifPresent(dataFlowNode -> currentNode.get().addSuccessor(dataFlowNode));
                 }
             }
         }
     }
 
-    private static Optional<DataFlowNode> getNodeByInstructionId(FlowInstruction instruction, DataFlowGraph dataFlowGraph) {
-        return dataFlowGraph.stream()
-                            .filter(node -> node.getId().equals(instruction.getId()))
-                            .findFirst();
+    private static Optional<DataFlowNode> getNodeByInstruction(FlowInstruction instruction, Map<FlowInstruction, DataFlowNode> nodeMap) {
+        return Optional.ofNullable(nodeMap.get(instruction));
     }
 
     public static DataFlowGraph copy(DataFlowGraph dataFlowGraph) {
@@ -1,6 +1,7 @@
 package codegen.analysis.dataflow;
 
 import codegen.flowgraph.FlowInstruction;
+import codegen.flowgraph.Opcode;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -59,24 +60,13 @@ public final class DataFlowNode {
     }
 
     public static DataFlowNode fromFlowNode(FlowInstruction srcInst) {
-        final String instType = switch (srcInst.getInstruction()) {
-            case "aload", "iload" -> "use";
-            case "astore", "istore" -> "def";
-            case "goto", "ifeq",
-                    "if_icmpeq", "if_acmpeq", "if_icmpne", "if_acmpne",
-                    "if_icmplt", "if_icmple", "if_icmpgt", "if_icmpge" -> "jmp";
-            default -> "";
-        };
-
-        String use = "";
-        String def = "";
-        if ("use".equals(instType)) {
-            use = srcInst.getArgs()[0];
-        } else if ("def".equals(instType)) {
-            def = srcInst.getArgs()[0];
-        }
+        final Opcode opcode = srcInst.getOpcode();
+
+        // iinc liest und schreibt dieselbe Variable
+        final String use = opcode.isUse() ? String.valueOf(srcInst.getSlot()) : "";
+        final String def = opcode.isDef() ? String.valueOf(srcInst.getSlot()) : "";
 
-        return new DataFlowNode(srcInst.getId(), srcInst.getInstruction(), use, def);
+        return new DataFlowNode(UUID.randomUUID(), srcInst.getInstruction(), use, def);
     }
 
     // Getters, Setters
@@ -0,0 +1,17 @@
+package codegen.analysis.dataflow;
+
+/**
+ * Die Richtung, in der ein {@link GenKillProblem} die Werte durch den Kontrollflussgraph propagiert.
+ */
+public enum FlowDirection {
+
+    /**
+     * Von den Predecessors zu den Successors, z.B. Reaching Definitions.
+     */
+    FORWARD,
+
+    /**
+     * Von den Successors zu den Predecessors, z.B. Liveness.
+     */
+    BACKWARD
+}
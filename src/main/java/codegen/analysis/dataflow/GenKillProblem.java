@@ -0,0 +1,45 @@
+package codegen.analysis.dataflow;
+
+import java.util.BitSet;
+
+/**
+ * Ein Datenflussproblem, dessen Transferfunktion pro Block die Form out = gen ∪ (in \ kill) hat.
+ * Die Elemente der Mengen (Variablen, Definitionen, Ausdrücke) werden von 0 bis {@link #getDomainSize()} durchnummeriert,
+ * die Blöcke über die Indizes des {@link codegen.analysis.BlockGraph}.
+ * <p>
+ * Bei {@link FlowDirection#BACKWARD} sind "in" und "out" vertauscht, die Transferfunktion berechnet dann die
+ * in-Menge eines Blockes aus seiner out-Menge.
+ */
+public interface GenKillProblem {
+
+    String getName();
+
+    FlowDirection getDirection();
+
+    MeetOperator getMeet();
+
+    int getDomainSize();
+
+    /**
+     * Das zurückgegebene BitSet darf nicht verändert werden.
+     */
+    BitSet getGen(int block);
+
+    /**
+     * Das zurückgegebene BitSet darf nicht verändert werden.
+     */
+    BitSet getKill(int block);
+
+    /**
+     * Der Wert am Rand des Graphen: Vor dem Einstiegsblock bei Vorwärtsproblemen,
+     * hinter den Blöcken ohne Successor bei Rückwärtsproblemen.
+     */
+    default BitSet getBoundary() {
+        return new BitSet();
+    }
+
+    /**
+     * Eine lesbare Bezeichnung eines Elements, für Ausgaben und Tests.
+     */
+    String getElement(int index);
+}
@@ -0,0 +1,111 @@
+package codegen.analysis.dataflow;
+
+import codegen.analysis.BlockGraph;
+import codegen.flowgraph.FlowBasicBlock;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.Collectors;
+
+/**
+ * Die in- und out-Mengen jedes Blockes nach dem Lösen eines {@link GenKillProblem}.
+ * Bei Rückwärtsproblemen ist "in" trotzdem der Wert am Anfang des Blockes.
+ */
+public final class GenKillResult {
+
+    private final BlockGraph graph;
+    private final GenKillProblem problem;
+    private final BitSet[] in;
+    private final BitSet[] out;
+
+    /**
+     * Wie oft die Transferfunktion eines Blockes ausgewertet wurde.
+     */
+    private final int visits;
+
+    GenKillResult(BlockGraph graph, GenKillProblem problem, BitSet[] in, BitSet[] out, int visits) {
+        this.graph = graph;
+        this.problem = problem;
+        this.in = in;
+        this.out = out;
+        this.visits = visits;
+    }
+
+    // Getters
+
+    public GenKillProblem getProblem() {
+        return this.problem;
+    }
+
+    /**
+     * Das zurückgegebene BitSet darf nicht verändert werden.
+     */
+    public BitSet getIn(int block) {
+        return this.in[block];
+    }
+
+    /**
+     * Das zurückgegebene BitSet darf nicht verändert werden.
+     */
+    public BitSet getOut(int block) {
+        return this.out[block];
+    }
+
+    public BitSet getIn(FlowBasicBlock block) {
+        return this.in[this.graph.indexOf(block)];
+    }
+
+    public BitSet getOut(FlowBasicBlock block) {
+        return this.out[this.graph.indexOf(block)];
+    }
+
+    public int getVisits() {
+        return this.visits;
+    }
+
+    // Printing
+
+    public String printBlock(int block) {
+        return this.graph.getBlock(block).getLabel()
+               + ": in " + this.printSet(this.in[block])
+               + ", out " + this.printSet(this.out[block]);
+    }
+
+    private String printSet(BitSet bits) {
+        return bits.stream()
+                   .mapToObj(this.problem::getElement)
+                   .collect(Collectors.joining(", ", "{", "}"));
+    }
+
+    // Overrides
+
+    /**
+     * Zwei Ergebnisse sind gleich, wenn alle in- und out-Mengen bitweise übereinstimmen.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        final GenKillResult that = (GenKillResult) o;
+        return Arrays.equals(this.in, that.in) && Arrays.equals(this.out, that.out);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(this.in) + Arrays.hashCode(this.out);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder string = new StringBuilder(this.problem.getName()).append(":\n");
+        for (int block = 0; block < this.in.length; block++) {
+            string.append(this.printBlock(block)).append("\n");
+        }
+
+        return string.toString();
+    }
+}
@@ -0,0 +1,436 @@
+package codegen.analysis.dataflow;
+
+import codegen.analysis.BlockGraph;
+import codegen.analysis.StronglyConnectedComponents;
+import util.Logger;
+
+import java.util.BitSet;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Löst ein {@link GenKillProblem} auf dem {@link BlockGraph} mit einer Worklist.
+ * <p>
+ * Die Blöcke werden in Reverse-Postorder (vorwärts) bzw. Postorder (rückwärts) nummeriert, die Worklist ist eine
+ * Bitmenge über diese Nummern und wird reihum von vorne nach hinten abgearbeitet. Dadurch sind auf reduziblen Graphen
+ * beim Besuch eines Blockes fast immer alle Werte der Vorgänger (in Flussrichtung) schon aktuell.
+ * <p>
+ * Mit {@link #solveParallel(BlockGraph, GenKillProblem, BitLattice, int)} wird pro starker Zusammenhangskomponente
+ * eine eigene Worklist abgearbeitet, unabhängige Komponenten laufen dabei parallel.
+ *
+ * @param <S> Der Typ der Bitmengen, siehe {@link BitLattice}.
+ */
+public final class GenKillSolver<S> {
+
+    private final BlockGraph graph;
+    private final GenKillProblem problem;
+    private final BitLattice<S> lattice;
+
+    private final S[] gen;
+    private final S[] kill;
+    private final S boundary;
+
+    /**
+     * Der Wert am Anfang eines Blockes in Flussrichtung, also in bei Vorwärts- und out bei Rückwärtsproblemen.
+     */
+    private final S[] entry;
+
+    /**
+     * Der Wert am Ende eines Blockes in Flussrichtung.
+     */
+    private final S[] exit;
+
+    /**
+     * Die Komponente jedes Blockes, Worklist-Einträge werden nur innerhalb der eigenen Komponente erzeugt.
+     * Beim sequentiellen Lösen bilden alle Blöcke eine Komponente.
+     */
+    private int[] component;
+
+    /**
+     * Die Position jedes Blockes in der Bearbeitungsreihenfolge seiner Komponente.
+     */
+    private int[] position;
+
+    private final AtomicInteger visits;
+
+    @SuppressWarnings("unchecked")
+    private GenKillSolver(BlockGraph graph, GenKillProblem problem, BitLattice<S> lattice) {
+        this.graph = graph;
+        this.problem = problem;
+        this.lattice = lattice;
+        this.visits = new AtomicInteger();
+
+        final int size = graph.size();
+        final int domain = problem.getDomainSize();
+
+        this.gen = (S[]) new Object[size];
+        this.kill = (S[]) new Object[size];
+        this.entry = (S[]) new Object[size];
+        this.exit = (S[]) new Object[size];
+        this.boundary = lattice.fromBitSet(problem.getBoundary(), domain);
+
+        for (int block = 0; block < size; block++) {
+            this.gen[block] = lattice.fromBitSet(problem.getGen(block), domain);
+            this.kill[block] = lattice.fromBitSet(problem.getKill(block), domain);
+            this.entry[block] = lattice.empty(domain);
+            this.exit[block] = problem.getMeet() == MeetOperator.UNION ? lattice.empty(domain) : lattice.full(domain);
+        }
+    }
+
+    /**
+     * Löst das Problem mit {@link BitLattice#WORDS}.
+     */
+    public static GenKillResult solve(BlockGraph graph, GenKillProblem problem) {
+        return solve(graph, problem, BitLattice.WORDS);
+    }
+
+    public static <S> GenKillResult solve(BlockGraph graph, GenKillProblem problem, BitLattice<S> lattice) {
+        Logger.logDebug("Solving " + problem.getName() + " over " + graph.size() + " blocks", GenKillSolver.class);
+
+        final GenKillSolver<S> solver = new GenKillSolver<>(graph, problem, lattice);
+        final int[] order = solver.order();
+
+        solver.component = new int[graph.size()];
+        solver.position = new int[graph.size()];
+        for (int i = 0; i < order.length; i++) {
+            solver.position[order[i]] = i;
+        }
+
+        solver.solveComponent(order, 0);
+
+        Logger.logDebug("Solved " + problem.getName() + " with " + solver.visits.get() + " block visits", GenKillSolver.class);
+
+        return solver.toResult();
+    }
+
+    /**
+     * Löst das Problem mit {@link BitLattice#WORDS} parallel, siehe {@link #solveParallel(BlockGraph, GenKillProblem, BitLattice, int)}.
+     */
+    public static GenKillResult solveParallel(BlockGraph graph, GenKillProblem problem, int parallelism) {
+        return solveParallel(graph, problem, BitLattice.WORDS, parallelism);
+    }
+
+    /**
+     * Zerlegt den Graph in {@link StronglyConnectedComponents starke Zusammenhangskomponenten} und löst diese
+     * in topologischer Reihenfolge des Komponentengraphen. Komponenten, die nicht voneinander abhängen,
+     * werden parallel in einem {@link ForkJoinPool} gelöst.
+     * <p>
+     * Eine Komponente wird erst gestartet, wenn alle Komponenten, von denen sie Werte bekommt, fertig sind.
+     * Da der Fixpunkt eindeutig ist, ist das Ergebnis bitweise gleich dem von {@link #solve(BlockGraph, GenKillProblem, BitLattice)}.
+     *
+     * @param parallelism Die Anzahl der Threads im {@link ForkJoinPool}.
+     */
+    public static <S> GenKillResult solveParallel(BlockGraph graph, GenKillProblem problem, BitLattice<S> lattice, int parallelism) {
+        Logger.logDebug("Solving " + problem.getName() + " over " + graph.size() + " blocks with " + parallelism + " threads",
+                        GenKillSolver.class);
+
+        final GenKillSolver<S> solver = new GenKillSolver<>(graph, problem, lattice);
+        final StronglyConnectedComponents components = StronglyConnectedComponents.fromBlockGraph(graph);
+        final int count = components.getComponentCount();
+        final int[] order = solver.order();
+
+        // Die Blöcke jeder Komponente in globaler Bearbeitungsreihenfolge
+        solver.component = new int[graph.size()];
+        solver.position = new int[graph.size()];
+        final int[][] members = new int[count][];
+        for (int c = 0; c < count; c++) {
+            members[c] = new int[components.getMemberCount(c)];
+        }
+        final int[] fill = new int[count];
+        for (int block : order) {
+            final int c = components.getComponent(block);
+            solver.component[block] = c;
+            solver.position[block] = fill[c];
+            members[c][fill[c]] = block;
+            fill[c]++;
+        }
+
+        // Jede Kante zwischen Komponenten in Flussrichtung ist eine Abhängigkeit
+        final AtomicIntegerArray pending = new AtomicIntegerArray(count);
+        for (int block = 0; block < graph.size(); block++) {
+            for (int target : solver.targets(block)) {
+                if (solver.component[target] != solver.component[block]) {
+                    pending.incrementAndGet(solver.component[target]);
+                }
+            }
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(solver.new SolveRoots(null, members, pending));
+        } finally {
+            pool.shutdown();
+        }
+
+        Logger.logDebug("Solved " + problem.getName() + " in " + count + " components with " + solver.visits.get() + " block visits",
+                        GenKillSolver.class);
+
+        return solver.toResult();
+    }
+
+    /**
+     * Die Blöcke in der Reihenfolge, in der die Werte fließen. Nicht erreichbare Blöcke werden ebenfalls aufgenommen,
+     * damit z.B. Liveness auch für sie berechnet wird.
+     */
+    private int[] order() {
+        final int[] postorder = postorder(this.graph);
+
+        if (this.problem.getDirection() == FlowDirection.BACKWARD) {
+            return postorder;
+        }
+
+        final int[] reversePostorder = new int[postorder.length];
+        for (int i = 0; i < postorder.length; i++) {
+            reversePostorder[i] = postorder[postorder.length - 1 - i];
+        }
+
+        return reversePostorder;
+    }
+
+    /**
+     * Iterative Tiefensuche, zuerst vom Einstiegsblock, danach von jedem noch nicht besuchten Block.
+     *
+     * @return Alle Blöcke in Postorder.
+     */
+    static int[] postorder(BlockGraph graph) {
+        final int size = graph.size();
+        final int[] order = new int[size];
+        final boolean[] visited = new boolean[size];
+        final int[] stack = new int[size];
+        final int[] nextSuccessor = new int[size];
+        int count = 0;
+
+        for (int root = 0; root < size; root++) {
+            if (visited[root]) {
+                continue;
+            }
+
+            int top = 0;
+            stack[top] = root;
+            top++;
+            visited[root] = true;
+
+            while (top > 0) {
+                final int current = stack[top - 1];
+                final int[] successors = graph.getSuccessors(current);
+
+                if (nextSuccessor[current] < successors.length) {
+                    final int successor = successors[nextSuccessor[current]];
+                    nextSuccessor[current]++;
+
+                    if (!visited[successor]) {
+                        visited[successor] = true;
+                        stack[top] = successor;
+                        top++;
+                    }
+                } else {
+                    top--;
+                    order[count] = current;
+                    count++;
+                }
+            }
+        }
+
+        return order;
+    }
+
+    /**
+     * Bearbeitet die Blöcke einer Komponente bis zum Fixpunkt. Die Werte der anderen Komponenten werden nur gelesen.
+     *
+     * @param members Die Blöcke der Komponente in Bearbeitungsreihenfolge.
+     */
+    private void solveComponent(int[] members, int id) {
+        final BitSet worklist = new BitSet(members.length);
+        worklist.set(0, members.length);
+
+        int next = 0;
+        int visited = 0;
+        while (!worklist.isEmpty()) {
+            next = worklist.nextSetBit(next);
+            if (next == -1) {
+                next = worklist.nextSetBit(0);
+            }
+            worklist.clear(next);
+
+            final int block = members[next];
+            visited++;
+
+            if (this.visit(block)) {
+                for (int dependent : this.targets(block)) {
+                    if (this.component[dependent] == id) {
+                        worklist.set(this.position[dependent]);
+                    }
+                }
+            }
+        }
+
+        this.visits.addAndGet(visited);
+    }
+
+    /**
+     * Löst eine bereite Komponente und gibt die Komponenten frei, die nur noch auf sie gewartet haben.
+     * Die letzte freigegebene Komponente wird direkt weiterbearbeitet, die anderen werden als eigene Tasks abgespalten.
+     */
+    private void solveFrom(CountedCompleter<?> owner, int start, int[][] members, AtomicIntegerArray pending) {
+        int current = start;
+
+        while (current != -1) {
+            this.solveComponent(members[current], current);
+
+            int next = -1;
+            for (int block : members[current]) {
+                for (int target : this.targets(block)) {
+                    final int dependent = this.component[target];
+
+                    if (dependent != current && pending.decrementAndGet(dependent) == 0) {
+                        if (next != -1) {
+                            owner.addToPendingCount(1);
+                            new SolveComponent(owner, next, members, pending).fork();
+                        }
+                        next = dependent;
+                    }
+                }
+            }
+
+            current = next;
+        }
+    }
+
+    /**
+     * Berechnet den Wert am Anfang des Blockes aus den Nachbarn und wendet die Transferfunktion an.
+     *
+     * @return Ob sich der Wert am Ende des Blockes verändert hat.
+     */
+    private boolean visit(int block) {
+        final S value = this.entry[block];
+        final int[] sources = this.sources(block);
+
+        if (this.isBoundary(block)) {
+            this.lattice.assign(value, this.boundary);
+            this.meet(value, sources, 0);
+        } else if (sources.length > 0) {
+            this.lattice.assign(value, this.exit[sources[0]]);
+            this.meet(value, sources, 1);
+        } else {
+            // Ohne Nachbarn bleibt der Startwert der Meet-Operation
+            this.lattice.assign(value, this.problem.getMeet() == MeetOperator.UNION
+                                       ? this.lattice.empty(this.problem.getDomainSize())
+                                       : this.lattice.full(this.problem.getDomainSize()));
+        }
+
+        return this.lattice.transfer(this.exit[block], value, this.gen[block], this.kill[block]);
+    }
+
+    private void meet(S value, int[] sources, int from) {
+        for (int i = from; i < sources.length; i++) {
+            if (this.problem.getMeet() == MeetOperator.UNION) {
+                this.lattice.union(value, this.exit[sources[i]]);
+            } else {
+                this.lattice.intersect(value, this.exit[sources[i]]);
+            }
+        }
+    }
+
+    private boolean isBoundary(int block) {
+        return this.problem.getDirection() == FlowDirection.FORWARD
+               ? block == 0
+               : this.graph.getSuccessors(block).length == 0;
+    }
+
+    /**
+     * Die Blöcke, deren Werte am Anfang dieses Blockes zusammengeführt werden.
+     */
+    private int[] sources(int block) {
+        return this.problem.getDirection() == FlowDirection.FORWARD
+               ? this.graph.getPredecessors(block)
+               : this.graph.getSuccessors(block);
+    }
+
+    /**
+     * Die Blöcke, die von einer Änderung am Ende dieses Blockes betroffen sind.
+     */
+    private int[] targets(int block) {
+        return this.problem.getDirection() == FlowDirection.FORWARD
+               ? this.graph.getSuccessors(block)
+               : this.graph.getPredecessors(block);
+    }
+
+    private GenKillResult toResult() {
+        final int size = this.graph.size();
+        final BitSet[] in = new BitSet[size];
+        final BitSet[] out = new BitSet[size];
+
+        for (int block = 0; block < size; block++) {
+            final BitSet entryBits = this.lattice.toBitSet(this.entry[block]);
+            final BitSet exitBits = this.lattice.toBitSet(this.exit[block]);
+
+            if (this.problem.getDirection() == FlowDirection.FORWARD) {
+                in[block] = entryBits;
+                out[block] = exitBits;
+            } else {
+                in[block] = exitBits;
+                out[block] = entryBits;
+            }
+        }
+
+        return new GenKillResult(this.graph, this.problem, in, out, this.visits.get());
+    }
+
+    /**
+     * Startet alle Komponenten, die von keiner anderen abhängen.
+     * Der Wurzeltask ist erst abgeschlossen, wenn alle davon ausgehenden Tasks fertig sind.
+     */
+    private final class SolveRoots extends CountedCompleter<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] members;
+        private final AtomicIntegerArray pending;
+
+        private SolveRoots(CountedCompleter<?> completer, int[][] members, AtomicIntegerArray pending) {
+            super(completer);
+            this.members = members;
+            this.pending = pending;
+        }
+
+        @Override
+        public void compute() {
+            // Die Wurzeln werden vor dem ersten Lösen gesammelt, sonst könnte eine freigegebene Komponente doppelt starten
+            final int[] roots = IntStream.range(0, this.members.length)
+                                         .filter(c -> this.pending.get(c) == 0)
+                                         .toArray();
+
+            for (int root : roots) {
+                this.addToPendingCount(1);
+                new SolveComponent(this, root, this.members, this.pending).fork();
+            }
+
+            this.tryComplete();
+        }
+    }
+
+    private final class SolveComponent extends CountedCompleter<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int[][] members;
+        private final AtomicIntegerArray pending;
+
+        private SolveComponent(CountedCompleter<?> completer, int start, int[][] members, AtomicIntegerArray pending) {
+            super(completer);
+            this.start = start;
+            this.members = members;
+            this.pending = pending;
+        }
+
+        @Override
+        public void compute() {
+            GenKillSolver.this.solveFrom(this, this.start, this.members, this.pending);
+            this.tryComplete();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package codegen.analysis.dataflow;
+
+import codegen.analysis.BlockGraph;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowInstruction;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Liveness als {@link GenKillProblem}: Rückwärts, Vereinigung, die Elemente sind die Slots der lokalen Variablen.
+ * gen enthält die Variablen, die im Block vor ihrer ersten Zuweisung gelesen werden, kill alle zugewiesenen Variablen.
+ */
+public final class LivenessProblem implements GenKillProblem {
+
+    private final int slotCount;
+    private final BitSet[] gen;
+    private final BitSet[] kill;
+
+    private LivenessProblem(int slotCount, BitSet[] gen, BitSet[] kill) {
+        this.slotCount = slotCount;
+        this.gen = gen;
+        this.kill = kill;
+    }
+
+    public static LivenessProblem fromBlockGraph(BlockGraph graph) {
+        final BitSet[] gen = new BitSet[graph.size()];
+        final BitSet[] kill = new BitSet[graph.size()];
+        int slotCount = 0;
+
+        for (int block = 0; block < graph.size(); block++) {
+            gen[block] = new BitSet();
+            kill[block] = new BitSet();
+
+            final List<FlowInstruction> instructions = instructionsOf(graph.getBlock(block));
+
+            // Rückwärts, damit eine spätere Zuweisung eine frühere Verwendung nicht verdeckt
+            for (int i = instructions.size() - 1; i >= 0; i--) {
+                final FlowInstruction instruction = instructions.get(i);
+                final int slot = slotOf(instruction);
+
+                if (slot == -1) {
+                    continue;
+                }
+
+                slotCount = Math.max(slotCount, slot + 1);
+
+                if (isStore(instruction)) {
+                    gen[block].clear(slot);
+                    kill[block].set(slot);
+                }
+                if (isLoad(instruction)) {
+                    gen[block].set(slot);
+                }
+            }
+        }
+
+        return new LivenessProblem(slotCount, gen, kill);
+    }
+
+    static List<FlowInstruction> instructionsOf(FlowBasicBlock block) {
+        final List<FlowInstruction> instructions = new ArrayList<>(block.getInstructionCount());
+        block.forEach(instructions::add);
+
+        return instructions;
+    }
+
+    /**
+     * @return Der Slot der Variable, die gelesen oder geschrieben wird, oder -1.
+     */
+    static int slotOf(FlowInstruction instruction) {
+        return instruction.getSlot();
+    }
+
+    static boolean isLoad(FlowInstruction instruction) {
+        return instruction.getOpcode().isUse();
+    }
+
+    static boolean isStore(FlowInstruction instruction) {
+        return instruction.getOpcode().isDef();
+    }
+
+    // Getters
+
+    @Override
+    public String getName() {
+        return "liveness";
+    }
+
+    @Override
+    public FlowDirection getDirection() {
+        return FlowDirection.BACKWARD;
+    }
+
+    @Override
+    public MeetOperator getMeet() {
+        return MeetOperator.UNION;
+    }
+
+    @Override
+    public int getDomainSize() {
+        return this.slotCount;
+    }
+
+    @Override
+    public BitSet getGen(int block) {
+        return this.gen[block];
+    }
+
+    @Override
+    public BitSet getKill(int block) {
+        return this.kill[block];
+    }
+
+    @Override
+    public String getElement(int index) {
+        return String.valueOf(index);
+    }
+}
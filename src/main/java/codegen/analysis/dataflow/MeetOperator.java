@@ -0,0 +1,17 @@
+package codegen.analysis.dataflow;
+
+/**
+ * Der Operator, mit dem die Werte mehrerer Kanten an einem Block zusammengeführt werden.
+ */
+public enum MeetOperator {
+
+    /**
+     * "Auf irgendeinem Pfad", der Startwert ist die leere Menge.
+     */
+    UNION,
+
+    /**
+     * "Auf allen Pfaden", der Startwert ist die volle Menge.
+     */
+    INTERSECTION
+}
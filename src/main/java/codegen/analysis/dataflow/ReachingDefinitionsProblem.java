@@ -0,0 +1,123 @@
+package codegen.analysis.dataflow;
+
+import codegen.analysis.BlockGraph;
+import codegen.flowgraph.FlowInstruction;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reaching Definitions als {@link GenKillProblem}: Vorwärts, Vereinigung,
+ * die Elemente sind alle Zuweisungen an lokale Variablen in Programmreihenfolge.
+ * gen enthält die letzte Zuweisung jeder Variable im Block, kill alle anderen Zuweisungen an diese Variablen.
+ */
+public final class ReachingDefinitionsProblem implements GenKillProblem {
+
+    private final List<FlowInstruction> definitions;
+    private final int[] definitionSlots;
+    private final BitSet[] gen;
+    private final BitSet[] kill;
+
+    private ReachingDefinitionsProblem(List<FlowInstruction> definitions, int[] definitionSlots, BitSet[] gen, BitSet[] kill) {
+        this.definitions = definitions;
+        this.definitionSlots = definitionSlots;
+        this.gen = gen;
+        this.kill = kill;
+    }
+
+    public static ReachingDefinitionsProblem fromBlockGraph(BlockGraph graph) {
+        final List<FlowInstruction> definitions = new ArrayList<>();
+        final List<Integer> slots = new ArrayList<>();
+        final Map<Integer, BitSet> slotDefinitions = new HashMap<>();
+        final int[][] blockDefinitions = new int[graph.size()][];
+
+        // Definitionen durchnummerieren
+        for (int block = 0; block < graph.size(); block++) {
+            final List<Integer> inBlock = new ArrayList<>();
+
+            for (FlowInstruction instruction : graph.getBlock(block)) {
+                if (!LivenessProblem.isStore(instruction)) {
+                    continue;
+                }
+
+                final int slot = LivenessProblem.slotOf(instruction);
+                inBlock.add(definitions.size());
+                slotDefinitions.computeIfAbsent(slot, key -> new BitSet()).set(definitions.size());
+                definitions.add(instruction);
+                slots.add(slot);
+            }
+
+            blockDefinitions[block] = inBlock.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        final int[] definitionSlots = slots.stream().mapToInt(Integer::intValue).toArray();
+        final BitSet[] gen = new BitSet[graph.size()];
+        final BitSet[] kill = new BitSet[graph.size()];
+
+        for (int block = 0; block < graph.size(); block++) {
+            gen[block] = new BitSet();
+            kill[block] = new BitSet();
+
+            for (int definition : blockDefinitions[block]) {
+                final BitSet sameSlot = slotDefinitions.get(definitionSlots[definition]);
+
+                // Eine spätere Zuweisung im Block verdeckt die früheren
+                gen[block].andNot(sameSlot);
+                gen[block].set(definition);
+                kill[block].or(sameSlot);
+            }
+
+            kill[block].andNot(gen[block]);
+        }
+
+        return new ReachingDefinitionsProblem(definitions, definitionSlots, gen, kill);
+    }
+
+    // Getters
+
+    public FlowInstruction getDefinition(int index) {
+        return this.definitions.get(index);
+    }
+
+    public int getSlot(int index) {
+        return this.definitionSlots[index];
+    }
+
+    @Override
+    public String getName() {
+        return "reaching-definitions";
+    }
+
+    @Override
+    public FlowDirection getDirection() {
+        return FlowDirection.FORWARD;
+    }
+
+    @Override
+    public MeetOperator getMeet() {
+        return MeetOperator.UNION;
+    }
+
+    @Override
+    public int getDomainSize() {
+        return this.definitions.size();
+    }
+
+    @Override
+    public BitSet getGen(int block) {
+        return this.gen[block];
+    }
+
+    @Override
+    public BitSet getKill(int block) {
+        return this.kill[block];
+    }
+
+    @Override
+    public String getElement(int index) {
+        return "d" + index + " (" + this.definitions.get(index).getInstruction() + " " + this.definitionSlots[index] + ")";
+    }
+}
@@ -0,0 +1,74 @@
+package codegen.analysis.dataflow;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+final class WordLattice implements BitLattice<long[]> {
+
+    private static int wordCount(int size) {
+        return (size + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    @Override
+    public long[] empty(int size) {
+        return new long[wordCount(size)];
+    }
+
+    @Override
+    public long[] full(int size) {
+        final long[] words = new long[wordCount(size)];
+        Arrays.fill(words, -1L);
+
+        // Die Bits hinter dem letzten Element bleiben leer, sonst unterscheiden sich gleiche Mengen
+        if (size % Long.SIZE != 0) {
+            words[words.length - 1] = -1L >>> (Long.SIZE - size % Long.SIZE);
+        }
+
+        return words;
+    }
+
+    @Override
+    public long[] fromBitSet(BitSet bits, int size) {
+        return Arrays.copyOf(bits.toLongArray(), wordCount(size));
+    }
+
+    @Override
+    public BitSet toBitSet(long[] bits) {
+        return BitSet.valueOf(bits);
+    }
+
+    @Override
+    public void assign(long[] target, long[] source) {
+        System.arraycopy(source, 0, target, 0, target.length);
+    }
+
+    @Override
+    public void union(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] |= other[i];
+        }
+    }
+
+    @Override
+    public void intersect(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= other[i];
+        }
+    }
+
+    @Override
+    public boolean transfer(long[] target, long[] source, long[] gen, long[] kill) {
+        boolean change = false;
+
+        for (int i = 0; i < target.length; i++) {
+            final long word = gen[i] | (source[i] & ~kill[i]);
+
+            if (word != target[i]) {
+                target[i] = word;
+                change = true;
+            }
+        }
+
+        return change;
+    }
+}
@@ -0,0 +1,420 @@
+package codegen.analysis.dominance;
+
+import codegen.analysis.BlockGraph;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import util.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Berechnet die Dominatoren der {@link FlowBasicBlock}s eines {@link FlowGraph}.
+ * Ein Block A dominiert einen Block B, wenn jeder Pfad vom Einstiegsblock zu B über A führt.
+ * <p>
+ * Verwendet wird der iterative Algorithmus von Cooper, Harvey und Kennedy
+ * ("A Simple, Fast Dominance Algorithm") auf den Indizes eines {@link BlockGraph}.
+ * Die Blöcke werden in Reverse-Postorder bearbeitet, dadurch reichen auf reduziblen Graphen wenige Durchläufe.
+ * Aus dem Baum werden außerdem die Dominance-Frontiers bestimmt.
+ */
+public final class DominatorTree {
+
+    private static final int UNDEFINED = -1;
+
+    private final BlockGraph graph;
+
+    /**
+     * Der unmittelbare Dominator jedes Blockes, -1 für den Einstiegsblock und unerreichbare Blöcke.
+     */
+    private final int[] idom;
+
+    /**
+     * Die erreichbaren Blöcke in Reverse-Postorder des {@link BlockGraph}.
+     */
+    private final int[] reversePostorder;
+
+    // Kinder im Dominatorbaum, zusammenhängend gespeichert: Kinder von b sind children[childStart[b]..childStart[b + 1])
+    private final int[] childStart;
+    private final int[] children;
+
+    // Prä-/Postorder-Nummern im Dominatorbaum, für dominates() in O(1)
+    private final int[] treePreorder;
+    private final int[] treePostorder;
+    private final int[] treeDepth;
+
+    // Dominance-Frontiers, gespeichert wie die Kinder
+    private final int[] frontierStart;
+    private final int[] frontiers;
+
+    private DominatorTree(BlockGraph graph, int[] idom, int[] reversePostorder,
+                          int[] childStart, int[] children,
+                          int[] treePreorder, int[] treePostorder, int[] treeDepth,
+                          int[] frontierStart, int[] frontiers) {
+        this.graph = graph;
+        this.idom = idom;
+        this.reversePostorder = reversePostorder;
+        this.childStart = childStart;
+        this.children = children;
+        this.treePreorder = treePreorder;
+        this.treePostorder = treePostorder;
+        this.treeDepth = treeDepth;
+        this.frontierStart = frontierStart;
+        this.frontiers = frontiers;
+    }
+
+    public static DominatorTree fromFlowGraph(FlowGraph flowGraph) {
+        return fromBlockGraph(BlockGraph.fromFlowGraph(flowGraph));
+    }
+
+    public static DominatorTree fromBlockGraph(BlockGraph graph) {
+        Logger.logDebug("Calculating dominator-tree for " + graph.size() + " blocks", DominatorTree.class);
+
+        final int size = graph.size();
+
+        final int[] postorder = postorder(graph);
+        final int[] postorderNumber = new int[size];
+        Arrays.fill(postorderNumber, UNDEFINED);
+        for (int i = 0; i < postorder.length; i++) {
+            postorderNumber[postorder[i]] = i;
+        }
+
+        final int[] reversePostorder = new int[postorder.length];
+        for (int i = 0; i < postorder.length; i++) {
+            reversePostorder[i] = postorder[postorder.length - 1 - i];
+        }
+
+        final int[] idom = calculateIdom(graph, reversePostorder, postorderNumber);
+
+        // Kinder im Dominatorbaum
+        final int[] childStart = new int[size + 1];
+        for (int block = 0; block < size; block++) {
+            if (idom[block] != UNDEFINED) {
+                childStart[idom[block] + 1]++;
+            }
+        }
+        for (int block = 0; block < size; block++) {
+            childStart[block + 1] += childStart[block];
+        }
+        final int[] children = new int[childStart[size]];
+        final int[] fill = Arrays.copyOf(childStart, size);
+        for (int block : reversePostorder) {
+            if (idom[block] != UNDEFINED) {
+                children[fill[idom[block]]] = block;
+                fill[idom[block]]++;
+            }
+        }
+
+        // Prä-/Postorder im Dominatorbaum
+        final int[] treePreorder = new int[size];
+        final int[] treePostorder = new int[size];
+        final int[] treeDepth = new int[size];
+        Arrays.fill(treePreorder, UNDEFINED);
+        Arrays.fill(treePostorder, UNDEFINED);
+        Arrays.fill(treeDepth, UNDEFINED);
+        if (size > 0) {
+            numberTree(childStart, children, treePreorder, treePostorder, treeDepth);
+        }
+
+        final int[] frontierStart = new int[size + 1];
+        final int[] frontiers = calculateFrontiers(graph, idom, postorderNumber, frontierStart);
+
+        Logger.logDebug("Successfully calculated dominator-tree", DominatorTree.class);
+
+        return new DominatorTree(graph, idom, reversePostorder, childStart, children,
+                                 treePreorder, treePostorder, treeDepth, frontierStart, frontiers);
+    }
+
+    /**
+     * Iterative Tiefensuche vom Einstiegsblock, damit auch sehr lange Blockketten keinen StackOverflow auslösen.
+     *
+     * @return Die erreichbaren Blöcke in Postorder.
+     */
+    private static int[] postorder(BlockGraph graph) {
+        final int size = graph.size();
+        final int[] order = new int[size];
+        int count = 0;
+
+        if (size == 0) {
+            return order;
+        }
+
+        final boolean[] visited = new boolean[size];
+        final int[] stack = new int[size];
+        final int[] nextSuccessor = new int[size];
+        int top = 0;
+
+        stack[top] = 0;
+        top++;
+        visited[0] = true;
+
+        while (top > 0) {
+            final int current = stack[top - 1];
+            final int[] successors = graph.getSuccessors(current);
+
+            if (nextSuccessor[current] < successors.length) {
+                final int successor = successors[nextSuccessor[current]];
+                nextSuccessor[current]++;
+
+                if (!visited[successor]) {
+                    visited[successor] = true;
+                    stack[top] = successor;
+                    top++;
+                }
+            } else {
+                top--;
+                order[count] = current;
+                count++;
+            }
+        }
+
+        return Arrays.copyOf(order, count);
+    }
+
+    private static int[] calculateIdom(BlockGraph graph, int[] reversePostorder, int[] postorderNumber) {
+        final int[] idom = new int[graph.size()];
+        Arrays.fill(idom, UNDEFINED);
+
+        if (reversePostorder.length == 0) {
+            return idom;
+        }
+
+        final int entry = reversePostorder[0];
+        idom[entry] = entry;
+
+        boolean change;
+        int rounds = 0;
+
+        do {
+            change = false;
+            rounds++;
+
+            for (int i = 1; i < reversePostorder.length; i++) {
+                final int block = reversePostorder[i];
+                int newIdom = UNDEFINED;
+
+                for (int predecessor : graph.getPredecessors(block)) {
+                    if (idom[predecessor] == UNDEFINED) {
+                        // Noch nicht bearbeitet oder unerreichbar
+
+                        continue;
+                    }
+
+                    newIdom = newIdom == UNDEFINED ? predecessor : intersect(predecessor, newIdom, idom, postorderNumber);
+                }
+
+                if (idom[block] != newIdom) {
+                    idom[block] = newIdom;
+                    change = true;
+                }
+            }
+        } while (change);
+
+        Logger.logInfo(" :: Dominators converged after " + rounds + " rounds", DominatorTree.class);
+
+        idom[entry] = UNDEFINED;
+
+        return idom;
+    }
+
+    /**
+     * Läuft von beiden Blöcken im (bisherigen) Dominatorbaum nach oben, bis sich die Pfade treffen.
+     */
+    private static int intersect(int left, int right, int[] idom, int[] postorderNumber) {
+        int finger1 = left;
+        int finger2 = right;
+
+        while (finger1 != finger2) {
+            while (postorderNumber[finger1] < postorderNumber[finger2]) {
+                finger1 = idom[finger1];
+            }
+            while (postorderNumber[finger2] < postorderNumber[finger1]) {
+                finger2 = idom[finger2];
+            }
+        }
+
+        return finger1;
+    }
+
+    private static void numberTree(int[] childStart, int[] children, int[] preorder, int[] postorder, int[] depth) {
+        final int size = preorder.length;
+        final int[] stack = new int[size];
+        final int[] nextChild = new int[size];
+        int top = 0;
+        int preCounter = 0;
+        int postCounter = 0;
+
+        stack[top] = 0;
+        top++;
+        preorder[0] = preCounter;
+        preCounter++;
+        depth[0] = 0;
+        nextChild[0] = childStart[0];
+
+        while (top > 0) {
+            final int current = stack[top - 1];
+
+            if (nextChild[current] < childStart[current + 1]) {
+                final int child = children[nextChild[current]];
+                nextChild[current]++;
+
+                preorder[child] = preCounter;
+                preCounter++;
+                depth[child] = depth[current] + 1;
+                nextChild[child] = childStart[child];
+
+                stack[top] = child;
+                top++;
+            } else {
+                top--;
+                postorder[current] = postCounter;
+                postCounter++;
+            }
+        }
+    }
+
+    /**
+     * Ein Block B liegt in der Dominance-Frontier von A, wenn A einen Predecessor von B dominiert,
+     * aber B selbst nicht strikt dominiert.
+     * Nur Blöcke mit mehreren Predecessors können in einer Frontier liegen.
+     */
+    private static int[] calculateFrontiers(BlockGraph graph, int[] idom, int[] postorderNumber, int[] frontierStart) {
+        final int size = graph.size();
+
+        // Paare (runner, block) sammeln
+        int[] owners = new int[16];
+        int[] members = new int[16];
+        int count = 0;
+
+        // Verhindert doppelte Einträge, wenn mehrere Predecessors über denselben runner laufen
+        final int[] lastAdded = new int[size];
+        Arrays.fill(lastAdded, UNDEFINED);
+
+        for (int block = 0; block < size; block++) {
+            final int[] predecessors = graph.getPredecessors(block);
+
+            if (predecessors.length < 2 || postorderNumber[block] == UNDEFINED) {
+                continue;
+            }
+
+            for (int predecessor : predecessors) {
+                if (postorderNumber[predecessor] == UNDEFINED) {
+                    continue;
+                }
+
+                int runner = predecessor;
+                while (runner != UNDEFINED && runner != idom[block]) {
+                    if (lastAdded[runner] != block) {
+                        lastAdded[runner] = block;
+
+                        if (count == owners.length) {
+                            owners = Arrays.copyOf(owners, 2 * count);
+                            members = Arrays.copyOf(members, 2 * count);
+                        }
+                        owners[count] = runner;
+                        members[count] = block;
+                        count++;
+                    }
+
+                    runner = idom[runner];
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            frontierStart[owners[i] + 1]++;
+        }
+        for (int block = 0; block < size; block++) {
+            frontierStart[block + 1] += frontierStart[block];
+        }
+
+        final int[] frontiers = new int[count];
+        final int[] fill = Arrays.copyOf(frontierStart, size);
+        for (int i = 0; i < count; i++) {
+            frontiers[fill[owners[i]]] = members[i];
+            fill[owners[i]]++;
+        }
+
+        return frontiers;
+    }
+
+    // Queries
+
+    public boolean isReachable(int block) {
+        return this.treePreorder[block] != UNDEFINED;
+    }
+
+    /**
+     * @return Der unmittelbare Dominator oder -1 für den Einstiegsblock und unerreichbare Blöcke.
+     */
+    public int getImmediateDominator(int block) {
+        return this.idom[block];
+    }
+
+    /**
+     * Ermittelt ob a den Block b dominiert, jeder Block dominiert sich selbst.
+     */
+    public boolean dominates(int a, int b) {
+        if (!this.isReachable(a) || !this.isReachable(b)) {
+            return false;
+        }
+
+        return this.treePreorder[a] <= this.treePreorder[b] && this.treePostorder[b] <= this.treePostorder[a];
+    }
+
+    public boolean strictlyDominates(int a, int b) {
+        return a != b && this.dominates(a, b);
+    }
+
+    public boolean dominates(FlowBasicBlock a, FlowBasicBlock b) {
+        final int indexA = this.graph.indexOf(a);
+        final int indexB = this.graph.indexOf(b);
+
+        return indexA != UNDEFINED && indexB != UNDEFINED && this.dominates(indexA, indexB);
+    }
+
+    /**
+     * Die Kinder eines Blockes im Dominatorbaum, in Reverse-Postorder des Flussgraphen.
+     */
+    public int[] getChildren(int block) {
+        return Arrays.copyOfRange(this.children, this.childStart[block], this.childStart[block + 1]);
+    }
+
+    /**
+     * Die Dominance-Frontier eines Blockes.
+     */
+    public int[] getDominanceFrontier(int block) {
+        return Arrays.copyOfRange(this.frontiers, this.frontierStart[block], this.frontierStart[block + 1]);
+    }
+
+    /**
+     * @return Die Tiefe im Dominatorbaum (Einstiegsblock: 0) oder -1 für unerreichbare Blöcke.
+     */
+    public int getDepth(int block) {
+        return this.treeDepth[block];
+    }
+
+    /**
+     * Die erreichbaren Blöcke in Reverse-Postorder, der Einstiegsblock steht vorne.
+     */
+    public int[] getReversePostorder() {
+        return this.reversePostorder.clone();
+    }
+
+    /**
+     * Die erreichbaren Blöcke in Präorder des Dominatorbaumes, jeder Dominator steht vor den dominierten Blöcken.
+     */
+    public int[] getTreePreorder() {
+        final int[] order = new int[this.reversePostorder.length];
+
+        for (int block = 0; block < this.treePreorder.length; block++) {
+            if (this.treePreorder[block] != UNDEFINED) {
+                order[this.treePreorder[block]] = block;
+            }
+        }
+
+        return order;
+    }
+
+    public BlockGraph getBlockGraph() {
+        return this.graph;
+    }
+}
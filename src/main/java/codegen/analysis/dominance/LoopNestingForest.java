@@ -0,0 +1,232 @@
+package codegen.analysis.dominance;
+
+import codegen.analysis.BlockGraph;
+import codegen.flowgraph.FlowBasicBlock;
+import util.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Bestimmt die natürlichen Schleifen eines Flussgraphen und ihre Verschachtelung.
+ * Eine Schleife wird durch eine Rückwärtskante (Latch -> Header) erkannt, bei der der Header den Latch dominiert.
+ * Schleifen mit dem gleichen Header werden zusammengefasst.
+ * <p>
+ * Die Header werden von innen nach außen bearbeitet (absteigende Präorder im Dominatorbaum).
+ * Trifft die Rückwärtssuche auf einen Block einer inneren Schleife, wird direkt zu deren äußerstem Header gesprungen,
+ * jeder Block wird dadurch insgesamt nur wenige Male besucht.
+ * Irreduzible Schleifen (ohne dominierenden Header) werden nicht erkannt.
+ */
+public final class LoopNestingForest {
+
+    private static final int NONE = -1;
+
+    /**
+     * Der Header der innersten Schleife, die einen Block enthält, oder -1.
+     */
+    private final int[] innermostLoop;
+
+    /**
+     * Für jeden Header der Header der umgebenden Schleife, oder -1.
+     */
+    private final int[] parentLoop;
+
+    /**
+     * Die Schleifentiefe jedes Blockes, 0 außerhalb von Schleifen.
+     */
+    private final int[] loopDepth;
+
+    private final int[] headers;
+
+    private final BlockGraph graph;
+
+    private LoopNestingForest(BlockGraph graph, int[] innermostLoop, int[] parentLoop, int[] loopDepth, int[] headers) {
+        this.graph = graph;
+        this.innermostLoop = innermostLoop;
+        this.parentLoop = parentLoop;
+        this.loopDepth = loopDepth;
+        this.headers = headers;
+    }
+
+    public static LoopNestingForest fromDominatorTree(DominatorTree dominatorTree) {
+        Logger.logDebug("Calculating loop-nesting-forest", LoopNestingForest.class);
+
+        final BlockGraph graph = dominatorTree.getBlockGraph();
+        final int size = graph.size();
+
+        final int[] innermostLoop = new int[size];
+        final int[] parentLoop = new int[size];
+        Arrays.fill(innermostLoop, NONE);
+        Arrays.fill(parentLoop, NONE);
+
+        // Header in Präorder des Dominatorbaumes: Äußere Header stehen vor inneren
+        final int[] preorder = dominatorTree.getTreePreorder();
+        int[] headers = new int[8];
+        int headerCount = 0;
+        for (int block : preorder) {
+            if (hasBackEdge(block, graph, dominatorTree)) {
+                if (headerCount == headers.length) {
+                    headers = Arrays.copyOf(headers, 2 * headerCount);
+                }
+                headers[headerCount] = block;
+                headerCount++;
+            }
+        }
+        headers = Arrays.copyOf(headers, headerCount);
+
+        int[] worklist = new int[Math.max(size, 1)];
+
+        // Innere Schleifen zuerst
+        for (int i = headerCount - 1; i >= 0; i--) {
+            final int header = headers[i];
+            int top = 0;
+
+            innermostLoop[header] = header;
+
+            worklist = ensureCapacity(worklist, graph.getPredecessors(header).length);
+            for (int predecessor : graph.getPredecessors(header)) {
+                if (dominatorTree.dominates(header, predecessor)) {
+                    worklist[top] = predecessor;
+                    top++;
+                }
+            }
+
+            while (top > 0) {
+                top--;
+                final int block = worklist[top];
+
+                if (!dominatorTree.isReachable(block)) {
+                    continue;
+                }
+
+                if (innermostLoop[block] == NONE) {
+                    // Neuer Block im Schleifenkörper
+
+                    innermostLoop[block] = header;
+                    worklist = ensureCapacity(worklist, top + graph.getPredecessors(block).length);
+                    top = pushPredecessors(block, graph, worklist, top);
+                    continue;
+                }
+
+                final int outermost = outermostLoop(innermostLoop[block], parentLoop);
+                if (outermost != header) {
+                    // Innere Schleife gefunden, diese hängt jetzt unter dem aktuellen Header
+
+                    parentLoop[outermost] = header;
+                    worklist = ensureCapacity(worklist, top + graph.getPredecessors(outermost).length);
+                    top = pushPredecessors(outermost, graph, worklist, top);
+                }
+            }
+        }
+
+        // Tiefe der Header von außen nach innen, danach die der übrigen Blöcke
+        final int[] loopDepth = new int[size];
+        for (int header : headers) {
+            loopDepth[header] = parentLoop[header] == NONE ? 1 : loopDepth[parentLoop[header]] + 1;
+        }
+        for (int block = 0; block < size; block++) {
+            if (innermostLoop[block] != NONE) {
+                loopDepth[block] = loopDepth[innermostLoop[block]];
+            }
+        }
+
+        Logger.logDebug("Found " + headerCount + " loops", LoopNestingForest.class);
+
+        return new LoopNestingForest(graph, innermostLoop, parentLoop, loopDepth, headers);
+    }
+
+    private static boolean hasBackEdge(int block, BlockGraph graph, DominatorTree dominatorTree) {
+        for (int predecessor : graph.getPredecessors(block)) {
+            if (dominatorTree.dominates(block, predecessor)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static int[] ensureCapacity(int[] worklist, int capacity) {
+        if (capacity <= worklist.length) {
+            return worklist;
+        }
+
+        return Arrays.copyOf(worklist, Math.max(capacity, 2 * worklist.length));
+    }
+
+    private static int pushPredecessors(int block, BlockGraph graph, int[] worklist, int top) {
+        int newTop = top;
+
+        for (int predecessor : graph.getPredecessors(block)) {
+            worklist[newTop] = predecessor;
+            newTop++;
+        }
+
+        return newTop;
+    }
+
+    private static int outermostLoop(int header, int[] parentLoop) {
+        int current = header;
+
+        while (parentLoop[current] != NONE) {
+            current = parentLoop[current];
+        }
+
+        return current;
+    }
+
+    // Queries
+
+    /**
+     * @return Die Anzahl der Schleifen, die den Block enthalten.
+     */
+    public int getLoopDepth(int block) {
+        return this.loopDepth[block];
+    }
+
+    public int getLoopDepth(FlowBasicBlock block) {
+        final int index = this.graph.indexOf(block);
+
+        return index == NONE ? 0 : this.loopDepth[index];
+    }
+
+    public boolean isLoopHeader(int block) {
+        return this.innermostLoop[block] == block;
+    }
+
+    /**
+     * @return Der Header der innersten Schleife, die den Block enthält, oder -1.
+     */
+    public int getInnermostLoop(int block) {
+        return this.innermostLoop[block];
+    }
+
+    /**
+     * @return Der Header der umgebenden Schleife, oder -1 für äußerste Schleifen.
+     */
+    public int getParentLoop(int header) {
+        return this.parentLoop[header];
+    }
+
+    /**
+     * Ermittelt ob ein Block im Körper der Schleife mit dem angegebenen Header liegt.
+     */
+    public boolean isInLoop(int block, int header) {
+        int current = this.innermostLoop[block];
+
+        while (current != NONE) {
+            if (current == header) {
+                return true;
+            }
+
+            current = this.parentLoop[current];
+        }
+
+        return false;
+    }
+
+    /**
+     * Alle Schleifenheader, äußere Header vor inneren.
+     */
+    public int[] getLoopHeaders() {
+        return this.headers.clone();
+    }
+}
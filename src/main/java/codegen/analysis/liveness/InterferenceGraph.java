@@ -6,10 +6,10 @@ import util.GraphvizCaller;
 import util.Logger;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Stream;
 
 public final class InterferenceGraph implements Iterable<InterferenceNode> {
@@ -24,10 +24,13 @@ public final class InterferenceGraph implements Iterable<InterferenceNode> {
         Logger.logDebug("Generating interference-graph", InterferenceGraph.class);
 
         final List<InterferenceNode> interferenceNodes = new ArrayList<>();
+        final Map<String, InterferenceNode> symbolNodes = new HashMap<>();
 
         // Init graph
         for (int symbol : varMap.values()) {
-            interferenceNodes.add(new InterferenceNode(symbol));
+            final InterferenceNode interferenceNode = new InterferenceNode(symbol);
+            interferenceNodes.add(interferenceNode);
+            symbolNodes.putIfAbsent(interferenceNode.getSymbol(), interferenceNode);
         }
 
         final InterferenceGraph interferenceGraph = new InterferenceGraph(interferenceNodes);
@@ -36,13 +39,16 @@ public final class InterferenceGraph implements Iterable<InterferenceNode> {
         for (DataFlowNode node : dataFlowGraph) {
 
             for (String left : node.getOutSet()) {
-                for (String right : node.getOutSet()) {
+                final InterferenceNode leftNode = symbolNodes.get(left);
+                if (leftNode == null) {
+                    continue;
+                }
 
-                    final Optional<InterferenceNode> leftNode = getNodeBySymbol(left, interferenceGraph);
-                    final Optional<InterferenceNode> rightNode = getNodeBySymbol(right, interferenceGraph);
+                for (String right : node.getOutSet()) {
+                    final InterferenceNode rightNode = symbolNodes.get(right);
 
-                    if (leftNode.isPresent() && rightNode.isPresent()) {
-                        final boolean change = leftNode.get().addNeighbour(rightNode.get());
+                    if (rightNode != null) {
+                        final boolean change = leftNode.addNeighbour(rightNode);
                         Logger.logInfoIfTrue(change, "Added interference neighbour: " + left + " -> " + right, InterferenceGraph.class);
                     }
 
@@ -55,10 +61,17 @@ public final class InterferenceGraph implements Iterable<InterferenceNode> {
         return interferenceGraph;
     }
 
-    private static Optional<InterferenceNode> getNodeBySymbol(String symbol, InterferenceGraph interferenceGraph) {
-        return interferenceGraph.stream()
-                                .filter(node -> node.getSymbol().equals(symbol))
-                                .findFirst();
+    /**
+     * Erzeugt einen Graph aus bereits verbundenen Nodes, z.B. für synthetische Graphen in Benchmarks.
+     */
+    public static InterferenceGraph fromNodes(List<InterferenceNode> interferenceNodes) {
+        return new InterferenceGraph(new ArrayList<>(interferenceNodes));
+    }
+
+    // Getters
+
+    public int size() {
+        return this.interferenceNodes.size();
     }
 
     public Stream<InterferenceNode> stream() {
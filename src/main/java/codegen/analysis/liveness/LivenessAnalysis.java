@@ -16,17 +16,25 @@ import java.util.Map;
 public final class LivenessAnalysis {
 
     private final InterferenceGraph interferenceGraph;
+    private final DataFlowGraph dataFlowGraph;
+    private final Map<String, Integer> varMap;
 
-    private LivenessAnalysis(InterferenceGraph interferenceGraph) {
+    private RegisterColoring registerColoring;
+
+    private LivenessAnalysis(InterferenceGraph interferenceGraph, DataFlowGraph dataFlowGraph, Map<String, Integer> varMap) {
         this.interferenceGraph = interferenceGraph;
+        this.dataFlowGraph = dataFlowGraph;
+        this.varMap = varMap;
     }
 
+    /**
+     * Die in/out-Mengen werden direkt in den Nodes des übergebenen {@link DataFlowGraph} berechnet.
+     * Eine Kopie des Graphen hätte die Nodes ohnehin geteilt, wiederholtes Berechnen ändert die Mengen nicht mehr.
+     */
     public static LivenessAnalysis fromDataFlowGraph(DataFlowGraph dataFlowGraph, Map<String, Integer> varMap) {
-        final DataFlowGraph livenessDataFlowGraph = DataFlowGraph.copy(dataFlowGraph);
+        calculateLivenessInOut(dataFlowGraph);
 
-        calculateLivenessInOut(livenessDataFlowGraph);
-
-        return new LivenessAnalysis(InterferenceGraph.fromDataFlowGraph(livenessDataFlowGraph, varMap));
+        return new LivenessAnalysis(InterferenceGraph.fromDataFlowGraph(dataFlowGraph, varMap), dataFlowGraph, varMap);
     }
 
     private static void calculateLivenessInOut(DataFlowGraph dataFlowGraph) {
@@ -38,13 +46,9 @@ public final class LivenessAnalysis {
             change = false;
 
             for (DataFlowNode node : dataFlowGraph) {
-                if (dataFlowGraph.indexOf(node) == dataFlowGraph.size() - 1) {
-                    // Skip END
-
-                    continue;
-                }
+                // Auch der letzte Node wird berechnet, er ist nicht immer das return (z.B. ein goto zurück in eine Schleife)
 
-                change = change || calculateLivenessInOutNode(node);
+                change = calculateLivenessInOutNode(node) || change;
             }
         } while (change);
 
@@ -70,13 +74,38 @@ public final class LivenessAnalysis {
     }
 
     /**
-     * Führt die Liveness-Analyse auf dem gespeicherten {@link InterferenceGraph} durch.
-     * Die Registeranzahl wird durch naive Färbung des InterferenzGraphen ermittelt.
+     * Ermittelt die Registeranzahl durch {@link RegisterColoring Chaitin-Briggs-Färbung} mit Zusammenlegen von Kopien.
      */
     public int doLivenessAnalysis() {
+        return this.getRegisterColoring().getRegisterCount();
+    }
+
+    public RegisterColoring getRegisterColoring() {
+        if (this.registerColoring == null) {
+            this.registerColoring = RegisterColoring.fromDataFlowGraph(this.dataFlowGraph, this.varMap);
+        }
+
+        return this.registerColoring;
+    }
+
+    /**
+     * Führt die Liveness-Analyse auf dem gespeicherten {@link InterferenceGraph} durch.
+     * Die Registeranzahl wird durch naive Färbung des InterferenzGraphen in Iterationsreihenfolge ermittelt.
+     */
+    public int doGreedyColoring() {
         return this.colorInterferenceGraph();
     }
 
+    /**
+     * Färbt den gespeicherten {@link InterferenceGraph} parallel nach Jones und Plassmann.
+     * Das Ergebnis hängt nur vom Seed ab, nicht von der Threadanzahl.
+     *
+     * @see ParallelGraphColoring
+     */
+    public int doParallelColoring(long seed, int parallelism) {
+        return ParallelGraphColoring.color(this.interferenceGraph, seed, parallelism);
+    }
+
     private int colorInterferenceGraph() {
         Logger.logDebug("Coloring interference-graph", LivenessAnalysis.class);
 
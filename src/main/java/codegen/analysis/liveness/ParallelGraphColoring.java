@@ -0,0 +1,258 @@
+package codegen.analysis.liveness;
+
+import util.Logger;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parallele Färbung eines {@link InterferenceGraph} nach Jones und Plassmann.
+ * <p>
+ * Jeder Node bekommt eine zufällige Priorität aus einem festen Seed. Ein Node wird gefärbt, sobald alle Nachbarn
+ * mit höherer Priorität gefärbt sind, und nimmt die kleinste Farbe, die keiner dieser Nachbarn hat.
+ * Nachbarn mit niedrigerer Priorität warten auf ihn, es wird also nie gleichzeitig an benachbarten Nodes gearbeitet.
+ * <p>
+ * Die Farbe eines Nodes hängt damit nur von den Prioritäten ab und nicht von der Reihenfolge der Threads,
+ * das Ergebnis ist für einen Seed bei jeder Threadanzahl gleich.
+ */
+public final class ParallelGraphColoring {
+
+    /**
+     * Der Seed für die Prioritäten, wenn kein bestimmter gebraucht wird (z.B. "-liveness -parallel").
+     */
+    public static final long DEFAULT_SEED = 0;
+
+    private final int[][] adjacency;
+    private final long[] priority;
+    private final int[] colors;
+
+    /**
+     * Die Anzahl der Nachbarn mit höherer Priorität, die noch nicht gefärbt sind.
+     */
+    private final AtomicIntegerArray waiting;
+
+    private ParallelGraphColoring(int[][] adjacency, long[] priority) {
+        this.adjacency = adjacency;
+        this.priority = priority;
+        this.colors = new int[adjacency.length];
+        this.waiting = new AtomicIntegerArray(adjacency.length);
+    }
+
+    /**
+     * Färbt den Graph und setzt die Farben (beginnend bei 1) in den {@link InterferenceNode}s.
+     *
+     * @param parallelism Die Anzahl der Threads im {@link ForkJoinPool}.
+     * @return Die Anzahl der verwendeten Farben.
+     */
+    public static int color(InterferenceGraph graph, long seed, int parallelism) {
+        Logger.logDebug("Coloring interference-graph with " + parallelism + " threads", ParallelGraphColoring.class);
+
+        final List<InterferenceNode> nodes = graph.stream().collect(Collectors.toUnmodifiableList());
+        final Map<InterferenceNode, Integer> indices = new HashMap<>(2 * nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            indices.put(nodes.get(i), i);
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final int[][] adjacency = pool.submit(() -> IntStream.range(0, nodes.size())
+                                                                 .parallel()
+                                                                 .mapToObj(i -> nodes.get(i).getNeighbourSet().stream()
+                                                                                     .mapToInt(indices::get)
+                                                                                     .toArray())
+                                                                 .toArray(int[][]::new)).join();
+
+            final int[] colors = color(adjacency, seed, pool);
+
+            for (int i = 0; i < colors.length; i++) {
+                nodes.get(i).setColor(colors[i]);
+            }
+
+            final int colorCount = IntStream.of(colors).max().orElse(0);
+
+            Logger.logDebug("Successfully colored interference-graph with " + colorCount + " colors", ParallelGraphColoring.class);
+
+            return colorCount;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Färbt einen Graph in Adjazenzlisten-Darstellung, die Listen müssen symmetrisch sein.
+     *
+     * @return Die Farbe jedes Nodes, beginnend bei 1.
+     */
+    static int[] color(int[][] adjacency, long seed, ForkJoinPool pool) {
+        final int size = adjacency.length;
+
+        // Die Prioritäten werden sequentiell gezogen, damit sie nicht von der Aufteilung abhängen.
+        // Der Index in den unteren Bits macht sie eindeutig.
+        final SplittableRandom random = new SplittableRandom(seed);
+        final long[] priority = new long[size];
+        for (int i = 0; i < size; i++) {
+            priority[i] = ((long) random.nextInt() << 32) | i;
+        }
+
+        final ParallelGraphColoring coloring = new ParallelGraphColoring(adjacency, priority);
+        pool.invoke(coloring.new Initialize(0, size));
+        pool.invoke(coloring.new ColorRoots(null, 0, size));
+
+        return coloring.colors;
+    }
+
+    private boolean higher(int node, int other) {
+        return this.priority[node] > this.priority[other];
+    }
+
+    /**
+     * Färbt einen Node mit der kleinsten Farbe, die kein Nachbar mit höherer Priorität hat.
+     * Diese sind alle bereits gefärbt, Nachbarn mit niedrigerer Priorität noch nicht.
+     */
+    private void colorNode(int node) {
+        final int[] neighbours = this.adjacency[node];
+        final BitSet used = new BitSet(neighbours.length + 2);
+
+        for (int neighbour : neighbours) {
+            if (this.higher(neighbour, node)) {
+                used.set(this.colors[neighbour]);
+            }
+        }
+
+        this.colors[node] = used.nextClearBit(1);
+    }
+
+    /**
+     * Zählt für jeden Node die Nachbarn mit höherer Priorität.
+     */
+    private final class Initialize extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final int THRESHOLD = 4096;
+
+        private final int from;
+        private final int to;
+
+        private Initialize(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > THRESHOLD) {
+                final int middle = (this.from + this.to) >>> 1;
+                invokeAll(new Initialize(this.from, middle), new Initialize(middle, this.to));
+                return;
+            }
+
+            for (int node = this.from; node < this.to; node++) {
+                int count = 0;
+                for (int neighbour : ParallelGraphColoring.this.adjacency[node]) {
+                    if (ParallelGraphColoring.this.higher(neighbour, node)) {
+                        count++;
+                    }
+                }
+                ParallelGraphColoring.this.waiting.set(node, count);
+            }
+        }
+    }
+
+    /**
+     * Färbt ab einem freigegebenen Node. Der letzte freigegebene Nachbar wird direkt weiterbearbeitet,
+     * die anderen werden als eigene Tasks abgespalten und beim Besitzer als ausstehend gezählt.
+     */
+    private void colorFrom(CountedCompleter<?> owner, int start) {
+        int node = start;
+
+        while (node != -1) {
+            this.colorNode(node);
+
+            int next = -1;
+            for (int neighbour : this.adjacency[node]) {
+                if (this.higher(node, neighbour) && this.waiting.decrementAndGet(neighbour) == 0) {
+                    if (next != -1) {
+                        owner.addToPendingCount(1);
+                        new ColorNode(owner, next).fork();
+                    }
+                    next = neighbour;
+                }
+            }
+
+            node = next;
+        }
+    }
+
+    /**
+     * Startet die Färbung an allen Nodes ohne Nachbarn höherer Priorität.
+     * Der Wurzeltask ist erst abgeschlossen, wenn alle davon ausgehenden Tasks fertig sind.
+     */
+    private final class ColorRoots extends CountedCompleter<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final int THRESHOLD = 4096;
+
+        private final int from;
+        private int to;
+
+        private ColorRoots(CountedCompleter<?> completer, int from, int to) {
+            super(completer);
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void compute() {
+            while (this.to - this.from > THRESHOLD) {
+                final int middle = (this.from + this.to) >>> 1;
+                this.addToPendingCount(1);
+                new ColorRoots(this, middle, this.to).fork();
+                this.to = middle;
+            }
+
+            for (int node = this.from; node < this.to; node++) {
+                if (this.isRoot(node)) {
+                    ParallelGraphColoring.this.colorFrom(this, node);
+                }
+            }
+
+            this.tryComplete();
+        }
+
+        private boolean isRoot(int node) {
+            return ParallelGraphColoring.this.waiting.get(node) == 0
+                   && Arrays.stream(ParallelGraphColoring.this.adjacency[node])
+                            .noneMatch(neighbour -> ParallelGraphColoring.this.higher(neighbour, node));
+        }
+    }
+
+    private final class ColorNode extends CountedCompleter<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+
+        private ColorNode(CountedCompleter<?> completer, int start) {
+            super(completer);
+            this.start = start;
+        }
+
+        @Override
+        public void compute() {
+            ParallelGraphColoring.this.colorFrom(this, this.start);
+            this.tryComplete();
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package codegen.analysis.liveness;
+
+import codegen.analysis.dataflow.DataFlowGraph;
+import codegen.analysis.dataflow.DataFlowNode;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Färbt die Variablen eines Programms nach Chaitin und Briggs.
+ * <p>
+ * Für eine Farbanzahl K werden Nodes mit weniger als K Nachbarn vom Graph entfernt (simplify) und auf einen Stack gelegt.
+ * Bleiben nur Nodes mit mindestens K Nachbarn übrig, wird der Node mit den meisten Nachbarn trotzdem entfernt
+ * und beim Einfärben (select) optimistisch auf eine freie Farbe gehofft. Scheitert das, wird K erhöht.
+ * <p>
+ * Kopien wie x = y (iload y, istore x) werden vorher konservativ zusammengelegt (Briggs- oder George-Test),
+ * dadurch bekommen x und y die gleiche Farbe und die Kopie wird überflüssig.
+ * <p>
+ * int- und Referenzvariablen bilden getrennte Klassen und teilen sich nie eine Farbe.
+ * Die int-Klasse belegt die Farben 1..K(int), die Referenzen die folgenden.
+ */
+public final class RegisterColoring {
+
+    /**
+     * Die Variablen, aufsteigend nach Slot sortiert.
+     */
+    private final List<String> symbols;
+    private final boolean[] reference;
+
+    /**
+     * Interferenz zwischen zwei Variablen, nur innerhalb einer Klasse.
+     */
+    private final BitSet[] interference;
+
+    /**
+     * Die Kopien als Paare von Variablenindizes.
+     */
+    private final List<int[]> moves;
+
+    private final int[] colors;
+    private final int[] alias;
+    private int intColors;
+    private int referenceColors;
+    private int coalescedMoves;
+
+    private RegisterColoring(List<String> symbols, boolean[] reference, BitSet[] interference, List<int[]> moves) {
+        this.symbols = symbols;
+        this.reference = reference;
+        this.interference = interference;
+        this.moves = moves;
+        this.colors = new int[symbols.size()];
+        this.alias = new int[symbols.size()];
+    }
+
+    /**
+     * Die in/out-Mengen des {@link DataFlowGraph} müssen bereits berechnet sein, siehe {@link LivenessAnalysis}.
+     *
+     * @param varMap Die deklarierten Variablen, auch ungenutzte Variablen brauchen eine Farbe.
+     */
+    public static RegisterColoring fromDataFlowGraph(DataFlowGraph dataFlowGraph, Map<String, Integer> varMap) {
+        Logger.logDebug("Building interference-graph for Chaitin-Briggs coloring", RegisterColoring.class);
+
+        final Set<String> symbolSet = new TreeSet<>((left, right) -> Integer.compare(Integer.parseInt(left), Integer.parseInt(right)));
+        varMap.values().forEach(slot -> symbolSet.add(String.valueOf(slot)));
+
+        final List<DataFlowNode> nodes = new ArrayList<>();
+        for (DataFlowNode node : dataFlowGraph) {
+            nodes.add(node);
+            symbolSet.addAll(variables(node));
+        }
+
+        final List<String> symbols = List.copyOf(symbolSet);
+        final Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < symbols.size(); i++) {
+            indices.put(symbols.get(i), i);
+        }
+        final boolean[] reference = new boolean[symbols.size()];
+        final BitSet[] interference = new BitSet[symbols.size()];
+        Arrays.setAll(interference, i -> new BitSet(symbols.size()));
+
+        for (DataFlowNode node : nodes) {
+            if ("aload".equals(node.getInst()) || "astore".equals(node.getInst())) {
+                reference[indices.get(variables(node).iterator().next())] = true;
+            }
+        }
+
+        final List<int[]> moves = new ArrayList<>();
+
+        for (int i = 0; i < nodes.size(); i++) {
+            final DataFlowNode node = nodes.get(i);
+            final String def = node.getDefSet().iterator().next();
+
+            if (def.isBlank() || !node.getOutSet().contains(def)) {
+                // Ein toter Store braucht keine eigene Farbe, er kann durch pop ersetzt werden
+                continue;
+            }
+
+            final int defIndex = indices.get(def);
+            final int source = moveSource(nodes, i, indices);
+
+            if (source != -1 && reference[source] == reference[defIndex]) {
+                moves.add(new int[]{defIndex, source});
+            }
+
+            for (String live : node.getOutSet()) {
+                final int liveIndex = indices.getOrDefault(live, -1);
+
+                // Bei einer Kopie haben beide Variablen den gleichen Wert, sie interferieren nicht
+                if (liveIndex == defIndex || liveIndex == source || liveIndex == -1 || reference[liveIndex] != reference[defIndex]) {
+                    continue;
+                }
+
+                interference[defIndex].set(liveIndex);
+                interference[liveIndex].set(defIndex);
+            }
+        }
+
+        final RegisterColoring coloring = new RegisterColoring(symbols, reference, interference, moves);
+        coloring.intColors = coloring.colorClass(false, 0);
+        coloring.referenceColors = coloring.colorClass(true, coloring.intColors);
+
+        Logger.logDebug("Colored " + symbols.size() + " variables with " + coloring.getRegisterCount()
+                        + " colors, coalesced " + coloring.coalescedMoves + " copies", RegisterColoring.class);
+
+        return coloring;
+    }
+
+    private static Set<String> variables(DataFlowNode node) {
+        final Set<String> variables = new TreeSet<>(node.getUseSet());
+        variables.addAll(node.getDefSet());
+        variables.remove("");
+
+        return variables;
+    }
+
+    /**
+     * Ermittelt, ob der Store an Position index Teil einer Kopie ist (Load direkt davor, ohne anderen Predecessor).
+     *
+     * @return Der Index der kopierten Variable oder -1.
+     */
+    private static int moveSource(List<DataFlowNode> nodes, int index, Map<String, Integer> indices) {
+        if (index == 0) {
+            return -1;
+        }
+
+        final DataFlowNode store = nodes.get(index);
+        final DataFlowNode load = nodes.get(index - 1);
+        final String use = load.getUseSet().iterator().next();
+
+        // iinc ist keine Kopie, auch wenn davor ein Load steht
+        if (use.isBlank() || "iinc".equals(store.getInst()) || !store.getPredecessorSet().equals(Set.of(load))) {
+            return -1;
+        }
+
+        return indices.getOrDefault(use, -1);
+    }
+
+    /**
+     * Färbt eine Klasse mit möglichst wenigen Farben.
+     *
+     * @param offset Die Anzahl der Farben, die bereits von anderen Klassen verwendet werden.
+     * @return Die Anzahl der verwendeten Farben.
+     */
+    private int colorClass(boolean referenceClass, int offset) {
+        final List<Integer> members = new ArrayList<>();
+        for (int i = 0; i < this.symbols.size(); i++) {
+            if (this.reference[i] == referenceClass) {
+                members.add(i);
+            }
+        }
+
+        if (members.isEmpty()) {
+            return 0;
+        }
+
+        for (int k = 1; k <= members.size(); k++) {
+            if (this.tryColor(members, k, offset)) {
+                return k;
+            }
+        }
+
+        throw new IllegalStateException("Interference-graph could not be colored with one color per variable");
+    }
+
+    private boolean tryColor(List<Integer> members, int k, int offset) {
+        final int size = this.symbols.size();
+        final BitSet[] adjacency = new BitSet[size];
+        for (int node : members) {
+            adjacency[node] = (BitSet) this.interference[node].clone();
+            this.alias[node] = node;
+        }
+
+        final int coalesced = this.coalesce(members.get(0), adjacency, k);
+
+        // Simplify
+        final BitSet remaining = new BitSet(size);
+        members.stream().filter(node -> this.alias[node] == node).forEach(remaining::set);
+
+        final int[] degree = new int[size];
+        remaining.stream().forEach(node -> degree[node] = adjacency[node].cardinality());
+
+        final int[] stack = new int[remaining.cardinality()];
+        int top = 0;
+
+        while (!remaining.isEmpty()) {
+            int chosen = -1;
+
+            for (int node = remaining.nextSetBit(0); node >= 0; node = remaining.nextSetBit(node + 1)) {
+                if (degree[node] < k) {
+                    chosen = node;
+                    break;
+                }
+
+                // Potentieller Spill, optimistisch weiter
+                if (chosen == -1 || degree[node] > degree[chosen]) {
+                    chosen = node;
+                }
+            }
+
+            remaining.clear(chosen);
+            stack[top] = chosen;
+            top++;
+
+            final BitSet neighbours = adjacency[chosen];
+            for (int neighbour = neighbours.nextSetBit(0); neighbour >= 0; neighbour = neighbours.nextSetBit(neighbour + 1)) {
+                degree[neighbour]--;
+            }
+        }
+
+        // Select
+        final int[] assigned = new int[size];
+
+        while (top > 0) {
+            top--;
+            final int node = stack[top];
+
+            final BitSet used = new BitSet(k + 1);
+            final BitSet neighbours = adjacency[node];
+            for (int neighbour = neighbours.nextSetBit(0); neighbour >= 0; neighbour = neighbours.nextSetBit(neighbour + 1)) {
+                used.set(assigned[neighbour]);
+            }
+
+            final int color = used.nextClearBit(1);
+            if (color > k) {
+                Logger.logInfo(" :: Coloring with " + k + " colors failed", RegisterColoring.class);
+                return false;
+            }
+
+            assigned[node] = color;
+        }
+
+        for (int node : members) {
+            this.colors[node] = offset + assigned[this.find(node)];
+        }
+        this.coalescedMoves += coalesced;
+
+        return true;
+    }
+
+    /**
+     * Legt Kopien zusammen, solange der zusammengelegte Graph sicher mit k Farben färbbar bleibt.
+     *
+     * @return Die Anzahl zusammengelegter Kopien.
+     */
+    private int coalesce(int member, BitSet[] adjacency, int k) {
+        int coalesced = 0;
+        boolean change;
+
+        do {
+            change = false;
+
+            for (int[] move : this.moves) {
+                if (this.reference[move[0]] != this.reference[member]) {
+                    continue;
+                }
+
+                final int a = this.find(move[0]);
+                final int b = this.find(move[1]);
+
+                if (a == b || adjacency[a].get(b)) {
+                    continue;
+                }
+
+                if (this.briggs(adjacency, a, b, k) || george(adjacency, a, b, k) || george(adjacency, b, a, k)) {
+                    Logger.logInfo(" :: Coalescing " + this.symbols.get(b) + " into " + this.symbols.get(a), RegisterColoring.class);
+
+                    final BitSet neighbours = adjacency[b];
+                    for (int t = neighbours.nextSetBit(0); t >= 0; t = neighbours.nextSetBit(t + 1)) {
+                        adjacency[t].clear(b);
+                        adjacency[t].set(a);
+                    }
+                    adjacency[a].or(neighbours);
+                    adjacency[b] = new BitSet();
+                    this.alias[b] = a;
+
+                    coalesced++;
+                    change = true;
+                }
+            }
+        } while (change);
+
+        return coalesced;
+    }
+
+    /**
+     * Briggs: Der zusammengelegte Node hat weniger als k Nachbarn mit mindestens k Nachbarn.
+     */
+    private boolean briggs(BitSet[] adjacency, int a, int b, int k) {
+        final BitSet combined = (BitSet) adjacency[a].clone();
+        combined.or(adjacency[b]);
+
+        int significant = 0;
+        for (int t = combined.nextSetBit(0); t >= 0; t = combined.nextSetBit(t + 1)) {
+            // Gemeinsame Nachbarn verlieren durch das Zusammenlegen einen Nachbarn
+            final int degree = adjacency[t].cardinality() - (adjacency[a].get(t) && adjacency[b].get(t) ? 1 : 0);
+
+            if (degree >= k) {
+                significant++;
+            }
+        }
+
+        return significant < k;
+    }
+
+    /**
+     * George: Jeder Nachbar von b interferiert bereits mit a oder hat weniger als k Nachbarn.
+     */
+    private static boolean george(BitSet[] adjacency, int a, int b, int k) {
+        final BitSet neighbours = adjacency[b];
+
+        for (int t = neighbours.nextSetBit(0); t >= 0; t = neighbours.nextSetBit(t + 1)) {
+            if (!adjacency[a].get(t) && adjacency[t].cardinality() >= k) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int find(int node) {
+        int current = node;
+        while (this.alias[current] != current) {
+            current = this.alias[current];
+        }
+
+        return current;
+    }
+
+    // Getters
+
+    /**
+     * Die Anzahl der benötigten Register über alle Klassen.
+     */
+    public int getRegisterCount() {
+        return this.intColors + this.referenceColors;
+    }
+
+    public int getIntRegisterCount() {
+        return this.intColors;
+    }
+
+    public int getReferenceRegisterCount() {
+        return this.referenceColors;
+    }
+
+    public int getCoalescedMoves() {
+        return this.coalescedMoves;
+    }
+
+    /**
+     * @return Die Farbe (beginnend bei 1) der Variable im angegebenen Slot.
+     */
+    public int getColor(String slot) {
+        final int index = this.symbols.indexOf(slot);
+
+        if (index == -1) {
+            throw new IllegalArgumentException("Unknown variable slot " + slot);
+        }
+
+        return this.colors[index];
+    }
+
+    public List<String> getSymbols() {
+        return Collections.unmodifiableList(this.symbols);
+    }
+}
@@ -0,0 +1,100 @@
+package codegen.flowgraph;
+
+import codegen.CodeGenerationException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Die Ausführungszähler aus einem mit {@link BlockProfiler} instrumentierten Programm.
+ * Jede Zeile der Profildatei hat die Form "Ordinal Label Zeile Zähler", Blöcke ohne Label haben "-".
+ */
+public final class BlockProfile {
+
+    public static final String FILE_EXTENSION = ".profile";
+    static final String NO_LABEL = "-";
+
+    private final String[] labels;
+    private final int[] lines;
+    private final long[] counts;
+
+    private BlockProfile(String[] labels, int[] lines, long[] counts) {
+        this.labels = labels;
+        this.lines = lines;
+        this.counts = counts;
+    }
+
+    public static BlockProfile empty() {
+        return new BlockProfile(new String[0], new int[0], new long[0]);
+    }
+
+    public static BlockProfile fromFile(Path file) throws IOException {
+        final List<String> entries = Files.readAllLines(file);
+
+        final String[] labels = new String[entries.size()];
+        final int[] lines = new int[entries.size()];
+        final long[] counts = new long[entries.size()];
+
+        for (int i = 0; i < entries.size(); i++) {
+            final String[] fields = entries.get(i).split(" ");
+
+            if (fields.length != 4 || !fields[0].equals(String.valueOf(i))) {
+                throw new CodeGenerationException("Invalid profile entry in line " + (i + 1) + ": " + entries.get(i));
+            }
+
+            try {
+                labels[i] = NO_LABEL.equals(fields[1]) ? "" : fields[1];
+                lines[i] = Integer.parseInt(fields[2]);
+                counts[i] = Long.parseLong(fields[3]);
+            } catch (NumberFormatException e) {
+                throw new CodeGenerationException("Invalid profile entry in line " + (i + 1) + ": " + entries.get(i));
+            }
+        }
+
+        return new BlockProfile(labels, lines, counts);
+    }
+
+    /**
+     * Ob das Profil von diesem Graph stammt, also Anzahl und Labels der Blöcke übereinstimmen.
+     */
+    public boolean matches(FlowGraph graph) {
+        int ordinal = 0;
+        for (FlowBasicBlock block : graph) {
+            if (ordinal >= this.labels.length || !this.labels[ordinal].equals(block.getLabel())) {
+                return false;
+            }
+            ordinal++;
+        }
+
+        return ordinal == this.labels.length;
+    }
+
+    // Getters
+
+    public int getBlockCount() {
+        return this.counts.length;
+    }
+
+    public String getLabel(int ordinal) {
+        return this.labels[ordinal];
+    }
+
+    public int getLine(int ordinal) {
+        return this.lines[ordinal];
+    }
+
+    public long getCount(int ordinal) {
+        return this.counts[ordinal];
+    }
+
+    public long getMaxCount() {
+        long max = 0;
+        for (long count : this.counts) {
+            max = Math.max(max, count);
+        }
+
+        return max;
+    }
+}
@@ -0,0 +1,64 @@
+package codegen.flowgraph;
+
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instrumentiert einen {@link FlowGraph}, damit das Programm zählt, wie oft jeder Block ausgeführt wird.
+ * <p>
+ * Jeder Block beginnt danach mit dem Erhöhen seines Zählers in einem statischen long-Array, Index ist das Ordinal.
+ * Am Ende von main werden die Zähler mit Label und Quellzeile in die Profildatei geschrieben,
+ * diese kann mit {@link BlockProfile} gelesen werden.
+ */
+public final class BlockProfiler {
+
+    /**
+     * Die zusätzlichen Stack-Slots für das Erhöhen: Array, Index, Array, Index und ein long.
+     */
+    private static final int PROFILE_STACK = 6;
+
+    private BlockProfiler() {}
+
+    /**
+     * Die Instrumentierung muss nach allen Optimierungen passieren, die Blöcke dürfen sich danach nicht mehr ändern.
+     */
+    public static void instrument(FlowGraph graph) {
+        Logger.logDebug("Instrumenting flow-graph for block profiling", BlockProfiler.class);
+
+        final FlowGraphHead head = graph.getHead();
+        final String counts = head.getClazz() + "/" + FlowGraphHead.PROFILE_FIELD;
+        final List<String> descriptions = new ArrayList<>();
+
+        for (FlowBasicBlock block : graph) {
+            final int ordinal = descriptions.size();
+            final Opcode index = Opcode.forInt(ordinal);
+
+            final FlowBasicBlock counter = new FlowBasicBlock("", graph.getConstants());
+            counter.addInstruction("getstatic", counts, FlowGraphHead.PROFILE_DESCRIPTOR);
+            counter.addInstruction(index.getMnemonic(), index.intArguments(ordinal));
+            counter.addInstruction("dup2");
+            counter.addInstruction("laload");
+            counter.addInstruction("lconst_1");
+            counter.addInstruction("ladd");
+            counter.addInstruction("lastore");
+            block.prependInstructions(counter);
+
+            descriptions.add(describe(ordinal, block));
+        }
+
+        graph.setHead(head.withProfile(descriptions, head.getStackSize() + PROFILE_STACK));
+
+        Logger.logDebug("Successfully instrumented " + descriptions.size() + " blocks", BlockProfiler.class);
+    }
+
+    /**
+     * Der Anfang einer Zeile in der Profildatei, der Zähler wird vom Programm angehängt.
+     */
+    private static String describe(int ordinal, FlowBasicBlock block) {
+        final String label = block.getLabel().isBlank() ? BlockProfile.NO_LABEL : block.getLabel();
+
+        return ordinal + " " + label + " " + block.getLine() + " ";
+    }
+}
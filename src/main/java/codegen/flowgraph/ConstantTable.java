@@ -0,0 +1,67 @@
+package codegen.flowgraph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabelle für alle Argumente, die keine Zahl sind (Labels, Konstanten, Felder, Methoden).
+ * Gleiche Argumente werden nur einmal gespeichert, eine {@link FlowInstruction} verweist nur auf den Index.
+ * <p>
+ * Jeder {@link FlowGraph} hat eine eigene Tabelle, seine Blöcke und die daraus abgeleiteten Graphen
+ * (z.B. die Rückübersetzung aus der SSA-Form) teilen sie sich. Kodierte Operanden sind also nur innerhalb
+ * einer Tabelle gültig, die Tabelle verschwindet mit dem Graph.
+ * <p>
+ * Die Tabelle ist nicht synchronisiert, gleichzeitiges Lesen ist erlaubt, solange nicht interniert wird.
+ * Die gespeicherten Arrays werden geteilt und dürfen nicht verändert werden.
+ */
+public final class ConstantTable {
+
+    private static final String[][] EMPTY = new String[0][];
+
+    private Map<List<String>, Integer> indices;
+    private String[][] constants;
+    private int size;
+
+    public ConstantTable() {
+        this.constants = EMPTY;
+    }
+
+    int intern(String[] args) {
+        if (this.indices == null) {
+            // Erst bei Bedarf anlegen, einzelne Blöcke und Instructions haben oft nur Zahlen als Operanden
+            this.indices = new HashMap<>();
+        }
+
+        final List<String> key = List.of(args);
+        final Integer index = this.indices.get(key);
+
+        if (index != null) {
+            return index;
+        }
+
+        if (this.size == this.constants.length) {
+            this.constants = Arrays.copyOf(this.constants, Math.max(16, 2 * this.size));
+        }
+
+        this.constants[this.size] = args.clone();
+        this.indices.put(key, this.size);
+        this.size++;
+
+        return this.size - 1;
+    }
+
+    String[] get(int index) {
+        return this.constants[index];
+    }
+
+    // Getters
+
+    /**
+     * Die Anzahl verschiedener Argumente.
+     */
+    public int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,176 @@
+package codegen.flowgraph;
+
+import parser.ast.Operator;
+import parser.ast.SyntaxTreeNode;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Eine Zählschleife der Form "while (i &lt; N) { ...; i = i + c; }" mit Literalen als Grenze und Schrittweite.
+ * <p>
+ * Erkannt werden die Vergleiche &lt;, &lt;=, &gt; und &gt;= mit der Variable auf einer Seite und einem Literal
+ * auf der anderen. Die letzte Anweisung im Rumpf muss die Variable um ein Literal in Richtung der Grenze bewegen,
+ * sonst darf die Variable im Rumpf nicht zugewiesen werden. Geschachtelte Schleifen im Rumpf werden nicht erkannt,
+ * damit nur innerste Schleifen vervielfacht werden.
+ */
+final class CountedLoop {
+
+    private final String variable;
+
+    /**
+     * Der Vergleich mit der Variable auf der linken Seite, z.B. {@link Operator#LESS}.
+     */
+    private final Operator comparison;
+    private final int bound;
+    private final int step;
+
+    private final SyntaxTreeNode body;
+
+    private CountedLoop(String variable, Operator comparison, int bound, int step, SyntaxTreeNode body) {
+        this.variable = variable;
+        this.comparison = comparison;
+        this.bound = bound;
+        this.step = step;
+        this.body = body;
+    }
+
+    /**
+     * @param loop Ein "loop"-Knoten aus dem AST.
+     */
+    static Optional<CountedLoop> fromLoop(SyntaxTreeNode loop) {
+        final SyntaxTreeNode condition = loop.getChildren().get(0).getChildren().get(0);
+        final SyntaxTreeNode body = loop.getChildren().get(1);
+
+        if (condition.getOperator() == null || condition.getOperator().getKind() != Operator.Kind.RELATIONAL
+            || condition.getChildren().size() != 2) {
+            return Optional.empty();
+        }
+
+        // Die Variable kommt auf die linke Seite, "N > i" wird zu "i < N"
+        final SyntaxTreeNode left = condition.getChildren().get(0);
+        final SyntaxTreeNode right = condition.getChildren().get(1);
+        final boolean flipped = "INTEGER_LIT".equals(left.getName());
+        final SyntaxTreeNode variableNode = flipped ? right : left;
+        final OptionalInt bound = literal(flipped ? left : right);
+        final Operator comparison = flipped ? condition.getOperator().mirror() : condition.getOperator();
+
+        if (!"IDENTIFIER".equals(variableNode.getName()) || bound.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final String variable = variableNode.getValue();
+        final List<SyntaxTreeNode> statements = "block_cnt".equals(body.getName()) ? body.getChildren() : List.of(body);
+        final SyntaxTreeNode increment = statements.get(statements.size() - 1);
+        final OptionalInt step = step(increment, variable);
+
+        if (step.isEmpty() || step.getAsInt() == 0
+            || (step.getAsInt() > 0) != (comparison == Operator.LESS || comparison == Operator.LESS_EQUAL)) {
+            return Optional.empty();
+        }
+
+        for (SyntaxTreeNode statement : statements) {
+            if (statement != increment && (assigns(statement, variable) || containsLoop(statement))) {
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(new CountedLoop(variable, comparison, bound.getAsInt(), step.getAsInt(), body));
+    }
+
+    private static OptionalInt literal(SyntaxTreeNode node) {
+        if (!"INTEGER_LIT".equals(node.getName())) {
+            return OptionalInt.empty();
+        }
+
+        try {
+            return OptionalInt.of(Integer.parseInt(node.getValue()));
+        } catch (NumberFormatException e) {
+            return OptionalInt.empty();
+        }
+    }
+
+    /**
+     * Die Schrittweite einer Zuweisung "i = i + c", "i = c + i" oder "i = i - c".
+     */
+    private static OptionalInt step(SyntaxTreeNode assignment, String variable) {
+        if (!"assignment".equals(assignment.getName()) || !variable.equals(assignment.getValue())) {
+            return OptionalInt.empty();
+        }
+
+        final SyntaxTreeNode expr = assignment.getChildren().get(0);
+        if (expr.getOperator() == null || expr.getChildren().size() != 2) {
+            return OptionalInt.empty();
+        }
+
+        final SyntaxTreeNode left = expr.getChildren().get(0);
+        final SyntaxTreeNode right = expr.getChildren().get(1);
+
+        if (expr.getOperator() == Operator.ADD && isVariable(left, variable)) {
+            return literal(right);
+        }
+        if (expr.getOperator() == Operator.ADD && isVariable(right, variable)) {
+            return literal(left);
+        }
+        if (expr.getOperator() == Operator.SUB && isVariable(left, variable)) {
+            final OptionalInt step = literal(right);
+
+            // -MIN_VALUE ist nicht darstellbar
+            return step.isPresent() && step.getAsInt() != Integer.MIN_VALUE
+                   ? OptionalInt.of(-step.getAsInt())
+                   : OptionalInt.empty();
+        }
+
+        return OptionalInt.empty();
+    }
+
+    private static boolean isVariable(SyntaxTreeNode node, String variable) {
+        return "IDENTIFIER".equals(node.getName()) && variable.equals(node.getValue());
+    }
+
+    private static boolean assigns(SyntaxTreeNode node, String variable) {
+        if ("assignment".equals(node.getName()) && variable.equals(node.getValue())) {
+            return true;
+        }
+
+        return node.getChildren().stream().anyMatch(child -> assigns(child, variable));
+    }
+
+    private static boolean containsLoop(SyntaxTreeNode node) {
+        return "loop".equals(node.getName()) || node.getChildren().stream().anyMatch(CountedLoop::containsLoop);
+    }
+
+    /**
+     * Die Grenze für die vervielfachte Schleife: Ist "i &lt; N - (factor - 1) * c" erfüllt,
+     * laufen auch alle folgenden factor - 1 Durchläufe der ursprünglichen Schleife.
+     *
+     * @return Die Grenze oder leer, wenn sie nicht als int darstellbar ist.
+     */
+    OptionalInt getUnrolledBound(int factor) {
+        final long unrolled = this.bound - (long) (factor - 1) * this.step;
+
+        return unrolled == (int) unrolled ? OptionalInt.of((int) unrolled) : OptionalInt.empty();
+    }
+
+    /**
+     * Der Sprung, der die Schleife verlässt, wenn der Vergleich nicht erfüllt ist.
+     */
+    String getExitJump() {
+        return "if_icmp" + this.comparison.negate().getCondition();
+    }
+
+    // Getters
+
+    String getVariable() {
+        return this.variable;
+    }
+
+    int getStep() {
+        return this.step;
+    }
+
+    SyntaxTreeNode getBody() {
+        return this.body;
+    }
+}
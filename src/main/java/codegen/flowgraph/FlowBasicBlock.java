@@ -1,20 +1,27 @@
 package codegen.flowgraph;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class FlowBasicBlock implements Iterable<FlowInstruction> {
 
+    /**
+     * Fortlaufende IDs, zufällige UUIDs sind beim Aufbau großer Graphen zu teuer.
+     */
+    private static final AtomicLong ids = new AtomicLong();
+
     // Graph structure information
-    private final UUID id;
+    private final long id;
     private final Set<FlowBasicBlock> predecessors;
     private final Set<FlowBasicBlock> successors;
 
@@ -23,25 +30,52 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
      */
     private final String label;
 
+    /**
+     * Die Position des Blockes im {@link FlowGraph}, wird vom Graph gesetzt.
+     */
+    private int ordinal;
+
+    /**
+     * Die Zeile im Stups-Programm, aus der die erste Instruction stammt, 0 wenn unbekannt.
+     */
+    private int line;
+
     /**
      * Alle Instructions, welche zu einem Block gehören.
      * Diese werden immer sequentiell ohne Verzweigungen ausgeführt.
+     * <p>
+     * Gespeichert werden nur Opcode-Ordinal und Operand in parallelen Arrays,
+     * {@link FlowInstruction}s werden bei Bedarf als Sicht darauf erzeugt.
      */
-    private final List<FlowInstruction> instructions;
+    private byte[] opcodes;
+    private int[] operands;
+    private int instructionCount;
 
     /**
-     * Wird intern benutzt um die ID für eine hinzugefügte {@link FlowInstruction} zu ermitteln.
+     * Die Tabelle, in welche die Labels und Konstanten der Operanden kodiert sind, siehe {@link ConstantTable}.
      */
-    private int instNr;
+    private final ConstantTable constants;
 
-    public FlowBasicBlock(String label) {
+    /**
+     * Ein Block, der die Tabelle eines Graphen verwendet, z.B. um ihn in diesen Graph einzufügen.
+     */
+    public FlowBasicBlock(String label, ConstantTable constants) {
         this.label = label;
-        this.id = UUID.randomUUID();
-        this.instructions = new ArrayList<>();
+        this.constants = constants;
+        this.id = ids.incrementAndGet();
+        this.opcodes = new byte[4];
+        this.operands = new int[4];
         this.predecessors = new HashSet<>();
         this.successors = new HashSet<>();
     }
 
+    /**
+     * Ein Block mit eigener Tabelle.
+     */
+    public FlowBasicBlock(String label) {
+        this(label, new ConstantTable());
+    }
+
     public FlowBasicBlock() {
         this("");
     }
@@ -51,12 +85,12 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
      * Der Block darf kein Label haben, damit keine Sprünge ins Leere passieren.
      */
     public boolean isEmpty() {
-        return this.instructions.isEmpty() && this.label.isBlank();
+        return this.instructionCount == 0 && this.label.isBlank();
     }
 
     // Geteter, Setter
 
-    public UUID getId() {
+    public long getId() {
         return this.id;
     }
 
@@ -64,9 +98,159 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
         return this.label;
     }
 
+    public int getOrdinal() {
+        return this.ordinal;
+    }
+
+    void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
+    public int getLine() {
+        return this.line;
+    }
+
+    public void setLine(int line) {
+        this.line = line;
+    }
+
     public void addInstruction(String instruction, String... args) {
-        this.instNr++;
-        this.instructions.add(new FlowInstruction(instruction, args));
+        final Opcode opcode = Opcode.fromMnemonic(instruction);
+        this.addInstruction(opcode, FlowInstruction.encode(opcode, this.constants, args));
+    }
+
+    /**
+     * Fügt eine bereits kodierte Instruction an, siehe {@link Opcode.Operand}.
+     * Labels und Konstanten müssen in die Tabelle dieses Blockes kodiert sein.
+     */
+    public void addInstruction(Opcode opcode, int operand) {
+        this.ensureCapacity(this.instructionCount + 1);
+
+        this.opcodes[this.instructionCount] = (byte) opcode.ordinal();
+        this.operands[this.instructionCount] = operand;
+        this.instructionCount++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.opcodes.length) {
+            final int grown = Math.max(capacity, 2 * this.opcodes.length);
+            this.opcodes = Arrays.copyOf(this.opcodes, grown);
+            this.operands = Arrays.copyOf(this.operands, grown);
+        }
+    }
+
+    /**
+     * Entfernt die letzte Instruction, z.B. einen überflüssigen Sprung.
+     */
+    public void removeLastInstruction() {
+        if (this.instructionCount > 0) {
+            this.instructionCount--;
+        }
+    }
+
+    /**
+     * Ersetzt die letzte Instruction, z.B. um einen Sprung auf ein anderes Label umzuleiten.
+     */
+    public void replaceLastInstruction(String instruction, String... args) {
+        this.removeLastInstruction();
+        this.addInstruction(instruction, args);
+    }
+
+    /**
+     * Entfernt alle Instructions, z.B. um den Block aus einer veränderten Folge neu aufzubauen.
+     */
+    public void clearInstructions() {
+        this.instructionCount = 0;
+    }
+
+    /**
+     * Hängt die Instructions eines anderen Blockes an diesen Block an.
+     */
+    public void appendInstructions(FlowBasicBlock other) {
+        final int count = other.instructionCount;
+        this.ensureCapacity(this.instructionCount + count);
+
+        System.arraycopy(other.opcodes, 0, this.opcodes, this.instructionCount, count);
+        this.copyOperands(other, this.instructionCount);
+        this.instructionCount += count;
+    }
+
+    /**
+     * Setzt die Instructions eines anderen Blockes vor die Instructions dieses Blockes.
+     */
+    public void prependInstructions(FlowBasicBlock other) {
+        final int count = other.instructionCount;
+        this.ensureCapacity(this.instructionCount + count);
+
+        System.arraycopy(this.opcodes, 0, this.opcodes, count, this.instructionCount);
+        System.arraycopy(this.operands, 0, this.operands, count, this.instructionCount);
+        System.arraycopy(other.opcodes, 0, this.opcodes, 0, count);
+        this.copyOperands(other, 0);
+        this.instructionCount += count;
+    }
+
+    /**
+     * Kopiert die Operanden eines anderen Blockes, Labels und Konstanten werden bei verschiedenen Tabellen neu kodiert.
+     */
+    private void copyOperands(FlowBasicBlock other, int position) {
+        System.arraycopy(other.operands, 0, this.operands, position, other.instructionCount);
+
+        if (other.constants == this.constants) {
+            return;
+        }
+
+        for (int i = 0; i < other.instructionCount; i++) {
+            final Opcode.Operand operand = other.getOpcode(i).getOperand();
+
+            if (operand == Opcode.Operand.LABEL || operand == Opcode.Operand.CONSTANT) {
+                this.operands[position + i] = this.constants.intern(other.constants.get(other.operands[i]));
+            }
+        }
+    }
+
+    public ConstantTable getConstants() {
+        return this.constants;
+    }
+
+    public int getInstructionCount() {
+        return this.instructionCount;
+    }
+
+    public Opcode getOpcode(int index) {
+        return Opcode.fromOrdinal(this.opcodes[this.checkIndex(index)]);
+    }
+
+    public int getOperand(int index) {
+        return this.operands[this.checkIndex(index)];
+    }
+
+    public FlowInstruction getInstruction(int index) {
+        return new FlowInstruction(this, index, this.getOpcode(index), this.operands[index]);
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, this.instructionCount);
+    }
+
+    /**
+     * Der Index einer Instruction aus diesem Block, -1 wenn sie nicht (mehr) in diesem Block liegt.
+     */
+    private int indexOf(FlowInstruction inst) {
+        final int index = inst.getIndex();
+
+        if (inst.getBlock() != this || index >= this.instructionCount || !inst.equals(this.getInstruction(index))) {
+            return -1;
+        }
+
+        return index;
+    }
+
+    /**
+     * Entfernt alle Predecessor/Successor-Verbindungen, diese werden von {@link FlowGraph#rebuildEdges()} neu gesetzt.
+     */
+    void clearEdges() {
+        this.predecessors.clear();
+        this.successors.clear();
     }
 
     public Set<FlowBasicBlock> getBlockSuccessorSet() {
@@ -78,24 +262,41 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
      * Befindet sich die Instruction am Ende des Blockes, werden Instructions aus Successor-Blöcken gesucht.
      */
     public Set<FlowInstruction> getInstructionSuccessorSet(FlowInstruction inst) {
-        final int index = this.instructions.indexOf(inst);
+        final int index = this.indexOf(inst);
 
         if (index == -1) {
             return Collections.emptySet();
         }
 
-        if (index >= 0 && index < this.instructions.size() - 1) {
+        if (index < this.instructionCount - 1) {
             // Instruction is in the beginning or in the middle
 
-            return Set.of(this.instructions.get(index + 1));
+            return Set.of(this.getInstruction(index + 1));
         }
 
         // Instruction is at the end
-        return this.successors.stream()
-                              .map(FlowBasicBlock::getFirstInstruction)
-                              .filter(Optional::isPresent)
-                              .map(Optional::get)
-                              .collect(Collectors.toUnmodifiableSet());
+        return firstInstructions(this.successors, new HashSet<>());
+    }
+
+    /**
+     * Sammelt die ersten Instructions der Blöcke, leere Blöcke werden dabei übersprungen.
+     */
+    private static Set<FlowInstruction> firstInstructions(Set<FlowBasicBlock> blocks, Set<FlowBasicBlock> visited) {
+        final Set<FlowInstruction> instructions = new HashSet<>();
+
+        for (FlowBasicBlock block : blocks) {
+            if (!visited.add(block)) {
+                continue;
+            }
+
+            if (block.instructionCount == 0) {
+                instructions.addAll(firstInstructions(block.successors, visited));
+            } else {
+                instructions.add(block.getInstruction(0));
+            }
+        }
+
+        return Collections.unmodifiableSet(instructions);
     }
 
     public boolean addSuccessorBlock(FlowBasicBlock successor) {
@@ -115,24 +316,41 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
      * Befindet sich die Instruction am Anfang des Blockes, werden Instructions aus Predecessor-Blöcken gesucht.
      */
     public Set<FlowInstruction> getInstructionPredecessorSet(FlowInstruction inst) {
-        final int index = this.instructions.indexOf(inst);
+        final int index = this.indexOf(inst);
 
         if (index == -1) {
             return Collections.emptySet();
         }
 
-        if (index > 0 && index <= this.instructions.size() - 1) {
+        if (index > 0) {
             // Instruction is in the middle or at the end
 
-            return Set.of(this.instructions.get(index - 1));
+            return Set.of(this.getInstruction(index - 1));
         }
 
         // Instruction is at the beginning
-        return this.predecessors.stream()
-                                .map(FlowBasicBlock::getLastInstruction)
-                                .filter(Optional::isPresent)
-                                .map(Optional::get)
-                                .collect(Collectors.toUnmodifiableSet());
+        return lastInstructions(this.predecessors, new HashSet<>());
+    }
+
+    /**
+     * Sammelt die letzten Instructions der Blöcke, leere Blöcke werden dabei übersprungen.
+     */
+    private static Set<FlowInstruction> lastInstructions(Set<FlowBasicBlock> blocks, Set<FlowBasicBlock> visited) {
+        final Set<FlowInstruction> instructions = new HashSet<>();
+
+        for (FlowBasicBlock block : blocks) {
+            if (!visited.add(block)) {
+                continue;
+            }
+
+            if (block.instructionCount == 0) {
+                instructions.addAll(lastInstructions(block.predecessors, visited));
+            } else {
+                instructions.add(block.getInstruction(block.instructionCount - 1));
+            }
+        }
+
+        return Collections.unmodifiableSet(instructions);
     }
 
     public boolean addPredecessorBlock(FlowBasicBlock predecessor) {
@@ -144,19 +362,19 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
     }
 
     public Optional<FlowInstruction> getFirstInstruction() {
-        if (this.instructions.isEmpty()) {
+        if (this.instructionCount == 0) {
             return Optional.empty();
         }
 
-        return Optional.of(this.instructions.get(0));
+        return Optional.of(this.getInstruction(0));
     }
 
     public Optional<FlowInstruction> getLastInstruction() {
-        if (this.instructions.isEmpty()) {
+        if (this.instructionCount == 0) {
             return Optional.empty();
         }
 
-        return Optional.of(this.instructions.get(this.instructions.size() - 1));
+        return Optional.of(this.getInstruction(this.instructionCount - 1));
     }
 
     // Printing
@@ -165,19 +383,23 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
      * Diese Methode ist für das Printen mit Graphviz, {@link #toString()} für den Rest.
      */
     public String printInst() {
-        return this.instructions.stream()
-                                .map(inst -> inst.toString().trim() + "\\n")
-                                .map(inst -> inst.replace("\"", "\\\""))
-                                .map(inst -> inst.replace("<", "less"))
-                                .map(inst -> inst.replace(">", "greater"))
-                                .collect(Collectors.joining());
+        return this.stream()
+                   .map(inst -> inst.toString().trim() + "\\n")
+                   .map(inst -> inst.replace("\"", "\\\""))
+                   .map(inst -> inst.replace("<", "less"))
+                   .map(inst -> inst.replace(">", "greater"))
+                   .collect(Collectors.joining());
+    }
+
+    private Stream<FlowInstruction> stream() {
+        return IntStream.range(0, this.instructionCount).mapToObj(this::getInstruction);
     }
 
     // Overrides
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.id, this.label);
+        return 31 * Long.hashCode(this.id) + this.label.hashCode();
     }
 
     @Override
@@ -189,15 +411,15 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
             return false;
         }
         final FlowBasicBlock that = (FlowBasicBlock) o;
-        return this.id.equals(that.id) && this.label.equals(that.label);
+        return this.id == that.id && this.label.equals(that.label);
     }
 
     @Override
     public String toString() {
-        final String linesString = this.instructions.stream()
-                                                    .map(FlowInstruction::toString)
-                                                    .map(line -> line + "\n")
-                                                    .collect(Collectors.joining());
+        final String linesString = this.stream()
+                                       .map(FlowInstruction::toString)
+                                       .map(line -> line + "\n")
+                                       .collect(Collectors.joining());
 
         if (this.label.isBlank()) {
             return linesString;
@@ -209,6 +431,23 @@ public class FlowBasicBlock implements Iterable<FlowInstruction> {
 
     @Override
     public Iterator<FlowInstruction> iterator() {
-        return this.instructions.iterator();
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < FlowBasicBlock.this.instructionCount;
+            }
+
+            @Override
+            public FlowInstruction next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                this.index++;
+                return FlowBasicBlock.this.getInstruction(this.index - 1);
+            }
+        };
     }
 }
@@ -1,18 +1,23 @@
 package codegen.flowgraph;
 
+import codegen.CodeGenerationException;
 import parser.ast.SyntaxTree;
 import util.GraphvizCaller;
 import util.Logger;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Die Graph-Repräsentation des Programm, erzeugt aus einem {@link SyntaxTree}.
@@ -22,23 +27,59 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
 
     private final List<FlowBasicBlock> basicBlocks;
 
+    /**
+     * Die Labels und Konstanten aller Blöcke, siehe {@link ConstantTable}.
+     */
+    private final ConstantTable constants;
+
+    /**
+     * Der erste Block zu jedem Label, wird beim Hinzufügen und Entfernen von Blöcken aktualisiert.
+     */
+    private final Map<String, FlowBasicBlock> labelIndex;
+
+    /**
+     * Der nächste Zähler für jedes Präfix, siehe {@link #newLabel(String)}.
+     */
+    private final Map<String, Integer> labelCounters;
+
     // Only for Export to Jasmin-Assembler
-    private final FlowGraphHead exportHead;
-    private final FlowGraphTail exportTail;
+    private FlowGraphHead exportHead;
+    private FlowGraphTail exportTail;
 
     /**
      * Wenn ein neuer Block ein Label bekommt, welches in der Predecessor-Map vorhanden ist,
-     * dann ist der hier gespeicherte Block ein Predecessor des neuen Blockes.
+     * dann sind die hier gespeicherten Blöcke Predecessors des neuen Blockes.
      * <p>
      * Einträge werden hier hinzugefügt, wenn ein Jump nach vorne passiert.
      * In diesem Fall ist der Jump-Successor noch nicht im Graph präsent.
+     * Mehrere Sprünge auf dasselbe Label werden alle gespeichert.
+     */
+    private final Map<String, List<FlowBasicBlock>> predecessorMap;
+
+    /**
+     * Die Zeile im Stups-Programm, aus der die nächsten Instructions stammen.
      */
-    private final Map<String, FlowBasicBlock> predecessorMap;
+    private int currentLine;
 
     public FlowGraph(String bytecodeVersion, String source, String clazz, int stackSize, int localCount) {
-        this.exportHead = new FlowGraphHead(bytecodeVersion, source, clazz, stackSize, localCount);
+        this(new FlowGraphHead(bytecodeVersion, source, clazz, stackSize, localCount));
+    }
+
+    public FlowGraph(FlowGraphHead head) {
+        this(head, new ConstantTable());
+    }
+
+    /**
+     * Ein Graph, der die Tabelle eines anderen Graphen verwendet, z.B. für eine Transformation,
+     * deren Blöcke danach in den anderen Graph übernommen werden.
+     */
+    public FlowGraph(FlowGraphHead head, ConstantTable constants) {
+        this.exportHead = head;
+        this.constants = constants;
         this.basicBlocks = new ArrayList<>();
-        this.exportTail = new FlowGraphTail();
+        this.labelIndex = new HashMap<>();
+        this.labelCounters = new HashMap<>();
+        this.exportTail = new FlowGraphTail(head);
         this.predecessorMap = new HashMap<>();
     }
 
@@ -48,28 +89,31 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
      * und zu Blöcken aus der {@link #predecessorMap} hergestellt.
      */
     public void addLabel(String label) {
-        Logger.logInfo(" :: Adding label: \"" + label + "\"", FlowGraph.class);
+        Logger.logInfoSupplier(() -> " :: Adding label: \"" + label + "\"", FlowGraph.class);
 
-        final FlowBasicBlock newBlock = new FlowBasicBlock(label);
+        final FlowBasicBlock newBlock = new FlowBasicBlock(label, this.constants);
 
         // Resolve missing successors/predecessors from jumps
-        if (this.predecessorMap.containsKey(label)) {
-            Logger.logInfo(" :: Handling predecessor-map entry:\n\t\t\t"
-                           + this.predecessorMap.get(label).getLabel()
-                           + "\n\t\t\t[...]\n\t\t\t"
-                           + this.predecessorMap.get(label).getLastInstruction(), FlowGraph.class);
-
-            this.predecessorMap.get(label).addSuccessorBlock(newBlock);
-            newBlock.addPredecessorBlock(this.predecessorMap.get(label));
+        final List<FlowBasicBlock> jumpPredecessors = this.predecessorMap.remove(label);
+        if (jumpPredecessors != null) {
+            for (FlowBasicBlock predecessor : jumpPredecessors) {
+                Logger.logInfoSupplier(() -> " :: Handling predecessor-map entry:\n\t\t\t"
+                                             + predecessor.getLabel()
+                                             + "\n\t\t\t[...]\n\t\t\t"
+                                             + predecessor.getLastInstruction(), FlowGraph.class);
+
+                predecessor.addSuccessorBlock(newBlock);
+                newBlock.addPredecessorBlock(predecessor);
+            }
         }
 
-        final Optional<FlowBasicBlock> currentBlock = this.getCurrentBlock();
-        if (currentBlock.isPresent()) {
-            newBlock.addPredecessorBlock(currentBlock.get()); // Obvious predecessor of new block
-            currentBlock.get().addSuccessorBlock(newBlock); // Obvious successor of current block
+        final FlowBasicBlock currentBlock = this.getCurrentBlock();
+        if (currentBlock != null) {
+            newBlock.addPredecessorBlock(currentBlock); // Obvious predecessor of new block
+            currentBlock.addSuccessorBlock(newBlock); // Obvious successor of current block
         }
 
-        this.basicBlocks.add(newBlock);
+        this.appendBlock(newBlock);
     }
 
     /**
@@ -82,58 +126,95 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
      * @param jumpInstruction Der verwendete Sprungbefehl.
      */
     public void addJump(String jumpInstruction, String label) {
-        Logger.logInfo(" :: Adding jump to label \"" + label + "\"", FlowGraph.class);
+        Logger.logInfoSupplier(() -> " :: Adding jump to label \"" + label + "\"", FlowGraph.class);
 
         this.addInstruction(jumpInstruction, label);
 
-        final FlowBasicBlock newBlock = new FlowBasicBlock();
+        final FlowBasicBlock newBlock = new FlowBasicBlock("", this.constants);
+        final FlowBasicBlock currentBlock = this.getCurrentBlock();
 
-        if (!"goto".equals(jumpInstruction)) {
+        if (!Opcode.fromMnemonic(jumpInstruction).isGoto()) {
             // Goto always jumps, so we don't have a direct relation in order of the code
 
-            final Optional<FlowBasicBlock> currentBlock = this.getCurrentBlock();
-            if (currentBlock.isPresent()) {
-
-                newBlock.addPredecessorBlock(currentBlock.get()); // Obvious predecessor of new block
-                currentBlock.get().addSuccessorBlock(newBlock); // Obvious successor of current block
-            }
+            newBlock.addPredecessorBlock(currentBlock); // Obvious predecessor of new block
+            currentBlock.addSuccessorBlock(newBlock); // Obvious successor of current block
         }
 
         // Jumped successor
-        final Optional<FlowBasicBlock> labelBlock = this.getBlockByLabel(label);
-        final Optional<FlowBasicBlock> currentBlock = this.getCurrentBlock();
+        final FlowBasicBlock labelBlock = this.labelIndex.get(label);
 
-        if (labelBlock.isPresent()) {
+        if (labelBlock != null) {
             // Successor exists
 
-            if (currentBlock.isPresent()) {
-                currentBlock.get().addSuccessorBlock(labelBlock.get());
-                labelBlock.get().addPredecessorBlock(currentBlock.get());
-            }
+            currentBlock.addSuccessorBlock(labelBlock);
+            labelBlock.addPredecessorBlock(currentBlock);
         } else {
             // Successor doesn't exist, so wait until it does
 
             // Current node is predecessor of label-block
-            currentBlock.ifPresent(flowBasicBlock -> Logger.logInfo(" :: Adding entry to predecessor-map: \n\t\t\t"
-                                                                    + flowBasicBlock.getLabel() + "\n\t\t\t[...]\n\t\t\t"
-                                                                    + flowBasicBlock.getLastInstruction(), FlowGraph.class));
-            currentBlock.ifPresent(flowBasicBlock -> this.predecessorMap.put(label, flowBasicBlock));
+            Logger.logInfoSupplier(() -> " :: Adding entry to predecessor-map: \n\t\t\t"
+                                         + currentBlock.getLabel() + "\n\t\t\t[...]\n\t\t\t"
+                                         + currentBlock.getLastInstruction(), FlowGraph.class);
+            this.predecessorMap.computeIfAbsent(label, key -> new ArrayList<>(1)).add(currentBlock);
         }
 
-        this.basicBlocks.add(newBlock);
+        this.appendBlock(newBlock);
     }
 
     public void addInstruction(String instruction, String... args) {
-        Logger.logInfo(" :: Adding instruction \"" + instruction + "\"", FlowGraph.class);
+        Logger.logInfoSupplier(() -> " :: Adding instruction \"" + instruction + "\"", FlowGraph.class);
 
         if (this.basicBlocks.isEmpty()) {
-            this.basicBlocks.add(new FlowBasicBlock("START")); // First block doesn't exist
+            this.appendBlock(new FlowBasicBlock("START", this.constants)); // First block doesn't exist
         }
 
-        final Optional<FlowBasicBlock> currentBlock = this.getCurrentBlock();
-
         // Add to last block
-        currentBlock.ifPresent(flowBasicBlock -> flowBasicBlock.addInstruction(instruction, args));
+        final FlowBasicBlock currentBlock = this.getCurrentBlock();
+        if (currentBlock.getLine() == 0) {
+            currentBlock.setLine(this.currentLine);
+        }
+        currentBlock.addInstruction(instruction, args);
+    }
+
+    /**
+     * Setzt die Quellzeile für die folgenden Instructions, ein Block bekommt die Zeile seiner ersten Instruction.
+     */
+    public void setLine(int line) {
+        this.currentLine = line;
+    }
+
+    /**
+     * Lädt eine int-Konstante mit dem kürzesten passenden Befehl, siehe {@link Opcode#forInt(int)}.
+     */
+    public void addIntConstant(int value) {
+        final Opcode opcode = Opcode.forInt(value);
+
+        this.addInstruction(opcode.getMnemonic(), opcode.intArguments(value));
+    }
+
+    private void appendBlock(FlowBasicBlock block) {
+        block.setOrdinal(this.basicBlocks.size());
+        this.basicBlocks.add(block);
+
+        if (!block.getLabel().isBlank()) {
+            this.labelIndex.putIfAbsent(block.getLabel(), block);
+        }
+    }
+
+    /**
+     * Vergibt die Ordinals nach dem Entfernen von Blöcken neu und baut den Label-Index neu auf.
+     */
+    private void reindex() {
+        this.labelIndex.clear();
+
+        for (int i = 0; i < this.basicBlocks.size(); i++) {
+            final FlowBasicBlock block = this.basicBlocks.get(i);
+            block.setOrdinal(i);
+
+            if (!block.getLabel().isBlank()) {
+                this.labelIndex.putIfAbsent(block.getLabel(), block);
+            }
+        }
     }
 
     /**
@@ -148,7 +229,7 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
         // Collect removable blocks
         for (FlowBasicBlock block : this.basicBlocks) {
             if (block.isEmpty()) {
-                Logger.logInfo(" :: Marking block nr. " + this.basicBlocks.indexOf(block) + " as removable.", FlowGraph.class);
+                Logger.logInfoSupplier(() -> " :: Marking block nr. " + block.getOrdinal() + " as removable.", FlowGraph.class);
                 toRemove.add(block);
             }
         }
@@ -160,8 +241,8 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
             for (FlowBasicBlock predecessor : block.getBlockPredecessorSet()) {
                 for (FlowBasicBlock successor : block.getBlockSuccessorSet()) {
 
-                    Logger.logInfo(" :: Rerouting block nr. " + this.basicBlocks.indexOf(predecessor)
-                                   + " to block nr. " + this.basicBlocks.indexOf(successor), FlowGraph.class);
+                    Logger.logInfoSupplier(() -> " :: Rerouting block nr. " + predecessor.getOrdinal()
+                                                 + " to block nr. " + successor.getOrdinal(), FlowGraph.class);
                     predecessor.addSuccessorBlock(successor);
                     successor.addPredecessorBlock(predecessor);
                 }
@@ -178,31 +259,160 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
         }
 
         this.basicBlocks.removeAll(toRemove);
+        this.reindex();
 
         Logger.logDebug("Successfully removed all empty blocks and rerouted graph", FlowGraph.class);
     }
 
-    private Optional<FlowBasicBlock> getBlockByLabel(String label) {
-        return this.basicBlocks.stream()
-                               .filter(block -> block.getLabel().equals(label))
-                               .findFirst();
+    /**
+     * Berechnet alle Predecessor/Successor-Verbindungen aus den Sprungbefehlen und der Reihenfolge der Blöcke neu.
+     * Wird nach Transformationen benötigt, die Blöcke entfernen oder Sprungziele ändern.
+     */
+    public void rebuildEdges() {
+        Logger.logDebug("Rebuilding predecessor/successor-sets", FlowGraph.class);
+
+        for (FlowBasicBlock block : this.basicBlocks) {
+            block.clearEdges();
+        }
+
+        for (int i = 0; i < this.basicBlocks.size(); i++) {
+            final FlowBasicBlock block = this.basicBlocks.get(i);
+            final Optional<FlowInstruction> last = block.getLastInstruction();
+
+            if (last.isPresent() && last.get().isJump()) {
+                final FlowBasicBlock target = this.labelIndex.get(last.get().getArgs()[0]);
+
+                if (target != null) {
+                    block.addSuccessorBlock(target);
+                    target.addPredecessorBlock(block);
+                }
+            }
+
+            if ((last.isEmpty() || !last.get().isGoto()) && i + 1 < this.basicBlocks.size()) {
+                final FlowBasicBlock next = this.basicBlocks.get(i + 1);
+
+                block.addSuccessorBlock(next);
+                next.addPredecessorBlock(block);
+            }
+        }
+    }
+
+    /**
+     * Entfernt Blöcke aus dem Graph, die Verbindungen müssen danach mit {@link #rebuildEdges()} neu berechnet werden.
+     */
+    public void removeBlocks(Collection<FlowBasicBlock> blocks) {
+        this.basicBlocks.removeAll(blocks instanceof Set ? blocks : new HashSet<>(blocks));
+        this.reindex();
+    }
+
+    /**
+     * Ersetzt die Blöcke durch eine neue Anordnung, der erste Block bleibt der Einstiegsblock.
+     * Die Verbindungen müssen danach mit {@link #rebuildEdges()} neu berechnet werden.
+     * Neue Blöcke müssen die {@link #getConstants()} dieses Graphen verwenden.
+     */
+    public void replaceBlocks(List<FlowBasicBlock> blocks) {
+        this.basicBlocks.clear();
+        this.basicBlocks.addAll(blocks);
+        this.reindex();
     }
 
     /**
      * Der aktuelle Block ist immer der letzte Block.
+     *
+     * @return Der letzte Block oder null, wenn der Graph leer ist.
      */
-    private Optional<FlowBasicBlock> getCurrentBlock() {
+    private FlowBasicBlock getCurrentBlock() {
         if (this.basicBlocks.isEmpty()) {
-            return Optional.empty();
+            return null;
         }
 
-        return Optional.of(this.basicBlocks.get(this.basicBlocks.size() - 1));
+        return this.basicBlocks.get(this.basicBlocks.size() - 1);
+    }
+
+    // Getters
+
+    public FlowGraphHead getHead() {
+        return this.exportHead;
+    }
+
+    public ConstantTable getConstants() {
+        return this.constants;
+    }
+
+    /**
+     * Ersetzt den Kopf, z.B. wenn eine Instrumentierung Felder und Hilfsmethoden braucht
+     * oder eine Optimierung die Limits verändert.
+     */
+    public void setHead(FlowGraphHead head) {
+        this.exportHead = head;
+        this.exportTail = new FlowGraphTail(head);
+    }
+
+    /**
+     * Ein neues Label aus Präfix und Zähler, das noch kein Block im Graph trägt.
+     * Jedes Label wird nur einmal vergeben, auch wenn der Block erst später mit {@link #replaceBlocks(List)}
+     * in den Graph kommt.
+     */
+    public String newLabel(String prefix) {
+        int counter = this.labelCounters.getOrDefault(prefix, 0);
+        String label;
+        do {
+            label = prefix + counter++;
+        } while (this.labelIndex.containsKey(label));
+
+        this.labelCounters.put(prefix, counter);
+
+        return label;
+    }
+
+    /**
+     * @return Der erste Block mit dem Label oder null.
+     */
+    public FlowBasicBlock getBlockByLabel(String label) {
+        return this.labelIndex.get(label);
+    }
+
+    public FlowGraphTail getTail() {
+        return this.exportTail;
+    }
+
+    public List<FlowBasicBlock> getBlocks() {
+        return Collections.unmodifiableList(this.basicBlocks);
+    }
+
+    public int size() {
+        return this.basicBlocks.size();
+    }
+
+    public boolean isEmpty() {
+        return this.basicBlocks.isEmpty();
     }
 
     // Printing
 
     public String printToImage() {
-        final Optional<FlowBasicBlock> currentBlock = this.getCurrentBlock();
+        GraphvizCaller.callGraphviz(this.printDot(BlockProfile.empty()), "FlowGraph");
+
+        return "Successfully exported the graph as Image: FlowGraph.svg";
+    }
+
+    /**
+     * Exportiert den Graph mit den Ausführungszählern aus einem Profil.
+     * Die Blöcke werden umso kräftiger eingefärbt, je öfter sie ausgeführt wurden (logarithmisch).
+     */
+    public String printToImage(BlockProfile profile) {
+        if (!profile.matches(this)) {
+            throw new CodeGenerationException("The profile doesn't match the blocks of the flow-graph");
+        }
+
+        GraphvizCaller.callGraphviz(this.printDot(profile), "FlowGraphProfile");
+
+        return "Successfully exported the profiled graph as Image: FlowGraphProfile.svg";
+    }
+
+    private StringBuilder printDot(BlockProfile profile) {
+        final FlowBasicBlock currentBlock = this.getCurrentBlock();
+        final double maxCount = Math.log1p(profile.getMaxCount());
 
         final StringBuilder dot = new StringBuilder();
 
@@ -213,22 +423,38 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
             dot.append("\"")
                .append(block.getId())
                .append("\" [label=\"{<f0> ")
-               .append(this.basicBlocks.indexOf(block))
+               .append(block.getOrdinal())
                .append(": ")
-               .append(block.getLabel())
-               .append("|<f1> ")
-               .append(block.printInst())
-               .append("}\"];\n");
+               .append(block.getLabel());
+
+            if (profile.getBlockCount() > 0) {
+                final long count = profile.getCount(block.getOrdinal());
+                final double heat = maxCount > 0 ? Math.log1p(count) / maxCount : 0;
+
+                dot.append(" (line ")
+                   .append(block.getLine())
+                   .append(")|<f2> count: ")
+                   .append(count)
+                   .append("|<f1> ")
+                   .append(block.printInst())
+                   .append("}\" style=filled fillcolor=\"")
+                   .append(String.format(Locale.ROOT, "0.000 %.3f 1.000", heat))
+                   .append("\"];\n");
+            } else {
+                dot.append("|<f1> ")
+                   .append(block.printInst())
+                   .append("}\"];\n");
+            }
         }
 
         dot.append("START[label=\"START\" shape=box];\n")
            .append("END[label=\"END\" shape=box];\n");
 
 
-        if (!this.basicBlocks.isEmpty() && currentBlock.isPresent()) {
+        if (currentBlock != null) {
 
             dot.append("START -> \"").append(this.basicBlocks.get(0).getId()).append("\";\n");
-            dot.append("\"").append(currentBlock.get().getId()).append("\" -> END;\n");
+            dot.append("\"").append(currentBlock.getId()).append("\" -> END;\n");
 
             for (FlowBasicBlock block : this.basicBlocks) {
                 // Successors
@@ -255,22 +481,25 @@ public class FlowGraph implements Iterable<FlowBasicBlock> {
 
         dot.append("}");
 
-        GraphvizCaller.callGraphviz(dot, "FlowGraph");
-
-        return "Successfully exported the graph as Image: FlowGraph.svg";
+        return dot;
     }
 
     // Overrides
 
+    /**
+     * Der Jasmin-Assembler des Programms, Dateien sollten direkt mit {@link JasminEmitter} geschrieben werden.
+     */
     @Override
     public String toString() {
-        final String blocksString = this.basicBlocks.stream()
-                                                    .map(FlowBasicBlock::toString)
-                                                    .collect(Collectors.joining());
+        final StringWriter out = new StringWriter();
+
+        try {
+            JasminEmitter.emit(this, out);
+        } catch (IOException e) {
+            throw new IllegalStateException("StringWriter can't fail", e);
+        }
 
-        return this.exportHead
-               + blocksString
-               + this.exportTail;
+        return out.toString();
     }
 
     @Override
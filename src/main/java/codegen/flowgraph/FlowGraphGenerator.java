@@ -2,7 +2,10 @@ package codegen.flowgraph;
 
 import codegen.CodeGenerationException;
 import codegen.analysis.StackSizeAnalyzer;
+import parser.ast.CompactSyntaxTree;
+import parser.ast.SethiUllmanLabeling;
 import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeCursor;
 import parser.ast.SyntaxTreeNode;
 import typechecker.TypeChecker;
 import util.Logger;
@@ -11,19 +14,48 @@ import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
 
 /**
  * Erzeugt den SourceCode in FlussGraph-Darstellung.
  */
 public final class FlowGraphGenerator {
 
-    private final SyntaxTree tree;
+    /**
+     * Die Puffergröße in Zeichen für die gepufferte Ausgabe, wenn keine angegeben ist.
+     */
+    public static final int DEFAULT_OUTPUT_BUFFER = 8192;
+
+    /**
+     * Die Anzahl der Rumpfkopien beim Vervielfachen von Zählschleifen, wenn keine angegeben ist.
+     */
+    public static final int DEFAULT_UNROLL_FACTOR = 4;
+
+    /**
+     * Die Bytes für Vergleich und Rücksprung einer vervielfachten Schleife.
+     */
+    private static final int UNROLL_OVERHEAD = 10;
+
+    private final CompactSyntaxTree tree;
 
     /**
-     * Enthält den Rückgabetypen von jedem Expression-Node.
+     * Läuft beim Erzeugen über den Baum, die einzelnen Anweisungen werden erst für den {@link InstructionSelector}
+     * als Objekte erzeugt.
+     */
+    private final SyntaxTreeCursor cursor;
+
+    /**
+     * Enthält den Rückgabetypen von jedem Expression-Node nach seinem Index im Baum.
      * Wird erstellt im {@link TypeChecker}.
      */
+    private final String[] nodeTypes;
+
+    /**
+     * Die Rückgabetypen der gerade als Objekte erzeugten Anweisung, siehe {@link #materialize(int)}.
+     */
     private final Map<SyntaxTreeNode, String> nodeTypeMap;
 
     /**
@@ -33,53 +65,154 @@ public final class FlowGraphGenerator {
 
     private final FlowGraph graph;
 
+    /**
+     * Wählt die Instructions für Ausdrücke, Zuweisungen und Bedingungen.
+     */
+    private InstructionSelector selector;
+
     private int labelCounter;
 
-    private FlowGraphGenerator(Map<String, Integer> varMap, SyntaxTree tree, Map<SyntaxTreeNode, String> nodeTypeMap, FlowGraph graph) {
+    /**
+     * Die Anzahl der Rumpfkopien pro Durchlauf einer vervielfachten Zählschleife, 1 wenn nicht vervielfacht wird.
+     */
+    private int unrollFactor;
+
+    /**
+     * Die geschätzten Bytes, um die main durch das Vervielfachen noch wachsen darf.
+     */
+    private int unrollBudget;
+
+    private FlowGraphGenerator(Map<String, Integer> varMap, CompactSyntaxTree tree, String[] nodeTypes, FlowGraph graph) {
         this.varMap = varMap;
         this.tree = tree;
-        this.nodeTypeMap = nodeTypeMap;
+        this.cursor = tree.cursor();
+        this.nodeTypes = nodeTypes;
+        this.nodeTypeMap = new HashMap<>();
         this.graph = graph;
+        this.selector = this.newSelector(SelectionRules.DEFAULT);
+        this.unrollFactor = 1;
     }
 
     /**
      * @param source Das Source-File, welches compiliert wird (Optionaler Jasmin-Parameter)
      */
     public static FlowGraphGenerator fromAST(SyntaxTree tree, Map<SyntaxTreeNode, String> nodeTypeMap, String source) {
+        return fromAST(tree, nodeTypeMap, source, 0);
+    }
+
+    /**
+     * @param source       Das Source-File, welches compiliert wird (Optionaler Jasmin-Parameter)
+     * @param outputBuffer Ist der Wert größer 0, sammelt println die Ausgabe in einem StringBuilder,
+     *                     der ab dieser Anzahl Zeichen und am Ende von main geschrieben wird.
+     */
+    public static FlowGraphGenerator fromAST(SyntaxTree tree, Map<SyntaxTreeNode, String> nodeTypeMap, String source,
+                                             int outputBuffer) {
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(tree);
+        final String[] nodeTypes = new String[compact.size()];
+        CompactSyntaxTree.forEachIndex(tree, (node, index) -> nodeTypes[index] = nodeTypeMap.get(node));
+
+        return fromAST(compact, nodeTypes, source, outputBuffer);
+    }
+
+    /**
+     * @param nodeTypes    Die Rückgabetypen nach Index, siehe {@link TypeChecker#validate(CompactSyntaxTree)}.
+     * @param source       Das Source-File, welches compiliert wird (Optionaler Jasmin-Parameter)
+     * @param outputBuffer Ist der Wert größer 0, sammelt println die Ausgabe in einem StringBuilder,
+     *                     der ab dieser Anzahl Zeichen und am Ende von main geschrieben wird.
+     */
+    public static FlowGraphGenerator fromAST(CompactSyntaxTree tree, String[] nodeTypes, String source, int outputBuffer) {
         if (tree.isEmpty()) {
             throw new CodeGenerationException("Empty File can't be compiled");
         }
 
         final Map<String, Integer> varMap = initVarMap(tree);
-        final FlowGraph graph = initFlowGraph(tree, varMap, source);
+        final FlowGraph graph = initFlowGraph(tree, varMap, source, outputBuffer);
+
+        return new FlowGraphGenerator(varMap, tree, nodeTypes, graph);
+    }
+
+    /**
+     * Wählt die Instructions mit anderen Regeln aus, z.B. {@link SelectionRules#SINGLE_NODE} zum Vergleich.
+     */
+    FlowGraphGenerator withRules(List<SelectionRule> rules) {
+        this.selector = this.newSelector(rules);
+
+        return this;
+    }
+
+    private InstructionSelector newSelector(List<SelectionRule> rules) {
+        // SUB, DIV und MOD werten wie im StackSizeAnalyzer den Operanden mit höherem Stackbedarf zuerst aus
+        return new InstructionSelector(rules, this.graph, this.varMap, this.nodeTypeMap, new SethiUllmanLabeling(),
+                                       () -> this.labelCounter++);
+    }
+
+    /**
+     * Vervielfacht die innersten Zählschleifen, siehe {@link CountedLoop}.
+     * Vor jeder solchen Schleife läuft eine Schleife mit factor Kopien des Rumpfes und nur einem Vergleich,
+     * die ursprüngliche Schleife übernimmt danach die restlichen Durchläufe.
+     *
+     * @param factor    Die Anzahl der Rumpfkopien, 1 schaltet das Vervielfachen ab.
+     * @param sizeLimit Die Kopien aller Schleifen dürfen die geschätzte Größe von main höchstens bis hierhin wachsen lassen.
+     */
+    public FlowGraphGenerator unrollLoops(int factor, int sizeLimit) {
+        if (factor < 1) {
+            throw new IllegalArgumentException("Der Faktor zum Vervielfachen muss mindestens 1 sein");
+        }
+
+        this.unrollFactor = factor;
+        this.unrollBudget = sizeLimit - estimateSize(this.tree, 0);
+
+        return this;
+    }
+
+    /**
+     * Eine grobe obere Schranke für die Bytes, die für einen Teilbaum erzeugt werden.
+     * Jeder Knoten zählt wie ein Load, Store oder eine Konstante mit Index,
+     * Vergleiche, Verzweigungen und Ausgaben zusätzlich mit ihren Sprüngen und Aufrufen.
+     */
+    static int estimateSize(CompactSyntaxTree tree, int node) {
+        int size = switch (tree.getName(node)) {
+            case "expr" -> 8;
+            case "cond", "loop" -> 6;
+            case "print" -> 12;
+            default -> 3;
+        };
+
+        for (int child = tree.getFirstChild(node); child != CompactSyntaxTree.NONE; child = tree.getNextSibling(child)) {
+            size += estimateSize(tree, child);
+        }
 
-        return new FlowGraphGenerator(varMap, tree, nodeTypeMap, graph);
+        return size;
     }
 
-    private static Map<String, Integer> initVarMap(SyntaxTree tree) {
+    private static Map<String, Integer> initVarMap(CompactSyntaxTree tree) {
         Logger.logDebug("Initializing variable-map", FlowGraphGenerator.class);
 
         final Map<String, Integer> varMap = new HashMap<>();
 
-        final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
-        stack.push(tree.getRoot());
+        final Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(0);
 
         int currentVarNumber = 0;
 
         // Assign variables to map: Symbol -> jasminLocalVarNr.
         while (!stack.isEmpty()) {
-            final SyntaxTreeNode current = stack.pop();
+            final int current = stack.pop();
 
-            if ("declaration".equals(current.getName())) {
+            if ("declaration".equals(tree.getName(current))) {
                 // New variables only come from declarations
 
+                final String identifier = tree.getValue(tree.getFirstChild(current));
+
                 currentVarNumber++;
-                varMap.put(current.getChildren().get(0).getValue(), currentVarNumber);
-                Logger.logInfo("Assign local variable \"" + current.getChildren().get(0).getValue() + "\" -> \""
-                               + current.getValue() + "\" to slot " + currentVarNumber, FlowGraphGenerator.class);
+                varMap.put(identifier, currentVarNumber);
+                Logger.logInfo("Assign local variable \"" + identifier + "\" -> \""
+                               + tree.getValue(current) + "\" to slot " + currentVarNumber, FlowGraphGenerator.class);
             }
 
-            current.getChildren().forEach(stack::push);
+            for (int child = tree.getFirstChild(current); child != CompactSyntaxTree.NONE; child = tree.getNextSibling(child)) {
+                stack.push(child);
+            }
         }
 
         Logger.logDebug("Successfully initialized variable-map", FlowGraphGenerator.class);
@@ -87,13 +220,13 @@ public final class FlowGraphGenerator {
         return Collections.unmodifiableMap(varMap);
     }
 
-    private static FlowGraph initFlowGraph(SyntaxTree tree, Map<String, Integer> varMap, String source) {
+    private static FlowGraph initFlowGraph(CompactSyntaxTree tree, Map<String, Integer> varMap, String source, int outputBuffer) {
         final String bytecodeVersion = "49.0";
-        final String clazz = tree.getRoot().getChildren().get(0).getValue();
+        final String clazz = tree.getValue(tree.getFirstChild(0));
         final int stackSize = StackSizeAnalyzer.runStackModel(tree);
         final int localCount = varMap.size() + 1;
 
-        return new FlowGraph(bytecodeVersion, source, clazz, stackSize, localCount);
+        return new FlowGraph(new FlowGraphHead(bytecodeVersion, source, clazz, stackSize, localCount, outputBuffer));
     }
 
     /**
@@ -104,14 +237,16 @@ public final class FlowGraphGenerator {
     public FlowGraph generateGraph() {
         Logger.logDebug("Beginning generation of source-graph", FlowGraphGenerator.class);
 
-        if (this.tree.getRoot().getChildren().size() == 1) {
+        if (this.tree.getChildCount(0) == 1) {
             // Empty main-method
 
             return this.graph;
         }
 
         // Skip the first 2 identifiers: ClassName, MainArgs
-        this.generateNode(this.tree.getRoot().getChildren().get(1));
+        this.cursor.toChild(1);
+        this.generateNode();
+        this.cursor.toParent();
         this.graph.purgeEmptyBlocks();
 
         Logger.logDebug("Source-graph generation complete", FlowGraphGenerator.class);
@@ -120,50 +255,77 @@ public final class FlowGraphGenerator {
     }
 
     /**
-     * Erzeugt den FlussGraphen für die angegebene Wurzel.
-     * Der Wurzelname wird einer Methode zugewiesen.
-     * Diese wird aufgerufen und erzeugt den entsprechenden Teilbaum.
+     * Erzeugt den FlussGraphen für den Knoten unter dem Cursor.
+     * Der Knotenname wird einer Methode zugewiesen.
+     * Diese wird aufgerufen und erzeugt den entsprechenden Teilbaum, der Cursor steht danach wieder auf dem Knoten.
      */
-    private void generateNode(SyntaxTreeNode root) {
-        switch (root.getName()) {
-            case "cond" -> this.condNode(root);
-            case "loop" -> this.loopNode(root);
-            case "assignment" -> this.assignNode(root);
-            case "expr" -> this.exprNode(root);
-            case "INTEGER_LIT", "STRING_LIT" -> this.intStringLiteralNode(root);
-            case "BOOLEAN_LIT" -> this.boolLiteralNode(root);
-            case "IDENTIFIER" -> this.identifierNode(root);
-            case "print" -> this.printlnNode(root);
-            default -> root.getChildren().forEach(this::generateNode);
+    private void generateNode() {
+        if (this.cursor.getLine() > 0) {
+            this.graph.setLine(this.cursor.getLine());
+        }
+
+        final int node = this.cursor.getNode();
+
+        switch (this.cursor.getName()) {
+            case "cond" -> this.condNode();
+            case "loop" -> this.loopNode();
+            case "assignment" -> this.selector.generate(this.materialize(node), Nonterminal.STATEMENT);
+            case "expr", "INTEGER_LIT", "STRING_LIT", "BOOLEAN_LIT", "IDENTIFIER" -> this.selector.generate(this.materialize(node), Nonterminal.VALUE);
+            case "print" -> this.printlnNode();
+            default -> this.generateChildren();
+        }
+    }
+
+    private void generateChildren() {
+        if (this.cursor.toFirstChild()) {
+            do {
+                this.generateNode();
+            } while (this.cursor.toNextSibling());
+
+            this.cursor.toParent();
         }
     }
 
+    /**
+     * Erzeugt den Teilbaum ab node als Objekte für den {@link InstructionSelector}.
+     * Die Typen der vorherigen Anweisung werden dabei verworfen, damit nie mehr als eine Anweisung als Objekte existiert.
+     */
+    private SyntaxTreeNode materialize(int node) {
+        this.nodeTypeMap.clear();
+
+        return this.tree.toNode(node, (created, index) -> {
+            if (this.nodeTypes[index] != null) {
+                this.nodeTypeMap.put(created, this.nodeTypes[index]);
+            }
+        });
+    }
+
     /**
      * Erzeugt den Teilbaum für einen If-Knoten.
      */
-    private void condNode(SyntaxTreeNode root) {
+    private void condNode() {
         Logger.logInfo("Generating conditional node", FlowGraphGenerator.class);
 
         final int currentLabel = this.labelCounter;
         this.labelCounter++;
 
-        // Condition If ( ... ) {
-        this.generateNode(root.getChildren().get(0));
-
-        // Jump if condition false
-        this.graph.addJump("ifeq", "IFfalse" + currentLabel);
+        // Condition If ( ... ) {, jump if condition false
+        this.cursor.toFirstChild();
+        this.selector.generateJumpIfFalse(this.materialize(this.cursor.getNode()), "IFfalse" + currentLabel);
 
         // IFtrue branch (gets executed without jump)
-        this.generateNode(root.getChildren().get(1));
+        this.cursor.toNextSibling();
+        this.generateNode();
         this.graph.addJump("goto", "IFend" + currentLabel); // Skip IFfalse branch
 
         // IFfalse branch (gets executed after jump)
         this.graph.addLabel("IFfalse" + currentLabel);
-        if (root.getChildren().size() == 3) {
+        if (this.cursor.toNextSibling()) {
             // Else exists
 
-            this.generateNode(root.getChildren().get(2));
+            this.generateNode();
         }
+        this.cursor.toParent();
 
         // IFend branch
         this.graph.addLabel("IFend" + currentLabel);
@@ -172,23 +334,27 @@ public final class FlowGraphGenerator {
     /**
      * Erzeugt den Teilbaum für einen While-Knoten.
      */
-    private void loopNode(SyntaxTreeNode root) {
+    private void loopNode() {
         Logger.logInfo("Generating loop node", FlowGraphGenerator.class);
 
+        if (this.unrollFactor > 1) {
+            this.unrolledLoopNode();
+        }
+
         final int currentLabel = this.labelCounter;
         this.labelCounter++;
 
         // LOOPstart label for loop repetition
         this.graph.addLabel("LOOPstart" + currentLabel);
 
-        // Condition while ( ... ) {
-        this.generateNode(root.getChildren().get(0).getChildren().get(0));
-
-        // Jump out of loop if condition is false
-        this.graph.addJump("ifeq", "LOOPend" + currentLabel);
+        // Condition while ( ... ) {, jump out of loop if condition is false
+        final int condition = this.tree.getFirstChild(this.tree.getFirstChild(this.cursor.getNode()));
+        this.selector.generateJumpIfFalse(this.materialize(condition), "LOOPend" + currentLabel);
 
         // Loop body (gets executed without jump)
-        this.generateNode(root.getChildren().get(1));
+        this.cursor.toChild(1);
+        this.generateNode();
+        this.cursor.toParent();
         this.graph.addJump("goto", "LOOPstart" + currentLabel); // Repeat loop
 
         // Loop end
@@ -196,199 +362,106 @@ public final class FlowGraphGenerator {
     }
 
     /**
-     * Erzeugt den Teilbaum für Assignment-Knoten.
-     * Die JVM-Stacksize wird dabei um 1 verringert, da istore/astore 1 Argument konsumieren.
-     */
-    private void assignNode(SyntaxTreeNode root) { //! Stack - 1
-        Logger.logInfo("Generating assignment node", FlowGraphGenerator.class);
-
-        this.generateNode(root.getChildren().get(0));
-
-        final String type = this.nodeTypeMap.get(root.getChildren().get(0));
-        final String inst = switch (type) {
-            case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "istore";
-            case "STRING_TYPE" -> "astore";
-            default -> throw new CodeGenerationException("Unexpected value: " + type);
-        };
-
-        Logger.logInfo("assign(): Node \"" + root.getName() + ": " + root.getValue() + "\" => " + inst, FlowGraphGenerator.class);
-
-        this.graph.addInstruction(inst, this.varMap.get(root.getValue()).toString());
-    }
-
-    /**
-     * Wählt die entsprechende Methode für mathematische oder logische Ausdrücke.
+     * Erzeugt für eine Zählschleife die vervielfachte Schleife, die vor der ursprünglichen Schleife läuft.
+     * Sie vergleicht mit der angepassten Grenze direkt über if_icmp, ohne den Wahrheitswert zu erzeugen.
+     * Für andere Schleifen oder wenn das Budget nicht reicht wird nichts erzeugt.
      */
-    private void exprNode(SyntaxTreeNode root) {
-        if ("INTEGER_TYPE".equals(this.nodeTypeMap.get(root))) {
-            this.intExpr(root);
-        } else if ("BOOLEAN_TYPE".equals(this.nodeTypeMap.get(root))) {
-            this.boolExpr(root);
+    private void unrolledLoopNode() {
+        final int node = this.cursor.getNode();
+        if (this.containsLoop(this.tree.getChild(node, 1))) {
+            return; // Nur innerste Schleifen, die äußeren müssen dafür nicht als Objekte erzeugt werden
         }
-    }
 
-    /**
-     * Erzeugt den Teilbaum für mathematische Ausdrücke.
-     * Bei unären Operatoren bleibt die Stackgröße konstant (1 konsumiert, 1 Ergebnis),
-     * bei binären Operatoren sinkt die Stackgröße um 1 (2 konsumiert, 1 Ergebnis).
-     */
-    private void intExpr(SyntaxTreeNode root) {
-        Logger.logInfo("Generating integer expression node: \"" + root.getName() + ": " + root.getValue() + "\"", FlowGraphGenerator.class);
-
-        String inst = "";
-
-        if (root.getChildren().size() == 1) { //! Stack + 0
-            // Unary operator
-
-            this.generateNode(root.getChildren().get(0));
-
-            inst = switch (root.getValue()) {
-                case "ADD" -> "";
-                case "SUB" -> "ineg";
-                default -> throw new CodeGenerationException("Unexpected value: " + root.getValue());
-            };
-        } else if (root.getChildren().size() == 2) { //! Stack - 1
-            // Binary operator
-
-            this.generateNode(root.getChildren().get(0));
-            this.generateNode(root.getChildren().get(1));
-
-            inst = switch (root.getValue()) {
-                case "ADD" -> "iadd"; // Integer
-                case "SUB" -> "isub";
-                case "MUL" -> "imul";
-                case "DIV" -> "idiv";
-                case "MOD" -> "irem"; // Remainder operator
-                default -> throw new CodeGenerationException("Unexpected value: " + root.getValue());
-            };
+        final Optional<CountedLoop> counted = CountedLoop.fromLoop(this.materialize(node));
+        if (counted.isEmpty()) {
+            return;
         }
 
-        Logger.logInfo("intExpr(): Node \"" + root.getName() + ": " + root.getValue() + "\" => " + inst, FlowGraphGenerator.class);
+        final CountedLoop loop = counted.get();
+        final OptionalInt bound = loop.getUnrolledBound(this.unrollFactor);
+        final int size = this.unrollFactor * estimateSize(this.tree, this.tree.getChild(node, 1)) + UNROLL_OVERHEAD;
+        if (bound.isEmpty() || size > this.unrollBudget) {
+            Logger.logInfo("Not unrolling counted loop over \"" + loop.getVariable() + "\", size " + size
+                           + ", budget " + this.unrollBudget, FlowGraphGenerator.class);
+            return;
+        }
 
-        this.graph.addInstruction(inst);
-    }
+        Logger.logInfo("Unrolling counted loop over \"" + loop.getVariable() + "\" with step " + loop.getStep()
+                       + " " + this.unrollFactor + " times", FlowGraphGenerator.class);
 
-    /**
-     * Erzeugt den Teilbaum für logische Ausdrücke.
-     * Bei unären Operatoren wächst der Stack temporär um 1 (NOT pusht eine 1 für xor),
-     * bei binären Operatoren sinkt die Stackgröße um 1 (2 konsumiert, 1 Ergebnis).
-     */
-    private void boolExpr(SyntaxTreeNode node) {
-        Logger.logInfo("Generating boolean expression", FlowGraphGenerator.class);
+        this.unrollBudget -= size;
 
-        if (node.getChildren().size() == 1) { //! Stack + 1
-            // Unary operator
+        final int currentLabel = this.labelCounter;
+        this.labelCounter++;
 
-            if (!"NOT".equals(node.getValue())) {
-                // Possibility doesn't exist, would be frontend-error
+        this.graph.addLabel("UNROLLstart" + currentLabel);
 
-                throw new CodeGenerationException("Unexpected value: " + node.getValue());
-            }
+        // Condition i < N - (factor - 1) * step
+        this.graph.addInstruction("iload", this.varMap.get(loop.getVariable()).toString());
+        this.graph.addIntConstant(bound.getAsInt());
+        this.graph.addJump(loop.getExitJump(), "UNROLLend" + currentLabel);
 
-            this.generateNode(node.getChildren().get(0));
-
-            // 0 xor 1 = 1, 1 xor 1 = 0 => not
-            this.graph.addInstruction("ldc", "1");
-            this.graph.addInstruction("ixor");
-
-        } else if (node.getChildren().size() == 2) { //! Stack - 1
-            // Binary operator
-
-            final int currentLabel = this.labelCounter;
-            this.labelCounter++;
-
-            this.generateNode(node.getChildren().get(0));
-            this.generateNode(node.getChildren().get(1));
-
-            final String type = this.nodeTypeMap.get(node.getChildren().get(0));
-            final String cmpeq = switch (type) {
-                case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "if_icmpeq";
-                case "STRING_TYPE" -> "if_accmpeq";
-                default -> throw new CodeGenerationException("Unexpected value: " + type);
-            };
-            final String cmpne = switch (type) {
-                case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "if_icmpne";
-                case "STRING_TYPE" -> "if_accmpne";
-                default -> throw new CodeGenerationException("Unexpected value: " + type);
-            };
-
-            // The comparison operations need to jump
-            switch (node.getValue()) {
-                case "AND" -> this.graph.addInstruction("iand"); // Boolean
-                case "OR" -> this.graph.addInstruction("ior");
-                case "EQUAL" -> this.genComparisonInst(cmpeq, "EQ", currentLabel);
-                case "NOT_EQUAL" -> this.genComparisonInst(cmpne, "NE", currentLabel);
-                case "LESS" -> this.genComparisonInst("if_icmplt", "LT", currentLabel);
-                case "LESS_EQUAL" -> this.genComparisonInst("if_icmple", "LE", currentLabel);
-                case "GREATER" -> this.genComparisonInst("if_icmpgt", "GT", currentLabel);
-                case "GREATER_EQUAL" -> this.genComparisonInst("if_icmpge", "GE", currentLabel);
-                default -> throw new CodeGenerationException("Unexpected value: " + node.getValue());
-            }
+        this.cursor.toChild(1);
+        for (int i = 0; i < this.unrollFactor; i++) {
+            this.generateNode();
         }
-    }
-
-    /**
-     * Erzeugt die Instruktionen für eine Vergleichsoperation.
-     *
-     * @param cmpInst      Die Vergleichsanweisung
-     * @param labelPre     Das Labelpräfix, abhängig von der Art des Vergleichs
-     * @param currentLabel Der aktuelle Labelcounter
-     */
-    private void genComparisonInst(String cmpInst, String labelPre, int currentLabel) {
-        this.graph.addJump(cmpInst, labelPre + "true" + currentLabel); // If not equal jump to NEtrue
-        this.graph.addInstruction("ldc", "0"); // If false load 0
-        this.graph.addJump("goto", labelPre + "end" + currentLabel); // If false skip to true
-        this.graph.addLabel(labelPre + "true" + currentLabel);
-        this.graph.addInstruction("ldc", "1"); // If true load 1
-        this.graph.addLabel(labelPre + "end" + currentLabel);
-    }
-
-    // Leafs
+        this.cursor.toParent();
+        this.graph.addJump("goto", "UNROLLstart" + currentLabel);
 
-    private void intStringLiteralNode(SyntaxTreeNode node) { //! Stack + 1
-        Logger.logInfo("intStringLiteral(): Node \"" + node.getName() + ": " + node.getValue() + "\" => ldc", FlowGraphGenerator.class);
-
-        // bipush only pushes 1 byte as int
-        this.graph.addInstruction("ldc", node.getValue());
+        // Remaining iterations in the original loop
+        this.graph.addLabel("UNROLLend" + currentLabel);
     }
 
-    private void boolLiteralNode(SyntaxTreeNode node) { //! Stack + 1
-        Logger.logInfo("booleanLiteral(): Node \"" + node.getName() + ": " + node.getValue() + "\" => ldc", FlowGraphGenerator.class);
+    private boolean containsLoop(int node) {
+        if ("loop".equals(this.tree.getName(node))) {
+            return true;
+        }
 
-        final String val = "true".equals(node.getValue()) ? "1" : "0";
+        for (int child = this.tree.getFirstChild(node); child != CompactSyntaxTree.NONE; child = this.tree.getNextSibling(child)) {
+            if (this.containsLoop(child)) {
+                return true;
+            }
+        }
 
-        this.graph.addInstruction("ldc", val);
+        return false;
     }
 
-    private void identifierNode(SyntaxTreeNode node) { //! Stack + 1
-        final String type = this.nodeTypeMap.get(node);
-        final String inst = switch (type) {
-            case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "iload";
-            case "STRING_TYPE" -> "aload";
-            default -> throw new CodeGenerationException("Unexpected value: " + type);
-        };
-
-        Logger.logInfo("identifier(): Node \"" + node.getName() + ": " + node.getValue() + "\" => " + inst, FlowGraphGenerator.class);
+    private void printlnNode() { //! Stack + 1
+        final FlowGraphHead head = this.graph.getHead();
 
-        this.graph.addInstruction(inst, this.varMap.get(node.getValue()).toString());
-    }
+        if (head.isOutputBuffered()) {
+            this.graph.addInstruction("getstatic", head.getClazz() + "/" + FlowGraphHead.OUTPUT_FIELD,
+                                      FlowGraphHead.OUTPUT_DESCRIPTOR);
+        } else {
+            this.graph.addInstruction("getstatic", "java/lang/System/out", "Ljava/io/PrintStream;");
+        }
 
-    private void printlnNode(SyntaxTreeNode node) { //! Stack + 1
-        this.graph.addInstruction("getstatic", "java/lang/System/out", "Ljava/io/PrintStream;");
+        // print -> par_expr -> expr
+        this.cursor.toFirstChild();
+        this.cursor.toFirstChild();
 
-        final SyntaxTreeNode expr = node.getChildren().get(0).getChildren().get(0);
-        final String type = switch (this.nodeTypeMap.get(expr)) {
+        final String exprType = this.nodeTypes[this.cursor.getNode()];
+        final String type = switch (exprType) {
             case "BOOLEAN_TYPE" -> "Z";
             case "INTEGER_TYPE" -> "I";
             case "STRING_TYPE" -> "Ljava/lang/String;";
-            default -> throw new CodeGenerationException("Unexpected value: " + this.nodeTypeMap.get(expr));
+            default -> throw new CodeGenerationException("Unexpected value: " + exprType);
         };
 
-        this.generateNode(expr);
+        this.generateNode();
+
+        Logger.logInfo("println(): Node \"" + this.cursor.getName() + ": " + this.cursor.getValue() + "\" => " + type, FlowGraphGenerator.class);
 
-        Logger.logInfo("println(): Node \"" + expr.getName() + ": " + expr.getValue() + "\" => " + type, FlowGraphGenerator.class);
+        this.cursor.toParent();
+        this.cursor.toParent();
 
-        this.graph.addInstruction("invokevirtual", "java/io/PrintStream/println(" + type + ")V");
+        if (head.isOutputBuffered()) {
+            // Der Zeilenumbruch und das Schreiben eines vollen Puffers passieren in der Hilfsmethode
+            this.graph.addInstruction("invokevirtual", "java/lang/StringBuilder/append(" + type + ")Ljava/lang/StringBuilder;");
+            this.graph.addInstruction("invokestatic", head.getClazz() + "/endLine(Ljava/lang/StringBuilder;)V");
+        } else {
+            this.graph.addInstruction("invokevirtual", "java/io/PrintStream/println(" + type + ")V");
+        }
     }
 
     // Getters, Setters
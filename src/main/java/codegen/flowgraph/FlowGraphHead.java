@@ -1,37 +1,363 @@
 package codegen.flowgraph;
 
+import java.util.Collections;
+import java.util.List;
+
 public class FlowGraphHead {
 
+    /**
+     * Das statische Feld, in dem bei gepufferter Ausgabe gesammelt wird.
+     */
+    public static final String OUTPUT_FIELD = "output";
+    public static final String OUTPUT_DESCRIPTOR = "Ljava/lang/StringBuilder;";
+
+    /**
+     * Das statische Feld mit einem Zähler pro Block, wenn das Programm profiliert wird.
+     */
+    public static final String PROFILE_FIELD = "profileCounts";
+    public static final String PROFILE_DESCRIPTOR = "[J";
+
+    /**
+     * Die Labels des Bereiches von main, in dem Exceptions für {@link #printExit()} abgefangen werden.
+     */
+    private static final String MAIN_START = "MainStart";
+    private static final String MAIN_END = "MainEnd";
+    private static final String MAIN_HANDLER = "MainHandler";
+
+    private static final String MAIN_DECLARATION = "public static main([Ljava/lang/String;)V";
+
+    /**
+     * Die Länge der String-Konstanten für die Blockbeschreibungen, ldc erlaubt höchstens 65535 Byte.
+     */
+    private static final int PROFILE_CHUNK = 30000;
+
     private final String bytecodeVersion;
     private final String source;
     private final String clazz;
     private final int stackSize;
     private final int localCount;
 
+    /**
+     * Ab dieser Anzahl Zeichen wird die gepufferte Ausgabe geschrieben, 0 wenn direkt auf System.out geschrieben wird.
+     */
+    private final int outputBuffer;
+
+    /**
+     * Die Beschreibung jedes gezählten Blockes nach Ordinal, leer wenn das Programm nicht profiliert wird.
+     */
+    private final List<String> profiledBlocks;
+
     public FlowGraphHead(String bytecodeVersion, String source, String clazz, int stackSize, int localCount) {
+        this(bytecodeVersion, source, clazz, stackSize, localCount, 0);
+    }
+
+    public FlowGraphHead(String bytecodeVersion, String source, String clazz, int stackSize, int localCount, int outputBuffer) {
+        this(bytecodeVersion, source, clazz, stackSize, localCount, outputBuffer, Collections.emptyList());
+    }
+
+    private FlowGraphHead(String bytecodeVersion, String source, String clazz, int stackSize, int localCount,
+                          int outputBuffer, List<String> profiledBlocks) {
         this.bytecodeVersion = bytecodeVersion;
         this.source = source;
         this.clazz = clazz;
         this.stackSize = stackSize;
         this.localCount = localCount;
+        this.outputBuffer = outputBuffer;
+        this.profiledBlocks = profiledBlocks;
     }
 
-    @Override
-    public String toString() {
-        return ".bytecode " + this.bytecodeVersion + "\n"
-               + ".source " + this.source + "\n"
-               + ".class public " + this.clazz + "\n"
-               + ".super java/lang/Object\n"
-               + ".method public <init>()V\n"
+    /**
+     * Eine Kopie mit anderen Limits, z.B. für die Ausgabe einer Optimierung.
+     */
+    public FlowGraphHead withLimits(int stackSize, int localCount) {
+        return new FlowGraphHead(this.bytecodeVersion, this.source, this.clazz, stackSize, localCount,
+                                 this.outputBuffer, this.profiledBlocks);
+    }
+
+    /**
+     * Eine Kopie, welche die Zähler für die Blöcke anlegt und am Ende von main ausgibt.
+     *
+     * @param profiledBlocks Die Beschreibung jedes Blockes nach Ordinal, siehe {@link BlockProfiler}.
+     */
+    FlowGraphHead withProfile(List<String> profiledBlocks, int stackSize) {
+        return new FlowGraphHead(this.bytecodeVersion, this.source, this.clazz, stackSize, this.localCount,
+                                 this.outputBuffer, List.copyOf(profiledBlocks));
+    }
+
+    // Getters
+
+    public String getBytecodeVersion() {
+        return this.bytecodeVersion;
+    }
+
+    public String getSource() {
+        return this.source;
+    }
+
+    public String getClazz() {
+        return this.clazz;
+    }
+
+    public int getStackSize() {
+        return this.stackSize;
+    }
+
+    public int getLocalCount() {
+        return this.localCount;
+    }
+
+    public int getOutputBuffer() {
+        return this.outputBuffer;
+    }
+
+    public boolean isOutputBuffered() {
+        return this.outputBuffer > 0;
+    }
+
+    public boolean isProfiled() {
+        return !this.profiledBlocks.isEmpty();
+    }
+
+    /**
+     * Ob main vor dem Verlassen noch Hilfsmethoden aufruft, siehe {@link #printExit()}.
+     */
+    public boolean hasExitCalls() {
+        return this.isOutputBuffered() || this.isProfiled();
+    }
+
+    /**
+     * Die Datei, in die ein profiliertes Programm die Zähler schreibt.
+     */
+    public String getProfileFile() {
+        return this.clazz + BlockProfile.FILE_EXTENSION;
+    }
+
+    // Printing
+
+    /**
+     * Die Klassendeklaration bis zur Superklasse mit den Feldern für gepufferte Ausgabe und Profilierung.
+     */
+    String printClass() {
+        final StringBuilder declaration = new StringBuilder();
+        declaration.append(".bytecode ").append(this.bytecodeVersion).append('\n')
+                   .append(".source ").append(this.source).append('\n')
+                   .append(".class public ").append(this.clazz).append('\n')
+                   .append(".super java/lang/Object\n");
+
+        // Jasmin parst den Namen nur in Anführungszeichen als eigenes Token
+        if (this.isOutputBuffered()) {
+            declaration.append(".field private static \"" + OUTPUT_FIELD + "\" " + OUTPUT_DESCRIPTOR + "\n");
+        }
+        if (this.isProfiled()) {
+            declaration.append(".field private static \"" + PROFILE_FIELD + "\" " + PROFILE_DESCRIPTOR + "\n");
+        }
+
+        return declaration.toString();
+    }
+
+    String printConstructor() {
+        return ".method public <init>()V\n"
                + "\t.limit stack 1\n"
                + "\t.limit locals 1\n"
                + "\t\taload_0\n"
                + "\t\tinvokespecial java/lang/Object/<init>()V\n"
                + "\t\treturn\n"
+               + ".end method\n\n";
+    }
+
+    /**
+     * Der statische Initialisierer für die Felder und die Hilfsmethoden für gepufferte Ausgabe und Profilierung.
+     */
+    String printHelperMethods() {
+        if (!this.isOutputBuffered() && !this.isProfiled()) {
+            return "";
+        }
+
+        final StringBuilder methods = new StringBuilder();
+
+        methods.append(".method static <clinit>()V\n")
+               .append("\t.limit stack 3\n")
+               .append("\t.limit locals 0\n");
+        if (this.isOutputBuffered()) {
+            methods.append("\t\tnew java/lang/StringBuilder\n")
+                   .append("\t\tdup\n")
+                   .append(printIntConstant(this.outputBuffer))
+                   .append("\t\tinvokespecial java/lang/StringBuilder/<init>(I)V\n")
+                   .append("\t\tputstatic ").append(this.field(OUTPUT_FIELD, OUTPUT_DESCRIPTOR)).append('\n');
+        }
+        if (this.isProfiled()) {
+            methods.append(printIntConstant(this.profiledBlocks.size()))
+                   .append("\t\tnewarray long\n")
+                   .append("\t\tputstatic ").append(this.field(PROFILE_FIELD, PROFILE_DESCRIPTOR)).append('\n');
+        }
+        methods.append("\t\treturn\n")
+               .append(".end method\n\n");
+
+        if (this.isOutputBuffered()) {
+            methods.append(this.printOutputMethods());
+        }
+        if (this.isProfiled()) {
+            methods.append(this.printProfileMethod());
+        }
+
+        return methods.toString();
+    }
+
+    /**
+     * endLine hängt den Zeilenumbruch an und schreibt den Puffer, wenn er voll ist,
+     * flushOutput schreibt den Puffer mit einem einzigen Aufruf auf System.out und leert ihn.
+     */
+    private String printOutputMethods() {
+        final String field = this.field(OUTPUT_FIELD, OUTPUT_DESCRIPTOR);
+
+        return ".method private static endLine(Ljava/lang/StringBuilder;)V\n"
+               + "\t.limit stack 2\n"
+               + "\t.limit locals 1\n"
+               + "\t\taload_0\n"
+               + "\t\tbipush 10\n"
+               + "\t\tinvokevirtual java/lang/StringBuilder/append(C)Ljava/lang/StringBuilder;\n"
+               + "\t\tinvokevirtual java/lang/StringBuilder/length()I\n"
+               + printIntConstant(this.outputBuffer)
+               + "\t\tif_icmplt NotFull\n"
+               + "\t\tinvokestatic " + this.clazz + "/flushOutput()V\n"
+               + "NotFull:\n"
+               + "\t\treturn\n"
                + ".end method\n\n"
+               + ".method private static flushOutput()V\n"
+               + "\t.limit stack 2\n"
+               + "\t.limit locals 0\n"
+               + "\t\tgetstatic java/lang/System/out Ljava/io/PrintStream;\n"
+               + "\t\tgetstatic " + field + "\n"
+               + "\t\tinvokevirtual java/io/PrintStream/print(Ljava/lang/Object;)V\n"
+               + "\t\tgetstatic java/lang/System/out Ljava/io/PrintStream;\n"
+               + "\t\tinvokevirtual java/io/PrintStream/flush()V\n"
+               + "\t\tgetstatic " + field + "\n"
+               + "\t\ticonst_0\n"
+               + "\t\tinvokevirtual java/lang/StringBuilder/setLength(I)V\n"
+               + "\t\treturn\n"
+               + ".end method\n\n";
+    }
+
+    /**
+     * dumpProfile schreibt pro Block eine Zeile "Ordinal Label Zeile Zähler" in die Profildatei.
+     * Die Beschreibungen stehen durch ";" getrennt in String-Konstanten und werden zur Laufzeit geteilt.
+     */
+    private String printProfileMethod() {
+        final StringBuilder method = new StringBuilder();
+
+        method.append(".method private static dumpProfile()V\n")
+              .append("\t.limit stack 4\n")
+              .append("\t.limit locals 3\n")
+              .append("\t\tnew java/io/PrintStream\n")
+              .append("\t\tdup\n")
+              .append("\t\tldc \"").append(this.getProfileFile()).append("\"\n")
+              .append("\t\tinvokespecial java/io/PrintStream/<init>(Ljava/lang/String;)V\n")
+              .append("\t\tastore_0\n");
+
+        final String descriptions = String.join(";", this.profiledBlocks);
+        for (int start = 0; start < descriptions.length(); start += PROFILE_CHUNK) {
+            final String chunk = descriptions.substring(start, Math.min(descriptions.length(), start + PROFILE_CHUNK));
+            method.append("\t\tldc \"").append(chunk).append("\"\n");
+
+            if (start > 0) {
+                method.append("\t\tinvokevirtual java/lang/String/concat(Ljava/lang/String;)Ljava/lang/String;\n");
+            }
+        }
+
+        method.append("\t\tldc \";\"\n")
+              .append("\t\tinvokevirtual java/lang/String/split(Ljava/lang/String;)[Ljava/lang/String;\n")
+              .append("\t\tastore_1\n")
+              .append("\t\ticonst_0\n")
+              .append("\t\tistore_2\n")
+              .append("Loop:\n")
+              .append("\t\tiload_2\n")
+              .append("\t\taload_1\n")
+              .append("\t\tarraylength\n")
+              .append("\t\tif_icmpge End\n")
+              .append("\t\taload_0\n")
+              .append("\t\taload_1\n")
+              .append("\t\tiload_2\n")
+              .append("\t\taaload\n")
+              .append("\t\tinvokevirtual java/io/PrintStream/print(Ljava/lang/String;)V\n")
+              .append("\t\taload_0\n")
+              .append("\t\tgetstatic ").append(this.field(PROFILE_FIELD, PROFILE_DESCRIPTOR)).append('\n')
+              .append("\t\tiload_2\n")
+              .append("\t\tlaload\n")
+              .append("\t\tinvokevirtual java/io/PrintStream/println(J)V\n")
+              .append("\t\tiinc 2 1\n")
+              .append("\t\tgoto Loop\n")
+              .append("End:\n")
+              .append("\t\taload_0\n")
+              .append("\t\tinvokevirtual java/io/PrintStream/close()V\n")
+              .append("\t\treturn\n")
+              .append(".end method\n\n");
 
-               + ".method public static main([Ljava/lang/String;)V\n"
-               + "\t.limit stack " + this.stackSize + "\n"
-               + "\t.limit locals " + this.localCount + "\n";
+        return method.toString();
+    }
+
+    /**
+     * Der Kopf von main, bei Aufrufen vor dem Verlassen beginnt hier der abgefangene Bereich.
+     */
+    String printMain(int stackSize, int localCount) {
+        if (!this.hasExitCalls()) {
+            return printMethod(MAIN_DECLARATION, stackSize, localCount);
+        }
+
+        // Der Handler braucht einen Stackplatz für die Exception
+        return printMethod(MAIN_DECLARATION, Math.max(1, stackSize), localCount)
+               + MAIN_START + ":\n";
+    }
+
+    /**
+     * Das Ende von main: Rest des Puffers schreiben und Zähler ausgeben.
+     * Das passiert auch, wenn main durch eine Exception verlassen wird, diese wird danach weitergeworfen.
+     * Der abgefangene Bereich endet erst vor dem return, damit er auch bei leerem main nicht leer ist.
+     */
+    String printExit() {
+        if (!this.hasExitCalls()) {
+            return "\t\treturn\n";
+        }
+
+        final StringBuilder calls = new StringBuilder();
+        if (this.isOutputBuffered()) {
+            calls.append("\t\tinvokestatic ").append(this.clazz).append("/flushOutput()V\n");
+        }
+        if (this.isProfiled()) {
+            calls.append("\t\tinvokestatic ").append(this.clazz).append("/dumpProfile()V\n");
+        }
+
+        return calls
+               + MAIN_END + ":\n"
+               + "\t\treturn\n"
+               + MAIN_HANDLER + ":\n"
+               + calls
+               + "\t\tathrow\n"
+               + "\t.catch java/lang/Throwable from " + MAIN_START + " to " + MAIN_END + " using " + MAIN_HANDLER + "\n";
+    }
+
+    static String printMethod(String declaration, int stackSize, int localCount) {
+        return ".method " + declaration + "\n"
+               + "\t.limit stack " + stackSize + "\n"
+               + "\t.limit locals " + localCount + "\n";
+    }
+
+    private static String printIntConstant(int value) {
+        final Opcode opcode = Opcode.forInt(value);
+
+        return "\t\t" + opcode + " " + String.join(" ", opcode.intArguments(value)) + "\n";
+    }
+
+    private String field(String name, String descriptor) {
+        return this.clazz + "/" + name + " " + descriptor;
+    }
+
+    // Overrides
+
+    @Override
+    public String toString() {
+        return this.printClass()
+               + this.printConstructor()
+               + this.printHelperMethods()
+               + this.printMain(this.stackSize, this.localCount);
     }
 }
@@ -2,9 +2,15 @@ package codegen.flowgraph;
 
 public class FlowGraphTail {
 
+    private final FlowGraphHead head;
+
+    public FlowGraphTail(FlowGraphHead head) {
+        this.head = head;
+    }
+
     @Override
     public String toString() {
-        return "\t\treturn\n"
+        return this.head.printExit()
                + ".end method\n";
     }
 }
@@ -1,44 +1,184 @@
 package codegen.flowgraph;
 
-import java.util.UUID;
+import codegen.CodeGenerationException;
+
+import java.util.Objects;
 
 /**
  * Repräsentiert eine Instruction im {@link FlowGraph}.
+ * <p>
+ * Die Instructions werden im {@link FlowBasicBlock} als Opcode und int-Operand gespeichert,
+ * eine FlowInstruction ist nur eine Sicht auf eine Position im Block.
+ * Zwei Sichten auf dieselbe Position sind gleich.
  */
 public class FlowInstruction {
 
-    private final UUID id;
+    /**
+     * Der Block, in dem die Instruction liegt, null wenn sie für sich alleine erzeugt wurde.
+     */
+    private final FlowBasicBlock block;
+    private final int index;
+
+    /**
+     * Die Tabelle, in die Labels und Konstanten kodiert sind, die des Blockes oder eine eigene.
+     */
+    private final ConstantTable constants;
+
+    private final Opcode opcode;
 
     /**
-     * Die Instruction ist der Jasmin-Assembler Befehl.
+     * Die Bedeutung hängt von {@link Opcode#getOperand()} ab.
      */
-    private final String instruction;
-    private final String[] args;
+    private final int operand;
+
+    FlowInstruction(FlowBasicBlock block, int index, Opcode opcode, int operand) {
+        this(block, index, block.getConstants(), opcode, operand);
+    }
+
+    private FlowInstruction(FlowBasicBlock block, int index, ConstantTable constants, Opcode opcode, int operand) {
+        this.block = block;
+        this.index = index;
+        this.constants = constants;
+        this.opcode = opcode;
+        this.operand = operand;
+    }
 
     public FlowInstruction(String instruction, String... args) {
-        this.id = UUID.randomUUID();
-        this.instruction = instruction;
-        this.args = args;
+        this(Opcode.fromMnemonic(instruction), new ConstantTable(), args);
+    }
+
+    private FlowInstruction(Opcode opcode, ConstantTable constants, String[] args) {
+        this(null, -1, constants, opcode, encode(opcode, constants, args));
+    }
+
+    /**
+     * Kodiert die Argumente eines Befehls als int-Operand.
+     *
+     * @param constants Die Tabelle für Labels und Konstanten.
+     */
+    static int encode(Opcode opcode, ConstantTable constants, String... args) {
+        final int expected = switch (opcode.getOperand()) {
+            case NONE -> 0;
+            case INT, LOCAL, LABEL -> 1;
+            case LOCAL_INCREMENT -> 2;
+            case CONSTANT -> Math.max(1, args.length);
+        };
+
+        if (args.length != expected) {
+            throw new CodeGenerationException("Instruction \"" + opcode + "\" expects " + expected + " arguments, got "
+                                              + args.length);
+        }
+
+        try {
+            return switch (opcode.getOperand()) {
+                case NONE -> 0;
+                case INT, LOCAL -> Integer.parseInt(args[0]);
+                case LOCAL_INCREMENT -> Integer.parseInt(args[0]) | Integer.parseInt(args[1]) << 16;
+                case LABEL, CONSTANT -> constants.intern(args);
+            };
+        } catch (NumberFormatException e) {
+            throw new CodeGenerationException("Instruction \"" + opcode + "\" expects numeric arguments");
+        }
+    }
+
+    static String[] decode(Opcode opcode, ConstantTable constants, int operand) {
+        return switch (opcode.getOperand()) {
+            case NONE -> new String[0];
+            case INT, LOCAL -> new String[]{String.valueOf(operand)};
+            case LOCAL_INCREMENT -> new String[]{String.valueOf(operand & 0xFFFF), String.valueOf(operand >> 16)};
+            case LABEL, CONSTANT -> constants.get(operand);
+        };
+    }
+
+    /**
+     * Ermittelt, ob die Instruction ein (bedingter oder unbedingter) Sprungbefehl ist.
+     */
+    public boolean isJump() {
+        return this.opcode.isJump();
+    }
+
+    public boolean isGoto() {
+        return this.opcode.isGoto();
     }
 
-    public UUID getId() {
-        return this.id;
+    /**
+     * Die Wirkung auf die Stackgröße.
+     */
+    public int getStackEffect() {
+        return this.opcode.getStackEffect(this.getArgs());
+    }
+
+    /**
+     * Die Anzahl der Slots, die die Instruction vom Stack nimmt.
+     */
+    public int getPops() {
+        return this.opcode.getPops(this.getArgs());
+    }
+
+    // Getters
+
+    public Opcode getOpcode() {
+        return this.opcode;
+    }
+
+    public int getOperand() {
+        return this.operand;
+    }
+
+    /**
+     * Der Slot der lokalen Variable, -1 wenn die Instruction keine Variable verwendet.
+     */
+    public int getSlot() {
+        return switch (this.opcode.getOperand()) {
+            case LOCAL -> this.operand;
+            case LOCAL_INCREMENT -> this.operand & 0xFFFF;
+            default -> -1;
+        };
     }
 
     public String getInstruction() {
-        return this.instruction;
+        return this.opcode.getMnemonic();
     }
 
+    /**
+     * Labels und Konstanten werden nicht kopiert, das Array darf nicht verändert werden.
+     */
     public String[] getArgs() {
-        return this.args;
+        return decode(this.opcode, this.constants, this.operand);
+    }
+
+    int getIndex() {
+        return this.index;
+    }
+
+    FlowBasicBlock getBlock() {
+        return this.block;
     }
 
     // Overrides
 
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(this.block) + Objects.hash(this.index, this.opcode, this.operand);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || this.getClass() != o.getClass()) {
+            return false;
+        }
+        final FlowInstruction that = (FlowInstruction) o;
+        return this.block == that.block && this.index == that.index
+               && this.opcode == that.opcode && this.operand == that.operand;
+    }
+
     @Override
     public String toString() {
-        final String argsString = String.join(" ", this.args);
+        final String argsString = String.join(" ", this.getArgs());
 
-        return "\t\t" + this.instruction + " " + argsString;
+        return "\t\t" + this.getInstruction() + " " + argsString;
     }
 }
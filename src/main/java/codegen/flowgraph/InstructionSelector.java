@@ -0,0 +1,288 @@
+package codegen.flowgraph;
+
+import codegen.CodeGenerationException;
+import parser.ast.SethiUllmanLabeling;
+import parser.ast.SyntaxTreeNode;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Befehlsauswahl durch Baummuster (BURS) über dem typisierten AST.
+ * <p>
+ * Zuerst werden die Knoten von unten nach oben markiert: Für jedes {@link Nonterminal} merkt sich ein Knoten
+ * die günstigste Regel, deren Muster dort passt, samt Kosten einschließlich der Operanden.
+ * Danach werden Kettenregeln angewendet, bis sich nichts mehr verbessert.
+ * Beim Reduzieren von oben nach unten erzeugt jede gewählte Regel ihre Instructions
+ * und reduziert dabei ihre Operanden auf die Nichtterminale aus ihrem Muster.
+ * <p>
+ * Die Regeln stehen als Daten in {@link SelectionRules}. Kontrollfluss (if, while) und println
+ * erzeugt weiterhin der {@link FlowGraphGenerator}, der Selektor übernimmt Ausdrücke, Zuweisungen und Bedingungen.
+ */
+final class InstructionSelector {
+
+    private static final int INFINITE = Integer.MAX_VALUE / 2;
+
+    private final List<SelectionRule> rules;
+
+    private final FlowGraph graph;
+    private final Map<String, Integer> varMap;
+    private final Map<SyntaxTreeNode, String> nodeTypeMap;
+    private final SethiUllmanLabeling labeling;
+
+    /**
+     * Liefert die nächste freie Labelnummer des Generators.
+     */
+    private final IntSupplier labelCounter;
+
+    // Die Knoten vergleichen strukturell, gleiche Teilausdrücke sind aber verschiedene Knoten
+    private final Map<SyntaxTreeNode, State> states;
+
+    InstructionSelector(List<SelectionRule> rules, FlowGraph graph, Map<String, Integer> varMap,
+                        Map<SyntaxTreeNode, String> nodeTypeMap, SethiUllmanLabeling labeling, IntSupplier labelCounter) {
+        this.rules = rules;
+        this.graph = graph;
+        this.varMap = varMap;
+        this.nodeTypeMap = nodeTypeMap;
+        this.labeling = labeling;
+        this.labelCounter = labelCounter;
+        this.states = new IdentityHashMap<>();
+    }
+
+    /**
+     * Die besten Regeln eines Knotens für jedes Nichtterminal.
+     */
+    private static final class State {
+
+        private final int[] costs = new int[Nonterminal.values().length];
+        private final SelectionRule[] rules = new SelectionRule[Nonterminal.values().length];
+
+        private State() {
+            Arrays.fill(this.costs, INFINITE);
+        }
+
+        private boolean improve(SelectionRule rule, int cost) {
+            final int index = rule.getResult().ordinal();
+            if (cost >= this.costs[index]) {
+                return false;
+            }
+
+            this.costs[index] = cost;
+            this.rules[index] = rule;
+            return true;
+        }
+    }
+
+    /**
+     * Eine passende Regel beim Reduzieren: Der Knoten, die Teilbäume an den Nichtterminal-Blättern
+     * des Musters und das Sprungziel für JUMP_FALSE und JUMP_TRUE.
+     */
+    final class Match {
+
+        private final SyntaxTreeNode node;
+        private final List<SyntaxTreeNode> operands;
+        private final List<Nonterminal> nonterminals;
+        private final String target;
+
+        private Match(SyntaxTreeNode node, List<SyntaxTreeNode> operands, List<Nonterminal> nonterminals, String target) {
+            this.node = node;
+            this.operands = operands;
+            this.nonterminals = nonterminals;
+            this.target = target;
+        }
+
+        /**
+         * Erzeugt den Code für einen Operanden, Sprünge gehen zum selben Ziel.
+         */
+        void reduce(int operand) {
+            InstructionSelector.this.reduce(this.operands.get(operand), this.nonterminals.get(operand), this.target);
+        }
+
+        /**
+         * Erzeugt den Code für alle Operanden von links nach rechts.
+         */
+        void reduceOperands() {
+            for (int i = 0; i < this.operands.size(); i++) {
+                this.reduce(i);
+            }
+        }
+
+        void add(String instruction, String... args) {
+            InstructionSelector.this.graph.addInstruction(instruction, args);
+        }
+
+        void addIntConstant(int value) {
+            InstructionSelector.this.graph.addIntConstant(value);
+        }
+
+        void addJump(String instruction, String label) {
+            InstructionSelector.this.graph.addJump(instruction, label);
+        }
+
+        void addLabel(String label) {
+            InstructionSelector.this.graph.addLabel(label);
+        }
+
+        int nextLabel() {
+            return InstructionSelector.this.labelCounter.getAsInt();
+        }
+
+        boolean isRightFirst() {
+            return InstructionSelector.this.isRightFirst(this.node);
+        }
+
+        // Getters
+
+        SyntaxTreeNode getNode() {
+            return this.node;
+        }
+
+        SyntaxTreeNode getOperand(int operand) {
+            return this.operands.get(operand);
+        }
+
+        String getTarget() {
+            return this.target;
+        }
+
+        String typeOf(SyntaxTreeNode node) {
+            return InstructionSelector.this.typeOf(node);
+        }
+
+        int slotOf(String variable) {
+            return InstructionSelector.this.slotOf(variable);
+        }
+    }
+
+    /**
+     * Erzeugt den Code für einen Ausdruck oder eine Zuweisung.
+     */
+    void generate(SyntaxTreeNode node, Nonterminal goal) {
+        if (goal == Nonterminal.JUMP_FALSE || goal == Nonterminal.JUMP_TRUE) {
+            throw new IllegalArgumentException("Sprünge brauchen ein Ziel");
+        }
+
+        this.reduce(node, goal, "");
+    }
+
+    /**
+     * Erzeugt den Code für eine Bedingung, die bei falsch zum Label springt.
+     */
+    void generateJumpIfFalse(SyntaxTreeNode condition, String target) {
+        this.reduce(condition, Nonterminal.JUMP_FALSE, target);
+    }
+
+    /**
+     * Die Bytes der günstigsten Überdeckung eines Teilbaums.
+     */
+    int getCost(SyntaxTreeNode node, Nonterminal goal) {
+        return this.label(node).costs[goal.ordinal()];
+    }
+
+    private State label(SyntaxTreeNode node) {
+        final State cached = this.states.get(node);
+        if (cached != null) {
+            return cached;
+        }
+
+        for (SyntaxTreeNode child : node.getChildren()) {
+            this.label(child);
+        }
+
+        final State state = new State();
+        final List<SyntaxTreeNode> operands = new ArrayList<>();
+        final List<Nonterminal> nonterminals = new ArrayList<>();
+
+        for (SelectionRule rule : this.rules) {
+            if (rule.isChainRule()) {
+                continue;
+            }
+
+            operands.clear();
+            nonterminals.clear();
+            if (rule.getPattern().match(node, operands, nonterminals)) {
+                state.improve(rule, this.costWithOperands(rule, node, operands, nonterminals));
+            }
+        }
+
+        // Kettenregeln bis zum Fixpunkt, jede verbessert nur ein anderes Nichtterminal desselben Knotens
+        this.states.put(node, state);
+
+        boolean changed;
+        do {
+            changed = false;
+
+            for (SelectionRule rule : this.rules) {
+                if (rule.isChainRule()) {
+                    final int from = state.costs[rule.getPattern().getNonterminal().ordinal()];
+                    if (from < INFINITE) {
+                        changed |= state.improve(rule, from + rule.costOf(this, node));
+                    }
+                }
+            }
+        } while (changed);
+
+        return state;
+    }
+
+    private int costWithOperands(SelectionRule rule, SyntaxTreeNode node,
+                                 List<SyntaxTreeNode> operands, List<Nonterminal> nonterminals) {
+        int cost = rule.costOf(this, node);
+
+        for (int i = 0; i < operands.size(); i++) {
+            cost += this.label(operands.get(i)).costs[nonterminals.get(i).ordinal()];
+
+            if (cost >= INFINITE) {
+                return INFINITE;
+            }
+        }
+
+        return cost;
+    }
+
+    private void reduce(SyntaxTreeNode node, Nonterminal goal, String target) {
+        final SelectionRule rule = this.label(node).rules[goal.ordinal()];
+        if (rule == null) {
+            throw new CodeGenerationException("No instruction pattern for \"" + node.getName() + ": " + node.getValue()
+                                              + "\" as " + goal);
+        }
+
+        if (node.getLine() > 0) {
+            this.graph.setLine(node.getLine());
+        }
+
+        Logger.logInfoSupplier(() -> "Selecting \"" + rule + "\" for node \"" + node.getName() + ": " + node.getValue() + "\"",
+                               InstructionSelector.class);
+
+        final List<SyntaxTreeNode> operands = new ArrayList<>();
+        final List<Nonterminal> nonterminals = new ArrayList<>();
+        rule.getPattern().match(node, operands, nonterminals);
+
+        rule.emit(new Match(node, operands, nonterminals, target));
+    }
+
+    String typeOf(SyntaxTreeNode node) {
+        final String type = this.nodeTypeMap.get(node);
+        if (type == null) {
+            throw new CodeGenerationException("Unexpected value: " + node.getName() + " has no type");
+        }
+
+        return type;
+    }
+
+    int slotOf(String variable) {
+        return this.varMap.get(variable);
+    }
+
+    /**
+     * Siehe {@link SethiUllmanLabeling#isRightFirst(SyntaxTreeNode)}, muss mit dem StackSizeAnalyzer übereinstimmen.
+     */
+    boolean isRightFirst(SyntaxTreeNode node) {
+        return this.labeling.isRightFirst(node);
+    }
+}
@@ -0,0 +1,179 @@
+package codegen.flowgraph;
+
+import util.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Schreibt einen {@link FlowGraph} als Jasmin-Assembler direkt in einen {@link Writer}.
+ * Es wird weder das ganze Programm noch eine einzelne Instruction als String zusammengesetzt,
+ * die Ausgabe ist identisch zu {@link FlowGraph#toString()}.
+ */
+public final class JasminEmitter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer out;
+
+    /**
+     * Puffer für die Ziffern eines int-Operanden.
+     */
+    private final char[] digits = new char[11];
+
+    private JasminEmitter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Schreibt das Programm in eine Datei, diese wird überschrieben.
+     */
+    public static void emit(FlowGraph graph, Path file) throws IOException {
+        Logger.logDebug("Writing jasmin-assembler to " + file, JasminEmitter.class);
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8),
+                                             BUFFER_SIZE)) {
+            emit(graph, out);
+        }
+
+        Logger.logDebug("Successfully wrote jasmin-assembler", JasminEmitter.class);
+    }
+
+    /**
+     * Schreibt das Programm in einen Writer, dieser wird nicht gepuffert und nicht geschlossen.
+     */
+    public static void emit(FlowGraph graph, Writer out) throws IOException {
+        final JasminEmitter emitter = new JasminEmitter(out);
+
+        // Kopf und Ende sind klein und konstant
+        out.write(graph.getHead().toString());
+        for (FlowBasicBlock block : graph) {
+            emitter.emitBlock(block);
+        }
+        out.write(graph.getTail().toString());
+    }
+
+    /**
+     * Schreibt ein aufgeteiltes Programm in eine Datei, diese wird überschrieben.
+     */
+    public static void emit(SplitProgram program, Path file) throws IOException {
+        Logger.logDebug("Writing jasmin-assembler with " + program.getMethods().size() + " methods to " + file,
+                        JasminEmitter.class);
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8),
+                                             BUFFER_SIZE)) {
+            emit(program, out);
+        }
+
+        Logger.logDebug("Successfully wrote jasmin-assembler", JasminEmitter.class);
+    }
+
+    /**
+     * Schreibt ein aufgeteiltes Programm: Felder, eine main-Methode, welche die Teile aufruft, und die Teile.
+     */
+    public static void emit(SplitProgram program, Writer out) throws IOException {
+        final JasminEmitter emitter = new JasminEmitter(out);
+        final FlowGraphHead head = program.getHead();
+
+        out.write(head.printClass());
+        for (Map.Entry<String, String> field : program.getFields().entrySet()) {
+            // Jasmin parst den Namen nur in Anführungszeichen als eigenes Token
+            out.write(".field private static \"");
+            out.write(field.getKey());
+            out.write("\" ");
+            out.write(field.getValue());
+            out.write('\n');
+        }
+        out.write('\n');
+        out.write(head.printConstructor());
+        out.write(head.printHelperMethods());
+
+        out.write(head.printMain(0, 1));
+        for (int i = 0; i < program.getMethods().size(); i++) {
+            out.write("\t\tinvokestatic ");
+            out.write(head.getClazz());
+            out.write('/');
+            out.write(SplitProgram.methodName(i));
+            out.write("()V\n");
+        }
+        out.write(head.printExit());
+        out.write(".end method\n");
+
+        for (int i = 0; i < program.getMethods().size(); i++) {
+            final FlowGraph method = program.getMethods().get(i);
+
+            out.write('\n');
+            out.write(FlowGraphHead.printMethod("private static " + SplitProgram.methodName(i) + "()V",
+                                                method.getHead().getStackSize(), method.getHead().getLocalCount()));
+            for (FlowBasicBlock block : method) {
+                emitter.emitBlock(block);
+            }
+            out.write(method.getTail().toString());
+        }
+    }
+
+    private void emitBlock(FlowBasicBlock block) throws IOException {
+        if (!block.getLabel().isBlank()) {
+            this.out.write(block.getLabel());
+            this.out.write(":\n");
+        }
+
+        for (int i = 0; i < block.getInstructionCount(); i++) {
+            final Opcode opcode = block.getOpcode(i);
+            final int operand = block.getOperand(i);
+
+            this.out.write("\t\t");
+            this.out.write(opcode.getMnemonic());
+            this.out.write(' ');
+
+            switch (opcode.getOperand()) {
+                case INT, LOCAL -> this.emitInt(operand);
+                case LOCAL_INCREMENT -> {
+                    this.emitInt(operand & 0xFFFF);
+                    this.out.write(' ');
+                    this.emitInt(operand >> 16);
+                }
+                case LABEL, CONSTANT -> {
+                    final String[] args = block.getConstants().get(operand);
+                    for (int arg = 0; arg < args.length; arg++) {
+                        if (arg > 0) {
+                            this.out.write(' ');
+                        }
+                        this.out.write(args[arg]);
+                    }
+                }
+                default -> {}
+            }
+
+            this.out.write('\n');
+        }
+    }
+
+    private void emitInt(int value) throws IOException {
+        if (value == Integer.MIN_VALUE) {
+            this.out.write(String.valueOf(value));
+            return;
+        }
+
+        int remaining = Math.abs(value);
+        int position = this.digits.length;
+        do {
+            position--;
+            this.digits[position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+
+        if (value < 0) {
+            position--;
+            this.digits[position] = '-';
+        }
+
+        this.out.write(this.digits, position, this.digits.length - position);
+    }
+}
@@ -0,0 +1,28 @@
+package codegen.flowgraph;
+
+/**
+ * Die Nichtterminale der Baumgrammatik für die Befehlsauswahl, siehe {@link SelectionRule}.
+ * Jedes Nichtterminal beschreibt, wo das Ergebnis eines Teilbaums nach seinem Code steht.
+ */
+enum Nonterminal {
+
+    /**
+     * Der Wert liegt oben auf dem Stack.
+     */
+    VALUE,
+
+    /**
+     * Springt zum Ziel, wenn die Bedingung falsch ist, sonst geht es ohne Sprung weiter.
+     */
+    JUMP_FALSE,
+
+    /**
+     * Springt zum Ziel, wenn die Bedingung wahr ist, sonst geht es ohne Sprung weiter.
+     */
+    JUMP_TRUE,
+
+    /**
+     * Eine Anweisung, der Stack ist danach unverändert.
+     */
+    STATEMENT
+}
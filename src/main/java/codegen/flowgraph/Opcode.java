@@ -0,0 +1,347 @@
+package codegen.flowgraph;
+
+import codegen.CodeGenerationException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Die Jasmin-Befehle, die im {@link FlowGraph} vorkommen können, mit ihrer Wirkung auf Stack, Kontrollfluss
+ * und lokale Variablen. Analysen fragen diese Eigenschaften ab, statt selbst auf den Befehlsnamen zu switchen.
+ * <p>
+ * Die Stackwirkung wird wie bei der JVM in Slots gezählt, long-Werte belegen zwei Slots.
+ */
+public enum Opcode {
+
+    NOP("nop", 0, 0, Branch.NONE, Access.NONE, Operand.NONE),
+
+    // Konstanten
+
+    ACONST_NULL("aconst_null", 0, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    ICONST_M1("iconst_m1", 0, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    ICONST_0("iconst_0", 0, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    ICONST_1("iconst_1", 0, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    ICONST_2("iconst_2", 0, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    ICONST_3("iconst_3", 0, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    ICONST_4("iconst_4", 0, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    ICONST_5("iconst_5", 0, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    BIPUSH("bipush", 0, 1, Branch.NONE, Access.NONE, Operand.INT),
+    SIPUSH("sipush", 0, 1, Branch.NONE, Access.NONE, Operand.INT),
+    LDC("ldc", 0, 1, Branch.NONE, Access.NONE, Operand.CONSTANT),
+    LDC_W("ldc_w", 0, 1, Branch.NONE, Access.NONE, Operand.CONSTANT),
+    LCONST_1("lconst_1", 0, 2, Branch.NONE, Access.NONE, Operand.NONE),
+
+    // Lokale Variablen
+
+    ILOAD("iload", 0, 1, Branch.NONE, Access.USE, Operand.LOCAL),
+    ALOAD("aload", 0, 1, Branch.NONE, Access.USE, Operand.LOCAL),
+    ISTORE("istore", 1, 0, Branch.NONE, Access.DEF, Operand.LOCAL),
+    ASTORE("astore", 1, 0, Branch.NONE, Access.DEF, Operand.LOCAL),
+    IINC("iinc", 0, 0, Branch.NONE, Access.USE_DEF, Operand.LOCAL_INCREMENT),
+
+    // Stack
+
+    POP("pop", 1, 0, Branch.NONE, Access.NONE, Operand.NONE),
+    DUP("dup", 1, 2, Branch.NONE, Access.NONE, Operand.NONE),
+    DUP2("dup2", 2, 4, Branch.NONE, Access.NONE, Operand.NONE),
+    SWAP("swap", 2, 2, Branch.NONE, Access.NONE, Operand.NONE),
+
+    // Arithmetik
+
+    IADD("iadd", 2, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    ISUB("isub", 2, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    IMUL("imul", 2, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    IDIV("idiv", 2, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    IREM("irem", 2, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    INEG("ineg", 1, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    IAND("iand", 2, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    IOR("ior", 2, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    IXOR("ixor", 2, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    ISHL("ishl", 2, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    ISHR("ishr", 2, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    IUSHR("iushr", 2, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    I2B("i2b", 1, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    I2C("i2c", 1, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    I2S("i2s", 1, 1, Branch.NONE, Access.NONE, Operand.NONE),
+    LADD("ladd", 4, 2, Branch.NONE, Access.NONE, Operand.NONE),
+
+    // Arrays, nur für die Zähler der Profilierung
+
+    LALOAD("laload", 2, 2, Branch.NONE, Access.NONE, Operand.NONE),
+    LASTORE("lastore", 4, 0, Branch.NONE, Access.NONE, Operand.NONE),
+
+    // Sprünge
+
+    IFEQ("ifeq", 1, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IFNE("ifne", 1, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IFLT("iflt", 1, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IFGE("ifge", 1, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IFGT("ifgt", 1, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IFLE("ifle", 1, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IFNULL("ifnull", 1, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IFNONNULL("ifnonnull", 1, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IF_ICMPEQ("if_icmpeq", 2, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IF_ICMPNE("if_icmpne", 2, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IF_ICMPLT("if_icmplt", 2, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IF_ICMPGE("if_icmpge", 2, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IF_ICMPGT("if_icmpgt", 2, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IF_ICMPLE("if_icmple", 2, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IF_ACMPEQ("if_acmpeq", 2, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    IF_ACMPNE("if_acmpne", 2, 0, Branch.CONDITIONAL, Access.NONE, Operand.LABEL),
+    GOTO("goto", 0, 0, Branch.GOTO, Access.NONE, Operand.LABEL),
+    GOTO_W("goto_w", 0, 0, Branch.GOTO, Access.NONE, Operand.LABEL),
+    RETURN("return", 0, 0, Branch.RETURN, Access.NONE, Operand.NONE),
+
+    // Felder und Methoden, die Stackwirkung der Aufrufe (-1) hängt vom Deskriptor ab
+
+    GETSTATIC("getstatic", 0, 1, Branch.NONE, Access.NONE, Operand.CONSTANT),
+    PUTSTATIC("putstatic", 1, 0, Branch.NONE, Access.NONE, Operand.CONSTANT),
+    INVOKEVIRTUAL("invokevirtual", -1, -1, Branch.NONE, Access.NONE, Operand.CONSTANT),
+    INVOKESTATIC("invokestatic", -1, -1, Branch.NONE, Access.NONE, Operand.CONSTANT);
+
+    /**
+     * Die Art des Kontrollflusses nach dem Befehl.
+     */
+    public enum Branch {
+        NONE,
+        CONDITIONAL,
+        GOTO,
+        RETURN
+    }
+
+    /**
+     * Der Zugriff auf die lokale Variable im Operanden.
+     */
+    public enum Access {
+        NONE,
+        USE,
+        DEF,
+        USE_DEF
+    }
+
+    /**
+     * Die Bedeutung des int-Operanden.
+     */
+    public enum Operand {
+        NONE,
+        INT, // Der Wert selbst
+        LOCAL, // Der Slot der lokalen Variable
+        LOCAL_INCREMENT, // Slot in den unteren, Inkrement in den oberen 16 Bit
+        LABEL, // Ein Index in die ConstantTable
+        CONSTANT // Ein Index in die ConstantTable
+    }
+
+    private static final Opcode[] ordinals = values();
+    private static final Map<String, Opcode> mnemonics = new HashMap<>();
+
+    static {
+        for (Opcode opcode : values()) {
+            mnemonics.put(opcode.mnemonic, opcode);
+        }
+    }
+
+    private final String mnemonic;
+    private final int pops;
+    private final int pushes;
+    private final Branch branch;
+    private final Access access;
+    private final Operand operand;
+
+    Opcode(String mnemonic, int pops, int pushes, Branch branch, Access access, Operand operand) {
+        this.mnemonic = mnemonic;
+        this.pops = pops;
+        this.pushes = pushes;
+        this.branch = branch;
+        this.access = access;
+        this.operand = operand;
+    }
+
+    public static Opcode fromMnemonic(String mnemonic) {
+        final Opcode opcode = mnemonics.get(mnemonic);
+
+        if (opcode == null) {
+            throw new CodeGenerationException("Unknown instruction \"" + mnemonic + "\"");
+        }
+
+        return opcode;
+    }
+
+    static Opcode fromOrdinal(int ordinal) {
+        return ordinals[ordinal];
+    }
+
+    /**
+     * Der kürzeste Befehl für eine int-Konstante: iconst_m1 bis iconst_5, bipush, sipush und sonst ldc.
+     * Das spart Einträge im Konstantenpool, ab 256 Einträgen wäre ldc_w nötig.
+     */
+    public static Opcode forInt(int value) {
+        if (value >= -1 && value <= 5) {
+            return ordinals[ICONST_0.ordinal() + value];
+        }
+        if (value == (byte) value) {
+            return BIPUSH;
+        }
+        if (value == (short) value) {
+            return SIPUSH;
+        }
+
+        return LDC;
+    }
+
+    /**
+     * Die Argumente, mit denen dieser Befehl die int-Konstante lädt, siehe {@link #forInt(int)}.
+     */
+    public String[] intArguments(int value) {
+        return this.operand == Operand.NONE ? new String[0] : new String[]{String.valueOf(value)};
+    }
+
+    public boolean isIntConstant() {
+        return this.ordinal() >= ICONST_M1.ordinal() && this.ordinal() <= SIPUSH.ordinal();
+    }
+
+    /**
+     * Der Wert einer int-Konstante aus iconst, bipush oder sipush.
+     */
+    public int getIntConstant(int operand) {
+        if (!this.isIntConstant()) {
+            throw new IllegalStateException("Instruction \"" + this.mnemonic + "\" is no int constant");
+        }
+
+        return this.operand == Operand.INT ? operand : this.ordinal() - ICONST_0.ordinal();
+    }
+
+    /**
+     * Die Wirkung auf die Stackgröße.
+     *
+     * @param constant Die Argumente des Befehls, werden nur für Methodenaufrufe ausgewertet.
+     */
+    public int getStackEffect(String[] constant) {
+        if (this.pops >= 0) {
+            return this.pushes - this.pops;
+        }
+
+        final int result = constant[0].endsWith(")V") ? 0 : 1;
+
+        return result - this.getPops(constant);
+    }
+
+    /**
+     * Die Anzahl der Slots, die der Befehl vom Stack nimmt.
+     *
+     * @param constant Die Argumente des Befehls, werden nur für Methodenaufrufe ausgewertet.
+     */
+    public int getPops(String[] constant) {
+        if (this.pops >= 0) {
+            return this.pops;
+        }
+
+        final int receiver = this == INVOKEVIRTUAL ? 1 : 0;
+
+        return argumentCount(constant[0]) + receiver;
+    }
+
+    /**
+     * Zählt die Argumente eines Methodendeskriptors, z.B. "java/io/PrintStream/println(I)V" -> 1.
+     */
+    public static int argumentCount(String method) {
+        final String descriptor = method.substring(method.indexOf('(') + 1, method.indexOf(')'));
+        int count = 0;
+        int i = 0;
+
+        while (i < descriptor.length()) {
+            while (descriptor.charAt(i) == '[') {
+                i++;
+            }
+
+            if (descriptor.charAt(i) == 'L') {
+                i = descriptor.indexOf(';', i);
+            }
+
+            i++;
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Die Größe des Befehls im Bytecode, Befehle mit Slot über 255 brauchen das wide-Präfix.
+     * Für ldc wird immer die obere Schranke genommen, Jasmin erzeugt ab Konstante 256 ldc_w.
+     */
+    public int getSize(int operand) {
+        return switch (this.operand) {
+            case NONE -> 1;
+            case INT -> this == SIPUSH ? 3 : 2;
+            case LOCAL -> operand > 255 ? 4 : 2;
+            case LOCAL_INCREMENT -> (operand & 0xFFFF) > 255 || operand >> 16 != (byte) (operand >> 16) ? 6 : 3;
+            case LABEL -> this == GOTO_W ? 5 : 3;
+            case CONSTANT -> 3;
+        };
+    }
+
+    public boolean isJump() {
+        return this.branch == Branch.CONDITIONAL || this.branch == Branch.GOTO;
+    }
+
+    public boolean isGoto() {
+        return this.branch == Branch.GOTO;
+    }
+
+    /**
+     * Der bedingte Sprung mit umgekehrter Bedingung, z.B. um Sprungziel und Fallthrough zu tauschen.
+     */
+    public Opcode negate() {
+        return switch (this) {
+            case IFEQ -> IFNE;
+            case IFNE -> IFEQ;
+            case IFLT -> IFGE;
+            case IFGE -> IFLT;
+            case IFGT -> IFLE;
+            case IFLE -> IFGT;
+            case IFNULL -> IFNONNULL;
+            case IFNONNULL -> IFNULL;
+            case IF_ICMPEQ -> IF_ICMPNE;
+            case IF_ICMPNE -> IF_ICMPEQ;
+            case IF_ICMPLT -> IF_ICMPGE;
+            case IF_ICMPGE -> IF_ICMPLT;
+            case IF_ICMPGT -> IF_ICMPLE;
+            case IF_ICMPLE -> IF_ICMPGT;
+            case IF_ACMPEQ -> IF_ACMPNE;
+            case IF_ACMPNE -> IF_ACMPEQ;
+            default -> throw new IllegalStateException("Kein bedingter Sprung: " + this.mnemonic);
+        };
+    }
+
+    public boolean isUse() {
+        return this.access == Access.USE || this.access == Access.USE_DEF;
+    }
+
+    public boolean isDef() {
+        return this.access == Access.DEF || this.access == Access.USE_DEF;
+    }
+
+    // Getters
+
+    public String getMnemonic() {
+        return this.mnemonic;
+    }
+
+    public Branch getBranch() {
+        return this.branch;
+    }
+
+    public Access getAccess() {
+        return this.access;
+    }
+
+    public Operand getOperand() {
+        return this.operand;
+    }
+
+    // Overrides
+
+    @Override
+    public String toString() {
+        return this.mnemonic;
+    }
+}
@@ -0,0 +1,81 @@
+package codegen.flowgraph;
+
+import parser.ast.SyntaxTreeNode;
+
+/**
+ * Eine Regel der Baumgrammatik: Das Muster wird mit den angegebenen Kosten auf das Nichtterminal reduziert.
+ * Die Kosten sind die Bytes der Instructions, die die Regel selbst erzeugt,
+ * die Kosten der Operanden rechnet der {@link InstructionSelector} hinzu.
+ * <p>
+ * Besteht das Muster nur aus einem Nichtterminal, ist es eine Kettenregel (z.B. JUMP_FALSE aus VALUE mit ifeq).
+ */
+final class SelectionRule {
+
+    /**
+     * Die Kosten können vom Knoten abhängen, z.B. von der Größe einer Konstante oder dem Slot einer Variable.
+     */
+    @FunctionalInterface
+    interface Cost {
+        int of(InstructionSelector selector, SyntaxTreeNode node);
+    }
+
+    @FunctionalInterface
+    interface Emitter {
+        void emit(InstructionSelector.Match match);
+    }
+
+    private final String name;
+    private final Nonterminal result;
+    private final TreePattern pattern;
+    private final Cost cost;
+    private final Emitter emitter;
+
+    private SelectionRule(String name, Nonterminal result, TreePattern pattern, Cost cost, Emitter emitter) {
+        this.name = name;
+        this.result = result;
+        this.pattern = pattern;
+        this.cost = cost;
+        this.emitter = emitter;
+    }
+
+    static SelectionRule of(String name, Nonterminal result, TreePattern pattern, int cost, Emitter emitter) {
+        return new SelectionRule(name, result, pattern, (selector, node) -> cost, emitter);
+    }
+
+    static SelectionRule of(String name, Nonterminal result, TreePattern pattern, Cost cost, Emitter emitter) {
+        return new SelectionRule(name, result, pattern, cost, emitter);
+    }
+
+    boolean isChainRule() {
+        return this.pattern.isNonterminal();
+    }
+
+    int costOf(InstructionSelector selector, SyntaxTreeNode node) {
+        return this.cost.of(selector, node);
+    }
+
+    void emit(InstructionSelector.Match match) {
+        this.emitter.emit(match);
+    }
+
+    // Getters
+
+    String getName() {
+        return this.name;
+    }
+
+    Nonterminal getResult() {
+        return this.result;
+    }
+
+    TreePattern getPattern() {
+        return this.pattern;
+    }
+
+    // Printing
+
+    @Override
+    public String toString() {
+        return this.name + ": " + this.result + " <- " + this.pattern;
+    }
+}
@@ -0,0 +1,339 @@
+package codegen.flowgraph;
+
+import codegen.CodeGenerationException;
+import parser.ast.Operator;
+import parser.ast.SyntaxTreeNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.Predicate;
+
+import static codegen.flowgraph.Nonterminal.JUMP_FALSE;
+import static codegen.flowgraph.Nonterminal.JUMP_TRUE;
+import static codegen.flowgraph.Nonterminal.STATEMENT;
+import static codegen.flowgraph.Nonterminal.VALUE;
+import static codegen.flowgraph.TreePattern.expr;
+import static codegen.flowgraph.TreePattern.node;
+import static codegen.flowgraph.TreePattern.nt;
+
+/**
+ * Die Regeln für den {@link InstructionSelector}.
+ * <p>
+ * {@link #SINGLE_NODE} übersetzt jeden Knoten für sich wie der ursprüngliche Generator:
+ * Bedingungen erzeugen einen Wahrheitswert, der mit ifeq geprüft wird.
+ * {@link #DEFAULT} ergänzt Muster über mehrere Knoten: iinc für "i = i + c", Vergleiche, die direkt springen,
+ * Vergleiche mit 0 über ifeq, iflt usw., boolesche Literale als Bedingung und neutrale Konstanten (x + 0, x * 1).
+ */
+final class SelectionRules {
+
+    static final List<SelectionRule> SINGLE_NODE;
+    static final List<SelectionRule> DEFAULT;
+
+    static {
+        SINGLE_NODE = Collections.unmodifiableList(singleNodeRules());
+
+        final List<SelectionRule> rules = new ArrayList<>(singleNodeRules());
+        rules.addAll(combinedRules());
+        DEFAULT = Collections.unmodifiableList(rules);
+    }
+
+    private SelectionRules() {}
+
+    private static List<SelectionRule> singleNodeRules() {
+        final List<SelectionRule> rules = new ArrayList<>();
+
+        // Blätter
+
+        rules.add(SelectionRule.of("iconst", VALUE, node("INTEGER_LIT", null),
+                                   (selector, node) -> Opcode.forInt(intValue(node)).getSize(intValue(node)),
+                                   m -> m.addIntConstant(intValue(m.getNode()))));
+        rules.add(SelectionRule.of("ldc", VALUE, node("STRING_LIT", null), 2,
+                                   m -> m.add("ldc", m.getNode().getValue())));
+        rules.add(SelectionRule.of("bool", VALUE, node("BOOLEAN_LIT", null), 1,
+                                   m -> m.addIntConstant("true".equals(m.getNode().getValue()) ? 1 : 0)));
+        rules.add(SelectionRule.of("load", VALUE, node("IDENTIFIER", null),
+                                   (selector, node) -> Opcode.ILOAD.getSize(selector.slotOf(node.getValue())),
+                                   m -> m.add(loadInstruction(m.typeOf(m.getNode())),
+                                              String.valueOf(m.slotOf(m.getNode().getValue())))));
+        rules.add(SelectionRule.of("par", VALUE, node("par_expr", null, nt(VALUE)), 0,
+                                   InstructionSelector.Match::reduceOperands));
+
+        // Arithmetik
+
+        rules.add(SelectionRule.of("plus", VALUE, expr(Operator.ADD, nt(VALUE)), 0,
+                                   InstructionSelector.Match::reduceOperands));
+        rules.add(SelectionRule.of("ineg", VALUE, expr(Operator.SUB, nt(VALUE)), 1,
+                                   m -> {
+                                       m.reduceOperands();
+                                       m.add("ineg");
+                                   }));
+
+        for (Operator operator : Operator.values()) {
+            if (!operator.isArithmetic()) {
+                continue;
+            }
+
+            final boolean commutative = operator.isCommutative();
+
+            // Ein rechter Operand mit höherem Stackbedarf kommt zuerst, dann stellt swap die Reihenfolge her
+            rules.add(SelectionRule.of(operator.getInstruction(), VALUE, expr(operator, nt(VALUE), nt(VALUE)),
+                                       (selector, node) -> !commutative && selector.isRightFirst(node) ? 2 : 1,
+                                       m -> {
+                                           if (m.isRightFirst()) {
+                                               m.reduce(1);
+                                               m.reduce(0);
+
+                                               if (!commutative) {
+                                                   m.add("swap");
+                                               }
+                                           } else {
+                                               m.reduceOperands();
+                                           }
+
+                                           m.add(operator.getInstruction());
+                                       }));
+        }
+
+        // Logik
+
+        rules.add(SelectionRule.of("iand", VALUE, expr(Operator.AND, nt(VALUE), nt(VALUE)), 1,
+                                   m -> {
+                                       m.reduceOperands();
+                                       m.add("iand");
+                                   }));
+        rules.add(SelectionRule.of("ior", VALUE, expr(Operator.OR, nt(VALUE), nt(VALUE)), 1,
+                                   m -> {
+                                       m.reduceOperands();
+                                       m.add("ior");
+                                   }));
+        rules.add(SelectionRule.of("not", VALUE, expr(Operator.NOT, nt(VALUE)), 2,
+                                   m -> {
+                                       // 0 xor 1 = 1, 1 xor 1 = 0 => not
+                                       m.reduceOperands();
+                                       m.addIntConstant(1);
+                                       m.add("ixor");
+                                   }));
+
+        // Ein Vergleich als Wert springt zum Laden der 1, sonst wird 0 geladen
+        for (Operator operator : Operator.values()) {
+            if (!operator.isComparison()) {
+                continue;
+            }
+
+            rules.add(SelectionRule.of("compare", VALUE, expr(operator, nt(VALUE), nt(VALUE)), 8,
+                                       m -> {
+                                           final String label = operator.getCondition().toUpperCase();
+                                           final int currentLabel = m.nextLabel();
+
+                                           m.reduceOperands();
+
+                                           m.addJump(compareJump(operator, m.typeOf(m.getOperand(0))), label + "true" + currentLabel);
+                                           m.addIntConstant(0);
+                                           m.addJump("goto", label + "end" + currentLabel);
+                                           m.addLabel(label + "true" + currentLabel);
+                                           m.addIntConstant(1);
+                                           m.addLabel(label + "end" + currentLabel);
+                                       }));
+        }
+
+        // Bedingungen und Anweisungen
+
+        rules.add(SelectionRule.of("ifeq", JUMP_FALSE, nt(VALUE), 3,
+                                   m -> {
+                                       m.reduceOperands();
+                                       m.addJump("ifeq", m.getTarget());
+                                   }));
+        rules.add(SelectionRule.of("ifne", JUMP_TRUE, nt(VALUE), 3,
+                                   m -> {
+                                       m.reduceOperands();
+                                       m.addJump("ifne", m.getTarget());
+                                   }));
+        rules.add(SelectionRule.of("store", STATEMENT, node("assignment", null, nt(VALUE)),
+                                   (selector, node) -> Opcode.ISTORE.getSize(selector.slotOf(node.getValue())),
+                                   m -> {
+                                       m.reduceOperands();
+                                       m.add(storeInstruction(m.typeOf(m.getOperand(0))),
+                                             String.valueOf(m.slotOf(m.getNode().getValue())));
+                                   }));
+
+        return rules;
+    }
+
+    private static List<SelectionRule> combinedRules() {
+        final List<SelectionRule> rules = new ArrayList<>();
+
+        // i = i + c ohne Stack, c muss in 16 Bit passen
+        final SelectionRule.Cost iincCost = (selector, node) -> {
+            final int slot = selector.slotOf(node.getValue());
+            return Opcode.IINC.getSize(increment(node).orElseThrow() << 16 | slot);
+        };
+        final SelectionRule.Emitter iinc = m -> m.add("iinc", String.valueOf(m.slotOf(m.getNode().getValue())),
+                                                      String.valueOf(increment(m.getNode()).orElseThrow()));
+        final Predicate<SyntaxTreeNode> isIncrement = node -> increment(node).isPresent();
+
+        rules.add(SelectionRule.of("iinc", STATEMENT,
+                                   node("assignment", null, expr(Operator.ADD, node("IDENTIFIER", null), node("INTEGER_LIT", null)))
+                                           .where(isIncrement),
+                                   iincCost, iinc));
+        rules.add(SelectionRule.of("iinc", STATEMENT,
+                                   node("assignment", null, expr(Operator.ADD, node("INTEGER_LIT", null), node("IDENTIFIER", null)))
+                                           .where(isIncrement),
+                                   iincCost, iinc));
+        rules.add(SelectionRule.of("iinc", STATEMENT,
+                                   node("assignment", null, expr(Operator.SUB, node("IDENTIFIER", null), node("INTEGER_LIT", null)))
+                                           .where(isIncrement),
+                                   iincCost, iinc));
+
+        // Vergleiche springen direkt, ohne den Wahrheitswert zu erzeugen
+        for (Operator operator : Operator.values()) {
+            if (!operator.isComparison()) {
+                continue;
+            }
+
+            rules.add(SelectionRule.of("if_cmp", JUMP_TRUE, expr(operator, nt(VALUE), nt(VALUE)), 3,
+                                       m -> {
+                                           m.reduceOperands();
+                                           m.addJump(compareJump(operator, m.typeOf(m.getOperand(0))), m.getTarget());
+                                       }));
+            rules.add(SelectionRule.of("if_cmp", JUMP_FALSE, expr(operator, nt(VALUE), nt(VALUE)), 3,
+                                       m -> {
+                                           m.reduceOperands();
+                                           m.addJump(negate(compareJump(operator, m.typeOf(m.getOperand(0)))), m.getTarget());
+                                       }));
+
+            // Mit 0 vergleicht der Sprungbefehl selbst, die Konstante entfällt
+            final String zeroJump = "if" + operator.getCondition();
+            final String mirroredZeroJump = "if" + operator.mirror().getCondition();
+
+            rules.add(SelectionRule.of("if_zero", JUMP_TRUE, expr(operator, nt(VALUE), zero()), 3,
+                                       m -> {
+                                           m.reduceOperands();
+                                           m.addJump(zeroJump, m.getTarget());
+                                       }));
+            rules.add(SelectionRule.of("if_zero", JUMP_FALSE, expr(operator, nt(VALUE), zero()), 3,
+                                       m -> {
+                                           m.reduceOperands();
+                                           m.addJump(negate(zeroJump), m.getTarget());
+                                       }));
+            rules.add(SelectionRule.of("if_zero", JUMP_TRUE, expr(operator, zero(), nt(VALUE)), 3,
+                                       m -> {
+                                           m.reduceOperands();
+                                           m.addJump(mirroredZeroJump, m.getTarget());
+                                       }));
+            rules.add(SelectionRule.of("if_zero", JUMP_FALSE, expr(operator, zero(), nt(VALUE)), 3,
+                                       m -> {
+                                           m.reduceOperands();
+                                           m.addJump(negate(mirroredZeroJump), m.getTarget());
+                                       }));
+        }
+
+        // Negierte Bedingungen springen im umgekehrten Fall, Klammern und Literale brauchen keinen Code
+        rules.add(SelectionRule.of("not", JUMP_FALSE, expr(Operator.NOT, nt(JUMP_TRUE)), 0,
+                                   InstructionSelector.Match::reduceOperands));
+        rules.add(SelectionRule.of("not", JUMP_TRUE, expr(Operator.NOT, nt(JUMP_FALSE)), 0,
+                                   InstructionSelector.Match::reduceOperands));
+        rules.add(SelectionRule.of("par", JUMP_FALSE, node("par_expr", null, nt(JUMP_FALSE)), 0,
+                                   InstructionSelector.Match::reduceOperands));
+        rules.add(SelectionRule.of("par", JUMP_TRUE, node("par_expr", null, nt(JUMP_TRUE)), 0,
+                                   InstructionSelector.Match::reduceOperands));
+        rules.add(SelectionRule.of("true", JUMP_FALSE, node("BOOLEAN_LIT", "true"), 0, m -> {}));
+        rules.add(SelectionRule.of("false", JUMP_FALSE, node("BOOLEAN_LIT", "false"), 3,
+                                   m -> m.addJump("goto", m.getTarget())));
+        rules.add(SelectionRule.of("true", JUMP_TRUE, node("BOOLEAN_LIT", "true"), 3,
+                                   m -> m.addJump("goto", m.getTarget())));
+        rules.add(SelectionRule.of("false", JUMP_TRUE, node("BOOLEAN_LIT", "false"), 0, m -> {}));
+
+        // Neutrale Konstanten fallen weg
+        rules.add(SelectionRule.of("identity", VALUE, expr(Operator.ADD, nt(VALUE), zero()), 0, InstructionSelector.Match::reduceOperands));
+        rules.add(SelectionRule.of("identity", VALUE, expr(Operator.ADD, zero(), nt(VALUE)), 0, InstructionSelector.Match::reduceOperands));
+        rules.add(SelectionRule.of("identity", VALUE, expr(Operator.SUB, nt(VALUE), zero()), 0, InstructionSelector.Match::reduceOperands));
+        rules.add(SelectionRule.of("identity", VALUE, expr(Operator.MUL, nt(VALUE), one()), 0, InstructionSelector.Match::reduceOperands));
+        rules.add(SelectionRule.of("identity", VALUE, expr(Operator.MUL, one(), nt(VALUE)), 0, InstructionSelector.Match::reduceOperands));
+        rules.add(SelectionRule.of("identity", VALUE, expr(Operator.DIV, nt(VALUE), one()), 0, InstructionSelector.Match::reduceOperands));
+        rules.add(SelectionRule.of("ineg", VALUE, expr(Operator.SUB, zero(), nt(VALUE)), 1,
+                                   m -> {
+                                       m.reduceOperands();
+                                       m.add("ineg");
+                                   }));
+
+        return rules;
+    }
+
+    private static TreePattern zero() {
+        return node("INTEGER_LIT", null).where(node -> isIntValue(node, 0));
+    }
+
+    private static TreePattern one() {
+        return node("INTEGER_LIT", null).where(node -> isIntValue(node, 1));
+    }
+
+    private static boolean isIntValue(SyntaxTreeNode node, int value) {
+        try {
+            return Integer.parseInt(node.getValue()) == value;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static int intValue(SyntaxTreeNode node) {
+        return Integer.parseInt(node.getValue());
+    }
+
+    /**
+     * Die Konstante einer Zuweisung "i = i + c", "i = c + i" oder "i = i - c", wenn sie in iinc passt.
+     */
+    private static OptionalInt increment(SyntaxTreeNode assignment) {
+        final SyntaxTreeNode expr = assignment.getChildren().get(0);
+        final SyntaxTreeNode left = expr.getChildren().get(0);
+        final SyntaxTreeNode right = expr.getChildren().get(1);
+        final String variable = assignment.getValue();
+
+        final SyntaxTreeNode identifier = "IDENTIFIER".equals(left.getName()) ? left : right;
+        final SyntaxTreeNode literal = identifier == left ? right : left;
+        if (!variable.equals(identifier.getValue())) {
+            return OptionalInt.empty();
+        }
+
+        final long increment;
+        try {
+            increment = expr.getOperator() == Operator.SUB ? -Long.parseLong(literal.getValue()) : Long.parseLong(literal.getValue());
+        } catch (NumberFormatException e) {
+            return OptionalInt.empty();
+        }
+
+        return increment == (short) increment ? OptionalInt.of((int) increment) : OptionalInt.empty();
+    }
+
+    private static String loadInstruction(String type) {
+        return switch (type) {
+            case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "iload";
+            case "STRING_TYPE" -> "aload";
+            default -> throw new CodeGenerationException("Unexpected value: " + type);
+        };
+    }
+
+    private static String storeInstruction(String type) {
+        return switch (type) {
+            case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "istore";
+            case "STRING_TYPE" -> "astore";
+            default -> throw new CodeGenerationException("Unexpected value: " + type);
+        };
+    }
+
+    /**
+     * Der Sprung, wenn der Vergleich zutrifft. Strings werden nur auf Referenzgleichheit verglichen.
+     */
+    private static String compareJump(Operator operator, String type) {
+        return switch (type) {
+            case "INTEGER_TYPE", "BOOLEAN_TYPE" -> "if_icmp" + operator.getCondition();
+            case "STRING_TYPE" -> "if_acmp" + operator.getCondition();
+            default -> throw new CodeGenerationException("Unexpected value: " + type);
+        };
+    }
+
+    private static String negate(String jump) {
+        return Opcode.fromMnemonic(jump).negate().getMnemonic();
+    }
+}
@@ -0,0 +1,53 @@
+package codegen.flowgraph;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ein Programm, dessen main-Methode auf mehrere statische Hilfsmethoden aufgeteilt wurde.
+ * Die main-Methode ruft die Teile nacheinander auf, Variablen, die über eine Teilgrenze hinweg live sind,
+ * werden in statischen Feldern übergeben.
+ */
+public final class SplitProgram {
+
+    private final FlowGraphHead head;
+
+    /**
+     * Die statischen Felder mit ihrem Typdeskriptor, in Einfügereihenfolge.
+     */
+    private final Map<String, String> fields;
+
+    /**
+     * Die Rümpfe der Hilfsmethoden, der Kopf jedes Graphen gibt Stack- und Local-Limit der Methode an.
+     */
+    private final List<FlowGraph> methods;
+
+    public SplitProgram(FlowGraphHead head, Map<String, String> fields, List<FlowGraph> methods) {
+        this.head = head;
+        this.fields = Collections.unmodifiableMap(new LinkedHashMap<>(fields));
+        this.methods = List.copyOf(methods);
+    }
+
+    /**
+     * Der Name der i-ten Hilfsmethode.
+     */
+    public static String methodName(int index) {
+        return "main_" + index;
+    }
+
+    // Getters
+
+    public FlowGraphHead getHead() {
+        return this.head;
+    }
+
+    public Map<String, String> getFields() {
+        return this.fields;
+    }
+
+    public List<FlowGraph> getMethods() {
+        return this.methods;
+    }
+}
@@ -0,0 +1,129 @@
+package codegen.flowgraph;
+
+import parser.ast.Operator;
+import parser.ast.SyntaxTreeNode;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Ein Baummuster über dem AST, die rechte Seite einer {@link SelectionRule}.
+ * <p>
+ * Ein Muster ist entweder ein Nichtterminal als Blatt, das auf einen beliebigen Teilbaum passt,
+ * der sich auf dieses Nichtterminal reduzieren lässt, oder ein Knoten mit Name, Wert und Kindmustern.
+ * Knotenmuster ohne Kinder sind Terminale wie Literale, die direkt als Operand in die Instruction eingehen.
+ */
+final class TreePattern {
+
+    private final Nonterminal nonterminal;
+
+    private final String name;
+
+    /**
+     * Der Wert des Knotens, z.B. "true" bei einem Literal, null passt auf jeden Wert.
+     */
+    private final String value;
+
+    /**
+     * Der Operator eines "expr"-Knotens, null passt auf jeden Knoten.
+     */
+    private final Operator operator;
+
+    private final List<TreePattern> children;
+
+    private final Predicate<SyntaxTreeNode> condition;
+
+    private TreePattern(Nonterminal nonterminal, String name, String value, Operator operator, List<TreePattern> children,
+                        Predicate<SyntaxTreeNode> condition) {
+        this.nonterminal = nonterminal;
+        this.name = name;
+        this.value = value;
+        this.operator = operator;
+        this.children = children;
+        this.condition = condition;
+    }
+
+    static TreePattern nt(Nonterminal nonterminal) {
+        return new TreePattern(nonterminal, null, null, null, List.of(), node -> true);
+    }
+
+    static TreePattern node(String name, String value, TreePattern... children) {
+        return new TreePattern(null, name, value, null, Arrays.asList(children), node -> true);
+    }
+
+    static TreePattern expr(Operator operator, TreePattern... children) {
+        return new TreePattern(null, "expr", null, operator, Arrays.asList(children), node -> true);
+    }
+
+    /**
+     * Schränkt ein Knotenmuster zusätzlich ein, z.B. auf ein bestimmtes Literal.
+     */
+    TreePattern where(Predicate<SyntaxTreeNode> condition) {
+        if (this.isNonterminal()) {
+            throw new IllegalStateException("Ein Nichtterminal kann nicht eingeschränkt werden");
+        }
+
+        return new TreePattern(null, this.name, this.value, this.operator, this.children, this.condition.and(condition));
+    }
+
+    /**
+     * Prüft die Knotenmuster an node und sammelt die Teilbäume an den Nichtterminal-Blättern
+     * von links nach rechts. Ob diese Teilbäume reduziert werden können, prüft der Aufrufer.
+     */
+    boolean match(SyntaxTreeNode node, List<SyntaxTreeNode> operands, List<Nonterminal> nonterminals) {
+        if (this.isNonterminal()) {
+            operands.add(node);
+            nonterminals.add(this.nonterminal);
+            return true;
+        }
+
+        if (!this.name.equals(node.getName())
+            || (this.value != null && !this.value.equals(node.getValue()))
+            || (this.operator != null && this.operator != node.getOperator())
+            || this.children.size() != node.getChildren().size()) {
+            return false;
+        }
+
+        for (int i = 0; i < this.children.size(); i++) {
+            if (!this.children.get(i).match(node.getChildren().get(i), operands, nonterminals)) {
+                return false;
+            }
+        }
+
+        // Erst nach den Kindern, die Bedingung darf sich auf die Form des Teilbaums verlassen
+        return this.condition.test(node);
+    }
+
+    // Getters
+
+    boolean isNonterminal() {
+        return this.nonterminal != null;
+    }
+
+    Nonterminal getNonterminal() {
+        return this.nonterminal;
+    }
+
+    // Printing
+
+    @Override
+    public String toString() {
+        if (this.isNonterminal()) {
+            return this.nonterminal.toString();
+        }
+
+        final Object value = this.operator != null ? this.operator : this.value;
+        final String label = value == null ? this.name : this.name + ": " + value;
+        if (this.children.isEmpty()) {
+            return label;
+        }
+
+        final StringBuilder out = new StringBuilder(label).append('(');
+        for (int i = 0; i < this.children.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append(this.children.get(i));
+        }
+
+        return out.append(')').toString();
+    }
+}
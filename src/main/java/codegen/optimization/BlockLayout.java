@@ -0,0 +1,446 @@
+package codegen.optimization;
+
+import codegen.analysis.BlockGraph;
+import codegen.analysis.dominance.DominatorTree;
+import codegen.analysis.dominance.LoopNestingForest;
+import codegen.flowgraph.BlockProfile;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowInstruction;
+import codegen.flowgraph.Opcode;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ordnet die Blöcke eines {@link FlowGraph} so an, dass wahrscheinliche Kanten zu Fallthroughs werden.
+ * <p>
+ * Die Kantengewichte werden statisch geschätzt oder aus einem {@link BlockProfile} übernommen:
+ * <ul>
+ *     <li>Ein Block wird pro umgebender Schleife {@link #LOOP_FREQUENCY}-mal häufiger ausgeführt.</li>
+ *     <li>Rückwärtskanten und Kanten, die in der Schleife bleiben, haben die Wahrscheinlichkeit
+ *         {@link #LOOP_BRANCH_PROBABILITY}, die Schleife zu verlassen entsprechend den Rest.</li>
+ *     <li>Sonst sind beide Kanten eines bedingten Sprunges gleich wahrscheinlich.</li>
+ * </ul>
+ * Daraus werden nach Pettis und Hansen Ketten gebildet: Die Kanten werden absteigend nach Gewicht betrachtet,
+ * eine Kante verbindet zwei Ketten, wenn sie vom Ende der einen zum Anfang der anderen führt.
+ * Die Kette mit dem Einstiegsblock kommt zuerst, danach jeweils die Kette mit dem stärksten Zufluss
+ * aus den bereits platzierten Blöcken.
+ * <p>
+ * Danach werden die Sprünge angepasst: gotos auf den folgenden Block entfallen, fehlende Fallthroughs
+ * bekommen ein goto und bedingte Sprünge auf den folgenden Block werden umgekehrt.
+ * Blöcke ohne Label, die dadurch angesprungen werden, bekommen ein neues Label.
+ * Die Predecessor/Successor-Verbindungen werden danach über {@link FlowGraph#rebuildEdges()} neu berechnet.
+ */
+public final class BlockLayout {
+
+    static final double LOOP_BRANCH_PROBABILITY = 0.88;
+    static final double LOOP_FREQUENCY = 8.0;
+
+    /**
+     * Tiefer geschachtelte Schleifen werden nicht mehr höher gewichtet, damit die Gewichte endlich bleiben.
+     */
+    private static final int MAX_LOOP_DEPTH = 16;
+
+    private static final String LABEL_PREFIX = "LAYOUT";
+    private static final int NONE = -1;
+
+    private final FlowGraph graph;
+
+    private int movedBlocks;
+    private int insertedGotos;
+    private int removedGotos;
+    private int invertedBranches;
+
+    private BlockLayout(FlowGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Ordnet den Graph an Ort und Stelle nach statisch geschätzten Kantengewichten an.
+     *
+     * @return Die Anzahl der durchgeführten Änderungen.
+     */
+    public static int run(FlowGraph graph) {
+        return run(graph, null);
+    }
+
+    /**
+     * Ordnet den Graph an Ort und Stelle nach den Zählern eines Profils an.
+     * Das Profil muss von diesem Graph stammen, passt es nicht, werden die Gewichte statisch geschätzt.
+     *
+     * @param profile Das Profil oder null.
+     * @return Die Anzahl der durchgeführten Änderungen.
+     */
+    public static int run(FlowGraph graph, BlockProfile profile) {
+        if (graph.isEmpty()) {
+            return 0;
+        }
+
+        final boolean profiled = profile != null && profile.matches(graph);
+        if (profile != null && !profiled) {
+            Logger.logInfo("Profile does not match the flow-graph, using static estimates", BlockLayout.class);
+        }
+
+        Logger.logDebug("Beginning " + (profiled ? "profile-guided" : "static") + " block layout", BlockLayout.class);
+
+        final BlockLayout layout = new BlockLayout(graph);
+        layout.layout(profiled ? profile : null);
+
+        final int changes = layout.movedBlocks + layout.insertedGotos + layout.removedGotos + layout.invertedBranches;
+
+        Logger.logDebug("Block layout made " + changes + " changes ("
+                        + layout.movedBlocks + " moved blocks, "
+                        + layout.insertedGotos + " inserted gotos, "
+                        + layout.removedGotos + " removed gotos, "
+                        + layout.invertedBranches + " inverted branches)", BlockLayout.class);
+
+        return changes;
+    }
+
+    private void layout(BlockProfile profile) {
+        // Der letzte Block fällt in das Ende von main, dieses hat kein Label und muss deshalb am Ende bleiben.
+        // Ein leerer Ausgangsblock mit Label übernimmt diese Rolle, damit alle anderen Blöcke verschoben werden können.
+        final FlowBasicBlock exit = this.canFallThrough(this.graph.getBlocks().get(this.graph.size() - 1))
+                                    ? new FlowBasicBlock(this.graph.newLabel(LABEL_PREFIX), this.graph.getConstants())
+                                    : null;
+        if (exit != null) {
+            final List<FlowBasicBlock> blocks = new ArrayList<>(this.graph.getBlocks());
+            blocks.add(exit);
+            this.graph.replaceBlocks(blocks);
+        }
+        this.graph.rebuildEdges();
+
+        final BlockGraph blockGraph = BlockGraph.fromFlowGraph(this.graph);
+        final int size = blockGraph.size();
+        final int exitIndex = exit == null ? NONE : size - 1;
+
+        final int[] fallthrough = new int[size];
+        final int[] jump = new int[size];
+        for (int i = 0; i < size; i++) {
+            final FlowBasicBlock block = blockGraph.getBlock(i);
+            final Optional<FlowInstruction> last = block.getLastInstruction();
+
+            fallthrough[i] = this.canFallThrough(block) && i + 1 < size ? i + 1 : NONE;
+            jump[i] = last.isPresent() && last.get().isJump()
+                      ? indexOf(blockGraph, this.graph.getBlockByLabel(last.get().getArgs()[0]))
+                      : NONE;
+        }
+
+        final List<Edge> edges = profile == null
+                                 ? staticEdges(blockGraph, fallthrough, jump)
+                                 : profileEdges(blockGraph, fallthrough, jump, profile);
+
+        final int[] order = orderChains(size, edges, exitIndex);
+        final List<FlowBasicBlock> blocks = this.rewriteJumps(blockGraph, order, fallthrough, jump);
+
+        if (exit != null) {
+            removeUnusedExit(blocks, blocks.get(blocks.size() - 1));
+        }
+
+        this.graph.replaceBlocks(blocks);
+        this.graph.rebuildEdges();
+    }
+
+    // Edge weights
+
+    private static List<Edge> staticEdges(BlockGraph blockGraph, int[] fallthrough, int[] jump) {
+        final DominatorTree dominators = DominatorTree.fromBlockGraph(blockGraph);
+        final LoopNestingForest loops = LoopNestingForest.fromDominatorTree(dominators);
+        final List<Edge> edges = new ArrayList<>();
+
+        for (int i = 0; i < blockGraph.size(); i++) {
+            final double frequency = Math.pow(LOOP_FREQUENCY, Math.min(MAX_LOOP_DEPTH, loops.getLoopDepth(i)));
+
+            if (jump[i] == NONE || fallthrough[i] == NONE || jump[i] == fallthrough[i]) {
+                addEdge(edges, i, fallthrough[i], frequency);
+                addEdge(edges, i, jump[i] == fallthrough[i] ? NONE : jump[i], frequency);
+                continue;
+            }
+
+            final double jumpProbability = jumpProbability(i, jump[i], fallthrough[i], dominators, loops);
+            addEdge(edges, i, fallthrough[i], frequency * (1.0 - jumpProbability));
+            addEdge(edges, i, jump[i], frequency * jumpProbability);
+        }
+
+        return edges;
+    }
+
+    /**
+     * Die geschätzte Wahrscheinlichkeit, dass ein bedingter Sprung springt.
+     */
+    private static double jumpProbability(int block, int target, int fallthrough,
+                                          DominatorTree dominators, LoopNestingForest loops) {
+        final boolean backJump = dominators.dominates(target, block);
+        final boolean backFallthrough = dominators.dominates(fallthrough, block);
+        if (backJump != backFallthrough) {
+            return backJump ? LOOP_BRANCH_PROBABILITY : 1.0 - LOOP_BRANCH_PROBABILITY;
+        }
+
+        final int loop = loops.getInnermostLoop(block);
+        if (loop != NONE) {
+            final boolean jumpStays = loops.isInLoop(target, loop);
+            final boolean fallthroughStays = loops.isInLoop(fallthrough, loop);
+
+            if (jumpStays != fallthroughStays) {
+                return jumpStays ? LOOP_BRANCH_PROBABILITY : 1.0 - LOOP_BRANCH_PROBABILITY;
+            }
+        }
+
+        return 0.5;
+    }
+
+    /**
+     * Das Profil zählt nur Blöcke, die Kantengewichte werden daraus abgeleitet:
+     * Hat ein Nachfolger nur einen Predecessor, ist sein Zähler genau das Gewicht der Kante,
+     * der Rest des Blockes fließt über die andere Kante ab.
+     */
+    private static List<Edge> profileEdges(BlockGraph blockGraph, int[] fallthrough, int[] jump, BlockProfile profile) {
+        final List<Edge> edges = new ArrayList<>();
+
+        for (int i = 0; i < blockGraph.size(); i++) {
+            final double count = count(profile, i);
+
+            if (jump[i] == NONE || fallthrough[i] == NONE || jump[i] == fallthrough[i]) {
+                addEdge(edges, i, fallthrough[i], count);
+                addEdge(edges, i, jump[i] == fallthrough[i] ? NONE : jump[i], count);
+                continue;
+            }
+
+            final double jumpCount;
+            if (blockGraph.getPredecessors(jump[i]).length == 1) {
+                jumpCount = count(profile, jump[i]);
+            } else if (blockGraph.getPredecessors(fallthrough[i]).length == 1) {
+                jumpCount = count - count(profile, fallthrough[i]);
+            } else {
+                jumpCount = Math.min(count, count(profile, jump[i])) / 2;
+            }
+
+            final double clamped = Math.max(0.0, Math.min(count, jumpCount));
+            addEdge(edges, i, fallthrough[i], count - clamped);
+            addEdge(edges, i, jump[i], clamped);
+        }
+
+        return edges;
+    }
+
+    /**
+     * Der Ausgangsblock ist nicht im Profil enthalten, er wird nie verschoben.
+     */
+    private static double count(BlockProfile profile, int block) {
+        return block < profile.getBlockCount() ? profile.getCount(block) : 0.0;
+    }
+
+    private static void addEdge(List<Edge> edges, int from, int to, double weight) {
+        if (to != NONE && to != from) {
+            edges.add(new Edge(from, to, weight));
+        }
+    }
+
+    // Chains
+
+    /**
+     * Bildet die Ketten und ordnet sie an.
+     *
+     * @return Die Indizes der Blöcke in der neuen Reihenfolge.
+     */
+    private static int[] orderChains(int size, List<Edge> edges, int exit) {
+        final int[] chainOf = new int[size];
+        final List<List<Integer>> chains = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            chainOf[i] = i;
+            chains.add(new ArrayList<>(List.of(i)));
+        }
+
+        // Stabil sortiert, bei gleichem Gewicht bleibt die ursprüngliche Reihenfolge bevorzugt
+        final List<Edge> sorted = new ArrayList<>(edges);
+        sorted.sort(Comparator.comparingDouble((Edge edge) -> edge.weight).reversed());
+
+        for (Edge edge : sorted) {
+            final List<Integer> from = chains.get(chainOf[edge.from]);
+            final List<Integer> to = chains.get(chainOf[edge.to]);
+
+            // Die Kette mit dem Ausgangsblock kommt zuletzt, sie darf nicht an die erste Kette angehängt werden
+            if (edge.to == 0 || from == to
+                || from.get(from.size() - 1) != edge.from || to.get(0) != edge.to
+                || (exit != NONE && chainOf[edge.from] == chainOf[0] && chainOf[edge.to] == chainOf[exit])) {
+                continue;
+            }
+
+            from.addAll(to);
+            for (int block : to) {
+                chainOf[block] = chainOf[edge.from];
+            }
+            to.clear();
+        }
+
+        // Der Zufluss jeder Kette aus den bereits platzierten Blöcken
+        final double[] inflow = new double[size];
+        final boolean[] placed = new boolean[size];
+        final List<List<Edge>> outgoing = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            outgoing.add(new ArrayList<>());
+        }
+        for (Edge edge : edges) {
+            outgoing.get(edge.from).add(edge);
+        }
+
+        final int[] order = new int[size];
+        int position = 0;
+        int next = chainOf[0];
+
+        while (next != NONE) {
+            placed[next] = true;
+
+            for (int block : chains.get(next)) {
+                order[position++] = block;
+
+                for (Edge edge : outgoing.get(block)) {
+                    inflow[chainOf[edge.to]] += edge.weight;
+                }
+            }
+
+            next = NONE;
+            for (int chain = 0; chain < size; chain++) {
+                if (placed[chain] || chains.get(chain).isEmpty()
+                    || (exit != NONE && chain == chainOf[exit])) {
+                    continue;
+                }
+
+                if (next == NONE || inflow[chain] > inflow[next]) {
+                    next = chain;
+                }
+            }
+
+            if (next == NONE && exit != NONE && !placed[chainOf[exit]]) {
+                next = chainOf[exit];
+            }
+        }
+
+        return order;
+    }
+
+    // Rewriting
+
+    /**
+     * Baut die neue Blockliste auf und passt die Sprünge an die neuen Nachbarn an.
+     */
+    private List<FlowBasicBlock> rewriteJumps(BlockGraph blockGraph, int[] order, int[] fallthrough, int[] jump) {
+        final int size = order.length;
+        final int[] nextOf = new int[size];
+        for (int position = 0; position < size; position++) {
+            nextOf[order[position]] = position + 1 < size ? order[position + 1] : NONE;
+
+            if (order[position] != position) {
+                this.movedBlocks++;
+            }
+        }
+
+        // Blöcke, die nicht mehr direkt erreicht werden, brauchen ein Label
+        final FlowBasicBlock[] blocks = new FlowBasicBlock[size];
+        final boolean[] needsLabel = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            blocks[i] = blockGraph.getBlock(i);
+
+            if (fallthrough[i] != NONE && nextOf[i] != fallthrough[i]) {
+                needsLabel[fallthrough[i]] = true;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (needsLabel[i] && blocks[i].getLabel().isBlank()) {
+                blocks[i] = this.relabel(blocks[i]);
+            }
+        }
+
+        final List<FlowBasicBlock> result = new ArrayList<>(size);
+        for (int i : order) {
+            final FlowBasicBlock block = blocks[i];
+            final Optional<FlowInstruction> last = block.getLastInstruction();
+            result.add(block);
+
+            if (last.isPresent() && last.get().isGoto()) {
+                if (jump[i] != NONE && jump[i] == nextOf[i]) {
+                    block.removeLastInstruction();
+                    this.removedGotos++;
+                }
+            } else if (fallthrough[i] != NONE && fallthrough[i] != nextOf[i]) {
+                final String target = blocks[fallthrough[i]].getLabel();
+
+                if (last.isPresent() && last.get().isJump() && jump[i] == nextOf[i]) {
+                    block.replaceLastInstruction(last.get().getOpcode().negate().getMnemonic(), target);
+                    this.invertedBranches++;
+                } else if (last.isPresent() && last.get().isJump()) {
+                    // Ein Block endet mit seinem Sprung, das goto braucht einen eigenen Block
+                    final FlowBasicBlock gotoBlock = new FlowBasicBlock("", this.graph.getConstants());
+                    gotoBlock.addInstruction("goto", target);
+                    gotoBlock.setLine(block.getLine());
+                    result.add(gotoBlock);
+                    this.insertedGotos++;
+                } else {
+                    block.addInstruction("goto", target);
+                    this.insertedGotos++;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Das Label eines Blockes ist unveränderlich, der Block wird deshalb mit neuem Label kopiert.
+     */
+    private FlowBasicBlock relabel(FlowBasicBlock block) {
+        final FlowBasicBlock labeled = new FlowBasicBlock(this.graph.newLabel(LABEL_PREFIX), this.graph.getConstants());
+        labeled.appendInstructions(block);
+        labeled.setLine(block.getLine());
+
+        return labeled;
+    }
+
+    /**
+     * Entfernt den Ausgangsblock wieder, wenn ihn kein Sprung verwendet.
+     */
+    private static void removeUnusedExit(List<FlowBasicBlock> blocks, FlowBasicBlock exit) {
+        for (FlowBasicBlock block : blocks) {
+            final Optional<FlowInstruction> last = block.getLastInstruction();
+
+            if (last.isPresent() && last.get().isJump() && last.get().getArgs()[0].equals(exit.getLabel())) {
+                return;
+            }
+        }
+
+        blocks.remove(blocks.size() - 1);
+    }
+
+    private boolean canFallThrough(FlowBasicBlock block) {
+        final Optional<FlowInstruction> last = block.getLastInstruction();
+
+        return last.isEmpty() || (!last.get().isGoto() && last.get().getOpcode().getBranch() != Opcode.Branch.RETURN);
+    }
+
+    private static int indexOf(BlockGraph blockGraph, FlowBasicBlock block) {
+        return block == null ? NONE : blockGraph.indexOf(block);
+    }
+
+    private static final class Edge {
+
+        private final int from;
+        private final int to;
+        private final double weight;
+
+        private Edge(int from, int to, double weight) {
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+        }
+
+        @Override
+        public String toString() {
+            return this.from + " -> " + this.to + " (" + this.weight + ")";
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package codegen.optimization;
+
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowInstruction;
+import util.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Vereinfacht den Kontrollfluss eines {@link FlowGraph}.
+ * <p>
+ * Die Teilschritte werden wiederholt, bis sich nichts mehr ändert:
+ * <ul>
+ *     <li>Sprünge auf leere Blöcke oder Blöcke, die nur aus einem goto bestehen, werden auf das endgültige Ziel umgeleitet.</li>
+ *     <li>Unerreichbare Blöcke werden entfernt.</li>
+ *     <li>Ein goto auf den direkt folgenden Block wird entfernt.</li>
+ *     <li>Ein Block wird mit seinem Nachfolger verschmolzen, wenn dieser nur von ihm erreicht wird.</li>
+ * </ul>
+ * Die Predecessor/Successor-Verbindungen werden danach über {@link FlowGraph#rebuildEdges()} neu berechnet.
+ */
+public final class ControlFlowSimplification {
+
+    private final FlowGraph graph;
+
+    private int threadedJumps;
+    private int removedBlocks;
+    private int removedGotos;
+    private int mergedBlocks;
+
+    private ControlFlowSimplification(FlowGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Vereinfacht den Graph an Ort und Stelle.
+     *
+     * @return Die Anzahl der durchgeführten Änderungen.
+     */
+    public static int run(FlowGraph graph) {
+        Logger.logDebug("Beginning control-flow simplification", ControlFlowSimplification.class);
+
+        final ControlFlowSimplification simplification = new ControlFlowSimplification(graph);
+        graph.rebuildEdges();
+
+        boolean change;
+        do {
+            change = simplification.threadJumps();
+            change |= simplification.removeUnreachableBlocks();
+            change |= simplification.removeFallthroughGotos();
+            change |= simplification.mergeBlocks();
+        } while (change);
+
+        final int changes = simplification.threadedJumps + simplification.removedBlocks
+                            + simplification.removedGotos + simplification.mergedBlocks;
+
+        Logger.logDebug("Control-flow simplification made " + changes + " changes ("
+                        + simplification.threadedJumps + " threaded jumps, "
+                        + simplification.removedBlocks + " unreachable blocks, "
+                        + simplification.removedGotos + " gotos, "
+                        + simplification.mergedBlocks + " merged blocks)", ControlFlowSimplification.class);
+
+        return changes;
+    }
+
+    /**
+     * Leitet Sprünge auf triviale Blöcke direkt auf deren Ziel um.
+     * Ein Block ist trivial, wenn er leer ist (Ziel ist der folgende Block) oder nur ein goto enthält.
+     */
+    private boolean threadJumps() {
+        final List<FlowBasicBlock> blocks = this.graph.getBlocks();
+        final Map<String, Integer> labels = labelIndex(blocks);
+        boolean change = false;
+
+        for (FlowBasicBlock block : blocks) {
+            final Optional<FlowInstruction> last = block.getLastInstruction();
+            if (last.isEmpty() || !last.get().isJump()) {
+                continue;
+            }
+
+            final String target = last.get().getArgs()[0];
+            final String threaded = finalTarget(target, blocks, labels);
+
+            if (!threaded.equals(target)) {
+                Logger.logInfo(" :: Threading jump to \"" + target + "\" through to \"" + threaded + "\"",
+                               ControlFlowSimplification.class);
+
+                block.replaceLastInstruction(last.get().getInstruction(), threaded);
+                this.threadedJumps++;
+                change = true;
+            }
+        }
+
+        if (change) {
+            this.graph.rebuildEdges();
+        }
+
+        return change;
+    }
+
+    /**
+     * Folgt einer Kette trivialer Blöcke bis zum ersten Block mit Inhalt.
+     * Zyklen aus leeren Blöcken (Endlosschleifen) werden am ersten wiederholten Label abgebrochen.
+     */
+    private static String finalTarget(String label, List<FlowBasicBlock> blocks, Map<String, Integer> labels) {
+        final Set<String> visited = new HashSet<>();
+        String current = label;
+
+        while (visited.add(current) && labels.containsKey(current)) {
+            final int index = labels.get(current);
+            final FlowBasicBlock block = blocks.get(index);
+            final String next;
+
+            if (block.getInstructionCount() == 0) {
+                // Das Ziel kann nur über ein Label erreicht werden, das Ende der Methode hat keines
+                if (index + 1 >= blocks.size() || blocks.get(index + 1).getLabel().isBlank()) {
+                    break;
+                }
+                next = blocks.get(index + 1).getLabel();
+            } else if (block.getInstructionCount() == 1 && block.getLastInstruction().orElseThrow().isGoto()) {
+                next = block.getLastInstruction().orElseThrow().getArgs()[0];
+            } else {
+                break;
+            }
+
+            if (visited.contains(next)) {
+                break;
+            }
+            current = next;
+        }
+
+        return current;
+    }
+
+    /**
+     * Entfernt alle Blöcke, die vom ersten Block aus nicht erreichbar sind.
+     */
+    private boolean removeUnreachableBlocks() {
+        final List<FlowBasicBlock> blocks = this.graph.getBlocks();
+        if (blocks.isEmpty()) {
+            return false;
+        }
+
+        final Set<FlowBasicBlock> reachable = new HashSet<>();
+        final Deque<FlowBasicBlock> stack = new ArrayDeque<>();
+        reachable.add(blocks.get(0));
+        stack.push(blocks.get(0));
+
+        while (!stack.isEmpty()) {
+            for (FlowBasicBlock successor : stack.pop().getBlockSuccessorSet()) {
+                if (reachable.add(successor)) {
+                    stack.push(successor);
+                }
+            }
+        }
+
+        if (reachable.size() == blocks.size()) {
+            return false;
+        }
+
+        final Set<FlowBasicBlock> unreachable = new HashSet<>(blocks);
+        unreachable.removeAll(reachable);
+
+        Logger.logInfo(" :: Removing " + unreachable.size() + " unreachable blocks", ControlFlowSimplification.class);
+
+        this.graph.removeBlocks(unreachable);
+        this.graph.rebuildEdges();
+        this.removedBlocks += unreachable.size();
+
+        return true;
+    }
+
+    /**
+     * Entfernt gotos, die auf den direkt folgenden Block springen.
+     * Dadurch leer gewordene Blöcke ohne Label werden ebenfalls entfernt.
+     */
+    private boolean removeFallthroughGotos() {
+        final List<FlowBasicBlock> blocks = this.graph.getBlocks();
+        final Set<FlowBasicBlock> emptyBlocks = new HashSet<>();
+        boolean change = false;
+
+        for (int i = 0; i < blocks.size() - 1; i++) {
+            final FlowBasicBlock block = blocks.get(i);
+            final Optional<FlowInstruction> last = block.getLastInstruction();
+
+            if (last.isPresent() && last.get().isGoto() && last.get().getArgs()[0].equals(blocks.get(i + 1).getLabel())) {
+                Logger.logInfo(" :: Removing goto to following block \"" + blocks.get(i + 1).getLabel() + "\"",
+                               ControlFlowSimplification.class);
+
+                block.removeLastInstruction();
+                this.removedGotos++;
+                change = true;
+
+                if (block.isEmpty() && i > 0) {
+                    emptyBlocks.add(block);
+                }
+            }
+        }
+
+        if (change) {
+            this.graph.removeBlocks(emptyBlocks);
+            this.graph.rebuildEdges();
+        }
+
+        return change;
+    }
+
+    /**
+     * Verschmilzt einen Block mit seinem Fallthrough-Nachfolger, wenn dieser keinen anderen Predecessor hat
+     * und sein Label von keinem Sprung verwendet wird.
+     */
+    private boolean mergeBlocks() {
+        final List<FlowBasicBlock> blocks = this.graph.getBlocks();
+        final Set<String> jumpTargets = new HashSet<>();
+
+        for (FlowBasicBlock block : blocks) {
+            block.getLastInstruction()
+                 .filter(FlowInstruction::isJump)
+                 .ifPresent(jump -> jumpTargets.add(jump.getArgs()[0]));
+        }
+
+        final Set<FlowBasicBlock> merged = new HashSet<>();
+
+        for (int i = 0; i < blocks.size() - 1; i++) {
+            final FlowBasicBlock block = blocks.get(i);
+            final FlowBasicBlock next = blocks.get(i + 1);
+
+            if (merged.contains(block)
+                || block.getLastInstruction().map(FlowInstruction::isJump).orElse(false)
+                || next.getBlockPredecessorSet().size() != 1
+                || jumpTargets.contains(next.getLabel())) {
+                continue;
+            }
+
+            Logger.logInfo(" :: Merging block nr. " + (i + 1) + " into block nr. " + i, ControlFlowSimplification.class);
+
+            block.appendInstructions(next);
+            merged.add(next);
+        }
+
+        if (merged.isEmpty()) {
+            return false;
+        }
+
+        this.graph.removeBlocks(merged);
+        this.graph.rebuildEdges();
+        this.mergedBlocks += merged.size();
+
+        return true;
+    }
+
+    private static Map<String, Integer> labelIndex(List<FlowBasicBlock> blocks) {
+        final Map<String, Integer> labels = new HashMap<>();
+
+        for (int i = 0; i < blocks.size(); i++) {
+            if (!blocks.get(i).getLabel().isBlank()) {
+                labels.put(blocks.get(i).getLabel(), i);
+            }
+        }
+
+        return labels;
+    }
+}
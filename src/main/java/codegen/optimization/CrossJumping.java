@@ -0,0 +1,260 @@
+package codegen.optimization;
+
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowInstruction;
+import codegen.flowgraph.Opcode;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Fasst gleiche Enden von Blöcken zusammen, die in denselben Block münden (Cross-Jumping, Tail-Merging).
+ * <p>
+ * Typisch sind die Zweige eines if-else, die mit derselben Zuweisung oder demselben println-Aufruf enden.
+ * Für einen Block mit mehreren Predecessors werden die Predecessors betrachtet, die unbedingt in ihn führen,
+ * also mit einem goto auf ihn enden oder direkt vor ihm liegen und in ihn durchfallen.
+ * Haben mehrere davon dasselbe Ende, wandert dieses in einen neuen Block direkt vor dem Ziel,
+ * die Predecessors springen stattdessen dorthin.
+ * <p>
+ * Fällt ein anderer Block in das Ziel durch, bekommt er ein goto, das muss sich lohnen.
+ * Jede Zusammenfassung macht die Methode kleiner, die Wiederholung bis zum Fixpunkt terminiert also.
+ * Die Predecessor/Successor-Verbindungen werden danach über {@link FlowGraph#rebuildEdges()} neu berechnet.
+ */
+public final class CrossJumping {
+
+    private static final String LABEL_PREFIX = "XJUMP";
+
+    /**
+     * Die Größe eines goto, siehe {@link Opcode#getSize(int)}.
+     */
+    private static final int GOTO_SIZE = 3;
+
+    private final FlowGraph graph;
+
+    private int mergedTails;
+    private int removedInstructions;
+    private int savedBytes;
+
+    private CrossJumping(FlowGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Fasst die gleichen Enden an Ort und Stelle zusammen.
+     *
+     * @return Die Anzahl der eingesparten Bytes.
+     */
+    public static int run(FlowGraph graph) {
+        Logger.logDebug("Beginning cross-jumping", CrossJumping.class);
+
+        final CrossJumping crossJumping = new CrossJumping(graph);
+        graph.rebuildEdges();
+
+        while (crossJumping.mergeTail()) {
+            graph.rebuildEdges();
+        }
+
+        Logger.logDebug("Cross-jumping saved " + crossJumping.savedBytes + " bytes ("
+                        + crossJumping.mergedTails + " merged tails, "
+                        + crossJumping.removedInstructions + " removed instructions)", CrossJumping.class);
+
+        return crossJumping.savedBytes;
+    }
+
+    /**
+     * Ein Predecessor, der unbedingt in das Ziel führt.
+     */
+    private static final class Tail {
+
+        private final FlowBasicBlock block;
+
+        /**
+         * Die Anzahl der Instructions ohne das goto auf das Ziel.
+         */
+        private final int end;
+        private final boolean fallthrough;
+
+        private Tail(FlowBasicBlock block, int end, boolean fallthrough) {
+            this.block = block;
+            this.end = end;
+            this.fallthrough = fallthrough;
+        }
+
+        private Opcode getOpcode(int fromEnd) {
+            return this.block.getOpcode(this.end - 1 - fromEnd);
+        }
+
+        private int getOperand(int fromEnd) {
+            return this.block.getOperand(this.end - 1 - fromEnd);
+        }
+    }
+
+    /**
+     * Sucht das erste lohnende gemeinsame Ende und fasst es zusammen.
+     *
+     * @return Ob der Graph verändert wurde.
+     */
+    private boolean mergeTail() {
+        final List<FlowBasicBlock> blocks = this.graph.getBlocks();
+
+        for (int i = 1; i < blocks.size(); i++) {
+            final FlowBasicBlock target = blocks.get(i);
+            if (target.getLabel().isBlank() || target.getBlockPredecessorSet().size() < 2) {
+                continue;
+            }
+
+            final FlowBasicBlock previous = blocks.get(i - 1);
+            final List<Tail> tails = tails(target, previous);
+
+            // Gruppiert nach der letzten Instruction, nur innerhalb einer Gruppe kann das Ende gleich sein
+            final Map<Long, List<Tail>> groups = new LinkedHashMap<>();
+            for (Tail tail : tails) {
+                groups.computeIfAbsent(key(tail.getOpcode(0), tail.getOperand(0)), key -> new ArrayList<>()).add(tail);
+            }
+
+            for (List<Tail> group : groups.values()) {
+                if (group.size() >= 2 && this.merge(group, target, previous, i)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Die Predecessors, die unbedingt in das Ziel führen und mindestens eine weitere Instruction haben.
+     */
+    private static List<Tail> tails(FlowBasicBlock target, FlowBasicBlock previous) {
+        final List<Tail> tails = new ArrayList<>();
+
+        for (FlowBasicBlock predecessor : target.getBlockPredecessorSet()) {
+            if (predecessor == target) {
+                continue;
+            }
+
+            final Optional<FlowInstruction> last = predecessor.getLastInstruction();
+            final int count = predecessor.getInstructionCount();
+
+            if (last.isPresent() && last.get().isGoto() && last.get().getArgs()[0].equals(target.getLabel())) {
+                if (count > 1) {
+                    tails.add(new Tail(predecessor, count - 1, false));
+                }
+            } else if (predecessor == previous && last.isPresent() && fallsThrough(last.get())) {
+                tails.add(new Tail(predecessor, count, true));
+            }
+        }
+
+        // Die Predecessors liegen in einem HashSet, die Reihenfolge soll aber nicht vom Zufall abhängen
+        tails.sort(Comparator.comparingInt(tail -> tail.block.getOrdinal()));
+
+        return tails;
+    }
+
+    private static boolean fallsThrough(FlowInstruction instruction) {
+        return !instruction.isJump() && instruction.getOpcode().getBranch() != Opcode.Branch.RETURN;
+    }
+
+    private static long key(Opcode opcode, int operand) {
+        return (long) opcode.ordinal() << 32 | (operand & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Verschiebt das gemeinsame Ende der Gruppe in einen neuen Block vor dem Ziel, wenn das Bytes spart.
+     */
+    private boolean merge(List<Tail> group, FlowBasicBlock target, FlowBasicBlock previous, int targetIndex) {
+        final int length = commonLength(group);
+
+        int size = 0;
+        final Tail first = group.get(0);
+        for (int i = 0; i < length; i++) {
+            size += first.getOpcode(i).getSize(first.getOperand(i));
+        }
+
+        // Der neue Block liegt zwischen previous und dem Ziel, fällt previous bisher durch, braucht es ein goto
+        final boolean previousInGroup = group.stream().anyMatch(tail -> tail.fallthrough);
+        final Optional<FlowInstruction> previousLast = previous.getLastInstruction();
+        final boolean previousFallsThrough = previous.getBlockSuccessorSet().contains(target)
+                                             && previousLast.map(CrossJumping::fallsThrough).orElse(true);
+        final boolean previousNeedsGoto = !previousInGroup && previousFallsThrough;
+
+        if (!previousInGroup && previousLast.map(last -> last.isJump() && !last.isGoto()).orElse(false)) {
+            return false; // Ein bedingter Sprung kann kein goto dahinter bekommen
+        }
+
+        // Springt previous selbst auf das Ziel, fällt es künftig in den neuen Block durch
+        final boolean previousJumps = group.stream().anyMatch(tail -> tail.block == previous && !tail.fallthrough);
+        final int saved = (group.size() - 1) * size - (previousNeedsGoto ? GOTO_SIZE : 0) + (previousJumps ? GOTO_SIZE : 0);
+        if (saved <= 0) {
+            return false;
+        }
+
+        final String label = this.graph.newLabel(LABEL_PREFIX);
+
+        Logger.logInfo(" :: Merging " + length + " instructions of " + group.size() + " predecessors of \""
+                       + target.getLabel() + "\" into \"" + label + "\"", CrossJumping.class);
+
+        final FlowBasicBlock tail = new FlowBasicBlock(label, this.graph.getConstants());
+        tail.setLine(target.getLine());
+        for (int i = length - 1; i >= 0; i--) {
+            tail.addInstruction(first.getOpcode(i), first.getOperand(i));
+        }
+
+        for (Tail member : group) {
+            truncate(member.block, member.end - length);
+
+            if (!member.fallthrough && member.block != previous) {
+                member.block.addInstruction("goto", label);
+            }
+        }
+
+        if (previousNeedsGoto) {
+            previous.addInstruction("goto", target.getLabel());
+        }
+
+        final List<FlowBasicBlock> blocks = new ArrayList<>(this.graph.getBlocks());
+        blocks.add(targetIndex, tail);
+        this.graph.replaceBlocks(blocks);
+
+        this.mergedTails++;
+        this.removedInstructions += (group.size() - 1) * length;
+        this.savedBytes += saved;
+
+        return true;
+    }
+
+    /**
+     * Die Länge des gemeinsamen Endes aller Blöcke der Gruppe.
+     */
+    private static int commonLength(List<Tail> group) {
+        final Tail first = group.get(0);
+        int length = 1;
+
+        while (true) {
+            for (Tail tail : group) {
+                if (length >= tail.end
+                    || tail.getOpcode(length) != first.getOpcode(length)
+                    || tail.getOperand(length) != first.getOperand(length)) {
+                    return length;
+                }
+            }
+
+            length++;
+        }
+    }
+
+    /**
+     * Kürzt den Block auf die ersten count Instructions.
+     */
+    private static void truncate(FlowBasicBlock block, int count) {
+        while (block.getInstructionCount() > count) {
+            block.removeLastInstruction();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package codegen.optimization;
+
+import codegen.analysis.dominance.DominatorTree;
+import codegen.ssa.SsaBlock;
+import codegen.ssa.SsaGraph;
+import codegen.ssa.SsaInstruction;
+import parser.ast.Operator;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Hash-basierte globale Wertnummerierung auf der {@link SsaGraph SSA-Form} (Dominator-basiert nach Briggs, Cooper, Simpson).
+ * <p>
+ * Die Blöcke werden in Präorder des Dominatorbaumes besucht, jede Instruction wird über Opcode, Argumente
+ * und die Wertnummern ihrer Operanden in einer Hashtabelle gesucht. Die Tabelle enthält immer nur die Einträge
+ * der dominierenden Blöcke, ein Treffer dominiert also die Instruction und kann sie ersetzen.
+ * <p>
+ * Bei kommutativen Operatoren werden die Operanden sortiert, damit a + b und b + a die gleiche Nummer bekommen.
+ */
+public final class GlobalValueNumbering {
+
+    /**
+     * Instructions, deren Ergebnis nur von den Operanden abhängt.
+     * idiv und irem werfen bei gleichen Operanden auch die gleiche Exception, diese wäre bereits vorher aufgetreten.
+     */
+    private static final Set<String> numberedInstructions = Set.of("iadd", "isub", "imul", "idiv", "irem",
+                                                                   "ineg", "iand", "ior", "ixor",
+                                                                   "ishl", "ishr", "iushr");
+
+    private final SsaGraph graph;
+
+    /**
+     * Die Tabelle der bekannten Ausdrücke der aktuell dominierenden Blöcke.
+     */
+    private final Map<Expression, Integer> table;
+
+    /**
+     * Die eingefügten Ausdrücke, damit sie beim Verlassen eines Teilbaumes wieder entfernt werden können.
+     */
+    private final List<Expression> undoLog;
+
+    private int eliminatedInstructions;
+    private int eliminatedConstants;
+    private int eliminatedPhis;
+
+    private GlobalValueNumbering(SsaGraph graph) {
+        this.graph = graph;
+        this.table = new HashMap<>();
+        this.undoLog = new ArrayList<>();
+    }
+
+    /**
+     * Entfernt redundante Berechnungen aus der SSA-Form.
+     *
+     * @return Die Anzahl der entfernten Instructions und Phi-Funktionen. Zusammengefasste Konstanten zählen nicht,
+     *     da sie bei der Rückübersetzung wieder an jeder Verwendung erzeugt werden.
+     */
+    public static int run(SsaGraph graph) {
+        Logger.logDebug("Beginning global value numbering", GlobalValueNumbering.class);
+
+        final GlobalValueNumbering gvn = new GlobalValueNumbering(graph);
+        gvn.numberDominatorTree();
+        graph.sweep();
+
+        final int trivialPhis = graph.removeTrivialPhis();
+        final int eliminated = gvn.eliminatedInstructions + gvn.eliminatedPhis + trivialPhis;
+
+        Logger.logDebug("Global value numbering eliminated " + eliminated + " instructions ("
+                        + gvn.eliminatedInstructions + " expressions, "
+                        + (gvn.eliminatedPhis + trivialPhis) + " phi-functions, "
+                        + "merged " + gvn.eliminatedConstants + " constants)", GlobalValueNumbering.class);
+
+        return eliminated;
+    }
+
+    private void numberDominatorTree() {
+        final DominatorTree dominatorTree = this.graph.getDominatorTree();
+        if (this.graph.getBlockCount() == 0) {
+            return;
+        }
+
+        final int size = this.graph.getBlockCount();
+        final int[] blockStack = new int[size];
+        final int[][] children = new int[size][];
+        final int[] nextChild = new int[size];
+        final int[] undoMark = new int[size];
+        int top = 0;
+
+        blockStack[top] = 0;
+        top++;
+        undoMark[0] = 0;
+        this.numberBlock(this.graph.getBlock(0));
+        children[0] = dominatorTree.getChildren(0);
+
+        while (top > 0) {
+            final int block = blockStack[top - 1];
+
+            if (nextChild[block] < children[block].length) {
+                final int child = children[block][nextChild[block]];
+                nextChild[block]++;
+
+                undoMark[child] = this.undoLog.size();
+                this.numberBlock(this.graph.getBlock(child));
+                children[child] = dominatorTree.getChildren(child);
+
+                blockStack[top] = child;
+                top++;
+            } else {
+                // Die Ausdrücke des Teilbaumes sind außerhalb nicht mehr verfügbar
+
+                while (this.undoLog.size() > undoMark[block]) {
+                    this.table.remove(this.undoLog.remove(this.undoLog.size() - 1));
+                }
+
+                top--;
+            }
+        }
+    }
+
+    private void numberBlock(SsaBlock block) {
+        for (SsaInstruction phi : block.getPhis()) {
+            if (phi.isStackPhi()) {
+                continue;
+            }
+
+            // Phi-Funktionen sind nur im selben Block gleich
+            final Expression expression = new Expression("phi", new String[]{String.valueOf(block.getIndex())},
+                                                         this.resolveOperands(phi));
+            if (this.lookup(expression, phi)) {
+                this.eliminatedPhis++;
+            }
+        }
+
+        for (SsaInstruction instruction : block.getInstructions()) {
+            if (!instruction.hasResult()) {
+                continue;
+            }
+
+            if (instruction.isRematerializable()) {
+                if (this.lookup(new Expression(instruction.getOpcode(), instruction.getArgs(), new int[0]), instruction)) {
+                    this.eliminatedConstants++;
+                }
+            } else if (numberedInstructions.contains(instruction.getOpcode())) {
+                final int[] operands = this.resolveOperands(instruction);
+
+                if (isCommutative(instruction.getOpcode())) {
+                    Arrays.sort(operands);
+                }
+
+                if (this.lookup(new Expression(instruction.getOpcode(), instruction.getArgs(), operands), instruction)) {
+                    this.eliminatedInstructions++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Die Kommutativität legt der {@link Operator} des Syntaxbaumes zu dem Jasmin-Befehl fest.
+     */
+    private static boolean isCommutative(String opcode) {
+        return Operator.fromInstruction(opcode).map(Operator::isCommutative).orElse(false);
+    }
+
+    private int[] resolveOperands(SsaInstruction instruction) {
+        final int[] operands = instruction.getOperands().clone();
+
+        for (int i = 0; i < operands.length; i++) {
+            operands[i] = this.graph.resolve(operands[i]);
+        }
+
+        return operands;
+    }
+
+    /**
+     * Sucht den Ausdruck in der Tabelle und ersetzt die Instruction bei einem Treffer.
+     *
+     * @return Ob die Instruction redundant war.
+     */
+    private boolean lookup(Expression expression, SsaInstruction instruction) {
+        final Integer known = this.table.get(expression);
+
+        if (known != null) {
+            Logger.logInfo(" :: Replacing v" + instruction.getResult() + " with v" + known, GlobalValueNumbering.class);
+
+            this.graph.replaceValue(instruction.getResult(), known);
+            instruction.delete();
+            return true;
+        }
+
+        this.table.put(expression, instruction.getResult());
+        this.undoLog.add(expression);
+        return false;
+    }
+
+    private static final class Expression {
+
+        private final String opcode;
+        private final String[] args;
+        private final int[] operands;
+
+        private Expression(String opcode, String[] args, int[] operands) {
+            this.opcode = opcode;
+            this.args = args;
+            this.operands = operands;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+            final Expression that = (Expression) o;
+            return this.opcode.equals(that.opcode)
+                   && Arrays.equals(this.args, that.args)
+                   && Arrays.equals(this.operands, that.operands);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Objects.hash(this.opcode) + Arrays.hashCode(this.args)) + Arrays.hashCode(this.operands);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package codegen.optimization;
+
+import codegen.CodeGenerationException;
+import codegen.analysis.BlockGraph;
+import codegen.analysis.StackDepthAnalysis;
+import codegen.analysis.dataflow.GenKillResult;
+import codegen.analysis.dataflow.GenKillSolver;
+import codegen.analysis.dataflow.LivenessProblem;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphHead;
+import codegen.flowgraph.Opcode;
+import codegen.flowgraph.SplitProgram;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Teilt die main-Methode eines {@link FlowGraph} in statische Hilfsmethoden auf,
+ * damit keine Methode die Größengrenzen der JVM überschreitet.
+ * <p>
+ * Geteilt wird nur an Statementgrenzen: Der Stack ist dort leer und kein Sprung führt über die Grenze.
+ * Ein Sprung auf ein Label direkt an der Grenze ist erlaubt, das Label wird dann an beiden Seiten gesetzt.
+ * Variablen, die an einer Grenze live sind, werden am Ende eines Teils in statische Felder geschrieben
+ * und am Anfang des nächsten Teils wieder geladen.
+ */
+public final class MethodSplitter {
+
+    /**
+     * Größere Methoden werden von HotSpot nicht kompiliert (-XX:-DontCompileHugeMethods).
+     */
+    public static final int HUGE_METHOD_LIMIT = 8000;
+
+    /**
+     * Die Zielgröße der Teile. Knapp unter HUGE_METHOD_LIMIT lohnt sich das Teilen kaum,
+     * da jede Schleife eine OSR-Kompilierung des ganzen Teils auslöst.
+     */
+    public static final int PART_SIZE = 1000;
+
+    /**
+     * Die maximale Codegröße einer Methode laut JVM-Spezifikation.
+     */
+    public static final int MAX_METHOD_SIZE = 65535;
+
+    /**
+     * Obergrenze für das Übergeben einer Variable: getstatic/putstatic und ein load/store mit wide-Präfix.
+     */
+    private static final int TRANSFER_SIZE = 3 + 4;
+
+    private static final String INT_DESCRIPTOR = "I";
+    private static final String REFERENCE_DESCRIPTOR = "Ljava/lang/String;";
+
+    private final FlowGraph graph;
+    private final List<FlowBasicBlock> blocks;
+
+    /**
+     * Die Position der ersten Instruction jedes Blockes, durchnummeriert über alle Blöcke.
+     */
+    private final int[] blockStart;
+    private final int size;
+
+    /**
+     * Der Typdeskriptor jedes Slots, null für unbenutzte Slots.
+     */
+    private final String[] descriptors;
+
+    private MethodSplitter(FlowGraph graph) {
+        this.graph = graph;
+        this.blocks = graph.getBlocks();
+        this.blockStart = new int[this.blocks.size() + 1];
+
+        int slotCount = 0;
+        for (int b = 0; b < this.blocks.size(); b++) {
+            final FlowBasicBlock block = this.blocks.get(b);
+            this.blockStart[b + 1] = this.blockStart[b] + block.getInstructionCount();
+
+            for (int i = 0; i < block.getInstructionCount(); i++) {
+                if (block.getOpcode(i).getAccess() != Opcode.Access.NONE) {
+                    slotCount = Math.max(slotCount, block.getInstruction(i).getSlot() + 1);
+                }
+            }
+        }
+        this.size = this.blockStart[this.blocks.size()];
+
+        this.descriptors = new String[slotCount];
+        for (FlowBasicBlock block : this.blocks) {
+            for (int i = 0; i < block.getInstructionCount(); i++) {
+                final Opcode opcode = block.getOpcode(i);
+
+                if (opcode.getAccess() != Opcode.Access.NONE) {
+                    final boolean reference = opcode == Opcode.ALOAD || opcode == Opcode.ASTORE;
+                    this.descriptors[block.getInstruction(i).getSlot()] = reference ? REFERENCE_DESCRIPTOR : INT_DESCRIPTOR;
+                }
+            }
+        }
+    }
+
+    /**
+     * Die Größe des Bytecodes der main-Methode, inklusive des abschließenden return.
+     */
+    public static int methodSize(FlowGraph graph) {
+        int size = 1;
+
+        for (FlowBasicBlock block : graph) {
+            for (int i = 0; i < block.getInstructionCount(); i++) {
+                size += block.getOpcode(i).getSize(block.getOperand(i));
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Teilt den Graph so auf, dass jeder Teil möglichst höchstens limit Bytes groß ist.
+     * Gibt es innerhalb eines Teils keine erlaubte Grenze (z.B. eine sehr große Schleife), bleibt er größer.
+     */
+    public static SplitProgram split(FlowGraph graph, int limit) {
+        Logger.logDebug("Splitting main-method of " + methodSize(graph) + " bytes into methods of at most "
+                        + limit + " bytes", MethodSplitter.class);
+
+        final MethodSplitter splitter = new MethodSplitter(graph);
+        final BlockGraph blockGraph = BlockGraph.fromFlowGraph(graph);
+
+        final boolean[] validCut = splitter.validCuts(StackDepthAnalysis.fromBlockGraph(blockGraph));
+        final GenKillResult liveness = GenKillSolver.solve(blockGraph, LivenessProblem.fromBlockGraph(blockGraph));
+        final int[] liveCount = new int[splitter.size + 1];
+        splitter.liveAt(liveness, validCut, (position, live) -> liveCount[position] = live.cardinality());
+
+        final List<Integer> cuts = splitter.chooseCuts(validCut, liveCount, limit);
+
+        final boolean[] chosen = new boolean[splitter.size + 1];
+        cuts.forEach(cut -> chosen[cut] = true);
+        final BitSet[] liveAtCut = new BitSet[splitter.size + 1];
+        liveAtCut[0] = new BitSet();
+        liveAtCut[splitter.size] = new BitSet();
+        splitter.liveAt(liveness, chosen, (position, live) -> liveAtCut[position] = (BitSet) live.clone());
+
+        final Map<String, String> fields = new LinkedHashMap<>();
+        final List<FlowGraph> methods = new ArrayList<>();
+        int start = 0;
+        for (int cut : cuts) {
+            methods.add(splitter.buildMethod(start, cut, liveAtCut[start], liveAtCut[cut], fields));
+            start = cut;
+        }
+        methods.add(splitter.buildMethod(start, splitter.size, liveAtCut[start], liveAtCut[splitter.size], fields));
+
+        Logger.logDebug("Successfully split main-method into " + methods.size() + " methods with "
+                        + fields.size() + " fields", MethodSplitter.class);
+
+        return new SplitProgram(graph.getHead(), fields, methods);
+    }
+
+    /**
+     * Eine Grenze vor Position g ist erlaubt, wenn der Stack dort leer ist und kein Sprung darüber führt.
+     */
+    private boolean[] validCuts(StackDepthAnalysis stackDepth) {
+        final boolean[] valid = new boolean[this.size + 1];
+        final int[] crossing = new int[this.size + 2];
+
+        for (int b = 0; b < this.blocks.size(); b++) {
+            final FlowBasicBlock block = this.blocks.get(b);
+            int depth = stackDepth.getEntryDepth(b);
+
+            for (int i = 0; i < block.getInstructionCount(); i++) {
+                final int position = this.blockStart[b] + i;
+                valid[position] = depth == 0;
+
+                if (depth >= 0) {
+                    depth += block.getInstruction(i).getStackEffect();
+                }
+
+                if (block.getOpcode(i).isJump()) {
+                    final String label = block.getInstruction(i).getArgs()[0];
+                    final FlowBasicBlock target = this.graph.getBlockByLabel(label);
+                    if (target == null) {
+                        throw new CodeGenerationException("Jump to unknown label \"" + label + "\"");
+                    }
+
+                    final int targetPosition = this.blockStart[target.getOrdinal()];
+
+                    // Vorwärts: p < g < q, rückwärts: q < g <= p
+                    final int from = targetPosition > position ? position + 1 : targetPosition + 1;
+                    final int to = targetPosition > position ? targetPosition - 1 : position;
+                    if (from <= to) {
+                        crossing[from]++;
+                        crossing[to + 1]--;
+                    }
+                }
+            }
+        }
+
+        int open = 0;
+        for (int position = 0; position <= this.size; position++) {
+            open += crossing[position];
+            valid[position] &= open == 0 && position > 0 && position < this.size;
+        }
+
+        return valid;
+    }
+
+    private interface LiveConsumer {
+        void accept(int position, BitSet live);
+    }
+
+    /**
+     * Berechnet rückwärts durch jeden Block die Variablen, die vor den markierten Positionen live sind.
+     */
+    private void liveAt(GenKillResult liveness, boolean[] positions, LiveConsumer consumer) {
+        for (int b = 0; b < this.blocks.size(); b++) {
+            final FlowBasicBlock block = this.blocks.get(b);
+            final BitSet live = (BitSet) liveness.getOut(b).clone();
+
+            for (int i = block.getInstructionCount() - 1; i >= 0; i--) {
+                final Opcode opcode = block.getOpcode(i);
+
+                if (opcode.isDef()) {
+                    live.clear(block.getInstruction(i).getSlot());
+                }
+                if (opcode.isUse()) {
+                    live.set(block.getInstruction(i).getSlot());
+                }
+
+                final int position = this.blockStart[b] + i;
+                if (positions[position]) {
+                    consumer.accept(position, live);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wählt gierig die letzte erlaubte Grenze, bis zu der ein Teil noch unter das Limit passt.
+     */
+    private List<Integer> chooseCuts(boolean[] validCut, int[] liveCount, int limit) {
+        final int[] bytes = new int[this.size + 1];
+        for (int b = 0; b < this.blocks.size(); b++) {
+            final FlowBasicBlock block = this.blocks.get(b);
+
+            for (int i = 0; i < block.getInstructionCount(); i++) {
+                final int position = this.blockStart[b] + i;
+                bytes[position + 1] = bytes[position] + block.getOpcode(i).getSize(block.getOperand(i));
+            }
+        }
+
+        final List<Integer> cuts = new ArrayList<>();
+        int start = 0;
+        int last = -1;
+
+        for (int position = 1; position <= this.size; position++) {
+            if (!validCut[position] && position < this.size) {
+                continue;
+            }
+
+            final int prologue = TRANSFER_SIZE * liveCount[start];
+            final int epilogue = position < this.size ? TRANSFER_SIZE * liveCount[position] : 0;
+            final int cost = bytes[position] - bytes[start] + prologue + epilogue + 1;
+
+            if (cost <= limit) {
+                if (position < this.size) {
+                    last = position;
+                }
+                continue;
+            }
+
+            if (last == -1) {
+                // Kein erlaubter Schnitt passt, der Teil wird größer als das Limit
+                if (position == this.size) {
+                    break;
+                }
+
+                Logger.logInfo(" :: No statement boundary fits into " + limit + " bytes, method will be larger",
+                               MethodSplitter.class);
+                last = position;
+            }
+
+            cuts.add(last);
+            start = last;
+            last = -1;
+
+            // Die Position wird mit dem neuen Anfang erneut geprüft
+            position = start;
+        }
+
+        return cuts;
+    }
+
+    private FlowGraph buildMethod(int start, int end, BitSet liveIn, BitSet liveOut, Map<String, String> fields) {
+        final FlowGraphHead head = this.graph.getHead();
+        final FlowGraph method = new FlowGraph(head.getBytecodeVersion(), head.getSource(), head.getClazz(),
+                                               Math.max(1, head.getStackSize()), head.getLocalCount());
+
+        final BitSet referenced = new BitSet();
+        for (int b = 0; b < this.blocks.size(); b++) {
+            final FlowBasicBlock block = this.blocks.get(b);
+
+            for (int position = Math.max(start, this.blockStart[b]); position < Math.min(end, this.blockStart[b + 1]); position++) {
+                final int slot = block.getInstruction(position - this.blockStart[b]).getSlot();
+
+                if (slot != -1) {
+                    referenced.set(slot);
+                }
+            }
+        }
+
+        // Prolog: Übergebene Variablen laden
+        final BitSet load = (BitSet) liveIn.clone();
+        load.and(referenced);
+        for (int slot = load.nextSetBit(0); slot >= 0; slot = load.nextSetBit(slot + 1)) {
+            method.addInstruction("getstatic", this.field(slot, fields), this.descriptors[slot]);
+            method.addInstruction(this.isReference(slot) ? "astore" : "istore", String.valueOf(slot));
+        }
+
+        for (int b = 0; b < this.blocks.size() && this.blockStart[b] <= end; b++) {
+            final FlowBasicBlock block = this.blocks.get(b);
+
+            if (this.blockStart[b] >= start && !block.getLabel().isBlank()) {
+                method.addLabel(block.getLabel());
+            }
+
+            for (int position = Math.max(start, this.blockStart[b]); position < Math.min(end, this.blockStart[b + 1]); position++) {
+                final int index = position - this.blockStart[b];
+                final String instruction = block.getOpcode(index).getMnemonic();
+                final String[] args = block.getInstruction(index).getArgs();
+
+                if (block.getOpcode(index).isJump()) {
+                    method.addJump(instruction, args[0]);
+                } else {
+                    method.addInstruction(instruction, args);
+                }
+            }
+        }
+
+        // Epilog: Variablen für die folgenden Teile speichern
+        final BitSet store = (BitSet) liveOut.clone();
+        store.and(referenced);
+        for (int slot = store.nextSetBit(0); slot >= 0; slot = store.nextSetBit(slot + 1)) {
+            method.addInstruction(this.isReference(slot) ? "aload" : "iload", String.valueOf(slot));
+            method.addInstruction("putstatic", this.field(slot, fields), this.descriptors[slot]);
+        }
+
+        return method;
+    }
+
+    private boolean isReference(int slot) {
+        return REFERENCE_DESCRIPTOR.equals(this.descriptors[slot]);
+    }
+
+    private String field(int slot, Map<String, String> fields) {
+        final String name = "local" + slot;
+        fields.put(name, this.descriptors[slot]);
+
+        return this.graph.getHead().getClazz() + "/" + name;
+    }
+}
@@ -0,0 +1,39 @@
+package codegen.optimization;
+
+import java.util.Arrays;
+
+/**
+ * Die Optimierungsstufen des Compilers, auswählbar über -O0, -O1 und -O2.
+ */
+public enum OptimizationLevel {
+
+    /**
+     * Keine Optimierungen, der Code entspricht direkt dem Syntaxbaum.
+     */
+    O0,
+
+    /**
+     * Nur billige Transformationen auf dem {@link codegen.flowgraph.FlowGraph}.
+     */
+    O1,
+
+    /**
+     * Zusätzlich Transformationen auf der {@link codegen.ssa.SsaGraph SSA-Form}.
+     */
+    O2;
+
+    public static boolean isFlag(String flag) {
+        return Arrays.stream(values()).anyMatch(level -> level.getFlag().equals(flag));
+    }
+
+    public static OptimizationLevel fromFlag(String flag) {
+        return Arrays.stream(values())
+                     .filter(level -> level.getFlag().equals(flag))
+                     .findFirst()
+                     .orElseThrow(() -> new IllegalArgumentException("Unbekannte Optimierungsstufe: " + flag));
+    }
+
+    public String getFlag() {
+        return "-" + this.name();
+    }
+}
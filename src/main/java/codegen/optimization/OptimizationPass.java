@@ -0,0 +1,38 @@
+package codegen.optimization;
+
+import codegen.analysis.AnalysisManager;
+import codegen.analysis.GraphChange;
+import codegen.flowgraph.FlowGraph;
+
+import java.util.List;
+
+/**
+ * Eine benannte Transformation auf einem {@link FlowGraph}, ausgeführt durch den {@link PassManager}.
+ */
+public interface OptimizationPass {
+
+    String getName();
+
+    /**
+     * Die Namen der Passes, die vor diesem Pass ausgeführt werden müssen.
+     * Fehlende Abhängigkeiten werden vom {@link PassManager} automatisch eingeplant.
+     */
+    default List<String> getDependencies() {
+        return List.of();
+    }
+
+    /**
+     * Welche Analysen der Pass ungültig macht, wenn er den übergebenen Graph verändert.
+     */
+    default GraphChange getChange() {
+        return GraphChange.CONTROL_FLOW;
+    }
+
+    /**
+     * Führt die Transformation an Ort und Stelle aus.
+     *
+     * @param analyses Zwischengespeicherte Analysen, die der Pass verwenden kann.
+     * @return Die Anzahl der durchgeführten Änderungen, 0 wenn der Graph unverändert ist.
+     */
+    int apply(FlowGraph graph, AnalysisManager analyses);
+}
@@ -0,0 +1,331 @@
+package codegen.optimization;
+
+import codegen.analysis.Analysis;
+import codegen.analysis.AnalysisManager;
+import codegen.analysis.GraphChange;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.ssa.SsaGraph;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntBiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Führt {@link OptimizationPass}es in einer festgelegten Reihenfolge auf einem {@link FlowGraph} aus.
+ * <p>
+ * Passes werden über ihren Namen eingeplant, fehlende Abhängigkeiten werden dabei vorher eingefügt.
+ * Mehrere Passes können zu einer Fixpunkt-Gruppe zusammengefasst werden, diese wird wiederholt,
+ * bis keiner der Passes den Graph mehr verändert (oder die maximale Anzahl an Iterationen erreicht ist).
+ * <p>
+ * Ob sich der Graph verändert hat, meldet jeder Pass selbst über seine Anzahl an Änderungen.
+ * Für jede Ausführung wird diese zusammen mit der Laufzeit, der Anzahl an Instructions und Blöcken
+ * und der Codegröße in {@link PassStatistics} festgehalten.
+ * <p>
+ * Die Passes teilen sich einen {@link AnalysisManager}, verändert ein Pass den Graph,
+ * werden nur die von seiner {@link GraphChange} betroffenen Analysen verworfen.
+ */
+public final class PassManager {
+
+    public static final String SIMPLIFY_CFG = "simplify-cfg";
+    public static final String GVN = "gvn";
+    public static final String DCE = "dce";
+    public static final String BLOCK_LAYOUT = "block-layout";
+    public static final String STACK_SCHEDULING = "stack-scheduling";
+    public static final String CROSS_JUMPING = "cross-jumping";
+
+    private static final int DEFAULT_MAX_ITERATIONS = 4;
+
+    private final Map<String, OptimizationPass> passes;
+
+    /**
+     * Die geplanten Schritte, jeder Schritt ist ein einzelner Pass oder eine Fixpunkt-Gruppe.
+     */
+    private final List<Step> pipeline;
+    private final Set<String> scheduled;
+
+    private final List<PassStatistics> statistics;
+    private final AnalysisManager analyses;
+
+    private PassManager(AnalysisManager analyses) {
+        this.passes = new LinkedHashMap<>();
+        this.pipeline = new ArrayList<>();
+        this.scheduled = new HashSet<>();
+        this.statistics = new ArrayList<>();
+        this.analyses = analyses;
+
+        this.register(pass(SIMPLIFY_CFG, List.of(), GraphChange.CONTROL_FLOW,
+                           (graph, cache) -> ControlFlowSimplification.run(graph)));
+
+        // Die Rückübersetzung aus der SSA-Form ist nicht kanonisch, ohne Änderung bleiben die alten Blöcke erhalten,
+        // sonst würde eine Fixpunkt-Gruppe nie stabil
+        this.register(pass(GVN, List.of(SIMPLIFY_CFG), GraphChange.CONTROL_FLOW, (graph, cache) -> {
+            final SsaGraph ssa = SsaGraph.fromFlowGraph(graph, cache.get(Analysis.DOMINATOR_TREE, graph));
+            return replaceIfChanged(graph, ssa, GlobalValueNumbering.run(ssa));
+        }));
+        this.register(pass(DCE, List.of(SIMPLIFY_CFG), GraphChange.CONTROL_FLOW, (graph, cache) -> {
+            final SsaGraph ssa = SsaGraph.fromFlowGraph(graph, cache.get(Analysis.DOMINATOR_TREE, graph));
+            return replaceIfChanged(graph, ssa, ssa.removeDeadCode());
+        }));
+        this.register(pass(BLOCK_LAYOUT, List.of(SIMPLIFY_CFG), GraphChange.CONTROL_FLOW,
+                           (graph, cache) -> BlockLayout.run(graph)));
+        this.register(pass(STACK_SCHEDULING, List.of(), GraphChange.INSTRUCTIONS,
+                           (graph, cache) -> StackScheduling.run(graph, cache.get(Analysis.LIVE_VARIABLES, graph))));
+        this.register(pass(CROSS_JUMPING, List.of(SIMPLIFY_CFG), GraphChange.CONTROL_FLOW,
+                           (graph, cache) -> CrossJumping.run(graph)));
+    }
+
+    /**
+     * Ein PassManager mit den eingebauten Passes, aber ohne geplante Schritte.
+     */
+    public static PassManager empty() {
+        return new PassManager(new AnalysisManager());
+    }
+
+    public static PassManager fromLevel(OptimizationLevel level) {
+        return fromLevel(level, new AnalysisManager());
+    }
+
+    /**
+     * @param analyses Die Analysen werden über die Ausführung hinaus geteilt, z.B. für eine anschließende Liveness-Analyse.
+     */
+    public static PassManager fromLevel(OptimizationLevel level, AnalysisManager analyses) {
+        final PassManager manager = new PassManager(analyses);
+
+        switch (level) {
+            case O0 -> { }
+            case O1 -> manager.addPass(SIMPLIFY_CFG);
+            case O2 -> manager.addPass(SIMPLIFY_CFG)
+                              .addFixpoint(DEFAULT_MAX_ITERATIONS, GVN, DCE, SIMPLIFY_CFG)
+                              .addPass(BLOCK_LAYOUT)
+                              .addPass(STACK_SCHEDULING)
+                              .addPass(CROSS_JUMPING);
+            default -> throw new IllegalStateException("Unbekannte Optimierungsstufe: " + level);
+        }
+
+        return manager;
+    }
+
+    /**
+     * Übernimmt die Rückübersetzung der SSA-Form in den Graph, wenn der Pass etwas verändert hat.
+     */
+    private static int replaceIfChanged(FlowGraph graph, SsaGraph ssa, int changes) {
+        if (changes > 0) {
+            final FlowGraph translated = ssa.toFlowGraph();
+            graph.replaceBlocks(translated.getBlocks());
+            graph.setHead(translated.getHead());
+        }
+
+        return changes;
+    }
+
+    private static OptimizationPass pass(String name, List<String> dependencies, GraphChange change,
+                                         ToIntBiFunction<FlowGraph, AnalysisManager> transformation) {
+        return new OptimizationPass() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public List<String> getDependencies() {
+                return dependencies;
+            }
+
+            @Override
+            public GraphChange getChange() {
+                return change;
+            }
+
+            @Override
+            public int apply(FlowGraph graph, AnalysisManager analyses) {
+                return transformation.applyAsInt(graph, analyses);
+            }
+        };
+    }
+
+    // Configuration
+
+    /**
+     * Macht einen Pass unter seinem Namen verfügbar, ein vorhandener Pass mit gleichem Namen wird ersetzt.
+     */
+    public PassManager register(OptimizationPass pass) {
+        this.passes.put(pass.getName(), pass);
+        return this;
+    }
+
+    public PassManager addPass(String name) {
+        return this.addFixpoint(1, name);
+    }
+
+    /**
+     * Plant eine Gruppe von Passes ein, die wiederholt wird, bis sich der Graph nicht mehr verändert.
+     */
+    public PassManager addFixpoint(int maxIterations, String... names) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("Eine Fixpunkt-Gruppe braucht mindestens eine Iteration");
+        }
+
+        final List<OptimizationPass> group = new ArrayList<>();
+        final Set<String> groupNames = Set.of(names);
+
+        for (String name : names) {
+            final OptimizationPass pass = this.getPass(name);
+
+            // Abhängigkeiten außerhalb der Gruppe vorher einplanen
+            for (String dependency : pass.getDependencies()) {
+                if (!groupNames.contains(dependency)) {
+                    this.scheduleDependency(dependency, new HashSet<>(Set.of(name)));
+                }
+            }
+
+            group.add(pass);
+        }
+
+        this.pipeline.add(new Step(group, maxIterations));
+        this.scheduled.addAll(groupNames);
+
+        return this;
+    }
+
+    private void scheduleDependency(String name, Set<String> visiting) {
+        if (this.scheduled.contains(name)) {
+            return;
+        }
+        if (!visiting.add(name)) {
+            throw new IllegalStateException("Zyklische Abhängigkeit bei Pass \"" + name + "\"");
+        }
+
+        for (String dependency : this.getPass(name).getDependencies()) {
+            this.scheduleDependency(dependency, visiting);
+        }
+
+        Logger.logInfo(" :: Scheduling dependency \"" + name + "\"", PassManager.class);
+
+        this.pipeline.add(new Step(List.of(this.getPass(name)), 1));
+        this.scheduled.add(name);
+    }
+
+    private OptimizationPass getPass(String name) {
+        final OptimizationPass pass = this.passes.get(name);
+
+        if (pass == null) {
+            throw new IllegalArgumentException("Unbekannter Pass: \"" + name + "\"");
+        }
+
+        return pass;
+    }
+
+    // Execution
+
+    /**
+     * Führt alle geplanten Schritte an Ort und Stelle aus.
+     *
+     * @return Der übergebene Graph.
+     */
+    public FlowGraph run(FlowGraph graph) {
+        Logger.logDebug("Running " + this.pipeline.size() + " optimization steps", PassManager.class);
+
+        for (Step step : this.pipeline) {
+            boolean change = true;
+
+            for (int iteration = 1; iteration <= step.maxIterations && change; iteration++) {
+                change = false;
+
+                for (OptimizationPass pass : step.passes) {
+                    final int instructionCount = instructionCount(graph);
+                    final int blockCount = graph.size();
+                    final int byteCount = MethodSplitter.methodSize(graph);
+
+                    final long begin = System.nanoTime();
+                    final int changes = pass.apply(graph, this.analyses);
+                    final long nanos = System.nanoTime() - begin;
+
+                    final PassStatistics stats = new PassStatistics(pass.getName(), iteration, nanos, changes,
+                                                                    instructionCount, instructionCount(graph),
+                                                                    blockCount, graph.size(),
+                                                                    byteCount, MethodSplitter.methodSize(graph));
+
+                    Logger.logDebugSupplier(stats::toString, PassManager.class);
+
+                    this.statistics.add(stats);
+
+                    if (stats.hasChanged()) {
+                        change = true;
+                        this.analyses.invalidate(graph, pass.getChange());
+                    }
+                }
+            }
+        }
+
+        return graph;
+    }
+
+    private static int instructionCount(FlowGraph graph) {
+        int count = 0;
+
+        for (FlowBasicBlock block : graph) {
+            count += block.getInstructionCount();
+        }
+
+        return count;
+    }
+
+    // Getters
+
+    /**
+     * Die Namen der geplanten Passes in Ausführungsreihenfolge, Fixpunkt-Gruppen in eckigen Klammern.
+     */
+    public List<String> getPipeline() {
+        return this.pipeline.stream()
+                            .map(Step::toString)
+                            .collect(Collectors.toUnmodifiableList());
+    }
+
+    public List<PassStatistics> getStatistics() {
+        return Collections.unmodifiableList(this.statistics);
+    }
+
+    public AnalysisManager getAnalyses() {
+        return this.analyses;
+    }
+
+    public long getTotalNanos() {
+        return this.statistics.stream().mapToLong(PassStatistics::getNanos).sum();
+    }
+
+    // Printing
+
+    public String printStatistics() {
+        return this.statistics.stream()
+                              .map(PassStatistics::toString)
+                              .collect(Collectors.joining("\n", "", String.format("%ntotal %.3fms", this.getTotalNanos() / 1_000_000.0)));
+    }
+
+    private static final class Step {
+
+        private final List<OptimizationPass> passes;
+        private final int maxIterations;
+
+        private Step(List<OptimizationPass> passes, int maxIterations) {
+            this.passes = passes;
+            this.maxIterations = maxIterations;
+        }
+
+        @Override
+        public String toString() {
+            final String names = this.passes.stream()
+                                            .map(OptimizationPass::getName)
+                                            .collect(Collectors.joining(", "));
+
+            return this.maxIterations > 1 ? "[" + names + "]" : names;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package codegen.optimization;
+
+/**
+ * Die Messwerte einer Ausführung eines {@link OptimizationPass}.
+ * Die Anzahl der Änderungen meldet der Pass selbst, siehe {@link OptimizationPass#apply}.
+ */
+public final class PassStatistics {
+
+    private final String name;
+    private final int iteration;
+    private final long nanos;
+    private final int changes;
+
+    private final int instructionsBefore;
+    private final int instructionsAfter;
+
+    private final int blocksBefore;
+    private final int blocksAfter;
+
+    /**
+     * Die Codegröße der Methode, siehe {@link MethodSplitter#methodSize(codegen.flowgraph.FlowGraph)}.
+     */
+    private final int bytesBefore;
+    private final int bytesAfter;
+
+    PassStatistics(String name, int iteration, long nanos, int changes,
+                   int instructionsBefore, int instructionsAfter,
+                   int blocksBefore, int blocksAfter,
+                   int bytesBefore, int bytesAfter) {
+        this.name = name;
+        this.iteration = iteration;
+        this.nanos = nanos;
+        this.changes = changes;
+        this.instructionsBefore = instructionsBefore;
+        this.instructionsAfter = instructionsAfter;
+        this.blocksBefore = blocksBefore;
+        this.blocksAfter = blocksAfter;
+        this.bytesBefore = bytesBefore;
+        this.bytesAfter = bytesAfter;
+    }
+
+    /**
+     * Ermittelt, ob der Pass den Graph verändert hat.
+     */
+    public boolean hasChanged() {
+        return this.changes > 0;
+    }
+
+    // Getters
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Die Iteration innerhalb einer Fixpunkt-Gruppe, beginnend bei 1.
+     */
+    public int getIteration() {
+        return this.iteration;
+    }
+
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    /**
+     * Die vom Pass gemeldete Anzahl an Änderungen, die Einheit hängt vom Pass ab.
+     */
+    public int getChanges() {
+        return this.changes;
+    }
+
+    public int getInstructionsBefore() {
+        return this.instructionsBefore;
+    }
+
+    public int getInstructionsAfter() {
+        return this.instructionsAfter;
+    }
+
+    public int getBlocksBefore() {
+        return this.blocksBefore;
+    }
+
+    public int getBlocksAfter() {
+        return this.blocksAfter;
+    }
+
+    public int getBytesBefore() {
+        return this.bytesBefore;
+    }
+
+    public int getBytesAfter() {
+        return this.bytesAfter;
+    }
+
+    /**
+     * Die eingesparten Bytes, negativ wenn der Pass den Code vergrößert hat.
+     */
+    public int getBytesSaved() {
+        return this.bytesBefore - this.bytesAfter;
+    }
+
+    // Overrides
+
+    @Override
+    public String toString() {
+        return String.format("%-16s #%-2d %9.3fms  changes %4d  instructions %4d -> %4d  blocks %3d -> %3d  bytes %5d -> %5d",
+                             this.name, this.iteration, this.nanos / 1_000_000.0, this.changes,
+                             this.instructionsBefore, this.instructionsAfter,
+                             this.blocksBefore, this.blocksAfter,
+                             this.bytesBefore, this.bytesAfter);
+    }
+}
@@ -0,0 +1,286 @@
+package codegen.optimization;
+
+import codegen.analysis.StackDepthAnalysis;
+import codegen.analysis.dataflow.GenKillResult;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphHead;
+import codegen.flowgraph.FlowInstruction;
+import codegen.flowgraph.Opcode;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lokale Stack-Allokation nach Koopman: Werte, die nur kurz in einer lokalen Variable liegen,
+ * bleiben stattdessen auf dem Operandenstack.
+ * <p>
+ * Innerhalb jedes Blockes wird für jedes istore/astore die nächste Verwendung des Slots gesucht:
+ * <ul>
+ *     <li>Ist sie ein Load und der Wert danach tot, entfallen Store und Load. Der Wert bleibt unter den
+ *         Instructions dazwischen liegen, haben diese einen Wert hinterlassen, werden beide mit swap getauscht.</li>
+ *     <li>Folgt der Load direkt auf den Store und wird der Wert später noch gebraucht,
+ *         wird daraus dup und Store, die späteren Loads können dann wieder entfallen.</li>
+ *     <li>Wird der Wert nie gelesen, wird der Store zu pop, ein davor geladener Wert entfällt mit ihm.</li>
+ * </ul>
+ * Ob ein Wert am Blockende noch lebt, entscheidet die Liveness der Slots.
+ * Entfernt werden nur Definitionen, deren Wert nach dem Block tot ist, und Loads dieser Definitionen,
+ * die Liveness der anderen Blöcke bleibt also gültig.
+ * <p>
+ * Danach werden die Slots ohne Zugriff entfernt und die übrigen lückenlos neu nummeriert.
+ */
+public final class StackScheduling {
+
+    private static final int NONE = -1;
+
+    /**
+     * Instructions, die zwei Slots auf dem Stack belegen, unter diesen kann kein Wert mit swap hervorgeholt werden.
+     * Sie stammen nur aus der Profilierung, die nach den Optimierungen eingefügt wird.
+     */
+    private static final Set<Opcode> wideInstructions = EnumSet.of(Opcode.LCONST_1, Opcode.LADD, Opcode.LALOAD,
+                                                                   Opcode.LASTORE, Opcode.DUP2);
+
+    /**
+     * Instructions, die nur einen Wert ohne Seiteneffekte auf den Stack legen und mit einem folgenden pop entfallen.
+     */
+    private static final Set<Opcode> pureInstructions = EnumSet.of(Opcode.ACONST_NULL, Opcode.ICONST_M1, Opcode.ICONST_0,
+                                                                   Opcode.ICONST_1, Opcode.ICONST_2, Opcode.ICONST_3,
+                                                                   Opcode.ICONST_4, Opcode.ICONST_5, Opcode.BIPUSH,
+                                                                   Opcode.SIPUSH, Opcode.LDC, Opcode.LDC_W,
+                                                                   Opcode.ILOAD, Opcode.ALOAD, Opcode.DUP);
+
+    private final GenKillResult liveness;
+
+    private int removedPairs;
+    private int insertedSwaps;
+    private int insertedDups;
+    private int removedStores;
+    private int removedLocals;
+
+    private StackScheduling(GenKillResult liveness) {
+        this.liveness = liveness;
+    }
+
+    /**
+     * Plant die Werte des Graphen an Ort und Stelle auf dem Stack ein und passt die Limits im Kopf an.
+     *
+     * @param liveness Die Liveness der Slots für diesen Graph, siehe {@link codegen.analysis.Analysis#LIVE_VARIABLES}.
+     * @return Die Anzahl der durchgeführten Änderungen.
+     */
+    public static int run(FlowGraph graph, GenKillResult liveness) {
+        Logger.logDebug("Beginning stack scheduling", StackScheduling.class);
+
+        final StackScheduling scheduling = new StackScheduling(liveness);
+        for (FlowBasicBlock block : graph) {
+            scheduling.schedule(block);
+        }
+
+        final int localCount = scheduling.compactLocals(graph);
+        final FlowGraphHead head = graph.getHead();
+        final int stackSize = StackDepthAnalysis.fromFlowGraph(graph).getMaxDepth();
+        graph.setHead(head.withLimits(Math.max(head.getStackSize(), stackSize), localCount));
+
+        final int changes = scheduling.removedPairs + scheduling.insertedDups + scheduling.removedStores
+                            + scheduling.removedLocals;
+
+        Logger.logDebug("Stack scheduling made " + changes + " changes ("
+                        + scheduling.removedPairs + " removed store/load pairs, "
+                        + scheduling.insertedSwaps + " of them with swap, "
+                        + scheduling.insertedDups + " inserted dups, "
+                        + scheduling.removedStores + " removed dead stores, "
+                        + scheduling.removedLocals + " removed locals)", StackScheduling.class);
+
+        return changes;
+    }
+
+    private void schedule(FlowBasicBlock block) {
+        final List<FlowInstruction> code = new ArrayList<>(block.getInstructionCount());
+        block.forEach(code::add);
+
+        final BitSet liveOut = this.liveness.getOut(block);
+        boolean changed = false;
+
+        // Jede Änderung entfernt einen Store oder einen Load, die Schleife terminiert also
+        for (int i = 0; i < code.size(); i++) {
+            if (this.scheduleStore(code, i, liveOut)) {
+                changed = true;
+                i = -1;
+            }
+        }
+
+        if (changed) {
+            block.clearInstructions();
+            for (FlowInstruction instruction : code) {
+                block.addInstruction(instruction.getOpcode(), instruction.getOperand());
+            }
+        }
+    }
+
+    /**
+     * @return Ob die Instructions verändert wurden.
+     */
+    private boolean scheduleStore(List<FlowInstruction> code, int store, BitSet liveOut) {
+        final Opcode opcode = code.get(store).getOpcode();
+        if (opcode != Opcode.ISTORE && opcode != Opcode.ASTORE) {
+            return false;
+        }
+
+        final int slot = code.get(store).getSlot();
+        final int load = nextAccess(code, store + 1, slot);
+
+        if (!isUsed(code, store + 1, slot, liveOut)) {
+            Logger.logInfo(" :: Removing dead store to slot " + slot, StackScheduling.class);
+
+            code.set(store, new FlowInstruction("pop"));
+            if (store > 0 && pureInstructions.contains(code.get(store - 1).getOpcode())) {
+                code.remove(store);
+                code.remove(store - 1);
+            }
+
+            this.removedStores++;
+            return true;
+        }
+
+        // Lebt nur über das Blockende hinaus oder wird von iinc verwendet
+        if (load == NONE || code.get(load).getOpcode().getAccess() != Opcode.Access.USE) {
+            return false;
+        }
+
+        final boolean singleUse = !isUsed(code, load + 1, slot, liveOut);
+        final int depth = segmentDepth(code, store + 1, load);
+
+        if (singleUse && (depth == 0 || depth == 1)) {
+            Logger.logInfo(" :: Keeping slot " + slot + " on the stack" + (depth == 1 ? " with swap" : ""),
+                           StackScheduling.class);
+
+            if (depth == 0) {
+                code.remove(load);
+            } else {
+                code.set(load, new FlowInstruction("swap"));
+                this.insertedSwaps++;
+            }
+            code.remove(store);
+
+            this.removedPairs++;
+            return true;
+        }
+
+        if (load == store + 1) {
+            Logger.logInfo(" :: Replacing load of slot " + slot + " with dup", StackScheduling.class);
+
+            code.set(load, code.get(store));
+            code.set(store, new FlowInstruction("dup"));
+
+            this.insertedDups++;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return Der Index des nächsten Zugriffs auf den Slot oder {@link #NONE}.
+     */
+    private static int nextAccess(List<FlowInstruction> code, int from, int slot) {
+        for (int i = from; i < code.size(); i++) {
+            if (code.get(i).getSlot() == slot) {
+                return i;
+            }
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Ermittelt, ob der Wert des Slots ab from noch gelesen wird, bevor er neu zugewiesen wird.
+     */
+    private static boolean isUsed(List<FlowInstruction> code, int from, int slot, BitSet liveOut) {
+        final int access = nextAccess(code, from, slot);
+
+        if (access == NONE) {
+            return liveOut.get(slot);
+        }
+
+        return code.get(access).getOpcode().isUse();
+    }
+
+    /**
+     * Die Anzahl der Werte, die die Instructions von from bis ausschließlich to auf dem Stack hinterlassen.
+     *
+     * @return Die Stacktiefe relativ zum Anfang oder {@link #NONE},
+     *     wenn die Instructions Werte von darunter verbrauchen oder breite Werte verwenden.
+     */
+    private static int segmentDepth(List<FlowInstruction> code, int from, int to) {
+        int depth = 0;
+
+        for (int i = from; i < to; i++) {
+            final FlowInstruction instruction = code.get(i);
+
+            if (wideInstructions.contains(instruction.getOpcode()) || instruction.getPops() > depth) {
+                return NONE;
+            }
+
+            depth += instruction.getStackEffect();
+        }
+
+        return depth;
+    }
+
+    /**
+     * Nummeriert die verwendeten Slots lückenlos neu, Slot 0 bleibt für das Argument von main reserviert.
+     *
+     * @return Die Anzahl der benötigten Slots.
+     */
+    private int compactLocals(FlowGraph graph) {
+        final int localCount = graph.getHead().getLocalCount();
+        final BitSet used = new BitSet();
+        used.set(0);
+
+        for (FlowBasicBlock block : graph) {
+            for (FlowInstruction instruction : block) {
+                if (instruction.getSlot() != NONE) {
+                    used.set(instruction.getSlot());
+                }
+            }
+        }
+
+        final int[] slots = new int[Math.max(localCount, used.length())];
+        Arrays.fill(slots, NONE);
+        int next = 0;
+        for (int slot = used.nextSetBit(0); slot >= 0; slot = used.nextSetBit(slot + 1)) {
+            slots[slot] = next;
+            next++;
+        }
+
+        this.removedLocals = Math.max(0, localCount - next);
+        if (this.removedLocals == 0) {
+            return localCount;
+        }
+
+        for (FlowBasicBlock block : graph) {
+            final List<FlowInstruction> code = new ArrayList<>(block.getInstructionCount());
+            block.forEach(code::add);
+
+            block.clearInstructions();
+            for (FlowInstruction instruction : code) {
+                if (instruction.getSlot() == NONE) {
+                    block.addInstruction(instruction.getOpcode(), instruction.getOperand());
+                    continue;
+                }
+
+                final String[] args = instruction.getArgs().clone();
+                args[0] = String.valueOf(slots[instruction.getSlot()]);
+                block.addInstruction(instruction.getInstruction(), args);
+            }
+        }
+
+        Logger.logInfo(" :: Compacted " + localCount + " locals to " + next, StackScheduling.class);
+
+        return next;
+    }
+}
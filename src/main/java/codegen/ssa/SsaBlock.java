@@ -0,0 +1,174 @@
+package codegen.ssa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ein {@link codegen.flowgraph.FlowBasicBlock} in SSA-Form.
+ * <p>
+ * Werte, die über die Blockgrenze hinweg auf dem Operandenstack liegen (z.B. das Ergebnis eines Vergleichs),
+ * werden in {@link #getEntryStack()} und {@link #getExitStack()} festgehalten, von unten nach oben.
+ */
+public final class SsaBlock {
+
+    /**
+     * Der Index des Blockes im {@link codegen.analysis.BlockGraph}.
+     */
+    private final int index;
+
+    private final String label;
+
+    /**
+     * Die erreichbaren Predecessors, in dieser Reihenfolge stehen die Operanden der Phi-Funktionen.
+     */
+    private final int[] predecessors;
+
+    private final List<SsaInstruction> phis;
+    private final List<SsaInstruction> instructions;
+
+    /**
+     * Der Sprungbefehl am Blockende, oder null wenn der Block einfach weiterläuft.
+     */
+    private SsaInstruction terminator;
+
+    /**
+     * Der Block, zu dem der Terminator springt, oder -1.
+     */
+    private int jumpTarget;
+
+    /**
+     * Der Block, der ohne Sprung als nächstes ausgeführt wird, oder -1.
+     */
+    private int fallthrough;
+
+    private int[] entryStack;
+    private int[] exitStack;
+
+    SsaBlock(int index, String label, int[] predecessors) {
+        this.index = index;
+        this.label = label;
+        this.predecessors = predecessors;
+        this.phis = new ArrayList<>();
+        this.instructions = new ArrayList<>();
+        this.jumpTarget = -1;
+        this.fallthrough = -1;
+        this.entryStack = new int[0];
+        this.exitStack = new int[0];
+    }
+
+    // Getters, Setters
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+
+    public int[] getPredecessors() {
+        return this.predecessors;
+    }
+
+    public int predecessorPosition(int predecessor) {
+        for (int i = 0; i < this.predecessors.length; i++) {
+            if (this.predecessors[i] == predecessor) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Die Successors: Erst das Sprungziel, dann der Fallthrough-Block.
+     */
+    public int[] getSuccessors() {
+        if (this.jumpTarget == -1 && this.fallthrough == -1) {
+            return new int[0];
+        } else if (this.jumpTarget == -1) {
+            return new int[]{this.fallthrough};
+        } else if (this.fallthrough == -1 || this.fallthrough == this.jumpTarget) {
+            return new int[]{this.jumpTarget};
+        }
+
+        return new int[]{this.jumpTarget, this.fallthrough};
+    }
+
+    public List<SsaInstruction> getPhis() {
+        return this.phis;
+    }
+
+    public List<SsaInstruction> getInstructions() {
+        return this.instructions;
+    }
+
+    public SsaInstruction getTerminator() {
+        return this.terminator;
+    }
+
+    void setTerminator(SsaInstruction terminator, int jumpTarget) {
+        this.terminator = terminator;
+        this.jumpTarget = jumpTarget;
+    }
+
+    public int getJumpTarget() {
+        return this.jumpTarget;
+    }
+
+    public int getFallthrough() {
+        return this.fallthrough;
+    }
+
+    void setFallthrough(int fallthrough) {
+        this.fallthrough = fallthrough;
+    }
+
+    public int[] getEntryStack() {
+        return this.entryStack;
+    }
+
+    void setEntryStack(int[] entryStack) {
+        this.entryStack = entryStack;
+    }
+
+    public int[] getExitStack() {
+        return this.exitStack;
+    }
+
+    void setExitStack(int[] exitStack) {
+        this.exitStack = exitStack;
+    }
+
+    // Overrides
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+
+        builder.append("B").append(this.index);
+        if (!this.label.isBlank()) {
+            builder.append(" (").append(this.label).append(")");
+        }
+        builder.append(" preds ").append(Arrays.toString(this.predecessors))
+               .append(" stack ").append(Arrays.toString(this.entryStack)).append(":\n");
+
+        for (SsaInstruction phi : this.phis) {
+            builder.append("\t").append(phi).append("\n");
+        }
+        for (SsaInstruction instruction : this.instructions) {
+            builder.append("\t").append(instruction).append("\n");
+        }
+        if (this.terminator != null) {
+            builder.append("\t").append(this.terminator).append(" -> B").append(this.jumpTarget).append("\n");
+        }
+
+        builder.append("\tstack ").append(Arrays.toString(this.exitStack));
+        if (this.fallthrough != -1) {
+            builder.append(", fallthrough -> B").append(this.fallthrough);
+        }
+
+        return builder.append("\n").toString();
+    }
+}
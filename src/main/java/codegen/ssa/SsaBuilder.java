@@ -0,0 +1,593 @@
+package codegen.ssa;
+
+import codegen.CodeGenerationException;
+import codegen.analysis.BlockGraph;
+import codegen.analysis.dominance.DominatorTree;
+import codegen.flowgraph.ConstantTable;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphHead;
+import codegen.flowgraph.FlowInstruction;
+import codegen.flowgraph.Opcode;
+import util.Logger;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Baut die SSA-Form nach Cytron et al.:
+ * Phi-Funktionen werden an den iterierten Dominance-Frontiers der Definitionen platziert,
+ * danach werden die Variablen in Präorder des Dominatorbaumes umbenannt.
+ * <p>
+ * Neben den lokalen Variablen wird auch jeder Platz auf dem Operandenstack als Variable behandelt,
+ * da der Generator bei Vergleichen Werte über Blockgrenzen hinweg auf dem Stack liegen lässt.
+ */
+final class SsaBuilder {
+
+    private static final String ENTRY_LABEL = "SSAentry";
+
+    private final BlockGraph blockGraph;
+    private final DominatorTree dominatorTree;
+    private final SsaGraph graph;
+
+    private final int[] jumpTarget;
+    private final int[] fallthrough;
+
+    /**
+     * Die Typen des Operandenstacks am Blockanfang (true für Referenzen), null für unerreichbare Blöcke.
+     */
+    private final boolean[][] entryTypes;
+    private final boolean[][] exitTypes;
+
+    private boolean[] slotReference;
+    private boolean[] slotKnown;
+    private int slotCount;
+    private int maxDepth;
+
+    // Renaming
+    private int[][] valueStacks;
+    private int[] valueTops;
+    private int[] undoLog;
+    private int undoTop;
+
+    private SsaBuilder(DominatorTree dominatorTree, FlowGraphHead head, ConstantTable constants) {
+        this.blockGraph = dominatorTree.getBlockGraph();
+        this.dominatorTree = dominatorTree;
+        this.graph = new SsaGraph(head, constants, this.dominatorTree, this.blockGraph.size());
+
+        final int size = this.blockGraph.size();
+        this.jumpTarget = new int[size];
+        this.fallthrough = new int[size];
+        this.entryTypes = new boolean[size][];
+        this.exitTypes = new boolean[size][];
+        this.slotReference = new boolean[8];
+        this.slotKnown = new boolean[8];
+    }
+
+    static SsaGraph build(FlowGraph flowGraph) {
+        return build(flowGraph, DominatorTree.fromFlowGraph(flowGraph));
+    }
+
+    /**
+     * @param dominatorTree Der Dominatorbaum des übergebenen Graphen, z.B. aus dem {@link codegen.analysis.AnalysisManager}.
+     */
+    static SsaGraph build(FlowGraph flowGraph, DominatorTree dominatorTree) {
+        Logger.logDebug("Building SSA-form", SsaBuilder.class);
+
+        DominatorTree tree = dominatorTree;
+        final BlockGraph blockGraph = tree.getBlockGraph();
+
+        if (!blockGraph.isEmpty() && blockGraph.getPredecessors(0).length > 0) {
+            // Der Einstiegsblock darf keine Predecessors haben, sonst gibt es keinen Platz für die Startwerte der Phi-Funktionen
+
+            tree = DominatorTree.fromFlowGraph(withEntryBlock(flowGraph));
+        }
+
+        final SsaBuilder builder = new SsaBuilder(tree, flowGraph.getHead(), flowGraph.getConstants());
+        builder.analyzeControlFlow();
+        builder.analyzeStackTypes();
+        builder.createBlocks();
+        builder.placePhis();
+        builder.rename();
+
+        builder.graph.removeTrivialPhis();
+
+        Logger.logDebug("Successfully built SSA-form with " + builder.graph.getValueCount() + " values", SsaBuilder.class);
+
+        return builder.graph;
+    }
+
+    /**
+     * Erzeugt eine Kopie des Flussgraphen mit einem leeren Einstiegsblock.
+     */
+    private static FlowGraph withEntryBlock(FlowGraph flowGraph) {
+        final FlowGraphHead head = flowGraph.getHead();
+        final FlowGraph copy = new FlowGraph(head.withLimits(head.getStackSize(), head.getLocalCount()), flowGraph.getConstants());
+
+        copy.addLabel(ENTRY_LABEL);
+        for (FlowBasicBlock block : flowGraph) {
+            if (!block.getLabel().isBlank()) {
+                copy.addLabel(block.getLabel());
+            }
+
+            for (FlowInstruction instruction : block) {
+                if (isJump(instruction.getOpcode())) {
+                    copy.addJump(instruction.getInstruction(), instruction.getArgs()[0]);
+                } else {
+                    copy.addInstruction(instruction.getInstruction(), instruction.getArgs());
+                }
+            }
+        }
+        copy.purgeEmptyBlocks();
+
+        return copy;
+    }
+
+    private static boolean isJump(Opcode opcode) {
+        final SsaOpcodes.Kind kind = SsaOpcodes.kindOf(opcode);
+        return kind == SsaOpcodes.Kind.JUMP || kind == SsaOpcodes.Kind.GOTO;
+    }
+
+    /**
+     * Bestimmt Sprungziel und Fallthrough jedes Blockes und gleicht sie mit den Kanten des Flussgraphen ab.
+     */
+    private void analyzeControlFlow() {
+        final int size = this.blockGraph.size();
+
+        final Map<String, Integer> labelIndex = new HashMap<>(2 * size);
+        for (int block = 0; block < size; block++) {
+            final String label = this.blockGraph.getBlock(block).getLabel();
+            if (!label.isBlank()) {
+                labelIndex.put(label, block);
+            }
+        }
+
+        for (int block = 0; block < size; block++) {
+            this.jumpTarget[block] = -1;
+            this.fallthrough[block] = block + 1 < size ? block + 1 : -1;
+
+            final FlowInstruction last = this.blockGraph.getBlock(block).getLastInstruction().orElse(null);
+            if (last != null && isJump(last.getOpcode())) {
+                final Integer target = labelIndex.get(last.getArgs()[0]);
+                if (target == null) {
+                    throw new CodeGenerationException("Jump to unknown label \"" + last.getArgs()[0] + "\"");
+                }
+
+                this.jumpTarget[block] = target;
+                if (SsaOpcodes.kindOf(last.getOpcode()) == SsaOpcodes.Kind.GOTO) {
+                    this.fallthrough[block] = -1;
+                }
+            }
+
+            if (!this.dominatorTree.isReachable(block)) {
+                continue;
+            }
+
+            final int[] expected = Arrays.stream(new int[]{this.jumpTarget[block], this.fallthrough[block]})
+                                         .filter(successor -> successor != -1)
+                                         .distinct()
+                                         .sorted()
+                                         .toArray();
+            if (!Arrays.equals(expected, this.blockGraph.getSuccessors(block))) {
+                throw new CodeGenerationException("Successors of block " + block + " don't match its jump instruction");
+            }
+        }
+    }
+
+    /**
+     * Bestimmt Tiefe und Typen des Operandenstacks an den Blockgrenzen und die Typen der lokalen Variablen.
+     * Die JVM verlangt, dass Stacktiefe und -typen an einem Block von jedem Predecessor aus gleich sind.
+     */
+    private void analyzeStackTypes() {
+        final int[] reversePostorder = this.dominatorTree.getReversePostorder();
+
+        if (reversePostorder.length > 0) {
+            this.entryTypes[0] = new boolean[0];
+        }
+
+        for (int block : reversePostorder) {
+            final boolean[] exit = this.simulateTypes(block);
+            this.exitTypes[block] = exit;
+
+            for (int successor : this.blockGraph.getSuccessors(block)) {
+                if (this.entryTypes[successor] == null) {
+                    this.entryTypes[successor] = exit;
+                } else if (!Arrays.equals(this.entryTypes[successor], exit)) {
+                    throw new CodeGenerationException("Inconsistent operand stack at the beginning of block " + successor);
+                }
+            }
+        }
+    }
+
+    private boolean[] simulateTypes(int block) {
+        final boolean[] entry = this.entryTypes[block];
+        boolean[] stack = Arrays.copyOf(entry, entry.length + 4);
+        int top = entry.length;
+
+        for (FlowInstruction instruction : this.blockGraph.getBlock(block)) {
+            final Opcode opcode = instruction.getOpcode();
+            final String[] args = instruction.getArgs();
+
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, 2 * stack.length + 2);
+            }
+
+            switch (SsaOpcodes.kindOf(opcode)) {
+                case NOP -> {}
+                case IINC -> this.slotType(Integer.parseInt(args[0]), false);
+                case LOAD -> {
+                    stack[top] = this.slotType(Integer.parseInt(args[0]), SsaOpcodes.isReferenceSlot(opcode));
+                    top++;
+                }
+                case STORE -> {
+                    top = requireDepth(top, 1, block);
+                    this.slotType(Integer.parseInt(args[0]), SsaOpcodes.isReferenceSlot(opcode));
+                }
+                case DUP -> {
+                    requireDepth(top, 1, block);
+                    stack[top] = stack[top - 1];
+                    top++;
+                }
+                case POP -> top = requireDepth(top, 1, block);
+                case SWAP -> {
+                    requireDepth(top, 2, block);
+                    final boolean swap = stack[top - 1];
+                    stack[top - 1] = stack[top - 2];
+                    stack[top - 2] = swap;
+                }
+                default -> {
+                    top = requireDepth(top, SsaOpcodes.pops(opcode, args), block);
+
+                    if (SsaOpcodes.pushes(opcode, args)) {
+                        stack[top] = SsaOpcodes.isReferenceResult(opcode, args);
+                        top++;
+                    }
+                }
+            }
+
+            this.maxDepth = Math.max(this.maxDepth, top);
+        }
+
+        return Arrays.copyOf(stack, top);
+    }
+
+    private static int requireDepth(int top, int count, int block) {
+        if (top < count) {
+            throw new CodeGenerationException("Operand stack underflow in block " + block);
+        }
+
+        return top - count;
+    }
+
+    /**
+     * Merkt sich den Typ eines lokalen Slots, jeder Slot darf nur einen Typ haben.
+     */
+    private boolean slotType(int slot, boolean reference) {
+        if (slot >= this.slotKnown.length) {
+            this.slotKnown = Arrays.copyOf(this.slotKnown, 2 * slot + 1);
+            this.slotReference = Arrays.copyOf(this.slotReference, 2 * slot + 1);
+        }
+
+        if (this.slotKnown[slot] && this.slotReference[slot] != reference) {
+            throw new CodeGenerationException("Local variable " + slot + " is used with different types");
+        }
+
+        this.slotKnown[slot] = true;
+        this.slotReference[slot] = reference;
+        this.slotCount = Math.max(this.slotCount, slot + 1);
+
+        return reference;
+    }
+
+    private void createBlocks() {
+        for (int block : this.dominatorTree.getReversePostorder()) {
+            final int[] predecessors = Arrays.stream(this.blockGraph.getPredecessors(block))
+                                             .filter(this.dominatorTree::isReachable)
+                                             .toArray();
+
+            final SsaBlock ssaBlock = new SsaBlock(block, this.blockGraph.getBlock(block).getLabel(), predecessors);
+            ssaBlock.setFallthrough(this.fallthrough[block]);
+            this.graph.setBlock(ssaBlock);
+        }
+    }
+
+    // Phi placement
+
+    /**
+     * Die Variablen sind erst die lokalen Slots, dann die Stackplätze.
+     */
+    private int variableCount() {
+        return this.slotCount + this.maxDepth;
+    }
+
+    private void placePhis() {
+        final int size = this.blockGraph.size();
+        final int variables = this.variableCount();
+
+        // Definierende Blöcke jeder Variable
+        final int[][] definitions = new int[variables][];
+        final int[] definitionCount = new int[variables];
+        for (int variable = 0; variable < variables; variable++) {
+            definitions[variable] = new int[4];
+        }
+
+        for (int block : this.dominatorTree.getReversePostorder()) {
+            for (FlowInstruction instruction : this.blockGraph.getBlock(block)) {
+                final SsaOpcodes.Kind kind = SsaOpcodes.kindOf(instruction.getOpcode());
+
+                if (kind == SsaOpcodes.Kind.STORE || kind == SsaOpcodes.Kind.IINC) {
+                    addDefinition(definitions, definitionCount, Integer.parseInt(instruction.getArgs()[0]), block);
+                }
+            }
+
+            for (int position = 0; position < this.exitTypes[block].length; position++) {
+                addDefinition(definitions, definitionCount, this.slotCount + position, block);
+            }
+        }
+
+        final int[] hasPhi = new int[size];
+        final int[] inWorklist = new int[size];
+        Arrays.fill(hasPhi, -1);
+        Arrays.fill(inWorklist, -1);
+        final int[] worklist = new int[size];
+        int phiCount = 0;
+
+        for (int variable = 0; variable < variables; variable++) {
+            final boolean stackVariable = variable >= this.slotCount;
+            final int position = variable - this.slotCount;
+            int top = 0;
+
+            for (int i = 0; i < definitionCount[variable]; i++) {
+                final int block = definitions[variable][i];
+                if (inWorklist[block] != variable) {
+                    inWorklist[block] = variable;
+                    worklist[top] = block;
+                    top++;
+                }
+            }
+
+            while (top > 0) {
+                top--;
+                final int block = worklist[top];
+
+                for (int frontier : this.dominatorTree.getDominanceFrontier(block)) {
+                    if (hasPhi[frontier] == variable) {
+                        continue;
+                    }
+                    if (stackVariable && this.entryTypes[frontier].length <= position) {
+                        // Der Stackplatz ist am Blockanfang leer
+                        continue;
+                    }
+
+                    hasPhi[frontier] = variable;
+                    this.createPhi(frontier, variable);
+                    phiCount++;
+
+                    if (inWorklist[frontier] != variable) {
+                        inWorklist[frontier] = variable;
+                        worklist[top] = frontier;
+                        top++;
+                    }
+                }
+            }
+        }
+
+        Logger.logInfo(" :: Placed " + phiCount + " phi-functions for " + variables + " variables", SsaBuilder.class);
+    }
+
+    private static void addDefinition(int[][] definitions, int[] definitionCount, int variable, int block) {
+        final int count = definitionCount[variable];
+
+        if (count > 0 && definitions[variable][count - 1] == block) {
+            return;
+        }
+        if (count == definitions[variable].length) {
+            definitions[variable] = Arrays.copyOf(definitions[variable], 2 * count);
+        }
+
+        definitions[variable][count] = block;
+        definitionCount[variable]++;
+    }
+
+    private void createPhi(int block, int variable) {
+        final SsaBlock ssaBlock = this.graph.getBlock(block);
+        final boolean stackVariable = variable >= this.slotCount;
+
+        final int phiVariable = stackVariable ? SsaInstruction.stackVariable(variable - this.slotCount) : variable;
+        final boolean reference = stackVariable
+                                  ? this.entryTypes[block][variable - this.slotCount]
+                                  : this.slotReference[variable];
+
+        ssaBlock.getPhis().add(this.graph.createPhi(phiVariable, ssaBlock.getPredecessors().length, reference, block));
+    }
+
+    private int variableOf(SsaInstruction phi) {
+        return phi.isStackPhi() ? this.slotCount + phi.getVariable() : phi.getVariable();
+    }
+
+    // Renaming
+
+    /**
+     * Benennt die Variablen in Präorder des Dominatorbaumes um.
+     * Jede Variable hat einen Stack ihrer aktuellen Werte, beim Verlassen eines Teilbaumes
+     * werden die im Teilbaum definierten Werte über das Undo-Log wieder entfernt.
+     */
+    private void rename() {
+        if (this.blockGraph.isEmpty()) {
+            return;
+        }
+
+        final int variables = this.variableCount();
+        this.valueStacks = new int[variables][4];
+        this.valueTops = new int[variables];
+        this.undoLog = new int[64];
+        this.undoTop = 0;
+
+        final int size = this.blockGraph.size();
+        final int[] blockStack = new int[size];
+        final int[][] children = new int[size][];
+        final int[] nextChild = new int[size];
+        final int[] undoMark = new int[size];
+        int top = 0;
+
+        blockStack[top] = 0;
+        top++;
+        undoMark[0] = this.undoTop;
+        this.renameBlock(0);
+        children[0] = this.dominatorTree.getChildren(0);
+
+        while (top > 0) {
+            final int block = blockStack[top - 1];
+
+            if (nextChild[block] < children[block].length) {
+                final int child = children[block][nextChild[block]];
+                nextChild[block]++;
+
+                undoMark[child] = this.undoTop;
+                this.renameBlock(child);
+                children[child] = this.dominatorTree.getChildren(child);
+
+                blockStack[top] = child;
+                top++;
+            } else {
+                // Teilbaum fertig, Definitionen zurücknehmen
+
+                while (this.undoTop > undoMark[block]) {
+                    this.undoTop--;
+                    this.valueTops[this.undoLog[this.undoTop]]--;
+                }
+
+                top--;
+            }
+        }
+    }
+
+    private void renameBlock(int block) {
+        final SsaBlock ssaBlock = this.graph.getBlock(block);
+
+        for (SsaInstruction phi : ssaBlock.getPhis()) {
+            this.define(this.variableOf(phi), phi.getResult());
+        }
+
+        final boolean[] types = this.entryTypes[block];
+        int[] stack = new int[types.length + 4];
+        int top = 0;
+        for (int position = 0; position < types.length; position++) {
+            stack[top] = this.current(this.slotCount + position, types[position]);
+            top++;
+        }
+        ssaBlock.setEntryStack(Arrays.copyOf(stack, top));
+
+        for (FlowInstruction flowInstruction : this.blockGraph.getBlock(block)) {
+            final Opcode opcode = flowInstruction.getOpcode();
+            final String[] args = flowInstruction.getArgs();
+
+            if (ssaBlock.getTerminator() != null) {
+                throw new CodeGenerationException("Instruction after jump in block " + block);
+            }
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, 2 * stack.length + 2);
+            }
+
+            final SsaOpcodes.Kind kind = SsaOpcodes.kindOf(opcode);
+            switch (kind) {
+                case NOP -> {}
+                case LOAD -> {
+                    final int slot = Integer.parseInt(args[0]);
+                    stack[top] = this.current(slot, this.slotReference[slot]);
+                    top++;
+                }
+                case STORE -> {
+                    top--;
+                    this.define(Integer.parseInt(args[0]), stack[top]);
+                }
+                case IINC -> {
+                    // iinc wird zu Konstante + iadd, damit die Addition wie jede andere Instruction optimiert werden kann
+
+                    final int slot = Integer.parseInt(args[0]);
+                    final int increment = Integer.parseInt(args[1]);
+                    final Opcode load = Opcode.forInt(increment);
+                    final SsaInstruction constant = this.graph.createInstruction(load.getMnemonic(), load.intArguments(increment),
+                                                                                 new int[0], true, false, block);
+                    final SsaInstruction add = this.graph.createInstruction("iadd", new String[0],
+                                                                            new int[]{this.current(slot, false), constant.getResult()},
+                                                                            true, false, block);
+                    ssaBlock.getInstructions().add(constant);
+                    ssaBlock.getInstructions().add(add);
+                    this.define(slot, add.getResult());
+                }
+                case DUP -> {
+                    stack[top] = stack[top - 1];
+                    top++;
+                }
+                case POP -> top--;
+                case SWAP -> {
+                    final int swap = stack[top - 1];
+                    stack[top - 1] = stack[top - 2];
+                    stack[top - 2] = swap;
+                }
+                default -> {
+                    final int pops = SsaOpcodes.pops(opcode, args);
+                    final int[] operands = Arrays.copyOfRange(stack, top - pops, top);
+                    top -= pops;
+
+                    if (kind == SsaOpcodes.Kind.JUMP || kind == SsaOpcodes.Kind.GOTO) {
+                        ssaBlock.setTerminator(this.graph.createInstruction(opcode.getMnemonic(), args, operands, false, false, block),
+                                               this.jumpTarget[block]);
+                        continue;
+                    }
+
+                    final boolean pushes = SsaOpcodes.pushes(opcode, args);
+                    final SsaInstruction instruction = this.graph.createInstruction(opcode.getMnemonic(), args, operands, pushes,
+                                                                                    pushes && SsaOpcodes.isReferenceResult(opcode, args),
+                                                                                    block);
+                    ssaBlock.getInstructions().add(instruction);
+
+                    if (pushes) {
+                        stack[top] = instruction.getResult();
+                        top++;
+                    }
+                }
+            }
+        }
+
+        final int[] exitStack = Arrays.copyOf(stack, top);
+        ssaBlock.setExitStack(exitStack);
+        for (int position = 0; position < exitStack.length; position++) {
+            this.define(this.slotCount + position, exitStack[position]);
+        }
+
+        // Operanden der Phi-Funktionen in den Successors
+        for (int successor : ssaBlock.getSuccessors()) {
+            final SsaBlock successorBlock = this.graph.getBlock(successor);
+            final int position = successorBlock.predecessorPosition(block);
+
+            for (SsaInstruction phi : successorBlock.getPhis()) {
+                phi.setOperand(position, this.current(this.variableOf(phi), phi.isReference()));
+            }
+        }
+    }
+
+    private void define(int variable, int value) {
+        if (this.valueTops[variable] == this.valueStacks[variable].length) {
+            this.valueStacks[variable] = Arrays.copyOf(this.valueStacks[variable], 2 * this.valueTops[variable]);
+        }
+        this.valueStacks[variable][this.valueTops[variable]] = value;
+        this.valueTops[variable]++;
+
+        if (this.undoTop == this.undoLog.length) {
+            this.undoLog = Arrays.copyOf(this.undoLog, 2 * this.undoTop);
+        }
+        this.undoLog[this.undoTop] = variable;
+        this.undoTop++;
+    }
+
+    private int current(int variable, boolean reference) {
+        if (this.valueTops[variable] == 0) {
+            return this.graph.undef(reference);
+        }
+
+        return this.valueStacks[variable][this.valueTops[variable] - 1];
+    }
+}
@@ -0,0 +1,794 @@
+package codegen.ssa;
+
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphHead;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Übersetzt die SSA-Form zurück in Stackcode.
+ * <p>
+ * Werte bleiben wenn möglich auf dem Operandenstack liegen, bis sie verbraucht werden.
+ * Nur Werte, die nicht direkt an ihrer Verwendung auf dem Stack liegen können (mehrfach verwendet,
+ * in falscher Reihenfolge verwendet oder von Phi-Funktionen zusammengeführt), bekommen eine lokale Variable.
+ * Welche Werte das sind, wird durch wiederholtes Probe-Erzeugen bestimmt, bis sich nichts mehr ändert.
+ * <p>
+ * Die lokalen Variablen werden danach über eine Liveness-Analyse auf dem erzeugten Code
+ * möglichst wenigen Slots zugeteilt, getrennt nach Integern und Referenzen.
+ */
+final class SsaDestructor {
+
+    /**
+     * Der Wert liegt nur auf dem Stack.
+     */
+    private static final int RESIDENT = 0;
+
+    /**
+     * Der Wert liegt auf dem Stack und wird zusätzlich mit dup in seine Variable gespeichert.
+     */
+    private static final int RESIDENT_HOMED = 1;
+
+    /**
+     * Der Wert wird direkt in seine Variable gespeichert.
+     * Konstanten werden stattdessen an jeder Verwendung neu erzeugt.
+     */
+    private static final int HOMED = 2;
+
+    private static final String SPLIT_LABEL = "SSAsplit";
+
+    private final SsaGraph graph;
+    private final List<SsaBlock> blocks;
+
+    private final int[] state;
+    private final int[] useCount;
+
+    /**
+     * Wie viele Werte am Blockanfang vom Stack genommen werden.
+     */
+    private final int[] spillCount;
+
+    /**
+     * Das Label des Zwischenblockes auf der Sprungkante eines Blockes, oder null.
+     */
+    private final String[] splitLabel;
+
+    /**
+     * Ob auf der Fallthrough-Kante eines Blockes Kopien für Phi-Funktionen nötig sind.
+     */
+    private final boolean[] splitFallthrough;
+
+    /**
+     * Die Predecessors, deren Sprungkante zu einem Block geteilt wird.
+     */
+    private final List<List<SsaBlock>> splitsByTarget;
+
+    // Emission
+    private List<Line> lines;
+    private boolean changed;
+    private int maxStack;
+    private int[] stack;
+    private int top;
+    private int entryDepth;
+    private int entryRemaining;
+    private int currentBlock;
+
+    private SsaDestructor(SsaGraph graph) {
+        this.graph = graph;
+        this.blocks = graph.getBlocks();
+
+        final int values = graph.getValueCount();
+        this.state = new int[values];
+        this.useCount = new int[values];
+
+        final int size = graph.getBlockCount();
+        this.spillCount = new int[size];
+        this.splitLabel = new String[size];
+        this.splitFallthrough = new boolean[size];
+        this.splitsByTarget = new ArrayList<>(size);
+        for (int block = 0; block < size; block++) {
+            this.splitsByTarget.add(new ArrayList<>());
+        }
+
+        this.stack = new int[16];
+    }
+
+    static FlowGraph destruct(SsaGraph graph) {
+        Logger.logDebug("Translating SSA-form back to stack-code", SsaDestructor.class);
+
+        final SsaDestructor destructor = new SsaDestructor(graph);
+        destructor.countUses();
+        destructor.planSplits();
+
+        int runs = 0;
+        do {
+            destructor.changed = false;
+            destructor.emit();
+            runs++;
+        } while (destructor.changed);
+
+        final int[] slots = new int[graph.getValueCount()];
+        final int localCount = destructor.assignSlots(slots);
+        final FlowGraph flowGraph = destructor.buildFlowGraph(slots, localCount);
+
+        Logger.logDebug("Successfully translated SSA-form after " + runs + " runs, stack size "
+                        + destructor.maxStack + ", " + localCount + " locals", SsaDestructor.class);
+
+        return flowGraph;
+    }
+
+    private void countUses() {
+        for (SsaBlock block : this.blocks) {
+            for (SsaInstruction phi : block.getPhis()) {
+                if (!phi.isStackPhi()) {
+                    this.state[phi.getResult()] = HOMED;
+
+                    for (int operand : phi.getOperands()) {
+                        if (operand != phi.getResult()) {
+                            this.useCount[operand]++;
+                        }
+                    }
+                }
+            }
+            for (SsaInstruction instruction : block.getInstructions()) {
+                this.countUses(instruction.getOperands());
+            }
+            if (block.getTerminator() != null) {
+                this.countUses(block.getTerminator().getOperands());
+            }
+
+            // Die Operanden der Stack-Phi-Funktionen liegen im Exit-Stack der Predecessors
+            this.countUses(block.getExitStack());
+        }
+    }
+
+    private void countUses(int[] values) {
+        for (int value : values) {
+            this.useCount[value]++;
+        }
+    }
+
+    /**
+     * Kritische Kanten zu Blöcken mit Phi-Funktionen bekommen einen Zwischenblock für die Kopien.
+     * Die Labels dürfen mit keinem vorhandenen kollidieren, der Graph kann schon aus einer früheren
+     * Rückübersetzung Zwischenblöcke enthalten.
+     */
+    private void planSplits() {
+        final Set<String> labels = new HashSet<>();
+        for (SsaBlock block : this.blocks) {
+            if (block.getLabel() != null && !block.getLabel().isBlank()) {
+                labels.add(block.getLabel());
+            }
+        }
+
+        int counter = 0;
+
+        for (SsaBlock block : this.blocks) {
+            if (block.getSuccessors().length < 2) {
+                continue;
+            }
+
+            final SsaBlock target = this.graph.getBlock(block.getJumpTarget());
+            if (hasLocalPhis(target)) {
+                String label;
+                do {
+                    label = SPLIT_LABEL + counter++;
+                } while (!labels.add(label));
+
+                this.splitLabel[block.getIndex()] = label;
+                this.splitsByTarget.get(target.getIndex()).add(block);
+            }
+
+            this.splitFallthrough[block.getIndex()] = hasLocalPhis(this.graph.getBlock(block.getFallthrough()));
+        }
+    }
+
+    private static boolean hasLocalPhis(SsaBlock block) {
+        return block.getPhis().stream().anyMatch(phi -> !phi.isStackPhi());
+    }
+
+    // Emission
+
+    private void emit() {
+        this.lines = new ArrayList<>();
+        this.maxStack = 0;
+
+        for (SsaBlock block : this.blocks) {
+            final List<SsaBlock> splits = this.splitsByTarget.get(block.getIndex());
+
+            if (!splits.isEmpty()) {
+                if (this.fallsThrough()) {
+                    this.lines.add(Line.instruction("goto", block.getLabel()));
+                }
+
+                for (SsaBlock predecessor : splits) {
+                    this.emitSplitBlock(predecessor, block);
+                }
+            }
+
+            this.emitBlock(block);
+        }
+    }
+
+    private boolean fallsThrough() {
+        if (this.lines.isEmpty()) {
+            return false;
+        }
+
+        final Line last = this.lines.get(this.lines.size() - 1);
+        return last.label != null || SsaOpcodes.kindOf(last.opcode) != SsaOpcodes.Kind.GOTO;
+    }
+
+    private void emitSplitBlock(SsaBlock predecessor, SsaBlock target) {
+        this.lines.add(Line.label(this.splitLabel[predecessor.getIndex()]));
+
+        this.resetStack(predecessor.getExitStack(), predecessor.getExitStack().length);
+        this.emitCopies(predecessor, target, false);
+
+        this.lines.add(Line.instruction("goto", target.getLabel()));
+    }
+
+    private void emitBlock(SsaBlock block) {
+        if (!block.getLabel().isBlank()) {
+            this.lines.add(Line.label(block.getLabel()));
+        }
+
+        this.currentBlock = block.getIndex();
+        this.emitEntry(block);
+
+        for (SsaInstruction instruction : block.getInstructions()) {
+            this.emitInstruction(instruction);
+        }
+
+        // Kopien für die Phi-Funktionen des einzigen Successors
+        final int[] successors = block.getSuccessors();
+        if (successors.length == 1 && hasLocalPhis(this.graph.getBlock(successors[0]))) {
+            this.emitCopies(block, this.graph.getBlock(successors[0]), true);
+        }
+
+        final SsaInstruction terminator = block.getTerminator();
+        final int[] exitStack = block.getExitStack();
+
+        if (terminator == null) {
+            this.finishStack(exitStack);
+            return;
+        }
+
+        final int[] operands = terminator.getOperands();
+        final int[] required = Arrays.copyOf(exitStack, exitStack.length + operands.length);
+        System.arraycopy(operands, 0, required, exitStack.length, operands.length);
+        this.finishStack(required);
+
+        final String label = this.splitLabel[block.getIndex()] != null
+                             ? this.splitLabel[block.getIndex()]
+                             : this.graph.getBlock(block.getJumpTarget()).getLabel();
+        this.lines.add(Line.instruction(terminator.getOpcode(), label));
+        this.pop(operands.length);
+
+        if (this.splitFallthrough[block.getIndex()]) {
+            this.emitCopies(block, this.graph.getBlock(block.getFallthrough()), false);
+        }
+    }
+
+    /**
+     * Legt den Entry-Stack an und speichert die Stack-Phi-Funktionen, die eine Variable brauchen.
+     * Liegt eine solche nicht oben auf dem Stack, werden die darüberliegenden Werte mit vom Stack genommen.
+     */
+    private void emitEntry(SsaBlock block) {
+        final int[] entry = block.getEntryStack();
+        final int depth = entry.length;
+
+        int spill = this.spillCount[block.getIndex()];
+        for (int position = 0; position < depth; position++) {
+            final int value = entry[position];
+
+            if (this.isUsedPhiOf(value, block) && this.state[value] == HOMED) {
+                spill = Math.max(spill, depth - position);
+            } else if (this.isUsedPhiOf(value, block) && this.state[value] == RESIDENT_HOMED) {
+                spill = Math.max(spill, depth - position - 1);
+            }
+        }
+        this.spillCount[block.getIndex()] = spill;
+
+        this.resetStack(entry, depth);
+        this.entryDepth = depth;
+
+        for (int position = depth - 1; position >= depth - spill; position--) {
+            final int value = entry[position];
+
+            if (this.isUsedPhiOf(value, block)) {
+                this.escalate(value, HOMED);
+                this.emitStore(value);
+            } else {
+                this.lines.add(Line.instruction("pop"));
+            }
+            this.pop(1);
+        }
+
+        this.entryRemaining = depth - spill;
+
+        if (this.top > 0) {
+            final int value = this.stack[this.top - 1];
+
+            if (this.isUsedPhiOf(value, block) && this.state[value] == RESIDENT_HOMED) {
+                this.lines.add(Line.instruction("dup"));
+                this.touch(this.top + 1);
+                this.emitStore(value);
+            }
+        }
+    }
+
+    private boolean isUsedPhiOf(int value, SsaBlock block) {
+        final SsaInstruction definition = this.graph.getDefinition(value);
+        return definition.isPhi() && definition.getBlock() == block.getIndex() && this.useCount[value] > 0;
+    }
+
+    private void emitInstruction(SsaInstruction instruction) {
+        if (instruction.hasResult() && instruction.isRematerializable()) {
+            // Konstanten werden nur an ihrer Definition erzeugt, wenn sie dort auf dem Stack bleiben können
+
+            final int value = instruction.getResult();
+            if (this.useCount[value] > 0 && this.state[value] != HOMED) {
+                this.emitRematerialization(instruction);
+                this.push(value);
+            }
+            return;
+        }
+
+        final int[] operands = instruction.getOperands();
+        this.consume(operands);
+        this.lines.add(Line.instruction(instruction.getOpcode(), instruction.getArgs()));
+        this.pop(operands.length);
+
+        if (!instruction.hasResult()) {
+            return;
+        }
+
+        final int value = instruction.getResult();
+        this.touch(this.top + 1);
+
+        if (this.useCount[value] == 0) {
+            this.lines.add(Line.instruction("pop"));
+        } else if (this.state[value] == RESIDENT) {
+            this.push(value);
+        } else if (this.state[value] == RESIDENT_HOMED) {
+            this.lines.add(Line.instruction("dup"));
+            this.touch(this.top + 2);
+            this.emitStore(value);
+            this.push(value);
+        } else {
+            this.emitStore(value);
+        }
+    }
+
+    /**
+     * Die Kopien für die lokalen Phi-Funktionen von target auf der Kante von predecessor.
+     * Erst werden alle Operanden geladen, dann in umgekehrter Reihenfolge gespeichert,
+     * damit sich die Kopien nicht gegenseitig überschreiben.
+     *
+     * @param match Ob Operanden, die bereits auf dem Stack liegen, verwendet werden dürfen.
+     */
+    private void emitCopies(SsaBlock predecessor, SsaBlock target, boolean match) {
+        final int position = target.predecessorPosition(predecessor.getIndex());
+
+        final List<SsaInstruction> phis = new ArrayList<>();
+        for (SsaInstruction phi : target.getPhis()) {
+            if (!phi.isStackPhi() && phi.getOperands()[position] != phi.getResult()) {
+                phis.add(phi);
+            }
+        }
+
+        final int[] operands = phis.stream()
+                                   .mapToInt(phi -> phi.getOperands()[position])
+                                   .toArray();
+
+        if (match) {
+            this.consume(operands);
+        } else {
+            for (int operand : operands) {
+                this.pushValue(operand);
+            }
+        }
+
+        for (int i = phis.size() - 1; i >= 0; i--) {
+            this.emitStore(phis.get(i).getResult());
+            this.pop(1);
+        }
+    }
+
+    /**
+     * Bringt die Operanden oben auf den Stack.
+     * Operanden, die dort bereits in der richtigen Reihenfolge liegen, werden übernommen.
+     */
+    private void consume(int[] operands) {
+        final int matched = this.matchTop(operands);
+
+        for (int i = matched; i < operands.length; i++) {
+            this.pushValue(operands[i]);
+        }
+    }
+
+    /**
+     * Die Länge des längsten Anfangsstücks der Operanden, das oben auf dem Stack liegt.
+     */
+    private int matchTop(int[] operands) {
+        for (int length = Math.min(operands.length, this.top); length > 0; length--) {
+            boolean match = true;
+
+            for (int i = 0; i < length; i++) {
+                if (this.stack[this.top - length + i] != operands[i]) {
+                    match = false;
+                    break;
+                }
+            }
+
+            if (match) {
+                return length;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Am Blockende muss der Stack genau dem erwarteten Stack entsprechen.
+     * Werte, die im Weg liegen, bekommen beim nächsten Durchlauf eine Variable.
+     */
+    private void finishStack(int[] required) {
+        int common = 0;
+        while (common < this.top && common < required.length && this.stack[common] == required[common]) {
+            common++;
+        }
+
+        for (int position = common; position < this.top; position++) {
+            if (position < this.entryRemaining) {
+                this.spillCount[this.currentBlock] = Math.max(this.spillCount[this.currentBlock], this.entryDepth - position);
+                this.changed = true;
+            } else if (!this.escalate(this.stack[position], HOMED)) {
+                throw new IllegalStateException("Value v" + this.stack[position] + " is stuck on the operand stack");
+            }
+        }
+        this.top = Math.min(this.top, common);
+
+        for (int i = this.top; i < required.length; i++) {
+            this.pushValue(required[i]);
+        }
+    }
+
+    private void pushValue(int value) {
+        final SsaInstruction definition = this.graph.getDefinition(value);
+
+        if (definition.isRematerializable()) {
+            this.emitRematerialization(definition);
+        } else {
+            this.escalate(value, RESIDENT_HOMED);
+            this.lines.add(Line.home(definition.isReference() ? "aload" : "iload", value));
+        }
+
+        this.push(value);
+    }
+
+    private void emitRematerialization(SsaInstruction definition) {
+        if (definition.isUndef()) {
+            this.lines.add(definition.isReference()
+                           ? Line.instruction("aconst_null")
+                           : Line.instruction("iconst_0"));
+        } else {
+            this.lines.add(Line.instruction(definition.getOpcode(), definition.getArgs()));
+        }
+    }
+
+    private void emitStore(int value) {
+        this.lines.add(Line.home(this.graph.getDefinition(value).isReference() ? "astore" : "istore", value));
+    }
+
+    /**
+     * Hebt den Zustand eines Wertes an, Konstanten brauchen keine Variable.
+     *
+     * @return Ob sich der Zustand geändert hat.
+     */
+    private boolean escalate(int value, int newState) {
+        if (this.state[value] >= newState
+            || (newState == RESIDENT_HOMED && this.graph.getDefinition(value).isRematerializable())) {
+            return false;
+        }
+
+        this.state[value] = newState;
+        this.changed = true;
+
+        return true;
+    }
+
+    private void resetStack(int[] values, int count) {
+        if (this.stack.length < count) {
+            this.stack = Arrays.copyOf(this.stack, 2 * count);
+        }
+        System.arraycopy(values, 0, this.stack, 0, count);
+        this.top = count;
+        this.entryDepth = count;
+        this.entryRemaining = count;
+
+        this.touch(count);
+    }
+
+    private void push(int value) {
+        if (this.top == this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, 2 * this.top);
+        }
+        this.stack[this.top] = value;
+        this.top++;
+
+        this.touch(this.top);
+    }
+
+    private void pop(int count) {
+        this.top -= count;
+        this.entryRemaining = Math.min(this.entryRemaining, this.top);
+    }
+
+    private void touch(int depth) {
+        this.maxStack = Math.max(this.maxStack, depth);
+    }
+
+    // Slot allocation
+
+    /**
+     * Teilt den Variablen der Werte Slots zu, Werte mit überlappender Lebenszeit bekommen verschiedene Slots.
+     * Slot 0 bleibt für die Argumente der main-Methode frei.
+     *
+     * @return Die Anzahl der benötigten lokalen Variablen.
+     */
+    private int assignSlots(int[] slots) {
+        // Dichte Nummerierung der Werte mit Variable in der Reihenfolge ihres ersten Auftretens
+        final int[] homeIndex = new int[this.graph.getValueCount()];
+        Arrays.fill(homeIndex, -1);
+        final List<Integer> homes = new ArrayList<>();
+        for (Line line : this.lines) {
+            if (line.home != SsaInstruction.NO_VALUE && homeIndex[line.home] == -1) {
+                homeIndex[line.home] = homes.size();
+                homes.add(line.home);
+            }
+        }
+
+        final List<int[]> codeBlocks = this.splitCodeBlocks();
+        final int[][] successors = this.codeBlockSuccessors(codeBlocks);
+        final BitSet[] liveOut = this.liveOut(codeBlocks, successors, homeIndex, homes.size());
+
+        // Interferenz
+        final BitSet[] interference = new BitSet[homes.size()];
+        for (int i = 0; i < homes.size(); i++) {
+            interference[i] = new BitSet();
+        }
+
+        for (int block = 0; block < codeBlocks.size(); block++) {
+            final BitSet live = (BitSet) liveOut[block].clone();
+            final int[] range = codeBlocks.get(block);
+
+            for (int i = range[1] - 1; i >= range[0]; i--) {
+                final Line line = this.lines.get(i);
+                if (line.home == SsaInstruction.NO_VALUE) {
+                    continue;
+                }
+
+                final int home = homeIndex[line.home];
+                if (line.isStore()) {
+                    for (int other = live.nextSetBit(0); other >= 0; other = live.nextSetBit(other + 1)) {
+                        if (other != home) {
+                            interference[home].set(other);
+                            interference[other].set(home);
+                        }
+                    }
+                    live.clear(home);
+                } else {
+                    live.set(home);
+                }
+            }
+        }
+
+        // Greedy-Färbung, Integer und Referenzen getrennt
+        final int[] colors = new int[homes.size()];
+        final int[] colorCount = new int[2];
+        for (int i = 0; i < homes.size(); i++) {
+            final boolean reference = this.graph.getDefinition(homes.get(i)).isReference();
+            final BitSet used = new BitSet();
+
+            for (int other = interference[i].nextSetBit(0); other >= 0 && other < i; other = interference[i].nextSetBit(other + 1)) {
+                if (this.graph.getDefinition(homes.get(other)).isReference() == reference) {
+                    used.set(colors[other]);
+                }
+            }
+
+            colors[i] = used.nextClearBit(0);
+            colorCount[reference ? 1 : 0] = Math.max(colorCount[reference ? 1 : 0], colors[i] + 1);
+        }
+
+        for (int i = 0; i < homes.size(); i++) {
+            final boolean reference = this.graph.getDefinition(homes.get(i)).isReference();
+            slots[homes.get(i)] = 1 + colors[i] + (reference ? colorCount[0] : 0);
+        }
+
+        Logger.logInfo(" :: Assigned " + homes.size() + " variables to " + (colorCount[0] + colorCount[1]) + " slots",
+                       SsaDestructor.class);
+
+        return 1 + colorCount[0] + colorCount[1];
+    }
+
+    /**
+     * Teilt den erzeugten Code an Labels und nach Sprüngen in Blöcke, als [Anfang, Ende).
+     */
+    private List<int[]> splitCodeBlocks() {
+        final List<int[]> codeBlocks = new ArrayList<>();
+        int begin = 0;
+
+        for (int i = 0; i < this.lines.size(); i++) {
+            final Line line = this.lines.get(i);
+
+            if (line.label != null && i > begin) {
+                codeBlocks.add(new int[]{begin, i});
+                begin = i;
+            } else if (line.isJump()) {
+                codeBlocks.add(new int[]{begin, i + 1});
+                begin = i + 1;
+            }
+        }
+        if (begin < this.lines.size()) {
+            codeBlocks.add(new int[]{begin, this.lines.size()});
+        }
+
+        return codeBlocks;
+    }
+
+    private int[][] codeBlockSuccessors(List<int[]> codeBlocks) {
+        final Map<String, Integer> labelBlock = new HashMap<>();
+        for (int block = 0; block < codeBlocks.size(); block++) {
+            final Line first = this.lines.get(codeBlocks.get(block)[0]);
+            if (first.label != null) {
+                labelBlock.put(first.label, block);
+            }
+        }
+
+        final int[][] successors = new int[codeBlocks.size()][];
+        for (int block = 0; block < codeBlocks.size(); block++) {
+            final Line last = this.lines.get(codeBlocks.get(block)[1] - 1);
+            final int next = block + 1 < codeBlocks.size() ? block + 1 : -1;
+
+            if (last.isJump() && SsaOpcodes.kindOf(last.opcode) == SsaOpcodes.Kind.GOTO) {
+                successors[block] = new int[]{labelBlock.get(last.args[0])};
+            } else if (last.isJump()) {
+                successors[block] = next == -1
+                                    ? new int[]{labelBlock.get(last.args[0])}
+                                    : new int[]{labelBlock.get(last.args[0]), next};
+            } else {
+                successors[block] = next == -1 ? new int[0] : new int[]{next};
+            }
+        }
+
+        return successors;
+    }
+
+    private BitSet[] liveOut(List<int[]> codeBlocks, int[][] successors, int[] homeIndex, int homeCount) {
+        final int size = codeBlocks.size();
+        final BitSet[] uses = new BitSet[size];
+        final BitSet[] defs = new BitSet[size];
+        final BitSet[] liveIn = new BitSet[size];
+        final BitSet[] liveOut = new BitSet[size];
+
+        for (int block = 0; block < size; block++) {
+            uses[block] = new BitSet(homeCount);
+            defs[block] = new BitSet(homeCount);
+            liveIn[block] = new BitSet(homeCount);
+            liveOut[block] = new BitSet(homeCount);
+
+            final int[] range = codeBlocks.get(block);
+            for (int i = range[0]; i < range[1]; i++) {
+                final Line line = this.lines.get(i);
+                if (line.home == SsaInstruction.NO_VALUE) {
+                    continue;
+                }
+
+                final int home = homeIndex[line.home];
+                if (line.isStore()) {
+                    defs[block].set(home);
+                } else if (!defs[block].get(home)) {
+                    uses[block].set(home);
+                }
+            }
+        }
+
+        boolean change;
+        do {
+            change = false;
+
+            for (int block = size - 1; block >= 0; block--) {
+                final BitSet out = new BitSet(homeCount);
+                for (int successor : successors[block]) {
+                    out.or(liveIn[successor]);
+                }
+
+                final BitSet in = (BitSet) out.clone();
+                in.andNot(defs[block]);
+                in.or(uses[block]);
+
+                if (!in.equals(liveIn[block]) || !out.equals(liveOut[block])) {
+                    liveIn[block] = in;
+                    liveOut[block] = out;
+                    change = true;
+                }
+            }
+        } while (change);
+
+        return liveOut;
+    }
+
+    private FlowGraph buildFlowGraph(int[] slots, int localCount) {
+        final FlowGraphHead head = this.graph.getHead();
+        final FlowGraph flowGraph = new FlowGraph(head.withLimits(this.maxStack, localCount), this.graph.getConstants());
+
+        for (Line line : this.lines) {
+            if (line.label != null) {
+                flowGraph.addLabel(line.label);
+            } else if (line.isJump()) {
+                flowGraph.addJump(line.opcode, line.args[0]);
+            } else if (line.home != SsaInstruction.NO_VALUE) {
+                flowGraph.addInstruction(line.opcode, String.valueOf(slots[line.home]));
+            } else {
+                flowGraph.addInstruction(line.opcode, line.args);
+            }
+        }
+
+        flowGraph.purgeEmptyBlocks();
+        flowGraph.rebuildEdges(); // Die predecessorMap kennt nur einen Vorwärtssprung pro Label
+
+        return flowGraph;
+    }
+
+    /**
+     * Eine erzeugte Zeile: Ein Label, eine Instruction oder ein Load/Store der Variable eines Wertes.
+     */
+    private static final class Line {
+
+        private final String label;
+        private final String opcode;
+        private final String[] args;
+        private final int home;
+
+        private Line(String label, String opcode, String[] args, int home) {
+            this.label = label;
+            this.opcode = opcode;
+            this.args = args;
+            this.home = home;
+        }
+
+        static Line label(String label) {
+            return new Line(label, null, null, SsaInstruction.NO_VALUE);
+        }
+
+        static Line instruction(String opcode, String... args) {
+            return new Line(null, opcode, args, SsaInstruction.NO_VALUE);
+        }
+
+        static Line home(String opcode, int value) {
+            return new Line(null, opcode, new String[0], value);
+        }
+
+        boolean isStore() {
+            return this.home != SsaInstruction.NO_VALUE && SsaOpcodes.kindOf(this.opcode) == SsaOpcodes.Kind.STORE;
+        }
+
+        boolean isJump() {
+            if (this.label != null) {
+                return false;
+            }
+
+            final SsaOpcodes.Kind kind = SsaOpcodes.kindOf(this.opcode);
+            return kind == SsaOpcodes.Kind.JUMP || kind == SsaOpcodes.Kind.GOTO;
+        }
+    }
+}
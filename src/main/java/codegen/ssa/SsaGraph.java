@@ -0,0 +1,392 @@
+package codegen.ssa;
+
+import codegen.analysis.dominance.DominatorTree;
+import codegen.flowgraph.ConstantTable;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphHead;
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Die SSA-Form eines {@link FlowGraph}.
+ * Der Stackcode jedes Blockes wird in Instructions auf nummerierten Werten übersetzt,
+ * lokale Variablen und über Blockgrenzen liegende Stackplätze werden an den Dominance-Frontiers
+ * durch Phi-Funktionen zusammengeführt.
+ * <p>
+ * Loads und Stores verschwinden dabei vollständig, ein Load verweist direkt auf den zuletzt gespeicherten Wert.
+ * {@link #toFlowGraph()} erzeugt daraus wieder Stackcode.
+ */
+public final class SsaGraph {
+
+    private final FlowGraphHead head;
+
+    /**
+     * Die Tabelle des ursprünglichen Graphen, die Rückübersetzung verwendet sie weiter.
+     */
+    private final ConstantTable constants;
+    private final DominatorTree dominatorTree;
+
+    /**
+     * Die Blöcke nach Index im {@link codegen.analysis.BlockGraph}, unerreichbare Blöcke sind null.
+     */
+    private final SsaBlock[] blocks;
+
+    /**
+     * Die definierende Instruction jedes Wertes.
+     */
+    private final List<SsaInstruction> definitions;
+
+    /**
+     * Ersetzte Werte verweisen auf ihren Ersatz, sonst auf sich selbst.
+     */
+    private int[] forwarding;
+
+    private int undefInt;
+    private int undefReference;
+
+    SsaGraph(FlowGraphHead head, ConstantTable constants, DominatorTree dominatorTree, int blockCount) {
+        this.head = head;
+        this.constants = constants;
+        this.dominatorTree = dominatorTree;
+        this.blocks = new SsaBlock[blockCount];
+        this.definitions = new ArrayList<>();
+        this.forwarding = new int[64];
+        this.undefInt = SsaInstruction.NO_VALUE;
+        this.undefReference = SsaInstruction.NO_VALUE;
+    }
+
+    public static SsaGraph fromFlowGraph(FlowGraph flowGraph) {
+        return SsaBuilder.build(flowGraph);
+    }
+
+    /**
+     * Verwendet einen bereits berechneten Dominatorbaum des Graphen.
+     */
+    public static SsaGraph fromFlowGraph(FlowGraph flowGraph, DominatorTree dominatorTree) {
+        return SsaBuilder.build(flowGraph, dominatorTree);
+    }
+
+    /**
+     * Übersetzt die SSA-Form zurück in Stackcode.
+     */
+    public FlowGraph toFlowGraph() {
+        return SsaDestructor.destruct(this);
+    }
+
+    // Construction
+
+    void setBlock(SsaBlock block) {
+        this.blocks[block.getIndex()] = block;
+    }
+
+    SsaInstruction createInstruction(String opcode, String[] args, int[] operands, boolean result, boolean reference, int block) {
+        final int value = result ? this.definitions.size() : SsaInstruction.NO_VALUE;
+        final SsaInstruction instruction = SsaInstruction.instruction(opcode, args, operands, value, reference, block);
+
+        if (result) {
+            this.register(instruction);
+        }
+
+        return instruction;
+    }
+
+    SsaInstruction createPhi(int variable, int predecessorCount, boolean reference, int block) {
+        final SsaInstruction phi = SsaInstruction.phi(variable, predecessorCount, this.definitions.size(), reference, block);
+        this.register(phi);
+
+        return phi;
+    }
+
+    /**
+     * Der Wert für Variablen, die auf einem Pfad nicht initialisiert wurden.
+     */
+    int undef(boolean reference) {
+        if (reference && this.undefReference == SsaInstruction.NO_VALUE) {
+            this.undefReference = this.definitions.size();
+            this.register(SsaInstruction.undef(this.undefReference, true));
+        } else if (!reference && this.undefInt == SsaInstruction.NO_VALUE) {
+            this.undefInt = this.definitions.size();
+            this.register(SsaInstruction.undef(this.undefInt, false));
+        }
+
+        return reference ? this.undefReference : this.undefInt;
+    }
+
+    private void register(SsaInstruction instruction) {
+        final int value = this.definitions.size();
+
+        if (value == this.forwarding.length) {
+            this.forwarding = Arrays.copyOf(this.forwarding, 2 * value);
+        }
+        this.forwarding[value] = value;
+        this.definitions.add(instruction);
+    }
+
+    // Transformation
+
+    /**
+     * Alle Verwendungen von value werden beim nächsten {@link #sweep()} durch replacement ersetzt.
+     * Die definierende Instruction von value muss gesondert gelöscht werden.
+     */
+    public void replaceValue(int value, int replacement) {
+        this.forwarding[value] = this.resolve(replacement);
+    }
+
+    /**
+     * Folgt den Ersetzungen bis zum aktuellen Wert.
+     */
+    public int resolve(int value) {
+        if (value == SsaInstruction.NO_VALUE) {
+            return value;
+        }
+
+        int current = value;
+        while (this.forwarding[current] != current) {
+            current = this.forwarding[current];
+        }
+
+        // Pfadkompression
+        int compress = value;
+        while (this.forwarding[compress] != current) {
+            final int next = this.forwarding[compress];
+            this.forwarding[compress] = current;
+            compress = next;
+        }
+
+        return current;
+    }
+
+    /**
+     * Setzt alle Ersetzungen in den Operanden um und entfernt gelöschte Instructions.
+     *
+     * @return Die Anzahl entfernter Instructions.
+     */
+    public int sweep() {
+        int removed = 0;
+
+        for (SsaBlock block : this.getBlocks()) {
+            removed += sweep(block.getPhis());
+            removed += sweep(block.getInstructions());
+
+            if (block.getTerminator() != null) {
+                this.resolveOperands(block.getTerminator());
+            }
+
+            block.setEntryStack(this.resolveAll(block.getEntryStack()));
+            block.setExitStack(this.resolveAll(block.getExitStack()));
+        }
+
+        return removed;
+    }
+
+    private int sweep(List<SsaInstruction> instructions) {
+        final int before = instructions.size();
+
+        instructions.removeIf(SsaInstruction::isDeleted);
+        instructions.forEach(this::resolveOperands);
+
+        return before - instructions.size();
+    }
+
+    private void resolveOperands(SsaInstruction instruction) {
+        instruction.setOperands(this.resolveAll(instruction.getOperands()));
+    }
+
+    private int[] resolveAll(int[] values) {
+        final int[] resolved = new int[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            resolved[i] = this.resolve(values[i]);
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Entfernt Phi-Funktionen, deren Operanden (abgesehen von ihr selbst) alle gleich sind.
+     * Diese entstehen bei der minimalen SSA-Konstruktion, z.B. für Variablen, die in einer Schleife nicht verändert werden.
+     *
+     * @return Die Anzahl entfernter Phi-Funktionen.
+     */
+    public int removeTrivialPhis() {
+        int removed = 0;
+        boolean change;
+
+        do {
+            change = false;
+
+            for (SsaBlock block : this.getBlocks()) {
+                for (SsaInstruction phi : block.getPhis()) {
+                    if (phi.isDeleted()) {
+                        continue;
+                    }
+
+                    int same = SsaInstruction.NO_VALUE;
+                    boolean trivial = true;
+
+                    for (int operand : phi.getOperands()) {
+                        final int resolved = this.resolve(operand);
+
+                        if (resolved == phi.getResult() || resolved == same) {
+                            continue;
+                        }
+                        if (same != SsaInstruction.NO_VALUE) {
+                            trivial = false;
+                            break;
+                        }
+
+                        same = resolved;
+                    }
+
+                    if (trivial) {
+                        this.replaceValue(phi.getResult(), same == SsaInstruction.NO_VALUE ? this.undef(phi.isReference()) : same);
+                        phi.delete();
+                        removed++;
+                        change = true;
+                    }
+                }
+            }
+        } while (change);
+
+        this.sweep();
+
+        Logger.logInfo(" :: Removed " + removed + " trivial phi-functions", SsaGraph.class);
+
+        return removed;
+    }
+
+    /**
+     * Entfernt Instructions ohne Seiteneffekte, deren Ergebnis nicht verwendet wird.
+     * Werte, die über Blockgrenzen auf dem Stack liegen, gelten immer als verwendet.
+     *
+     * @return Die Anzahl entfernter Instructions.
+     */
+    public int removeDeadCode() {
+        final boolean[] live = new boolean[this.definitions.size()];
+        final int[] worklist = new int[this.definitions.size()];
+        int top = 0;
+
+        for (SsaBlock block : this.getBlocks()) {
+            for (SsaInstruction instruction : block.getInstructions()) {
+                if (instruction.hasSideEffects()) {
+                    top = markLive(instruction.getOperands(), live, worklist, top);
+                }
+            }
+            if (block.getTerminator() != null) {
+                top = markLive(block.getTerminator().getOperands(), live, worklist, top);
+            }
+
+            top = markLive(block.getEntryStack(), live, worklist, top);
+            top = markLive(block.getExitStack(), live, worklist, top);
+        }
+
+        while (top > 0) {
+            top--;
+            top = markLive(this.definitions.get(worklist[top]).getOperands(), live, worklist, top);
+        }
+
+        for (SsaBlock block : this.getBlocks()) {
+            for (SsaInstruction phi : block.getPhis()) {
+                if (!live[phi.getResult()]) {
+                    phi.delete();
+                }
+            }
+            for (SsaInstruction instruction : block.getInstructions()) {
+                if (!instruction.hasSideEffects() && instruction.hasResult() && !live[instruction.getResult()]) {
+                    instruction.delete();
+                }
+            }
+        }
+
+        final int removed = this.sweep();
+
+        Logger.logInfo(" :: Removed " + removed + " dead instructions", SsaGraph.class);
+
+        return removed;
+    }
+
+    private static int markLive(int[] values, boolean[] live, int[] worklist, int top) {
+        int newTop = top;
+
+        for (int value : values) {
+            if (value != SsaInstruction.NO_VALUE && !live[value]) {
+                live[value] = true;
+                worklist[newTop] = value;
+                newTop++;
+            }
+        }
+
+        return newTop;
+    }
+
+    // Getters
+
+    public FlowGraphHead getHead() {
+        return this.head;
+    }
+
+    ConstantTable getConstants() {
+        return this.constants;
+    }
+
+    public DominatorTree getDominatorTree() {
+        return this.dominatorTree;
+    }
+
+    /**
+     * @return Der Block oder null, wenn der Block unerreichbar ist.
+     */
+    public SsaBlock getBlock(int index) {
+        return this.blocks[index];
+    }
+
+    /**
+     * Die erreichbaren Blöcke in Programmreihenfolge.
+     */
+    public List<SsaBlock> getBlocks() {
+        final List<SsaBlock> reachable = new ArrayList<>();
+
+        for (SsaBlock block : this.blocks) {
+            if (block != null) {
+                reachable.add(block);
+            }
+        }
+
+        return Collections.unmodifiableList(reachable);
+    }
+
+    public int getBlockCount() {
+        return this.blocks.length;
+    }
+
+    public SsaInstruction getDefinition(int value) {
+        return this.definitions.get(value);
+    }
+
+    public int getValueCount() {
+        return this.definitions.size();
+    }
+
+    /**
+     * Die Anzahl der Instructions und Phi-Funktionen (ohne Terminatoren).
+     */
+    public int instructionCount() {
+        return this.getBlocks().stream()
+                   .mapToInt(block -> block.getPhis().size() + block.getInstructions().size())
+                   .sum();
+    }
+
+    // Overrides
+
+    @Override
+    public String toString() {
+        return this.getBlocks().stream()
+                   .map(SsaBlock::toString)
+                   .collect(Collectors.joining());
+    }
+}
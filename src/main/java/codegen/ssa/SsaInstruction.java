@@ -0,0 +1,191 @@
+package codegen.ssa;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Eine Instruction in der SSA-Form.
+ * Statt über den Operandenstack werden Operanden und Ergebnis über Wert-Nummern adressiert.
+ * Jeder Wert wird von genau einer Instruction definiert.
+ * <p>
+ * Phi-Funktionen sind ebenfalls Instructions, ihre Operanden gehören in der Reihenfolge
+ * zu den Predecessors des Blockes ({@link SsaBlock#getPredecessors()}).
+ */
+public final class SsaInstruction {
+
+    public static final int NO_VALUE = -1;
+
+    static final String PHI = "phi";
+
+    /**
+     * Platzhalter für Werte, die auf einem Pfad nicht definiert wurden.
+     */
+    static final String UNDEF = "undef";
+
+    /**
+     * Der Jasmin-Befehl oder {@link #PHI}/{@link #UNDEF}.
+     */
+    private final String opcode;
+
+    /**
+     * Die konstanten Jasmin-Argumente, z.B. das Literal bei ldc oder die Methode bei invokevirtual.
+     */
+    private final String[] args;
+
+    private int[] operands;
+
+    private final int result;
+
+    /**
+     * Ob das Ergebnis eine Referenz (String, PrintStream) oder ein Integer ist.
+     */
+    private final boolean reference;
+
+    /**
+     * Bei Phi-Funktionen die Variable, zu der sie gehört:
+     * Lokale Variablen haben ihre Slotnummer, Stackplätze werden als -(Position + 1) gespeichert.
+     */
+    private final int variable;
+
+    private final int block;
+
+    private boolean deleted;
+
+    private SsaInstruction(String opcode, String[] args, int[] operands, int result, boolean reference, int variable, int block) {
+        this.opcode = opcode;
+        this.args = args;
+        this.operands = operands;
+        this.result = result;
+        this.reference = reference;
+        this.variable = variable;
+        this.block = block;
+    }
+
+    static SsaInstruction instruction(String opcode, String[] args, int[] operands, int result, boolean reference, int block) {
+        return new SsaInstruction(opcode, args, operands, result, reference, 0, block);
+    }
+
+    static SsaInstruction phi(int variable, int predecessorCount, int result, boolean reference, int block) {
+        final int[] operands = new int[predecessorCount];
+        Arrays.fill(operands, NO_VALUE);
+
+        return new SsaInstruction(PHI, new String[0], operands, result, reference, variable, block);
+    }
+
+    static SsaInstruction undef(int result, boolean reference) {
+        return new SsaInstruction(UNDEF, new String[0], new int[0], result, reference, 0, -1);
+    }
+
+    static int stackVariable(int position) {
+        return -(position + 1);
+    }
+
+    // Getters, Setters
+
+    public String getOpcode() {
+        return this.opcode;
+    }
+
+    public String[] getArgs() {
+        return this.args;
+    }
+
+    public int[] getOperands() {
+        return this.operands;
+    }
+
+    void setOperand(int index, int value) {
+        this.operands[index] = value;
+    }
+
+    void setOperands(int[] operands) {
+        this.operands = operands;
+    }
+
+    public int getResult() {
+        return this.result;
+    }
+
+    public boolean hasResult() {
+        return this.result != NO_VALUE;
+    }
+
+    public boolean isReference() {
+        return this.reference;
+    }
+
+    public int getBlock() {
+        return this.block;
+    }
+
+    public boolean isPhi() {
+        return PHI.equals(this.opcode);
+    }
+
+    public boolean isUndef() {
+        return UNDEF.equals(this.opcode);
+    }
+
+    /**
+     * Ob die Phi-Funktion einen Platz auf dem Operandenstack statt einer lokalen Variable zusammenführt.
+     */
+    public boolean isStackPhi() {
+        return this.isPhi() && this.variable < 0;
+    }
+
+    /**
+     * Die Stackposition einer Stack-Phi-Funktion oder der Slot einer lokalen Phi-Funktion.
+     */
+    public int getVariable() {
+        return this.variable < 0 ? -this.variable - 1 : this.variable;
+    }
+
+    /**
+     * Konstanten werden nicht in lokalen Variablen gehalten, sondern bei jeder Verwendung neu geladen.
+     */
+    public boolean isRematerializable() {
+        return this.isUndef() || (!this.isPhi() && SsaOpcodes.kindOf(this.opcode) == SsaOpcodes.Kind.CONST);
+    }
+
+    /**
+     * Instructions ohne Seiteneffekte können entfernt werden, wenn ihr Ergebnis nicht verwendet wird.
+     */
+    public boolean hasSideEffects() {
+        if (this.isPhi() || this.isUndef()) {
+            return false;
+        }
+
+        final SsaOpcodes.Kind kind = SsaOpcodes.kindOf(this.opcode);
+        return kind == SsaOpcodes.Kind.THROWING || kind == SsaOpcodes.Kind.EFFECT
+               || kind == SsaOpcodes.Kind.JUMP || kind == SsaOpcodes.Kind.GOTO;
+    }
+
+    public boolean isDeleted() {
+        return this.deleted;
+    }
+
+    /**
+     * Markiert die Instruction als gelöscht, sie wird beim nächsten {@link SsaGraph#sweep()} entfernt.
+     */
+    public void delete() {
+        this.deleted = true;
+    }
+
+    // Overrides
+
+    @Override
+    public String toString() {
+        final String resultString = this.hasResult() ? "v" + this.result + " = " : "";
+        final String argsString = this.args.length == 0 ? "" : " " + String.join(" ", this.args);
+        final String operandString = Arrays.stream(this.operands)
+                                           .mapToObj(operand -> operand == NO_VALUE ? "?" : "v" + operand)
+                                           .collect(Collectors.joining(", "));
+
+        if (this.isPhi()) {
+            final String var = this.variable < 0 ? "stack" + this.getVariable() : "local" + this.getVariable();
+            return resultString + "phi[" + var + "](" + operandString + ")";
+        }
+
+        return resultString + this.opcode + argsString + (this.operands.length == 0 ? "" : " (" + operandString + ")");
+    }
+}
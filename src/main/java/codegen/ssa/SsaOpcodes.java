@@ -0,0 +1,117 @@
+package codegen.ssa;
+
+import codegen.CodeGenerationException;
+import codegen.flowgraph.Opcode;
+
+/**
+ * Ordnet den Jasmin-Befehlen ihre Wirkung in der SSA-Form zu.
+ * Wird beim Auf- und Abbau der SSA-Form benötigt, um Stackcode in Werte umzurechnen.
+ * Die Stackwirkung kommt aus den Metadaten von {@link Opcode}, hier steht nur, was die SSA-Form zusätzlich wissen muss.
+ */
+final class SsaOpcodes {
+
+    enum Kind {
+        NOP, // Keine Wirkung
+        LOAD, // Lädt eine lokale Variable
+        STORE, // Speichert in eine lokale Variable
+        IINC, // Erhöht eine lokale Variable um eine Konstante
+        DUP,
+        POP,
+        SWAP,
+        CONST, // Konstante, kann bei Bedarf neu erzeugt werden
+        PURE, // Ohne Seiteneffekte
+        THROWING, // Ohne Seiteneffekte, kann aber eine Exception werfen (Division durch 0)
+        EFFECT, // Mit Seiteneffekten
+        JUMP, // Bedingter Sprung
+        GOTO
+    }
+
+    private static final Kind[] kinds = new Kind[Opcode.values().length];
+
+    static {
+        for (Opcode opcode : Opcode.values()) {
+            kinds[opcode.ordinal()] = classify(opcode);
+        }
+    }
+
+    private SsaOpcodes() {}
+
+    static Kind kindOf(String mnemonic) {
+        return kindOf(Opcode.fromMnemonic(mnemonic));
+    }
+
+    static Kind kindOf(Opcode opcode) {
+        final Kind kind = kinds[opcode.ordinal()];
+
+        if (kind == null) {
+            throw new CodeGenerationException("Instruction \"" + opcode + "\" is not supported in SSA-form");
+        }
+
+        return kind;
+    }
+
+    /**
+     * Die Einteilung eines Befehls, null für Befehle, die in der SSA-Form nicht vorkommen dürfen
+     * (long-Werte, dup2 und return, das nur im Tail steht).
+     */
+    private static Kind classify(Opcode opcode) {
+        if (opcode.getBranch() != Opcode.Branch.NONE) {
+            return switch (opcode.getBranch()) {
+                case CONDITIONAL -> Kind.JUMP;
+                case GOTO -> Kind.GOTO;
+                default -> null;
+            };
+        }
+        if (opcode.getOperand() == Opcode.Operand.LOCAL) {
+            return opcode.isDef() ? Kind.STORE : Kind.LOAD;
+        }
+        if (opcode.getOperand() == Opcode.Operand.LOCAL_INCREMENT) {
+            return Kind.IINC;
+        }
+        if (opcode.isIntConstant()) {
+            return Kind.CONST;
+        }
+
+        return switch (opcode) {
+            case NOP -> Kind.NOP;
+            case DUP -> Kind.DUP;
+            case POP -> Kind.POP;
+            case SWAP -> Kind.SWAP;
+            case LDC, LDC_W, ACONST_NULL -> Kind.CONST;
+            case IADD, ISUB, IMUL, INEG, IAND, IOR, IXOR, ISHL, ISHR, IUSHR, I2B, I2C, I2S, GETSTATIC -> Kind.PURE;
+            case IDIV, IREM -> Kind.THROWING;
+            case INVOKEVIRTUAL, INVOKESTATIC, PUTSTATIC -> Kind.EFFECT;
+            default -> null;
+        };
+    }
+
+    /**
+     * Die Anzahl der Werte, die ein Befehl vom Stack nimmt.
+     * Gilt nur für Befehle, die in der SSA-Form als {@link SsaInstruction} auftauchen, dort belegt jeder Wert einen Slot.
+     */
+    static int pops(Opcode opcode, String[] args) {
+        return opcode.getPops(args);
+    }
+
+    static boolean pushes(Opcode opcode, String[] args) {
+        return opcode.getPops(args) + opcode.getStackEffect(args) > 0;
+    }
+
+    static boolean isReferenceResult(Opcode opcode, String[] args) {
+        return switch (opcode) {
+            case LDC, LDC_W -> args[0].startsWith("\"");
+            case ACONST_NULL -> true;
+            case GETSTATIC -> isReferenceDescriptor(args[1]);
+            case INVOKEVIRTUAL, INVOKESTATIC -> isReferenceDescriptor(args[0].substring(args[0].indexOf(')') + 1));
+            default -> false;
+        };
+    }
+
+    static boolean isReferenceSlot(Opcode opcode) {
+        return opcode == Opcode.ALOAD || opcode == Opcode.ASTORE;
+    }
+
+    private static boolean isReferenceDescriptor(String descriptor) {
+        return descriptor.startsWith("L") || descriptor.startsWith("[");
+    }
+}
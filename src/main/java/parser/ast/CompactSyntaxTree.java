@@ -0,0 +1,339 @@
+package parser.ast;
+
+import util.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Ein Abstrakter Syntaxbaum in Arrays statt in einzelnen {@link SyntaxTreeNode}-Objekten.
+ * <p>
+ * Jeder Knoten ist ein Index, Name und Wert sind Ids in einer Tabelle mit jedem String nur einmal,
+ * die Kinder sind über das erste Kind und den nächsten Geschwisterknoten verkettet.
+ * Pro Knoten bleiben so fünf ints, statt Objekt, UUID, eigener Kinderliste und Strings.
+ * Die Knoten liegen in Präorder, ein Knoten hat also einen kleineren Index als alle Knoten seines Teilbaums.
+ * <p>
+ * Durchlaufen wird der Baum mit einem {@link SyntaxTreeCursor}, einzelne Teilbäume lassen sich
+ * mit {@link #toNode(int)} wieder als Objekte erzeugen.
+ */
+public final class CompactSyntaxTree {
+
+    public static final int NONE = -1;
+
+    //!: Objektgrößen auf einer 64-Bit-JVM mit komprimierten Referenzen, Objekte sind auf 8 Byte ausgerichtet
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int NODE_OBJECT = align(HEADER + 4 + 5 * REFERENCE);
+    private static final int UUID_OBJECT = align(HEADER + 2 * 8);
+    private static final int ARRAYLIST_OBJECT = align(HEADER + 2 * 4 + REFERENCE);
+    private static final int STRING_OBJECT = align(HEADER + 4 + 2 + REFERENCE);
+    private static final int HASHMAP_ENTRY = align(HEADER + 4 + 3 * REFERENCE);
+    private static final int INTEGER_OBJECT = align(HEADER + 4);
+    private static final int INTEGER_CACHE = 127;
+    private static final int ARRAYLIST_CAPACITY = 10;
+
+    private final int[] kinds;
+    private final int[] values;
+    private final int[] lines;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private int size;
+
+    /**
+     * Die Namen und Werte der Knoten, jeder String genau einmal.
+     */
+    private final List<String> strings;
+    private final Map<String, Integer> stringIds;
+
+    /**
+     * Der Operator zu jedem String, siehe {@link Operator#fromToken(String)}.
+     */
+    private final List<Operator> operators;
+
+    private final int exprKind;
+
+    private CompactSyntaxTree(int capacity) {
+        this.kinds = new int[capacity];
+        this.values = new int[capacity];
+        this.lines = new int[capacity];
+        this.firstChild = new int[capacity];
+        this.nextSibling = new int[capacity];
+        this.strings = new ArrayList<>();
+        this.stringIds = new HashMap<>();
+        this.operators = new ArrayList<>();
+        this.exprKind = this.intern("expr");
+    }
+
+    public static CompactSyntaxTree fromSyntaxTree(SyntaxTree tree) {
+        Logger.logDebug("Building compact syntax-tree", CompactSyntaxTree.class);
+
+        final CompactSyntaxTree compact = new CompactSyntaxTree((int) tree.size());
+        compact.add(tree.getRoot());
+
+        Logger.logDebugSupplier(() -> "Built compact syntax-tree with " + compact.size + " nodes, "
+                                      + String.format("%.1f", compact.getBytesPerNode()) + " bytes per node ("
+                                      + String.format("%.1f", (double) estimateBytes(tree) / compact.size)
+                                      + " as objects)", CompactSyntaxTree.class);
+
+        return compact;
+    }
+
+    /**
+     * Fügt den Teilbaum in Präorder an.
+     *
+     * @return Der Index des Knotens.
+     */
+    private int add(SyntaxTreeNode node) {
+        final int index = this.size;
+        this.size++;
+
+        this.kinds[index] = this.intern(node.getName());
+        this.values[index] = this.intern(node.getValue());
+        this.lines[index] = node.getLine();
+        this.firstChild[index] = NONE;
+        this.nextSibling[index] = NONE;
+
+        int previous = NONE;
+        for (SyntaxTreeNode child : node.getChildren()) {
+            final int childIndex = this.add(child);
+
+            if (previous == NONE) {
+                this.firstChild[index] = childIndex;
+            } else {
+                this.nextSibling[previous] = childIndex;
+            }
+            previous = childIndex;
+        }
+
+        return index;
+    }
+
+    private int intern(String string) {
+        final Integer id = this.stringIds.get(string);
+        if (id != null) {
+            return id;
+        }
+
+        this.strings.add(string);
+        this.operators.add(Operator.fromToken(string));
+        this.stringIds.put(string, this.strings.size() - 1);
+
+        return this.strings.size() - 1;
+    }
+
+    /**
+     * Erzeugt den Teilbaum ab node als Objekte.
+     */
+    public SyntaxTreeNode toNode(int node) {
+        return this.toNode(node, (created, index) -> {});
+    }
+
+    /**
+     * Erzeugt den Teilbaum ab node als Objekte.
+     *
+     * @param visitor Wird für jeden erzeugten Knoten mit seinem Index aufgerufen,
+     *                z.B. um Typen aus einem Array in eine Map zu übernehmen.
+     */
+    public SyntaxTreeNode toNode(int node, ObjIntConsumer<SyntaxTreeNode> visitor) {
+        final SyntaxTreeNode created = new SyntaxTreeNode(this.getName(node), this.lines[node]);
+        created.setValue(this.getValue(node));
+
+        for (int child = this.firstChild[node]; child != NONE; child = this.nextSibling[child]) {
+            created.addChild(this.toNode(child, visitor));
+        }
+
+        visitor.accept(created, node);
+
+        return created;
+    }
+
+    public SyntaxTree toSyntaxTree() {
+        return new SyntaxTree(this.toNode(0));
+    }
+
+    /**
+     * Ruft für jeden Knoten des Objektbaumes den Index auf, den er in diesem Baum hat.
+     * Der Objektbaum muss der sein, aus dem dieser Baum erzeugt wurde.
+     */
+    public static void forEachIndex(SyntaxTree tree, ObjIntConsumer<SyntaxTreeNode> visitor) {
+        forEachIndex(tree.getRoot(), 0, visitor);
+    }
+
+    private static int forEachIndex(SyntaxTreeNode node, int index, ObjIntConsumer<SyntaxTreeNode> visitor) {
+        visitor.accept(node, index);
+
+        int next = index + 1;
+        for (SyntaxTreeNode child : node.getChildren()) {
+            next = forEachIndex(child, next, visitor);
+        }
+
+        return next;
+    }
+
+    // Getters
+
+    public SyntaxTreeCursor cursor() {
+        return new SyntaxTreeCursor(this);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.firstChild[0] == NONE;
+    }
+
+    /**
+     * Die Id des Knotennamens, Knoten mit gleichem Namen haben die gleiche Id.
+     */
+    public int getKind(int node) {
+        return this.kinds[node];
+    }
+
+    /**
+     * Die Id eines Knotennamens oder {@link #NONE}, wenn kein Knoten so heißt.
+     */
+    public int getKind(String name) {
+        return this.stringIds.getOrDefault(name, NONE);
+    }
+
+    public String getName(int node) {
+        return this.strings.get(this.kinds[node]);
+    }
+
+    public String getValue(int node) {
+        return this.strings.get(this.values[node]);
+    }
+
+    /**
+     * Der Operator eines "expr"-Knotens, sonst null, siehe {@link SyntaxTreeNode#getOperator()}.
+     */
+    public Operator getOperator(int node) {
+        return this.kinds[node] == this.exprKind ? this.operators.get(this.values[node]) : null;
+    }
+
+    public int getLine(int node) {
+        return this.lines[node];
+    }
+
+    public int getFirstChild(int node) {
+        return this.firstChild[node];
+    }
+
+    public int getNextSibling(int node) {
+        return this.nextSibling[node];
+    }
+
+    public int getChildCount(int node) {
+        int count = 0;
+        for (int child = this.firstChild[node]; child != NONE; child = this.nextSibling[child]) {
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Das i-te Kind von node.
+     */
+    public int getChild(int node, int i) {
+        int child = this.firstChild[node];
+        for (int j = 0; j < i && child != NONE; j++) {
+            child = this.nextSibling[child];
+        }
+
+        if (child == NONE) {
+            throw new IndexOutOfBoundsException("Knoten " + node + " hat kein Kind " + i);
+        }
+
+        return child;
+    }
+
+    // Speicherbedarf
+
+    /**
+     * Der Speicherbedarf der Arrays und der Stringtabelle.
+     */
+    public long getBytes() {
+        long bytes = 5L * (ARRAY_HEADER + 4L * this.kinds.length);
+
+        // Tabelle mit Liste und Map, die Operatoren teilen sich die Enum-Konstanten
+        bytes += 2L * (ARRAY_HEADER + (long) REFERENCE * this.strings.size());
+        bytes += ARRAY_HEADER + 2L * REFERENCE * this.strings.size();
+        for (String string : this.strings) {
+            bytes += stringBytes(string) + HASHMAP_ENTRY;
+        }
+        bytes += (long) INTEGER_OBJECT * Math.max(0, this.strings.size() - INTEGER_CACHE - 1);
+
+        return bytes;
+    }
+
+    public double getBytesPerNode() {
+        return (double) this.getBytes() / this.size;
+    }
+
+    /**
+     * Schätzt den Speicherbedarf eines Baumes aus {@link SyntaxTreeNode}-Objekten:
+     * Knoten, UUID, Kinderliste mit Array und die Strings, gleiche String-Objekte zählen nur einmal.
+     * Eine leere Kinderliste teilt sich das leere Array aller ArrayLists.
+     */
+    public static long estimateBytes(SyntaxTree tree) {
+        final Map<String, Boolean> seen = new IdentityHashMap<>();
+        final long[] bytes = {0};
+
+        forEachIndex(tree, (node, index) -> {
+            bytes[0] += NODE_OBJECT + UUID_OBJECT + ARRAYLIST_OBJECT;
+
+            final int children = node.getChildren().size();
+            if (children > 0) {
+                bytes[0] += align(ARRAY_HEADER + (long) REFERENCE * Math.max(ARRAYLIST_CAPACITY, children));
+            }
+
+            for (String string : Arrays.asList(node.getName(), node.getValue())) {
+                if (seen.put(string, Boolean.TRUE) == null) {
+                    bytes[0] += stringBytes(string);
+                }
+            }
+        });
+
+        return bytes[0];
+    }
+
+    private static long stringBytes(String string) {
+        return STRING_OBJECT + align(ARRAY_HEADER + (long) string.length());
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    // Printing
+
+    /**
+     * Wie {@link SyntaxTreeNode#nodePrint(String)}.
+     */
+    public String nodePrint(int node, String prefix) {
+        final StringBuilder children = new StringBuilder();
+        for (int child = this.firstChild[node]; child != NONE; child = this.nextSibling[child]) {
+            children.append(prefix).append("└── ").append(this.getName(child)).append(": ").append(this.getValue(child)).append("\n");
+        }
+
+        return prefix + this.getName(node) + ": " + this.getValue(node) + "\n" + prefix + children.toString().trim();
+    }
+
+    @Override
+    public String toString() {
+        return this.toSyntaxTree().toString();
+    }
+}
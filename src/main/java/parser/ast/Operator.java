@@ -0,0 +1,237 @@
+package parser.ast;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Die Operatoren der Stups-Ausdrücke mit allem, was die einzelnen Phasen über sie wissen müssen:
+ * Stelligkeit, Priorität, Kommutativität, Operanden- und Ergebnistypen und die Jasmin-Befehle.
+ * <p>
+ * Die Namen entsprechen den Tokens des Lexers, ein "expr"-Knoten mit dem Wert "ADD" trägt {@link #ADD},
+ * siehe {@link SyntaxTreeNode#getOperator()}.
+ */
+public enum Operator {
+
+    //!: Operatorpräzedenz, 0 ist die höchste
+    // 0 - Unary: -, +, !
+    // 1 - Multiplicative: *, /, %
+    // 2 - Additive: +, -
+    // 3 - Comparative: <, <=, >, >=
+    // 4 - Equality: ==, !=
+    // 5 - Logical AND: &&
+    // 6 - Logical OR: ||
+
+    // NOT ist xor mit 1
+    NOT(Kind.LOGICAL, Arity.UNARY, 0, false, Types.BOOLEAN, "BOOLEAN_TYPE", "ixor", null),
+
+    MUL(Kind.ARITHMETIC, Arity.BINARY, 1, true, Types.INTEGER, "INTEGER_TYPE", "imul", null),
+    DIV(Kind.ARITHMETIC, Arity.BINARY, 1, false, Types.INTEGER, "INTEGER_TYPE", "idiv", null),
+    MOD(Kind.ARITHMETIC, Arity.BINARY, 1, false, Types.INTEGER, "INTEGER_TYPE", "irem", null),
+
+    // Als unäre Operatoren: +x braucht keinen Code, -x ist ineg
+    ADD(Kind.ARITHMETIC, Arity.UNARY_OR_BINARY, 2, true, Types.INTEGER, "INTEGER_TYPE", "iadd", null),
+    SUB(Kind.ARITHMETIC, Arity.UNARY_OR_BINARY, 2, false, Types.INTEGER, "INTEGER_TYPE", "isub", null),
+
+    LESS(Kind.RELATIONAL, Arity.BINARY, 3, false, Types.INTEGER, "BOOLEAN_TYPE", null, "lt"),
+    LESS_EQUAL(Kind.RELATIONAL, Arity.BINARY, 3, false, Types.INTEGER, "BOOLEAN_TYPE", null, "le"),
+    GREATER(Kind.RELATIONAL, Arity.BINARY, 3, false, Types.INTEGER, "BOOLEAN_TYPE", null, "gt"),
+    GREATER_EQUAL(Kind.RELATIONAL, Arity.BINARY, 3, false, Types.INTEGER, "BOOLEAN_TYPE", null, "ge"),
+
+    EQUAL(Kind.EQUALITY, Arity.BINARY, 4, true, Types.ANY, "BOOLEAN_TYPE", null, "eq"),
+    NOT_EQUAL(Kind.EQUALITY, Arity.BINARY, 4, true, Types.ANY, "BOOLEAN_TYPE", null, "ne"),
+
+    AND(Kind.LOGICAL, Arity.BINARY, 5, true, Types.BOOLEAN, "BOOLEAN_TYPE", "iand", null),
+    OR(Kind.LOGICAL, Arity.BINARY, 6, true, Types.BOOLEAN, "BOOLEAN_TYPE", "ior", null);
+
+    public enum Kind {
+        ARITHMETIC,
+        LOGICAL,
+
+        /**
+         * Die Größenvergleiche &lt;, &lt;=, &gt; und &gt;=.
+         */
+        RELATIONAL,
+        EQUALITY
+    }
+
+    public enum Arity {
+        UNARY,
+        BINARY,
+
+        /**
+         * ADD und SUB sind als Vorzeichen doppelt belegt.
+         */
+        UNARY_OR_BINARY
+    }
+
+    private static final class Types {
+
+        private static final List<String> INTEGER = List.of("INTEGER_TYPE");
+        private static final List<String> BOOLEAN = List.of("BOOLEAN_TYPE");
+        private static final List<String> ANY = List.of("INTEGER_TYPE", "BOOLEAN_TYPE", "STRING_TYPE");
+    }
+
+    private static final Map<String, Operator> tokens;
+    private static final Map<String, Operator> instructions;
+
+    static {
+        tokens = Arrays.stream(values()).collect(Collectors.toUnmodifiableMap(Operator::name, Function.identity()));
+        instructions = Arrays.stream(values())
+                             .filter(operator -> operator.instruction != null)
+                             .collect(Collectors.toUnmodifiableMap(Operator::getInstruction, Function.identity()));
+    }
+
+    private final Kind kind;
+    private final Arity arity;
+    private final int precedence;
+    private final boolean commutative;
+    private final List<String> operandTypes;
+    private final String resultType;
+
+    /**
+     * Der Jasmin-Befehl der binären Form für int-Operanden, null bei Vergleichen.
+     */
+    private final String instruction;
+
+    /**
+     * Das Suffix der Sprungbefehle eines Vergleichs ("lt" für if_icmplt und iflt), null bei anderen Operatoren.
+     */
+    private final String condition;
+
+    Operator(Kind kind, Arity arity, int precedence, boolean commutative, List<String> operandTypes, String resultType,
+             String instruction, String condition) {
+        this.kind = kind;
+        this.arity = arity;
+        this.precedence = precedence;
+        this.commutative = commutative;
+        this.operandTypes = operandTypes;
+        this.resultType = resultType;
+        this.instruction = instruction;
+        this.condition = condition;
+    }
+
+    /**
+     * Der Operator zu einem Token des Lexers, z.B. "ADD".
+     *
+     * @return Der Operator oder null, wenn das Token kein Operator ist.
+     */
+    public static Operator fromToken(String token) {
+        return tokens.get(token);
+    }
+
+    /**
+     * Der Operator zu einem Jasmin-Befehl, z.B. "iadd" für {@link #ADD}.
+     */
+    public static Optional<Operator> fromInstruction(String instruction) {
+        return Optional.ofNullable(instructions.get(instruction));
+    }
+
+    /**
+     * Der Operator mit vertauschten Operanden, "a &lt; b" ist "b &gt; a".
+     *
+     * @return Der Operator selbst, wenn er kommutativ ist, oder null, wenn sich die Operanden nicht tauschen lassen.
+     */
+    public Operator mirror() {
+        if (this.commutative) {
+            return this;
+        }
+
+        return switch (this) {
+            case LESS -> GREATER;
+            case LESS_EQUAL -> GREATER_EQUAL;
+            case GREATER -> LESS;
+            case GREATER_EQUAL -> LESS_EQUAL;
+            default -> null;
+        };
+    }
+
+    /**
+     * Der gegenteilige Vergleich, "a &lt; b" ist "!(a &gt;= b)".
+     */
+    public Operator negate() {
+        return switch (this) {
+            case LESS -> GREATER_EQUAL;
+            case LESS_EQUAL -> GREATER;
+            case GREATER -> LESS_EQUAL;
+            case GREATER_EQUAL -> LESS;
+            case EQUAL -> NOT_EQUAL;
+            case NOT_EQUAL -> EQUAL;
+            default -> throw new IllegalStateException("Kein Vergleich: " + this);
+        };
+    }
+
+    /**
+     * Ermittelt, ob der Operator mit dieser Anzahl an Operanden verwendet werden kann.
+     */
+    public boolean accepts(int operands) {
+        return switch (this.arity) {
+            case UNARY -> operands == 1;
+            case BINARY -> operands == 2;
+            case UNARY_OR_BINARY -> operands == 1 || operands == 2;
+        };
+    }
+
+    /**
+     * Die Änderung der Stacktiefe durch die Operation, nachdem die Operanden ausgewertet wurden.
+     */
+    public int getStackEffect(int operands) {
+        if (!this.accepts(operands)) {
+            throw new IllegalArgumentException("Operator " + this + " kann nicht mit " + operands + " Operanden verwendet werden");
+        }
+
+        return 1 - operands;
+    }
+
+    /**
+     * Die Stackplätze, die die Operation über ihre Operanden hinaus braucht, NOT legt eine 1 für ixor ab.
+     */
+    public int getExtraStack() {
+        return this == NOT ? 1 : 0;
+    }
+
+    // Getters
+
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    public Arity getArity() {
+        return this.arity;
+    }
+
+    public int getPrecedence() {
+        return this.precedence;
+    }
+
+    public boolean isCommutative() {
+        return this.commutative;
+    }
+
+    public boolean isArithmetic() {
+        return this.kind == Kind.ARITHMETIC;
+    }
+
+    public boolean isComparison() {
+        return this.kind == Kind.RELATIONAL || this.kind == Kind.EQUALITY;
+    }
+
+    public List<String> getOperandTypes() {
+        return this.operandTypes;
+    }
+
+    public String getResultType() {
+        return this.resultType;
+    }
+
+    public String getInstruction() {
+        return this.instruction;
+    }
+
+    public String getCondition() {
+        return this.condition;
+    }
+}
@@ -0,0 +1,155 @@
+package parser.ast;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Sethi-Ullman-Zahlen für Ausdrücke: Die Stacktiefe, die die Auswertung eines Teilbaums mindestens braucht.
+ * <p>
+ * Ein Blatt braucht 1. Bei binären Operatoren wird der Operand mit höherem Bedarf zuerst ausgewertet,
+ * sein Ergebnis belegt danach nur noch einen Platz, während der andere berechnet wird.
+ * Sind beide gleich, braucht der Ausdruck einen Platz mehr als seine Operanden.
+ * Für Knoten, die keine Ausdrücke sind (z.B. par_expr oder Anweisungen), gilt das Maximum der Kinder.
+ * <p>
+ * Kommutative Operatoren und Vergleiche werden im {@link SyntaxTreeRebalancer} entsprechend umgestellt,
+ * bei SUB, DIV und MOD wertet der Codegenerator den rechten Operanden zuerst aus und tauscht dann mit swap.
+ * Die Zahlen hängen nicht von der Reihenfolge der Kinder ab und bleiben beim Umstellen gültig.
+ */
+public final class SethiUllmanLabeling {
+
+    private static final Set<String> leafs = Set.of("INTEGER_LIT", "BOOLEAN_LIT", "STRING_LIT", "IDENTIFIER");
+
+    // Die Knoten vergleichen strukturell, gleiche Teilausdrücke sind aber verschiedene Knoten
+    private final Map<SyntaxTreeNode, Integer> needs = new IdentityHashMap<>();
+    private final Map<SyntaxTreeNode, Integer> leftToRightNeeds = new IdentityHashMap<>();
+
+    /**
+     * Der minimale Stackbedarf eines Teilbaums bei bester Auswertungsreihenfolge.
+     */
+    public int getNeed(SyntaxTreeNode node) {
+        final Integer cached = this.needs.get(node);
+        if (cached != null) {
+            return cached;
+        }
+
+        final int need;
+        if (isBinary(node)) {
+            final int left = this.getNeed(node.getChildren().get(0));
+            final int right = this.getNeed(node.getChildren().get(1));
+
+            need = binaryNeed(left, right);
+        } else {
+            need = this.unaryOrLeafNeed(node, this::getNeed);
+        }
+
+        this.needs.put(node, need);
+        return need;
+    }
+
+    /**
+     * Die Zahlen aller Knoten eines {@link CompactSyntaxTree} wie mit {@link #getNeed(SyntaxTreeNode)}.
+     * Die Kinder haben größere Indizes als ihre Eltern, rückwärts sind also alle Kinder vor den Eltern berechnet.
+     */
+    public static int[] getNeeds(CompactSyntaxTree tree) {
+        final int[] needs = new int[tree.size()];
+
+        for (int node = tree.size() - 1; node >= 0; node--) {
+            final int first = tree.getFirstChild(node);
+
+            if (isBinary(tree, node)) {
+                needs[node] = binaryNeed(needs[first], needs[tree.getNextSibling(first)]);
+            } else if (leafs.contains(tree.getName(node))) {
+                needs[node] = 1;
+            } else {
+                int need = 0;
+                for (int child = first; child != CompactSyntaxTree.NONE; child = tree.getNextSibling(child)) {
+                    need = Math.max(need, needs[child]);
+                }
+
+                needs[node] = operatorNeed(tree.getOperator(node), need);
+            }
+        }
+
+        return needs;
+    }
+
+    /**
+     * Der Stackbedarf eines Teilbaums, wenn alle Operanden von links nach rechts ausgewertet werden.
+     */
+    public int getLeftToRightNeed(SyntaxTreeNode node) {
+        final Integer cached = this.leftToRightNeeds.get(node);
+        if (cached != null) {
+            return cached;
+        }
+
+        final int need;
+        if (isBinary(node)) {
+            final int left = this.getLeftToRightNeed(node.getChildren().get(0));
+            final int right = this.getLeftToRightNeed(node.getChildren().get(1));
+
+            need = Math.max(left, right + 1);
+        } else {
+            need = this.unaryOrLeafNeed(node, this::getLeftToRightNeed);
+        }
+
+        this.leftToRightNeeds.put(node, need);
+        return need;
+    }
+
+    private int unaryOrLeafNeed(SyntaxTreeNode node, ToIntFunction<SyntaxTreeNode> childNeed) {
+        if (leafs.contains(node.getName())) {
+            return 1;
+        }
+
+        int need = 0;
+        for (SyntaxTreeNode child : node.getChildren()) {
+            need = Math.max(need, childNeed.applyAsInt(child));
+        }
+
+        return operatorNeed(node.getOperator(), need);
+    }
+
+    private static int binaryNeed(int left, int right) {
+        return left == right ? left + 1 : Math.max(left, right);
+    }
+
+    /**
+     * NOT legt eine 1 für xor auf den Operanden.
+     */
+    private static int operatorNeed(Operator operator, int need) {
+        return operator != null ? Math.max(need, 1 + operator.getExtraStack()) : need;
+    }
+
+    /**
+     * Ermittelt, ob bei einem arithmetischen Ausdruck der rechte Operand zuerst ausgewertet werden muss.
+     * Für nicht kommutative Operatoren folgt dann ein swap vor der Operation.
+     * Vergleiche und logische Operatoren werden bereits im AST umgestellt und hier nie gemeldet.
+     */
+    public boolean isRightFirst(SyntaxTreeNode node) {
+        return isBinary(node)
+               && node.getOperator().isArithmetic()
+               && this.getNeed(node.getChildren().get(1)) > this.getNeed(node.getChildren().get(0));
+    }
+
+    /**
+     * Wie {@link #isRightFirst(SyntaxTreeNode)} mit den Zahlen aus {@link #getNeeds(CompactSyntaxTree)}.
+     */
+    public static boolean isRightFirst(CompactSyntaxTree tree, int[] needs, int node) {
+        if (!isBinary(tree, node) || !tree.getOperator(node).isArithmetic()) {
+            return false;
+        }
+
+        final int left = tree.getFirstChild(node);
+        return needs[tree.getNextSibling(left)] > needs[left];
+    }
+
+    private static boolean isBinary(SyntaxTreeNode node) {
+        return node.getOperator() != null && node.getChildren().size() == 2;
+    }
+
+    private static boolean isBinary(CompactSyntaxTree tree, int node) {
+        return tree.getOperator(node) != null && tree.getChildCount(node) == 2;
+    }
+}
@@ -0,0 +1,153 @@
+package parser.ast;
+
+import java.util.Arrays;
+
+/**
+ * Läuft über einen {@link CompactSyntaxTree}, ohne Knotenobjekte zu erzeugen.
+ * <p>
+ * Der Cursor steht immer auf einem Knoten und merkt sich den Weg von der Wurzel dorthin,
+ * damit er wieder zu den Eltern zurück kann. Die Kinder eines Knotens werden so besucht:
+ * <pre>
+ * if (cursor.toFirstChild()) {
+ *     do {
+ *         ...
+ *     } while (cursor.toNextSibling());
+ *     cursor.toParent();
+ * }
+ * </pre>
+ */
+public final class SyntaxTreeCursor {
+
+    private final CompactSyntaxTree tree;
+
+    private int node;
+
+    /**
+     * Die Vorfahren des aktuellen Knotens, path[depth - 1] ist der Elternknoten.
+     */
+    private int[] path;
+    private int depth;
+
+    SyntaxTreeCursor(CompactSyntaxTree tree) {
+        this.tree = tree;
+        this.node = 0;
+        this.path = new int[16];
+    }
+
+    /**
+     * Geht zum ersten Kind.
+     *
+     * @return Ob der Knoten Kinder hat, sonst bleibt der Cursor stehen.
+     */
+    public boolean toFirstChild() {
+        final int child = this.tree.getFirstChild(this.node);
+        if (child == CompactSyntaxTree.NONE) {
+            return false;
+        }
+
+        if (this.depth == this.path.length) {
+            this.path = Arrays.copyOf(this.path, 2 * this.depth);
+        }
+        this.path[this.depth] = this.node;
+        this.depth++;
+        this.node = child;
+
+        return true;
+    }
+
+    /**
+     * Geht zum nächsten Geschwisterknoten.
+     *
+     * @return Ob es einen weiteren Geschwisterknoten gibt, sonst bleibt der Cursor stehen.
+     */
+    public boolean toNextSibling() {
+        final int sibling = this.tree.getNextSibling(this.node);
+        if (sibling == CompactSyntaxTree.NONE) {
+            return false;
+        }
+
+        this.node = sibling;
+
+        return true;
+    }
+
+    /**
+     * Geht zum Elternknoten.
+     *
+     * @return Ob der Cursor nicht schon an der Wurzel stand.
+     */
+    public boolean toParent() {
+        if (this.depth == 0) {
+            return false;
+        }
+
+        this.depth--;
+        this.node = this.path[this.depth];
+
+        return true;
+    }
+
+    /**
+     * Geht zum i-ten Kind.
+     */
+    public void toChild(int i) {
+        if (!this.toFirstChild()) {
+            throw new IndexOutOfBoundsException("Knoten " + this.node + " hat keine Kinder");
+        }
+
+        for (int j = 0; j < i; j++) {
+            if (!this.toNextSibling()) {
+                this.toParent();
+                throw new IndexOutOfBoundsException("Knoten " + this.node + " hat kein Kind " + i);
+            }
+        }
+    }
+
+    // Getters
+
+    public CompactSyntaxTree getTree() {
+        return this.tree;
+    }
+
+    /**
+     * Der Index des aktuellen Knotens im {@link CompactSyntaxTree}.
+     */
+    public int getNode() {
+        return this.node;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public String getName() {
+        return this.tree.getName(this.node);
+    }
+
+    public String getValue() {
+        return this.tree.getValue(this.node);
+    }
+
+    public Operator getOperator() {
+        return this.tree.getOperator(this.node);
+    }
+
+    public int getLine() {
+        return this.tree.getLine(this.node);
+    }
+
+    public int getChildCount() {
+        return this.tree.getChildCount(this.node);
+    }
+
+    public boolean isEmpty() {
+        return this.tree.getFirstChild(this.node) == CompactSyntaxTree.NONE;
+    }
+
+    // Printing
+
+    @Override
+    public String toString() {
+        return this.tree.nodePrint(this.node, "");
+    }
+}
@@ -18,6 +18,11 @@ public class SyntaxTreeNode {
     private final int line;
     private String name;
     private String value;
+
+    /**
+     * Der Operator eines "expr"-Knotens, aufgelöst aus dem Wert, sonst null.
+     */
+    private Operator operator;
     private List<SyntaxTreeNode> children = new ArrayList<>();
 
     public SyntaxTreeNode(String name, int line) {
@@ -31,6 +36,7 @@ public class SyntaxTreeNode {
         final SyntaxTreeNode newNode = new SyntaxTreeNode(this.name, this.line);
 
         newNode.value = this.value;
+        newNode.operator = this.operator;
         newNode.children = this.children.stream()
                                         .map(SyntaxTreeNode::deepCopy)
                                         .collect(Collectors.toList());
@@ -54,6 +60,20 @@ public class SyntaxTreeNode {
 
     public void setValue(String value) {
         this.value = value;
+        this.resolveOperator();
+    }
+
+    public Operator getOperator() {
+        return this.operator;
+    }
+
+    public void setOperator(Operator operator) {
+        this.value = operator.name();
+        this.resolveOperator();
+    }
+
+    private void resolveOperator() {
+        this.operator = "expr".equals(this.name) ? Operator.fromToken(this.value) : null;
     }
 
     public int getLine() {
@@ -83,6 +103,7 @@ public class SyntaxTreeNode {
 
     public void setName(String name) {
         this.name = name;
+        this.resolveOperator();
     }
 
     public UUID getId() {
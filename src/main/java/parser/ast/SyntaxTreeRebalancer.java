@@ -3,8 +3,6 @@ package parser.ast;
 import util.Logger;
 
 import java.util.Collections;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Ein SyntaxTree wird an bestimmten Stellen rotiert, sodass bestimmte Eigenschaften
@@ -12,43 +10,6 @@ import java.util.Set;
  */
 public final class SyntaxTreeRebalancer {
 
-    /**
-     * Jedem Operator wird eine Priorität zugewiesen, 0 ist die höchste.
-     */
-    private static final Map<String, Integer> operatorPriority;
-
-    private static final Set<String> unaryOperators;
-    private static final Set<String> commutativeOperators;
-
-    //!: Operatorpräzedenz
-    // 0 - Unary: -, +, !
-    // 1 - Multiplicative: *, /, %
-    // 2 - Additive: +, -
-    // 3 - Comparative: <, <=, >, >=
-    // 4 - Equality: ==, !=
-    // 5 - Logical AND: &&
-    // 6 - Logical OR: ||
-    static {
-        operatorPriority = Map.ofEntries(Map.entry("NOT", 0),
-                                         Map.entry("MUL", 1),
-                                         Map.entry("DIV", 1),
-                                         Map.entry("MOD", 1),
-                                         Map.entry("ADD", 2),
-                                         Map.entry("SUB", 2),
-                                         Map.entry("LESS", 3),
-                                         Map.entry("LESS_EQUAL", 3),
-                                         Map.entry("GREATER", 3),
-                                         Map.entry("GREATER_EQUAL", 3),
-                                         Map.entry("EQUAL", 4),
-                                         Map.entry("NOT_EQUAL", 4),
-                                         Map.entry("AND", 5),
-                                         Map.entry("OR", 6));
-
-        unaryOperators = Set.of("NOT", "ADD", "SUB");
-
-        commutativeOperators = Set.of("ADD", "MUL", "EQUAL", "NOT_EQUAL", "AND", "OR");
-    }
-
     private SyntaxTreeRebalancer() {}
 
     /**
@@ -58,7 +19,7 @@ public final class SyntaxTreeRebalancer {
      *     <li>Baum wird gespiegelt, damit die Ausdrücke vorwárts laufen (Tiefste Ebenen müssen nach links)</li>
      *     <li>Linkspräzedenz wird durch Links-Rotationen durchgesetzt</li>
      *     <li>Operatorpräzedenz wird durch Rechtsrotationen durchgesetzt</li>
-     *     <li>Kommutative Ausdrücke werden gespiegelt, damit die tiefen Teilausdrücke zuerst berechnet werden</li>
+     *     <li>Kommutative Ausdrücke und Vergleiche werden gespiegelt, damit der Teilausdruck mit höherem Stackbedarf zuerst berechnet wird</li>
      * </ul>
      */
     public static void rebalance(SyntaxTree abstractSyntaxTree) {
@@ -67,7 +28,7 @@ public final class SyntaxTreeRebalancer {
         flip(abstractSyntaxTree);
         leftPrecedence(abstractSyntaxTree);
         operatorPrecedence(abstractSyntaxTree);
-        flipCommutativeExpr(abstractSyntaxTree);
+        orderByStackNeed(abstractSyntaxTree);
 
         Logger.logDebug("Successfully rebalanced syntax-tree", SyntaxTreeRebalancer.class);
         Logger.logDebugSupplier(() -> abstractSyntaxTree.printToImage("AbstractSyntaxTree"), SyntaxTreeRebalancer.class);
@@ -91,31 +52,47 @@ public final class SyntaxTreeRebalancer {
     }
 
     /**
-     * Kommutative Ausdrücke werden gespiegelt, damit die tiefen Teilexpressions zuerst berechnet werden.
+     * Ordnet Ausdrücke nach ihren Sethi-Ullman-Zahlen, siehe {@link SethiUllmanLabeling}.
+     * Braucht der rechte Operand mehr Stack als der linke, werden kommutative Ausdrücke gespiegelt
+     * und Vergleiche gespiegelt und umgedreht ("a &lt; b" wird zu "b &gt; a").
      */
-    public static void flipCommutativeExpr(SyntaxTree abstractSyntaxTree) {
-        Logger.logDebug(" :: Flipping commutative expressions for stack efficiency", SyntaxTreeRebalancer.class);
-        flipCommutativeExpr(abstractSyntaxTree.getRoot());
-        Logger.logDebug(" :: Succesfully optimized stack efficiency", SyntaxTreeRebalancer.class);
+    public static void orderByStackNeed(SyntaxTree abstractSyntaxTree) {
+        Logger.logDebug(" :: Ordering expressions by Sethi-Ullman stack need", SyntaxTreeRebalancer.class);
+
+        final SethiUllmanLabeling labeling = new SethiUllmanLabeling();
+        final int before = labeling.getLeftToRightNeed(abstractSyntaxTree.getRoot());
+        final int reordered = orderByStackNeed(abstractSyntaxTree.getRoot(), labeling);
+
+        Logger.logDebug(" :: Reordered " + reordered + " expressions, expression stack need "
+                        + before + " -> " + labeling.getNeed(abstractSyntaxTree.getRoot()), SyntaxTreeRebalancer.class);
     }
 
-    private static void flipCommutativeExpr(SyntaxTreeNode root) {
+    private static int orderByStackNeed(SyntaxTreeNode root, SethiUllmanLabeling labeling) {
+        int reordered = 0;
+
         for (SyntaxTreeNode child : root.getChildren()) {
-            flipCommutativeExpr(child);
+            reordered += orderByStackNeed(child, labeling);
         }
 
-        if ("expr".equals(root.getName()) && commutativeOperators.contains(root.getValue())) {
-            // Ausdruck ist kommutativ
-
-            if (root.getChildren().size() == 2 && root.getChildren().get(0).size() < root.getChildren().get(1).size()) {
-                // Make the bigger subtree the left one
+        if (root.getOperator() == null || root.getChildren().size() != 2
+            || labeling.getNeed(root.getChildren().get(1)) <= labeling.getNeed(root.getChildren().get(0))) {
+            return reordered;
+        }
 
-                Logger.logInfo("Flipping node \"" + root.getName() + ": " + root.getValue() + "\"\n"
-                               + root.nodePrint("\t\t"), SyntaxTreeRebalancer.class);
+        final Operator mirrored = root.getOperator().mirror();
 
-                Collections.reverse(root.getChildren());
-            }
+        if (mirrored == null) {
+            // SUB, DIV und MOD werden im Codegenerator mit swap umgestellt
+            return reordered;
         }
+
+        Logger.logInfo("Flipping node \"" + root.getName() + ": " + root.getValue() + "\"\n"
+                       + root.nodePrint("\t\t"), SyntaxTreeRebalancer.class);
+
+        Collections.reverse(root.getChildren());
+        root.setOperator(mirrored);
+
+        return reordered + 1;
     }
 
     /**
@@ -228,19 +205,18 @@ public final class SyntaxTreeRebalancer {
      * Ermittelt, ob der ParentNode höhere Priorität als der ChildNode hat.
      */
     private static boolean preceding(SyntaxTreeNode parent, SyntaxTreeNode child) {
-        if (!"expr".equals(parent.getName()) || parent.getValue().isEmpty()
-            || !"expr".equals(child.getName()) || child.getValue().isEmpty()) {
+        if (parent.getOperator() == null || child.getOperator() == null) {
             return false;
         }
 
         // Unary operators have the highest precedence
-        if (child.getChildren().size() == 1 && unaryOperators.contains(child.getValue())) {
+        if (child.getChildren().size() == 1 && child.getOperator().accepts(1)) {
             return false;
         }
 
         // Less equals higher
         {
-            return operatorPriority.get(parent.getValue()) < operatorPriority.get(child.getValue());
+            return parent.getOperator().getPrecedence() < child.getOperator().getPrecedence();
         }
     }
 
@@ -1,6 +1,9 @@
 package typechecker;
 
+import parser.ast.CompactSyntaxTree;
+import parser.ast.Operator;
 import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeCursor;
 import parser.ast.SyntaxTreeNode;
 import util.Logger;
 
@@ -13,30 +16,52 @@ import java.util.Map;
 public final class TypeChecker {
 
     private static final Collection<String> lit = Arrays.asList("INTEGER_LIT", "STRING_LIT", "BOOLEAN_LIT");
-    private static final Collection<String> unary = Arrays.asList("ADD", "SUB", "NOT");
 
     private TypeChecker() {}
 
     // TODO: merge nodeTable into typetable?
     // Wirft exception bei typeerror
     public static Map<SyntaxTreeNode, String> validate(SyntaxTree tree) {
-        final TypeTable table = TypeTable.fromAST(tree);
+        final String[] nodeTypes = validate(CompactSyntaxTree.fromSyntaxTree(tree));
         final Map<SyntaxTreeNode, String> nodeTable = new HashMap<>();
 
+        CompactSyntaxTree.forEachIndex(tree, (node, index) -> {
+            if (nodeTypes[index] != null) {
+                nodeTable.put(node, nodeTypes[index]);
+            }
+        });
+
+        return nodeTable;
+    }
+
+    /**
+     * @return Der Rückgabetyp jedes Knotens, der einen Wert hat, nach seinem Index, sonst null.
+     */
+    public static String[] validate(CompactSyntaxTree tree) {
+        final TypeTable table = TypeTable.fromAST(tree);
+        final String[] nodeTypes = new String[tree.size()];
+
         Logger.logDebug("Beginning typevalidation of abstract-syntax-tree", TypeChecker.class);
 
-        validate(tree.getRoot(), table, nodeTable);
+        validate(tree.cursor(), table, nodeTypes);
 
         Logger.logDebug("Successfully typevalidated the abstract-syntax-tree", TypeChecker.class);
 
-        return nodeTable;
+        return nodeTypes;
     }
 
-    private static void validate(SyntaxTreeNode root, TypeTable table, Map<SyntaxTreeNode, String> nodeTable) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            validate(child, table, nodeTable);
+    private static void validate(SyntaxTreeCursor root, TypeTable table, String[] nodeTypes) {
+        if (root.toFirstChild()) {
+            do {
+                validate(root, table, nodeTypes);
+            } while (root.toNextSibling());
+
+            root.toParent();
         }
 
+        final CompactSyntaxTree tree = root.getTree();
+        final int node = root.getNode();
+
         if (lit.contains(root.getName())) {
             // NodeTable Eintrag für Literal hinzufügen
 
@@ -45,23 +70,21 @@ public final class TypeChecker {
             Logger.logInfo("Register type \"" + literalType + "\" for node \"" + root.getName() + ": "
                            + root.getValue() + "\"", TypeChecker.class);
 
-            nodeTable.put(root, literalType);
+            nodeTypes[node] = literalType;
             return;
         } else if ("expr".equals(root.getName())) {
             // NodeTable Eintrag für Expression hinzufügen
 
-            final String exprType = table.getMethodReturnType(root.getValue());
+            final String exprType = root.getOperator().getResultType();
 
             Logger.logInfo("Register type \"" + exprType + "\" for node \"" + root.getName() + "\"\n"
-                           + root.nodePrint("\t\t"), TypeChecker.class);
+                           + tree.nodePrint(node, "\t\t"), TypeChecker.class);
 
-            nodeTable.put(root, exprType);
+            nodeTypes[node] = exprType;
         } else if ("par_expr".equals(root.getName())) {
             // Nodetable Eintrag für Klammern
 
-            final SyntaxTreeNode centerChild = root.getChildren().get(0);
-
-            nodeTable.put(root, nodeTable.get(centerChild));
+            nodeTypes[node] = nodeTypes[tree.getFirstChild(node)];
         } else if ("IDENTIFIER".equals(root.getName())) {
             // Nodedtable Eintrag fuer Identifier
 
@@ -70,51 +93,55 @@ public final class TypeChecker {
             Logger.logInfo("Register type \"" + identifierType + "\" for node \"" + root.getName() + ": "
                            + root.getValue() + "\"", TypeChecker.class);
 
-            nodeTable.put(root, identifierType);
+            nodeTypes[node] = identifierType;
         }
 
         if ("assignment".equals(root.getName())) {
-            validateAssignment(root, table, nodeTable);
+            validateAssignment(root, table, nodeTypes);
         } else if ("expr".equals(root.getName())) {
-            validateExpression(root, table, nodeTable);
+            validateExpression(root, nodeTypes);
         }
     }
 
-    private static void validateAssignment(SyntaxTreeNode root, TypeTable table, Map<SyntaxTreeNode, String> nodeTable) {
+    private static void validateAssignment(SyntaxTreeCursor root, TypeTable table, String[] nodeTypes) {
+        final CompactSyntaxTree tree = root.getTree();
         final String identifier = root.getValue();
         final String identifierType = table.getSymbolType(identifier);
-        final SyntaxTreeNode literalNode = root.getChildren().get(0);
-        final String literalType = nodeTable.get(literalNode);
+        final int literalNode = tree.getFirstChild(root.getNode());
+        final String literalType = nodeTypes[literalNode];
 
         Logger.logInfo("Validating assignment: \"" + identifier + "\" -> \"" + identifierType + "\" = \"" + literalType + "\"", TypeChecker.class);
 
         if (!literalType.equals(identifierType)) {
-            Logger.logError("Line " + root.getLine() + " Typeerror: Can't assign [" + literalNode.getValue()
+            Logger.logError("Line " + root.getLine() + " Typeerror: Can't assign [" + tree.getValue(literalNode)
                             + "] to [" + identifier + "]: " + identifierType, TypeChecker.class);
 
             throw new AssignmentTypeMismatchException("Trying to assign " + literalType + " to a " + identifierType + " variable.");
         }
     }
 
-    private static void validateExpression(SyntaxTreeNode root, TypeTable table, Map<SyntaxTreeNode, String> nodeTable) {
-        final String op = root.getValue();
+    private static void validateExpression(SyntaxTreeCursor root, String[] nodeTypes) {
+        final CompactSyntaxTree tree = root.getTree();
+        final int node = root.getNode();
+        final Operator op = root.getOperator();
+        final int children = root.getChildCount();
 
-        Logger.logInfo("Validating expression: \"" + root.getValue() + "\"\n" + root.nodePrint("\t\t"), TypeChecker.class);
+        Logger.logInfo("Validating expression: \"" + root.getValue() + "\"\n" + tree.nodePrint(node, "\t\t"), TypeChecker.class);
 
-        if (root.isEmpty()) {
+        if (children == 0) {
             // Keine Kinder
 
             Logger.logError("Line " + root.getLine() + " Operatorerror: Can't use [" + op + "] without arguments", TypeChecker.class);
 
             throw new OperatorUsageException("Versuche Operator " + op + " ohne Argumente aufzurufen.");
-        } else if (root.getChildren().size() != 1 && "NOT".equals(op)) {
+        } else if (children != 1 && op.getArity() == Operator.Arity.UNARY) {
             // Unärer Operator mit  != 1 Child
             // SUB, ADD müssen nicht geprüft werden, da diese doppelt belegt sind mit ihrem binären Gegenstück
 
             Logger.logError("Line " + root.getLine() + " Operatorerror: Can't use [" + op + "] with more than 1 argument", TypeChecker.class);
 
             throw new OperatorUsageException("Versuche unären Operator " + op + " mit mehreren Argument aufzurufen.");
-        } else if (root.getChildren().size() == 1 && !unary.contains(op)) {
+        } else if (children == 1 && !op.accepts(1)) {
             // Binärer Operator mit 1 Child
 
             Logger.logError("Line " + root.getLine() + " Operatorerror: Can't use [" + op + "] with only 1 argument", TypeChecker.class);
@@ -122,16 +149,16 @@ public final class TypeChecker {
             throw new OperatorUsageException("Versuche binären Operator " + op + " mit einem Argument aufzurufen.");
         }
 
-        final List<String> requiredType = table.getMethodArgumentType(op);
-        for (SyntaxTreeNode child : root.getChildren()) {
+        final List<String> requiredType = op.getOperandTypes();
+        for (int child = tree.getFirstChild(node); child != CompactSyntaxTree.NONE; child = tree.getNextSibling(child)) {
             // Jedes Child muss korrekten Typ zurückgeben
 
-            final String childReturnType = nodeTable.get(child);
+            final String childReturnType = nodeTypes[child];
 
             if (childReturnType == null) {
-                Logger.logError("Variable " + child.getValue() + " wurde nicht deklariert.", TypeChecker.class);
+                Logger.logError("Variable " + tree.getValue(child) + " wurde nicht deklariert.", TypeChecker.class);
 
-                throw new SymbolNotDefinedException("Zugriff auf nicht deklarierte Variable " + child.getValue());
+                throw new SymbolNotDefinedException("Zugriff auf nicht deklarierte Variable " + tree.getValue(child));
             }
 
             if (!requiredType.contains(childReturnType)) {
@@ -139,19 +166,19 @@ public final class TypeChecker {
                 // Der NodeTable enthält auch Literale, diese müssen also nicht einzeln behandelt werden
 
                 Logger.logError("Line " + root.getLine() + " Typeerror: Can't use [" + op
-                                + "] with argument of type [" + nodeTable.get(child) + "]", TypeChecker.class);
+                                + "] with argument of type [" + childReturnType + "]", TypeChecker.class);
 
-                throw new OperatorTypeMismatchException("Versuche Operator " + op + " mit Argument vom Typ " + nodeTable.get(child) + " aufzurufen.");
+                throw new OperatorTypeMismatchException("Versuche Operator " + op + " mit Argument vom Typ " + childReturnType + " aufzurufen.");
             }
         }
 
-        if ("EQUAL".equals(op) || "NOT_EQUAL".equals(op)) {
-            final SyntaxTreeNode left = root.getChildren().get(0);
-            final SyntaxTreeNode right = root.getChildren().get(1);
+        if (op.getKind() == Operator.Kind.EQUALITY) {
+            final int left = tree.getFirstChild(node);
+            final int right = tree.getNextSibling(left);
 
-            if (!nodeTable.get(left).equals(nodeTable.get(right))) {
+            if (!nodeTypes[left].equals(nodeTypes[right])) {
                 Logger.logError("Line " + root.getLine() + " Typeerror: Can't use [" + op
-                                + "] with arguments of type [" + nodeTable.get(left) + "] and [" + nodeTable.get(right)
+                                + "] with arguments of type [" + nodeTypes[left] + "] and [" + nodeTypes[right]
                                 + "]", TypeChecker.class);
 
                 throw new OperatorTypeMismatchException("Versuche Operator" + op + " mit Argumenten ungleichen Types zu verwenden.");
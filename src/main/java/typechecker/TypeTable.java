@@ -1,17 +1,17 @@
 package typechecker;
 
+import parser.ast.CompactSyntaxTree;
 import parser.ast.SyntaxTree;
-import parser.ast.SyntaxTreeNode;
+import parser.ast.SyntaxTreeCursor;
 import util.Logger;
 
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
- * Speichert die Datentypen von Symbolen und Funktionen in einem Programm.
+ * Speichert die Datentypen der Symbole in einem Programm.
+ * Die Typen der Operatoren legt {@link parser.ast.Operator} fest.
  */
 public final class TypeTable {
 
@@ -20,78 +20,46 @@ public final class TypeTable {
      */
     private final Map<String, String> symbolTable;
 
-    /**
-     * Weist jedem Operator einen Rückgabetyp zu.
-     */
-    private final Map<String, String> methodReturnTable;
-
-    /**
-     * Weist jedem Operator die Typen seiner Argumente zu.
-     */
-    private final Map<String, List<String>> methodArgumentTable;
-
     private TypeTable(Map<String, String> symbolTable) {
         this.symbolTable = Collections.unmodifiableMap(symbolTable);
-
-        // Enthält die Return-Types der Operatoren
-
-        this.methodReturnTable = Map.ofEntries(Map.entry("ADD", "INTEGER_TYPE"),
-                                               Map.entry("SUB", "INTEGER_TYPE"),
-                                               Map.entry("MUL", "INTEGER_TYPE"),
-                                               Map.entry("DIV", "INTEGER_TYPE"),
-                                               Map.entry("MOD", "INTEGER_TYPE"),
-                                               Map.entry("NOT", "BOOLEAN_TYPE"),
-                                               Map.entry("AND", "BOOLEAN_TYPE"),
-                                               Map.entry("OR", "BOOLEAN_TYPE"),
-                                               Map.entry("LESS", "BOOLEAN_TYPE"),
-                                               Map.entry("LESS_EQUAL", "BOOLEAN_TYPE"),
-                                               Map.entry("GREATER", "BOOLEAN_TYPE"),
-                                               Map.entry("GREATER_EQUAL", "BOOLEAN_TYPE"),
-                                               Map.entry("EQUAL", "BOOLEAN_TYPE"),
-                                               Map.entry("NOT_EQUAL", "BOOLEAN_TYPE"));
-
-        this.methodArgumentTable = Map.ofEntries(Map.entry("ADD", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("SUB", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("MUL", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("DIV", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("MOD", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("AND", Collections.singletonList("BOOLEAN_TYPE")),
-                                                 Map.entry("OR", Collections.singletonList("BOOLEAN_TYPE")),
-                                                 Map.entry("NOT", Collections.singletonList("BOOLEAN_TYPE")),
-                                                 Map.entry("LESS", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("LESS_EQUAL", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("GREATER", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("GREATER_EQUAL", Collections.singletonList("INTEGER_TYPE")),
-                                                 Map.entry("EQUAL", Arrays.asList("INTEGER_TYPE", "BOOLEAN_TYPE", "STRING_TYPE")),
-                                                 Map.entry("NOT_EQUAL", Arrays.asList("INTEGER_TYPE", "BOOLEAN_TYPE", "STRING_TYPE")));
     }
 
     public static TypeTable fromAST(SyntaxTree tree) {
+        return fromAST(CompactSyntaxTree.fromSyntaxTree(tree));
+    }
+
+    public static TypeTable fromAST(CompactSyntaxTree tree) {
         Logger.logDebug("Building typetable", TypeTable.class);
 
         final Map<String, String> symbolTable = new HashMap<>();
 
-        initSymbolTable(tree.getRoot(), symbolTable);
+        initSymbolTable(tree.cursor(), symbolTable);
 
         Logger.logDebug("Successfully built typetable", TypeTable.class);
 
         return new TypeTable(symbolTable);
     }
 
-    private static void initSymbolTable(SyntaxTreeNode root, Map<String, String> table) {
-        for (SyntaxTreeNode child : root.getChildren()) {
-            initSymbolTable(child, table);
+    private static void initSymbolTable(SyntaxTreeCursor root, Map<String, String> table) {
+        if (root.toFirstChild()) {
+            do {
+                initSymbolTable(root, table);
+            } while (root.toNextSibling());
+
+            root.toParent();
         }
 
         if ("declaration".equals(root.getName())) {
-            final SyntaxTreeNode child = root.getChildren().get(0);
+            final CompactSyntaxTree tree = root.getTree();
+            final String type = root.getValue();
+            final String child = tree.getValue(tree.getFirstChild(root.getNode()));
 
-            Logger.logInfo("Adding Entry: \"" + child.getValue() + "\" -> \"" + root.getValue() + "\"", TypeTable.class);
-            final String oldEntry = table.put(child.getValue(), root.getValue());
+            Logger.logInfo("Adding Entry: \"" + child + "\" -> \"" + type + "\"", TypeTable.class);
+            final String oldEntry = table.put(child, type);
 
             if (oldEntry != null) {
-                Logger.logError("Line " + root.getLine() + " Symbolerror: [" + child.getValue() + "] already defined", TypeTable.class);
-                throw new SymbolAlreadyDefinedException("Das Symbol " + child.getValue() + " wurde bereits deklariert.");
+                Logger.logError("Line " + root.getLine() + " Symbolerror: [" + child + "] already defined", TypeTable.class);
+                throw new SymbolAlreadyDefinedException("Das Symbol " + child + " wurde bereits deklariert.");
             }
         }
     }
@@ -102,14 +70,6 @@ public final class TypeTable {
         return this.symbolTable.get(sym);
     }
 
-    public String getMethodReturnType(String meth) {
-        return this.methodReturnTable.get(meth);
-    }
-
-    public List<String> getMethodArgumentType(String meth) {
-        return this.methodArgumentTable.get(meth);
-    }
-
     public int getSymbolCount() {
         return this.symbolTable.size();
     }
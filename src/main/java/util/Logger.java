@@ -20,7 +20,10 @@ public final class Logger {
                                  Map.entry("codegen.flowgraph", true),
                                  Map.entry("codegen.analysis", true),
                                  Map.entry("codegen.analysis.dataflow", true),
+                                 Map.entry("codegen.analysis.dominance", true),
                                  Map.entry("codegen.analysis.liveness", true),
+                                 Map.entry("codegen.ssa", true),
+                                 Map.entry("codegen.optimization", true),
                                  Map.entry("codegen", true));
     }
 
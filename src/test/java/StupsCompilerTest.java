@@ -0,0 +1,62 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StupsCompilerTest {
+
+    /**
+     * Führt den Compiler mit den Argumenten aus und liefert seine Ausgabe.
+     */
+    private static String run(String... args) {
+        final PrintStream out = System.out;
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        try {
+            System.setOut(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+            StupsCompiler.main(args);
+        } finally {
+            System.setOut(out);
+        }
+
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String examplePath(String prog) throws URISyntaxException {
+        return Paths.get(StupsCompilerTest.class.getClassLoader().getResource("examplePrograms/" + prog).toURI()).toString();
+    }
+
+    @Test
+    void livenessTest() throws URISyntaxException {
+        final String output = run("-liveness", examplePath("GeneralWhile.stups"));
+
+        assertThat(output).contains("Liveness-Analyse abgeschlossen.", "Registers: ")
+                          .doesNotContain("Parallel coloring");
+    }
+
+    @Test
+    void livenessParallelTest() throws URISyntaxException {
+        final String output = run("-liveness", examplePath("GeneralWhile.stups"), "-parallel=4");
+
+        assertThat(output).contains("Liveness-Analyse abgeschlossen.", "Parallel coloring (4 threads): ");
+    }
+
+    @Test
+    void livenessParallelDefaultTest() throws URISyntaxException {
+        final String output = run("-liveness", examplePath("GeneralWhile.stups"), "-parallel");
+
+        assertThat(output).contains("Parallel coloring (" + Runtime.getRuntime().availableProcessors() + " threads): ");
+    }
+
+    @Test
+    void wrongParallelTest() throws URISyntaxException {
+        final String output = run("-liveness", examplePath("GeneralWhile.stups"), "-parallel=x");
+
+        assertThat(output).contains("Falsche Argumente.").doesNotContain("Liveness-Analyse abgeschlossen.");
+    }
+}
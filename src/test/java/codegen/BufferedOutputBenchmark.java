@@ -0,0 +1,78 @@
+package codegen;
+
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphGenerator;
+import codegen.flowgraph.JasminEmitter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import parser.ast.SyntaxTree;
+import typechecker.TypeChecker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht die Laufzeit eines Programms, das in einer Schleife ausgibt,
+ * mit println auf System.out gegen die gepufferte Ausgabe über einen StringBuilder.
+ * Die Ausgabe geht in eine Datei, wie bei einer Umleitung in der Shell.
+ * Läuft nur mit "gradle benchmark".
+ */
+@Tag("benchmark")
+class BufferedOutputBenchmark {
+
+    private static final int RUNS = 3;
+
+    private static FlowGraph generateGraph(int lines, int outputBuffer) {
+        final String program = "class TestOutput {\n\tpublic static void main(String[] args) {\n"
+                               + "int i = 0; String s = \"line\";\n"
+                               + "while (i < " + lines + ") { System.out.println(i); System.out.println(s); i = i + 1; }\n"
+                               + "\t}\n}";
+
+        final SyntaxTree ast = TestCompiler.parse(program);
+
+        return FlowGraphGenerator.fromAST(ast, TypeChecker.validate(ast), TestCompiler.CLASS_NAME, outputBuffer).generateGraph();
+    }
+
+    private static void assemble(Path directory, FlowGraph graph) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        JasminEmitter.emit(graph, directory.resolve("TestOutput.j"));
+        TestCompiler.assemble(directory);
+    }
+
+    private static long run(Path directory) throws IOException, InterruptedException {
+        final long begin = System.nanoTime();
+        new ProcessBuilder("java", "TestOutput")
+                .directory(directory.toFile())
+                .redirectOutput(directory.resolve("output.txt").toFile())
+                .start()
+                .waitFor();
+
+        return System.nanoTime() - begin;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void printBenchmark(int lines, @TempDir Path directory) throws IOException, InterruptedException {
+        final Path direct = directory.resolve("direct");
+        final Path buffered = directory.resolve("buffered");
+        assemble(direct, generateGraph(lines, 0));
+        assemble(buffered, generateGraph(lines, FlowGraphGenerator.DEFAULT_OUTPUT_BUFFER));
+
+        long directTime = 0;
+        long bufferedTime = 0;
+        for (int i = 0; i < RUNS; i++) {
+            directTime += run(direct);
+            bufferedTime += run(buffered);
+        }
+
+        System.out.printf("BufferedOutput: %7d iterations: println %8.1f ms, buffered %8.1f ms%n",
+                          lines, directTime / (RUNS * 1e6), bufferedTime / (RUNS * 1e6));
+
+        assertThat(Files.mismatch(direct.resolve("output.txt"), buffered.resolve("output.txt"))).isEqualTo(-1);
+    }
+}
@@ -16,9 +16,7 @@ import parser.ast.SyntaxTreeNode;
 import parser.grammar.Grammar;
 import typechecker.TypeChecker;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -62,46 +60,6 @@ class FlowGraphGeneratorTest {
         return ast;
     }
 
-    private static void codegenToFile(String src) {
-        try {
-            final Path outputFile = Paths.get(System.getProperty("user.dir") + "/TestOutput.j");
-            Files.writeString(outputFile, src);
-        } catch (IOException e) {
-            System.out.println("Datei konnte nicht geschrieben werden.");
-        }
-    }
-
-    private static void compileJasmin(String src) {
-        codegenToFile(src);
-        final ProcessBuilder assemble = new ProcessBuilder("java", "-jar", "jasmin.jar", "TestOutput.j");
-        try {
-            final Process p = assemble.start();
-            p.waitFor();
-        } catch (IOException | InterruptedException e) {
-            System.out.println("Test konnte nicht von Jasmin übersetzt werden.");
-        }
-    }
-
-    private static String executeCompiledProgram() {
-        final ProcessBuilder execute = new ProcessBuilder("java", "TestOutput");
-        StringBuilder out = null;
-
-        try {
-            final Process run = execute.start();
-            final BufferedReader r = new BufferedReader(new InputStreamReader(run.getInputStream()));
-            out = new StringBuilder();
-            String line;
-            while ((line = r.readLine()) != null) {
-                out.append("\n").append(line);
-            }
-            run.waitFor();
-        } catch (IOException | InterruptedException e) {
-            e.printStackTrace();
-        }
-
-        return out.toString().replaceFirst("\n", "");
-    }
-
     // Arithmetic programs
 
     private static String buildArithmeticProg(String expr) {
@@ -136,7 +94,13 @@ class FlowGraphGeneratorTest {
                 Arguments.of("(((((1 + 1) * 2) * 2) + 2) / 2) - (1 - 2)", 6),
                 Arguments.of("-10", -10),
                 Arguments.of("+10", 10),
-                Arguments.of("-1 * (10) / (5) -1 * -2 -1 * (-2) * 1 / 1 / 1 / 1 / (1) - (1)", 1)
+                Arguments.of("-1 * (10) / (5) -1 * -2 -1 * (-2) * 1 / 1 / 1 / 1 / (1) - (1)", 1),
+                Arguments.of("5 + 6 + 127 + 128 + 32767 + 32768", 65801), // iconst, bipush, sipush, ldc
+                Arguments.of("10 - 2 * (3 + 4)", -4), // Rechter Operand zuerst, dann swap
+                Arguments.of("7 - (6 - (5 - (4 - 3)))", 5),
+                Arguments.of("100 / (2 * (1 + 4))", 10),
+                Arguments.of("100 % (3 * (2 + 1))", 1),
+                Arguments.of("(1 + 2) - 10 * (3 - (4 - 5))", -37)
         );
     }
 
@@ -190,6 +154,17 @@ class FlowGraphGeneratorTest {
         );
     }
 
+    public static Stream<Arguments> compileUnrolledLoopProgramsArgs() {
+        return Stream.of(
+                Arguments.of("0", "i < 10", "System.out.println(i); i = i + 4", "0\n4\n8\n12"),
+                Arguments.of("0", "i <= 6", "i = 1 + i", "7"),
+                Arguments.of("10", "i > 0", "System.out.println(i); i = i - 3", "10\n7\n4\n1\n-2"),
+                Arguments.of("10", "0 <= i", "i = i - 1", "-1"),
+                Arguments.of("5", "i < 5", "i = i + 1", "5"),
+                Arguments.of("2147483647", "i > 2147483646", "System.out.println(i); i = i - 1", "2147483647\n2147483646")
+        );
+    }
+
     // Loop programs
 
     private static String buildLogicProgram(String expr) {
@@ -214,7 +189,7 @@ class FlowGraphGeneratorTest {
 
     @ParameterizedTest
     @MethodSource("compileArithmeticProgramsArgs")
-    void compileArithmeticProgramsTest(String prog, int result) {
+    void compileArithmeticProgramsTest(String prog, int result) throws IOException, InterruptedException {
         final String program = buildArithmeticProg(prog);
         System.out.println(program);
 
@@ -223,15 +198,15 @@ class FlowGraphGeneratorTest {
         final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
         final FlowGraph srcProg = gen.generateGraph();
 
-        compileJasmin(srcProg.toString());
-        assertThat(Integer.parseInt(executeCompiledProgram())).isEqualTo(result);
+        assertThat(Integer.parseInt(TestCompiler.compileAndRun(srcProg))).isEqualTo(result);
     }
 
     // Logic Programs
 
     @ParameterizedTest
     @MethodSource("compileIfElseProgramsArgs")
-    void compileIfElseProgramsTest(String expr, String condition, String ifBlock, String elseBlock, int result) {
+    void compileIfElseProgramsTest(String expr, String condition, String ifBlock, String elseBlock, int result)
+            throws IOException, InterruptedException {
         final String program = buildIfElseProgram(expr, condition, ifBlock, elseBlock);
         System.out.println(program);
 
@@ -240,8 +215,7 @@ class FlowGraphGeneratorTest {
         final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
         final FlowGraph srcProg = gen.generateGraph();
 
-        compileJasmin(srcProg.toString());
-        assertThat(Integer.parseInt(executeCompiledProgram())).isEqualTo(result);
+        assertThat(Integer.parseInt(TestCompiler.compileAndRun(srcProg))).isEqualTo(result);
     }
 
     private static Stream<Arguments> compileLogicProgramsArgs() {
@@ -268,13 +242,17 @@ class FlowGraphGeneratorTest {
                 Arguments.of("true && true && true && false", false), // 20
                 Arguments.of("false || false || false || true", true),
                 Arguments.of("true && false || false && true || (5 < 6 == false)", false),
-                Arguments.of("false || 5 < 6 == false", false)
+                Arguments.of("false || 5 < 6 == false", false),
+                Arguments.of("1 < 2 * (3 + 4)", true), // Vergleich gespiegelt
+                Arguments.of("20 >= 3 * (2 + 4)", true), // 25
+                Arguments.of("10 <= 1 + 2 * 3", false),
+                Arguments.of("8 > (1 + 2) * (3 - 1)", true)
         );
     }
 
     @ParameterizedTest
     @MethodSource("compileLogicProgramsArgs")
-    void compileLogicProgramsTest(String expr, boolean result) {
+    void compileLogicProgramsTest(String expr, boolean result) throws IOException, InterruptedException {
         final String program = buildLogicProgram(expr);
         System.out.println(program);
 
@@ -283,15 +261,14 @@ class FlowGraphGeneratorTest {
         final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
         final FlowGraph srcProg = gen.generateGraph();
 
-        compileJasmin(srcProg.toString());
-        assertThat(Boolean.parseBoolean(executeCompiledProgram())).isEqualTo(result);
+        assertThat(Boolean.parseBoolean(TestCompiler.compileAndRun(srcProg))).isEqualTo(result);
     }
 
     // General programs
 
     @ParameterizedTest
     @MethodSource("compileLoopProgramsArgs")
-    void compileLoopProgramsTest(String expr, String condition, String body, String result) {
+    void compileLoopProgramsTest(String expr, String condition, String body, String result) throws IOException, InterruptedException {
         final String program = buildLoopProgram(expr, condition, body);
         System.out.println(program);
 
@@ -300,13 +277,26 @@ class FlowGraphGeneratorTest {
         final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
         final FlowGraph srcProg = gen.generateGraph();
 
-        compileJasmin(srcProg.toString());
-        assertThat(executeCompiledProgram()).isEqualTo(result);
+        assertThat(TestCompiler.compileAndRun(srcProg)).isEqualTo(result);
+    }
+
+    @ParameterizedTest
+    @MethodSource({"compileLoopProgramsArgs", "compileUnrolledLoopProgramsArgs"})
+    void compileUnrolledLoopProgramsTest(String expr, String condition, String body, String result)
+            throws IOException, InterruptedException {
+        final String program = buildLoopProgram(expr, condition, body);
+
+        final SyntaxTree tree = lexParseProgram(program);
+        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput").unrollLoops(3, 8000);
+        final FlowGraph srcProg = gen.generateGraph();
+
+        assertThat(TestCompiler.compileAndRun(srcProg)).isEqualTo(result);
     }
 
     @ParameterizedTest
     @MethodSource("compileProgramsArgs")
-    void compileProgramsTest(String prog, String result) {
+    void compileProgramsTest(String prog, String result) throws IOException, InterruptedException {
         final String program = readProgram(prog);
         System.out.print(program);
 
@@ -315,8 +305,89 @@ class FlowGraphGeneratorTest {
         final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
         final FlowGraph srcProg = gen.generateGraph();
 
-        compileJasmin(srcProg.toString());
-        assertThat(executeCompiledProgram()).isEqualTo(result);
+        assertThat(TestCompiler.compileAndRun(srcProg)).isEqualTo(result);
+    }
+
+    @ParameterizedTest
+    @MethodSource("compileProgramsArgs")
+    void compileBufferedProgramsTest(String prog, String result) throws IOException, InterruptedException {
+        final String program = readProgram(prog);
+
+        final SyntaxTree tree = lexParseProgram(program);
+        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        // Kleiner Puffer, damit auch während des Programms geschrieben wird
+        final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput", 8);
+        final FlowGraph srcProg = gen.generateGraph();
+
+        assertThat(TestCompiler.compileAndRun(srcProg)).isEqualTo(result);
+    }
+
+    @Test
+    void compileBufferedExceptionTest() throws IOException, InterruptedException {
+        final String program = "class TestOutput {\n\tpublic static void main(String[] args) {\n"
+                               + "\t\tint z = 0;\n"
+                               + "\t\tSystem.out.println(1);\n"
+                               + "\t\tSystem.out.println(2);\n"
+                               + "\t\tSystem.out.println(10 / z);\n"
+                               + "\t}\n}";
+
+        final SyntaxTree tree = lexParseProgram(program);
+        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        // Der Puffer wird vor der Exception nicht voll
+        final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput", FlowGraphGenerator.DEFAULT_OUTPUT_BUFFER);
+        final FlowGraph srcProg = gen.generateGraph();
+
+        assertThat(TestCompiler.compileAndRun(srcProg)).startsWith("1\n2\n")
+                                                        .contains("java.lang.ArithmeticException");
+    }
+
+    @ParameterizedTest
+    @MethodSource("compileProgramsArgs")
+    void compileUnrolledProgramsTest(String prog, String result) throws IOException, InterruptedException {
+        final String program = readProgram(prog);
+
+        final SyntaxTree tree = lexParseProgram(program);
+        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput").unrollLoops(4, 8000);
+        final FlowGraph srcProg = gen.generateGraph();
+
+        assertThat(TestCompiler.compileAndRun(srcProg)).isEqualTo(result);
+    }
+
+    @Test
+    void unrollBudgetTest() {
+        final String program = buildLoopProgram("0", "i < 100", "System.out.println(i); i = i + 1");
+
+        final SyntaxTree tree = lexParseProgram(program);
+        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final FlowGraph unrolled = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput").unrollLoops(4, 8000).generateGraph();
+        final FlowGraph limited = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput").unrollLoops(4, 100).generateGraph();
+
+        assertThat(unrolled.getBlockByLabel("UNROLLstart0")).isNotNull();
+        assertThat(limited.getBlockByLabel("UNROLLstart0")).isNull();
+    }
+
+    @Test
+    void compileWideProgramTest() throws IOException, InterruptedException {
+        // Mehr als 255 Variablen und Konstanten, Slots über 255 brauchen wide, Konstanten ab 256 ldc_w
+        final StringBuilder program = new StringBuilder("class TestOutput {\n\tpublic static void main(String[] args) {\n");
+        long sum = 0;
+        for (int i = 0; i < 300; i++) {
+            program.append("\t\tint v").append(i).append(" = ").append(100_000 + i).append(";\n");
+            sum += 100_000 + i;
+        }
+        program.append("\t\tint sum = 0;\n");
+        for (int i = 0; i < 300; i++) {
+            program.append("\t\tsum = sum + v").append(i).append(";\n");
+        }
+        program.append("\t\tSystem.out.println(sum);\n\t}\n}");
+
+        final SyntaxTree tree = lexParseProgram(program.toString());
+        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(tree);
+        final FlowGraphGenerator gen = FlowGraphGenerator.fromAST(tree, nodeTable, "TestOutput");
+        final FlowGraph srcProg = gen.generateGraph();
+
+        assertThat(Long.parseLong(TestCompiler.compileAndRun(srcProg))).isEqualTo(sum);
     }
 
     @Test
@@ -0,0 +1,72 @@
+package codegen;
+
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.JasminEmitter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht Laufzeit und Klassengröße eines Programms mit einer inneren Zählschleife
+ * ohne Vervielfachen gegen die vervielfachte Schleife mit verschiedenen Faktoren.
+ * Läuft nur mit "gradle benchmark".
+ */
+@Tag("benchmark")
+class LoopUnrollingBenchmark {
+
+    private static final int RUNS = 3;
+
+    private static FlowGraph generateGraph(int rounds, int unrollFactor) {
+        final String program = "class TestOutput {\n\tpublic static void main(String[] args) {\n"
+                               + "int r = 0; int i = 0; int s = 0;\n"
+                               + "while (r < " + rounds + ") { i = 0; while (i < 1000) { s = s + i * 3 % 7; i = i + 1; } r = r + 1; }\n"
+                               + "System.out.println(s);\n"
+                               + "\t}\n}";
+
+        return TestCompiler.generator(program).unrollLoops(unrollFactor, 8000).generateGraph();
+    }
+
+    private static void assemble(Path directory, FlowGraph graph) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        JasminEmitter.emit(graph, directory.resolve("TestOutput.j"));
+        TestCompiler.assemble(directory);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 4, 8})
+    void unrollBenchmark(int unrollFactor, @TempDir Path directory) throws IOException, InterruptedException {
+        final int rounds = 200_000;
+        final Path plain = directory.resolve("plain");
+        final Path unrolled = directory.resolve("unrolled");
+        assemble(plain, generateGraph(rounds, 1));
+        assemble(unrolled, generateGraph(rounds, unrollFactor));
+
+        long plainTime = 0;
+        long unrolledTime = 0;
+        String plainOutput = "";
+        String unrolledOutput = "";
+        for (int i = 0; i < RUNS; i++) {
+            final long plainBegin = System.nanoTime();
+            plainOutput = TestCompiler.run(plain);
+            plainTime += System.nanoTime() - plainBegin;
+
+            final long unrolledBegin = System.nanoTime();
+            unrolledOutput = TestCompiler.run(unrolled);
+            unrolledTime += System.nanoTime() - unrolledBegin;
+        }
+
+        System.out.printf("LoopUnrolling: factor %d: plain %8.1f ms (%4d bytes), unrolled %8.1f ms (%4d bytes)%n",
+                          unrollFactor,
+                          plainTime / (RUNS * 1e6), Files.size(plain.resolve("TestOutput.class")),
+                          unrolledTime / (RUNS * 1e6), Files.size(unrolled.resolve("TestOutput.class")));
+
+        assertThat(unrolledOutput).isEqualTo(plainOutput);
+    }
+}
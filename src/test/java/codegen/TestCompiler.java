@@ -0,0 +1,169 @@
+package codegen;
+
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphGenerator;
+import codegen.flowgraph.JasminEmitter;
+import codegen.flowgraph.SplitProgram;
+import lexer.StupsLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import parser.StupsParser;
+import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeNode;
+import parser.grammar.Grammar;
+import typechecker.TypeChecker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Übersetzt Stups-Programme für die Tests: Parsen, Typprüfung, Flussgraph, Jasmin und Ausführen.
+ * <p>
+ * Jasmin meldet Fehler nur in der Ausgabe und endet trotzdem mit 0. Damit nie eine alte TestOutput.class
+ * aus einem vorherigen Test ausgeführt wird, wird sie vorher gelöscht und der Test schlägt fehl,
+ * wenn Jasmin keine neue erzeugt.
+ */
+public final class TestCompiler {
+
+    public static final String CLASS_NAME = "TestOutput";
+
+    private static final Grammar grammar;
+    private static final StupsParser parser;
+
+    static {
+        try {
+            grammar = Grammar.fromFile(Paths.get(System.getProperty("user.dir") + "/stups.grammar"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        parser = StupsParser.fromGrammar(grammar);
+    }
+
+    private TestCompiler() {}
+
+    /**
+     * Setzt die Anweisungen in die main-Methode der Klasse TestOutput.
+     */
+    public static String buildProgram(String body) {
+        return "class " + CLASS_NAME + " {\n\tpublic static void main(String[] args) {\n" + body + "\n\t}\n}";
+    }
+
+    public static String readProgram(String prog) {
+        try {
+            return Files.readString(Paths.get(TestCompiler.class.getClassLoader().getResource("examplePrograms/" + prog).toURI()));
+        } catch (URISyntaxException | IOException e) {
+            throw new IllegalStateException("Beispielprogramm " + prog + " konnte nicht gelesen werden", e);
+        }
+    }
+
+    /**
+     * Der abstrakte Syntaxbaum des ganzen Programms.
+     */
+    public static SyntaxTree parse(String program) {
+        final Lexer lex = new StupsLexer(CharStreams.fromString(program));
+        final SyntaxTree tree = parser.parse(lex.getAllTokens(), lex.getVocabulary());
+
+        return SyntaxTree.toAbstractSyntaxTree(tree, grammar);
+    }
+
+    public static FlowGraphGenerator generator(String program) {
+        final SyntaxTree ast = parse(program);
+        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(ast);
+
+        return FlowGraphGenerator.fromAST(ast, nodeTable, CLASS_NAME);
+    }
+
+    public static FlowGraph generateGraph(String program) {
+        return generator(program).generateGraph();
+    }
+
+    /**
+     * Wie {@link #generateGraph(String)}, die Anweisungen werden mit {@link #buildProgram(String)} eingebettet.
+     */
+    public static FlowGraph generateBody(String body) {
+        return generateGraph(buildProgram(body));
+    }
+
+    // Ausführen
+
+    /**
+     * Schreibt TestOutput.j ins Arbeitsverzeichnis, übersetzt es mit Jasmin und führt es aus.
+     *
+     * @return Standard- und Fehlerausgabe des Programms.
+     */
+    public static String compileAndRun(FlowGraph graph) throws IOException, InterruptedException {
+        final Path directory = workingDirectory();
+        JasminEmitter.emit(graph, directory.resolve(CLASS_NAME + ".j"));
+        assemble(directory);
+
+        return run(directory);
+    }
+
+    public static String compileAndRun(SplitProgram program) throws IOException, InterruptedException {
+        final Path directory = workingDirectory();
+        JasminEmitter.emit(program, directory.resolve(CLASS_NAME + ".j"));
+        assemble(directory);
+
+        return run(directory);
+    }
+
+    /**
+     * Wie {@link #compileAndRun(FlowGraph)} für fertigen Jasmin-Assembler.
+     */
+    public static String compileAndRun(String jasmin) throws IOException, InterruptedException {
+        final Path directory = workingDirectory();
+        Files.writeString(directory.resolve(CLASS_NAME + ".j"), jasmin);
+        assemble(directory);
+
+        return run(directory);
+    }
+
+    /**
+     * Übersetzt TestOutput.j im Verzeichnis mit Jasmin, schlägt fehl, wenn dabei keine TestOutput.class entsteht.
+     */
+    public static void assemble(Path directory) throws IOException, InterruptedException {
+        final Path classFile = directory.resolve(CLASS_NAME + ".class");
+        Files.deleteIfExists(classFile);
+
+        final Path jasmin = workingDirectory().resolve("jasmin.jar");
+        final Process process = new ProcessBuilder("java", "-jar", jasmin.toString(), CLASS_NAME + ".j")
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .start();
+        final String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        final int status = process.waitFor();
+
+        assertThat(status).as("Jasmin-Exitcode, Ausgabe:\n%s", output).isZero();
+        assertThat(output).as("Jasmin-Ausgabe").doesNotContain("Error", "Found");
+        assertThat(classFile).as("Jasmin hat keine Klasse erzeugt, Ausgabe:\n%s", output).exists();
+    }
+
+    /**
+     * Führt die übersetzte Klasse im Verzeichnis aus.
+     *
+     * @return Standard- und Fehlerausgabe, ohne Leerzeichen am Anfang und Ende.
+     */
+    public static String run(Path directory) throws IOException, InterruptedException {
+        final Process process = new ProcessBuilder("java", CLASS_NAME)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .start();
+        final String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        process.waitFor();
+
+        return output;
+    }
+
+    private static Path workingDirectory() {
+        return Paths.get(System.getProperty("user.dir"));
+    }
+}
@@ -0,0 +1,147 @@
+package codegen.analysis;
+
+import codegen.TestCompiler;
+import codegen.analysis.dataflow.AvailableExpressionsProblem;
+import codegen.analysis.dataflow.DataFlowGraph;
+import codegen.analysis.dataflow.GenKillProblem;
+import codegen.analysis.dataflow.GenKillSolver;
+import codegen.analysis.dataflow.LivenessProblem;
+import codegen.analysis.dataflow.ReachingDefinitionsProblem;
+import codegen.analysis.dominance.DominatorTree;
+import codegen.analysis.liveness.LivenessAnalysis;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphGenerator;
+import codegen.optimization.OptimizationLevel;
+import codegen.optimization.PassManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisManagerTest {
+
+    @Test
+    void lazyCachingTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int a = 1; while (a < 5) { a = a + 1; } System.out.println(a);");
+        final AnalysisManager analyses = new AnalysisManager();
+
+        assertThat(analyses.isCached(Analysis.DOMINATOR_TREE, graph)).isFalse();
+
+        final DominatorTree tree = analyses.get(Analysis.DOMINATOR_TREE, graph);
+
+        // Der BlockGraph wird als Abhängigkeit mitberechnet
+        assertThat(analyses.isCached(Analysis.BLOCK_GRAPH, graph)).isTrue();
+        assertThat(analyses.getComputations()).isEqualTo(2);
+
+        assertThat(analyses.get(Analysis.DOMINATOR_TREE, graph)).isSameAs(tree);
+        assertThat(analyses.get(Analysis.BLOCK_GRAPH, graph)).isSameAs(tree.getBlockGraph());
+        assertThat(analyses.getComputations()).isEqualTo(2);
+        assertThat(analyses.getHits()).isEqualTo(2);
+    }
+
+    @Test
+    void separateGraphsTest() {
+        final FlowGraph first = TestCompiler.generateBody("int a = 1; System.out.println(a);");
+        final FlowGraph second = TestCompiler.generateBody("int a = 1; System.out.println(a);");
+        final AnalysisManager analyses = new AnalysisManager();
+
+        assertThat(analyses.get(Analysis.BLOCK_GRAPH, first)).isNotSameAs(analyses.get(Analysis.BLOCK_GRAPH, second));
+    }
+
+    @Test
+    void instructionChangeTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int a = 1; if (a < 5) { a = a + 1; } System.out.println(a);");
+        final AnalysisManager analyses = new AnalysisManager();
+
+        final DominatorTree tree = analyses.get(Analysis.DOMINATOR_TREE, graph);
+        final DataFlowGraph dataFlowGraph = analyses.get(Analysis.DATA_FLOW_GRAPH, graph);
+        analyses.get(Analysis.STACK_DEPTH, graph);
+
+        analyses.invalidate(graph, GraphChange.INSTRUCTIONS);
+
+        assertThat(analyses.isCached(Analysis.BLOCK_GRAPH, graph)).isTrue();
+        assertThat(analyses.isCached(Analysis.DATA_FLOW_GRAPH, graph)).isFalse();
+        assertThat(analyses.isCached(Analysis.STACK_DEPTH, graph)).isFalse();
+        assertThat(analyses.get(Analysis.DOMINATOR_TREE, graph)).isSameAs(tree);
+        assertThat(analyses.get(Analysis.DATA_FLOW_GRAPH, graph)).isNotSameAs(dataFlowGraph);
+    }
+
+    @Test
+    void controlFlowChangeTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int a = 1; if (a < 5) { a = a + 1; } System.out.println(a);");
+        final AnalysisManager analyses = new AnalysisManager();
+
+        analyses.get(Analysis.LOOP_NESTING_FOREST, graph);
+        analyses.get(Analysis.STACK_DEPTH, graph);
+
+        analyses.invalidate(graph, GraphChange.CONTROL_FLOW);
+
+        assertThat(analyses.isCached(Analysis.BLOCK_GRAPH, graph)).isFalse();
+        assertThat(analyses.isCached(Analysis.DOMINATOR_TREE, graph)).isFalse();
+        assertThat(analyses.isCached(Analysis.LOOP_NESTING_FOREST, graph)).isFalse();
+        assertThat(analyses.isCached(Analysis.STACK_DEPTH, graph)).isFalse();
+    }
+
+    @Test
+    void livenessTest() {
+        final String body = "int i = 5; int j = 6; int k = 7; System.out.println(i); System.out.println(j);";
+        final FlowGraphGenerator gen = TestCompiler.generator(TestCompiler.buildProgram(body));
+        final FlowGraph graph = gen.generateGraph();
+        final AnalysisManager analyses = new AnalysisManager();
+        final Analysis<LivenessAnalysis> liveness = Analysis.liveness(gen.getVarMap());
+
+        assertThat(analyses.get(liveness, graph).doLivenessAnalysis()).isEqualTo(2);
+        assertThat(analyses.isCached(Analysis.DATA_FLOW_GRAPH, graph)).isTrue();
+        assertThat(analyses.get(liveness, graph)).isSameAs(analyses.get(liveness, graph));
+    }
+
+    @Test
+    void parallelGenKillTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int a = 1; int b = 2; while (a < 5) { if (b < a) { b = b + a; } else { a = a + 1; } }"
+                                                          + " int c = a * b; while (c > 0) { c = c - 1; while (b < c) { b = b + 2; } }"
+                                                          + " System.out.println(a + b + c);");
+        final AnalysisManager analyses = new AnalysisManager();
+        final BlockGraph blockGraph = analyses.get(Analysis.BLOCK_GRAPH, graph);
+
+        // Mit Schwelle 0 wird jeder Graph parallel gelöst, das Ergebnis muss dem sequentiellen gleichen
+        for (Function<BlockGraph, GenKillProblem> problem : List.<Function<BlockGraph, GenKillProblem>>of(
+                LivenessProblem::fromBlockGraph, ReachingDefinitionsProblem::fromBlockGraph, AvailableExpressionsProblem::fromBlockGraph)) {
+            assertThat(Analysis.solve(problem, blockGraph, 0, 4))
+                    .isEqualTo(GenKillSolver.solve(blockGraph, problem.apply(blockGraph)));
+        }
+
+        // Kleine Graphen bleiben unter der Schwelle
+        assertThat(blockGraph.size()).isLessThan(Analysis.PARALLEL_BLOCKS);
+        assertThat(analyses.get(Analysis.LIVE_VARIABLES, graph))
+                .isEqualTo(GenKillSolver.solve(blockGraph, LivenessProblem.fromBlockGraph(blockGraph)));
+    }
+
+    @Test
+    void stackDepthTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int a = 1; boolean b = a < 2; System.out.println(a + a * a);");
+        final StackDepthAnalysis depth = new AnalysisManager().get(Analysis.STACK_DEPTH, graph);
+
+        // getstatic + a * a + a, der Rebalancer stellt den tieferen Operanden nach vorne
+        assertThat(depth.getMaxDepth()).isEqualTo(3).isLessThanOrEqualTo(graph.getHead().getStackSize());
+
+        // Der Vergleich hinterlässt sein Ergebnis über die Blockgrenze auf dem Stack
+        for (FlowBasicBlock block : graph) {
+            if (block.getLabel().startsWith("LTend")) {
+                assertThat(depth.getEntryDepth(block)).isEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    void passManagerReuseTest() {
+        // Ohne Änderungen durch gvn verwendet dce den gleichen Dominatorbaum
+        final FlowGraph graph = TestCompiler.generateBody("int a = 1; while (a < 5) { a = a + 1; } System.out.println(a);");
+        final PassManager manager = PassManager.fromLevel(OptimizationLevel.O2);
+        manager.run(graph);
+
+        assertThat(manager.getAnalyses().getHits()).isPositive();
+    }
+}
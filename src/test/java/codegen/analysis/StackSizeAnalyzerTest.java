@@ -0,0 +1,40 @@
+package codegen.analysis;
+
+import codegen.TestCompiler;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import parser.ast.SyntaxTree;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StackSizeAnalyzerTest {
+
+    private static SyntaxTree lexParseProgram(String body) {
+        return TestCompiler.parse(TestCompiler.buildProgram(body));
+    }
+
+    // Die Stacktiefe bei Auswertung von links nach rechts steht jeweils als Kommentar dahinter
+    private static Stream<Arguments> stackSizeArgs() {
+        return Stream.of(
+                Arguments.of("int a = 1;", 1), // 1
+                Arguments.of("int a = 1 + 2 + 3 + 4;", 2), // 2
+                Arguments.of("int a = (1 + 2) * (3 + 4);", 3), // 3
+                Arguments.of("int a = 1 + 2 * (3 + 4);", 2), // 4
+                Arguments.of("int a = 1 - 2 * (3 + 4);", 2), // 4
+                Arguments.of("int a = 1 - (2 - (3 - (4 - 5)));", 2), // 5
+                Arguments.of("int a = 100 / (2 * (1 + 4));", 2), // 4
+                Arguments.of("boolean b = 1 < 2 * (3 + 4);", 2), // 4
+                Arguments.of("boolean b = !(1 < 2);", 2), // 2
+                Arguments.of("System.out.println(1 - 2 * (3 + 4));", 3) // 5
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("stackSizeArgs")
+    void stackSizeTest(String body, int stackSize) {
+        assertThat(StackSizeAnalyzer.runStackModel(lexParseProgram(body))).isEqualTo(stackSize);
+    }
+}
@@ -0,0 +1,72 @@
+package codegen.analysis;
+
+import codegen.flowgraph.FlowBasicBlock;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StronglyConnectedComponentsTest {
+
+    private static List<FlowBasicBlock> blocks(int count) {
+        final List<FlowBasicBlock> blocks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            blocks.add(new FlowBasicBlock("B" + i));
+        }
+
+        return blocks;
+    }
+
+    private static void link(List<FlowBasicBlock> blocks, int from, int to) {
+        blocks.get(from).addSuccessorBlock(blocks.get(to));
+        blocks.get(to).addPredecessorBlock(blocks.get(from));
+    }
+
+    @Test
+    void straightLineTest() {
+        final List<FlowBasicBlock> blocks = blocks(4);
+        link(blocks, 0, 1);
+        link(blocks, 1, 2);
+        link(blocks, 2, 3);
+
+        final BlockGraph graph = BlockGraph.fromBlocks(blocks);
+        final StronglyConnectedComponents components = StronglyConnectedComponents.fromBlockGraph(graph);
+
+        assertThat(components.getComponentCount()).isEqualTo(4);
+        for (int c = 0; c < 4; c++) {
+            assertThat(components.isCyclic(graph, c)).isFalse();
+        }
+    }
+
+    @Test
+    void nestedLoopsTest() {
+        // 0 -> 1 <-> 2 <-> 3, 1 -> 4, Selbstschleife an 4, 4 -> 5
+        final List<FlowBasicBlock> blocks = blocks(6);
+        link(blocks, 0, 1);
+        link(blocks, 1, 2);
+        link(blocks, 2, 3);
+        link(blocks, 3, 2);
+        link(blocks, 2, 1);
+        link(blocks, 1, 4);
+        link(blocks, 4, 4);
+        link(blocks, 4, 5);
+
+        final BlockGraph graph = BlockGraph.fromBlocks(blocks);
+        final StronglyConnectedComponents components = StronglyConnectedComponents.fromBlockGraph(graph);
+
+        assertThat(components.getComponentCount()).isEqualTo(4);
+
+        final int loop = components.getComponent(1);
+        assertThat(components.getMembers(loop)).containsExactly(1, 2, 3);
+        assertThat(components.isCyclic(graph, loop)).isTrue();
+        assertThat(components.isCyclic(graph, components.getComponent(4))).isTrue();
+        assertThat(components.isCyclic(graph, components.getComponent(5))).isFalse();
+
+        // Umgekehrte topologische Reihenfolge
+        assertThat(components.getComponent(0)).isGreaterThan(loop);
+        assertThat(loop).isGreaterThan(components.getComponent(4));
+        assertThat(components.getComponent(4)).isGreaterThan(components.getComponent(5));
+    }
+}
@@ -0,0 +1,243 @@
+package codegen.analysis.dataflow;
+
+import codegen.analysis.BlockGraph;
+import codegen.analysis.StronglyConnectedComponents;
+import codegen.flowgraph.FlowBasicBlock;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Misst Liveness, Reaching Definitions und Available Expressions mit beiden {@link BitLattice}-Darstellungen
+ * auf großen, strukturierten Flussgraphen, und das parallele Lösen über starke Zusammenhangskomponenten.
+ * Läuft nur mit "gradle benchmark".
+ */
+@Tag("benchmark")
+class GenKillSolverBenchmark {
+
+    private static final int WARMUP = 3;
+    private static final int RUNS = 5;
+    private static final int VARIABLES = 128;
+
+    /**
+     * Erzeugt einen Flussgraph aus verschachtelten If-Else-Rauten und While-Schleifen,
+     * jeder Block enthält einige Zuweisungen und Rechnungen auf zufälligen Variablen.
+     */
+    private static BlockGraph generateGraph(int size, long seed) {
+        final Random random = new Random(seed);
+        final List<FlowBasicBlock> blocks = new ArrayList<>(size + 16);
+
+        FlowBasicBlock current = newBlock(blocks, random);
+        while (blocks.size() < size) {
+            current = generateRegion(blocks, current, random, 0);
+        }
+
+        return BlockGraph.fromBlocks(blocks);
+    }
+
+    private static FlowBasicBlock generateRegion(List<FlowBasicBlock> blocks, FlowBasicBlock entry, Random random, int depth) {
+        final int kind = depth >= 6 ? 0 : random.nextInt(3);
+
+        switch (kind) {
+            case 1 -> {
+                // if-else
+
+                final FlowBasicBlock thenBlock = newBlock(blocks, random);
+                final FlowBasicBlock elseBlock = newBlock(blocks, random);
+                final FlowBasicBlock end = newBlock(blocks, random);
+                link(entry, thenBlock);
+                link(entry, elseBlock);
+                link(generateRegion(blocks, thenBlock, random, depth + 1), end);
+                link(generateRegion(blocks, elseBlock, random, depth + 1), end);
+                return end;
+            }
+            case 2 -> {
+                // while
+
+                final FlowBasicBlock header = newBlock(blocks, random);
+                final FlowBasicBlock body = newBlock(blocks, random);
+                final FlowBasicBlock end = newBlock(blocks, random);
+                link(entry, header);
+                link(header, body);
+                link(header, end);
+                link(generateRegion(blocks, body, random, depth + 1), header);
+                return end;
+            }
+            default -> {
+                // straight line
+
+                final FlowBasicBlock next = newBlock(blocks, random);
+                link(entry, next);
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Erzeugt einen breiten Flussgraph: Eine Kaskade aus If-Else verzweigt in viele unabhängige Arme,
+     * jeder Arm ist eine lange Folge von Schleifen. Die Arme laufen am Ende wieder zusammen.
+     */
+    private static BlockGraph generateWideGraph(int size, int depth, long seed) {
+        final Random random = new Random(seed);
+        final List<FlowBasicBlock> blocks = new ArrayList<>(size + 16);
+
+        final FlowBasicBlock entry = newBlock(blocks, random);
+        final FlowBasicBlock exit = newBlock(blocks, random);
+        final int armSize = size / (1 << depth);
+
+        generateArms(blocks, entry, exit, armSize, depth, random);
+
+        return BlockGraph.fromBlocks(blocks);
+    }
+
+    private static void generateArms(List<FlowBasicBlock> blocks, FlowBasicBlock entry, FlowBasicBlock exit,
+                                     int armSize, int depth, Random random) {
+        if (depth == 0) {
+            FlowBasicBlock current = entry;
+            for (int i = 0; i < armSize / 3; i++) {
+                // while
+
+                final FlowBasicBlock header = newBlock(blocks, random);
+                final FlowBasicBlock body = newBlock(blocks, random);
+                final FlowBasicBlock end = newBlock(blocks, random);
+                link(current, header);
+                link(header, body);
+                link(header, end);
+                link(body, header);
+                current = end;
+            }
+            link(current, exit);
+            return;
+        }
+
+        final FlowBasicBlock left = newBlock(blocks, random);
+        final FlowBasicBlock right = newBlock(blocks, random);
+        link(entry, left);
+        link(entry, right);
+        generateArms(blocks, left, exit, armSize, depth - 1, random);
+        generateArms(blocks, right, exit, armSize, depth - 1, random);
+    }
+
+    private static FlowBasicBlock newBlock(List<FlowBasicBlock> blocks, Random random) {
+        final FlowBasicBlock block = new FlowBasicBlock("B" + blocks.size());
+        final int statements = 1 + random.nextInt(3);
+
+        for (int i = 0; i < statements; i++) {
+            if (random.nextBoolean()) {
+                block.addInstruction("iload", String.valueOf(random.nextInt(VARIABLES)));
+                block.addInstruction("iload", String.valueOf(random.nextInt(VARIABLES)));
+                block.addInstruction(random.nextBoolean() ? "iadd" : "imul");
+            } else {
+                block.addInstruction("ldc", String.valueOf(random.nextInt(100)));
+            }
+            block.addInstruction("istore", String.valueOf(random.nextInt(VARIABLES)));
+        }
+
+        blocks.add(block);
+        return block;
+    }
+
+    private static void link(FlowBasicBlock from, FlowBasicBlock to) {
+        from.addSuccessorBlock(to);
+        to.addPredecessorBlock(from);
+    }
+
+    private static <S> double measure(BlockGraph graph, GenKillProblem problem, BitLattice<S> lattice) {
+        for (int i = 0; i < WARMUP; i++) {
+            GenKillSolver.solve(graph, problem, lattice);
+        }
+
+        long time = 0;
+        for (int i = 0; i < RUNS; i++) {
+            final long begin = System.nanoTime();
+            GenKillSolver.solve(graph, problem, lattice);
+            time += System.nanoTime() - begin;
+        }
+
+        return time / (RUNS * 1_000_000.0);
+    }
+
+    private static void benchmark(int size, Function<BlockGraph, GenKillProblem> factory) {
+        final BlockGraph graph = generateGraph(size, 42);
+
+        final long begin = System.nanoTime();
+        final GenKillProblem problem = factory.apply(graph);
+        final double setupTime = (System.nanoTime() - begin) / 1_000_000.0;
+
+        final GenKillResult result = GenKillSolver.solve(graph, problem);
+
+        System.out.printf("GenKillSolver: %-22s %6d blocks, %6d elements, %7d visits: gen/kill %8.3f ms, "
+                          + "BitSet %8.3f ms, long[] %8.3f ms%n",
+                          problem.getName(), graph.size(), problem.getDomainSize(), result.getVisits(), setupTime,
+                          measure(graph, problem, BitLattice.BIT_SET), measure(graph, problem, BitLattice.WORDS));
+
+        assertThat(GenKillSolver.solve(graph, problem, BitLattice.BIT_SET)).isEqualTo(result);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000, 50_000})
+    void livenessBenchmark(int size) {
+        benchmark(size, LivenessProblem::fromBlockGraph);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 5_000, 10_000})
+    void reachingDefinitionsBenchmark(int size) {
+        benchmark(size, ReachingDefinitionsProblem::fromBlockGraph);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000, 50_000})
+    void availableExpressionsBenchmark(int size) {
+        benchmark(size, AvailableExpressionsProblem::fromBlockGraph);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 50_000, 200_000})
+    void parallelLivenessBenchmark(int size) {
+        final BlockGraph graph = generateWideGraph(size, 4, 42);
+        final GenKillProblem problem = LivenessProblem.fromBlockGraph(graph);
+        final GenKillResult sequential = GenKillSolver.solve(graph, problem);
+
+        for (int i = 0; i < WARMUP; i++) {
+            GenKillSolver.solve(graph, problem);
+        }
+
+        long time = 0;
+        for (int i = 0; i < RUNS; i++) {
+            final long begin = System.nanoTime();
+            GenKillSolver.solve(graph, problem);
+            time += System.nanoTime() - begin;
+        }
+
+        System.out.printf("GenKillSolver: liveness %7d blocks, %6d components: sequential %8.3f ms%n",
+                          graph.size(), StronglyConnectedComponents.fromBlockGraph(graph).getComponentCount(),
+                          time / (RUNS * 1_000_000.0));
+
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            for (int i = 0; i < WARMUP; i++) {
+                GenKillSolver.solveParallel(graph, problem, threads);
+            }
+
+            long parallelTime = 0;
+            GenKillResult result = null;
+            for (int i = 0; i < RUNS; i++) {
+                final long begin = System.nanoTime();
+                result = GenKillSolver.solveParallel(graph, problem, threads);
+                parallelTime += System.nanoTime() - begin;
+            }
+
+            System.out.printf("GenKillSolver: liveness %7d blocks, %d threads: SCC-parallel %8.3f ms%n",
+                              graph.size(), threads, parallelTime / (RUNS * 1_000_000.0));
+
+            assertThat(result).isEqualTo(sequential);
+        }
+    }
+}
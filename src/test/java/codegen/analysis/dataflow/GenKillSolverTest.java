@@ -0,0 +1,203 @@
+package codegen.analysis.dataflow;
+
+import codegen.TestCompiler;
+import codegen.analysis.BlockGraph;
+import codegen.analysis.liveness.LivenessAnalysis;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowGraphGenerator;
+import codegen.flowgraph.FlowInstruction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenKillSolverTest {
+
+    private Map<String, Integer> varMap;
+
+    private BlockGraph initBody(String body) {
+        final FlowGraphGenerator gen = TestCompiler.generator("class TestOutput {\n\tpublic static void main(String[] args) {\n"
+                                                              + body + "\n\t}\n}");
+        final FlowGraph graph = gen.generateGraph();
+        this.varMap = gen.getVarMap();
+
+        return BlockGraph.fromFlowGraph(graph);
+    }
+
+    private String slot(String variable) {
+        return String.valueOf(this.varMap.get(variable));
+    }
+
+    private String expression(String left, String operator, String right) {
+        return "v" + this.slot(left) + " " + operator + " v" + this.slot(right);
+    }
+
+    private static Set<String> elements(GenKillProblem problem, BitSet bits) {
+        return bits.stream().mapToObj(problem::getElement).collect(Collectors.toSet());
+    }
+
+    /**
+     * Der letzte Block, der die Variable liest.
+     */
+    private static int blockLoading(BlockGraph graph, String slot) {
+        for (int block = graph.size() - 1; block >= 0; block--) {
+            for (var instruction : graph.getBlock(block)) {
+                if ("iload".equals(instruction.getInstruction()) && slot.equals(instruction.getArgs()[0])) {
+                    return block;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Factorial.stups", "Fibonacci.stups", "GeneralWhile.stups", "GeneralIfElse.stups",
+                            "Squares.stups", "Multiplication.stups", "CompileAllInOne1.stups"})
+    void livenessMatchesDataFlowGraphTest(String prog) throws URISyntaxException, IOException {
+        final Path path = Paths.get(GenKillSolverTest.class.getClassLoader().getResource("examplePrograms/" + prog).toURI());
+        final FlowGraphGenerator gen = TestCompiler.generator(Files.readString(path));
+        final FlowGraph flowGraph = gen.generateGraph();
+
+        // Die Instruction-Kanten des DataFlowGraph überspringen keine leeren Blöcke
+        flowGraph.purgeEmptyBlocks();
+        flowGraph.rebuildEdges();
+
+        final DataFlowGraph dataFlowGraph = DataFlowGraph.fromFlowGraph(flowGraph);
+        LivenessAnalysis.fromDataFlowGraph(dataFlowGraph, gen.getVarMap());
+        // Die Nodes liegen in derselben Reihenfolge wie die Instructions
+        final Map<FlowInstruction, DataFlowNode> nodes = new HashMap<>();
+        final Iterator<DataFlowNode> nodeIterator = dataFlowGraph.iterator();
+        for (FlowBasicBlock block : flowGraph) {
+            block.forEach(instruction -> nodes.put(instruction, nodeIterator.next()));
+        }
+
+        final BlockGraph graph = BlockGraph.fromFlowGraph(flowGraph);
+        final LivenessProblem problem = LivenessProblem.fromBlockGraph(graph);
+        final GenKillResult result = GenKillSolver.solve(graph, problem);
+
+        for (FlowBasicBlock block : graph.getBlocks()) {
+            block.getFirstInstruction().ifPresent(first -> assertThat(elements(problem, result.getIn(block)))
+                    .as(block.getLabel())
+                    .isEqualTo(nodes.get(first).getInSet()));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Factorial.stups", "Fibonacci.stups", "GeneralWhile.stups", "CompileAllInOne1.stups"})
+    void latticesEqualTest(String prog) throws URISyntaxException, IOException {
+        final Path path = Paths.get(GenKillSolverTest.class.getClassLoader().getResource("examplePrograms/" + prog).toURI());
+        final BlockGraph graph = BlockGraph.fromFlowGraph(TestCompiler.generator(Files.readString(path)).generateGraph());
+
+        for (GenKillProblem problem : new GenKillProblem[]{LivenessProblem.fromBlockGraph(graph),
+                                                           ReachingDefinitionsProblem.fromBlockGraph(graph),
+                                                           AvailableExpressionsProblem.fromBlockGraph(graph)}) {
+            assertThat(GenKillSolver.solve(graph, problem, BitLattice.BIT_SET))
+                    .isEqualTo(GenKillSolver.solve(graph, problem, BitLattice.WORDS));
+        }
+    }
+
+    @Test
+    void loopLivenessTest() {
+        // i und n sind im Schleifenkopf live, x nur innerhalb der Schleife
+        final BlockGraph graph = this.initBody("int i = 0; int n = 10; while (i < n) { int x = i * 2; "
+                                          + "System.out.println(x); i = i + 1; }");
+        final LivenessProblem problem = LivenessProblem.fromBlockGraph(graph);
+        final GenKillResult result = GenKillSolver.solve(graph, problem);
+
+        final int header = blockLoading(graph, this.slot("n"));
+        assertThat(elements(problem, result.getIn(0))).isEmpty();
+        assertThat(elements(problem, result.getIn(header))).contains(this.slot("i"), this.slot("n"))
+                                                           .doesNotContain(this.slot("x"));
+    }
+
+    @Test
+    void reachingDefinitionsTest() {
+        // Beide Zuweisungen an x erreichen die Ausgabe, die Initialisierung nicht mehr
+        final BlockGraph graph = this.initBody("int x = 0; int c = 1; if (c == 1) { x = 2; } else { x = 3; } System.out.println(x);");
+        final ReachingDefinitionsProblem problem = ReachingDefinitionsProblem.fromBlockGraph(graph);
+        final GenKillResult result = GenKillSolver.solve(graph, problem);
+
+        final int x = this.varMap.get("x");
+        final BitSet reaching = result.getIn(blockLoading(graph, this.slot("x")));
+        final int[] assigned = reaching.stream()
+                                       .filter(definition -> problem.getSlot(definition) == x)
+                                       .toArray();
+        final int initialization = IntStream.range(0, problem.getDomainSize())
+                                            .filter(definition -> problem.getSlot(definition) == x)
+                                            .findFirst()
+                                            .orElseThrow();
+
+        assertThat(assigned).hasSize(2).doesNotContain(initialization);
+    }
+
+    @Test
+    void availableExpressionsTest() {
+        // a + b wird in beiden Zweigen berechnet, a * b nur in einem
+        final BlockGraph graph = this.initBody("int a = 1; int b = 2; int c = 0; if (a < b) { c = a + b; c = a * b; } "
+                                          + "else { c = a + b; } System.out.println(c);");
+        final AvailableExpressionsProblem problem = AvailableExpressionsProblem.fromBlockGraph(graph);
+        final GenKillResult result = GenKillSolver.solve(graph, problem);
+
+        final Set<String> available = elements(problem, result.getIn(blockLoading(graph, this.slot("c"))));
+        assertThat(available).contains(this.expression("a", "iadd", "b")).doesNotContain(this.expression("a", "imul", "b"));
+    }
+
+    @Test
+    void availableExpressionsKilledTest() {
+        final BlockGraph graph = this.initBody("int a = 1; int b = 2; int c = 0; if (a < b) { c = a + b; a = 5; } "
+                                          + "else { c = a + b; } System.out.println(c);");
+        final AvailableExpressionsProblem problem = AvailableExpressionsProblem.fromBlockGraph(graph);
+        final GenKillResult result = GenKillSolver.solve(graph, problem);
+
+        assertThat(elements(problem, result.getIn(blockLoading(graph, this.slot("c")))))
+                .doesNotContain(this.expression("a", "iadd", "b"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Factorial.stups", "Fibonacci.stups", "GeneralWhile.stups", "GeneralIfElse.stups",
+                            "CompileAllInOne1.stups"})
+    void parallelEqualsSequentialTest(String prog) throws URISyntaxException, IOException {
+        final Path path = Paths.get(GenKillSolverTest.class.getClassLoader().getResource("examplePrograms/" + prog).toURI());
+        final BlockGraph graph = BlockGraph.fromFlowGraph(TestCompiler.generator(Files.readString(path)).generateGraph());
+
+        for (GenKillProblem problem : new GenKillProblem[]{LivenessProblem.fromBlockGraph(graph),
+                                                           ReachingDefinitionsProblem.fromBlockGraph(graph),
+                                                           AvailableExpressionsProblem.fromBlockGraph(graph)}) {
+            final GenKillResult sequential = GenKillSolver.solve(graph, problem);
+
+            for (int parallelism : new int[]{1, 2, 4, 8}) {
+                assertThat(GenKillSolver.solveParallel(graph, problem, parallelism)).isEqualTo(sequential);
+                assertThat(GenKillSolver.solveParallel(graph, problem, BitLattice.BIT_SET, parallelism)).isEqualTo(sequential);
+            }
+        }
+    }
+
+    @Test
+    void parallelNestedLoopsTest() {
+        final BlockGraph graph = this.initBody("int i = 0; int s = 0; while (i < 10) { int j = 0; while (j < i) { s = s + j; "
+                                               + "j = j + 1; } i = i + 1; } if (s > 5) { s = 0; } else { i = 0; } "
+                                               + "System.out.println(s + i);");
+
+        for (GenKillProblem problem : new GenKillProblem[]{LivenessProblem.fromBlockGraph(graph),
+                                                           ReachingDefinitionsProblem.fromBlockGraph(graph),
+                                                           AvailableExpressionsProblem.fromBlockGraph(graph)}) {
+            assertThat(GenKillSolver.solveParallel(graph, problem, 4)).isEqualTo(GenKillSolver.solve(graph, problem));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package codegen.analysis.dominance;
+
+import codegen.analysis.BlockGraph;
+import codegen.flowgraph.FlowBasicBlock;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Misst Dominatorbaum, Dominance-Frontiers und Schleifenverschachtelung auf großen, strukturierten Flussgraphen.
+ * Läuft nur mit "gradle benchmark".
+ */
+@Tag("benchmark")
+class DominatorTreeBenchmark {
+
+    private static final int WARMUP = 5;
+    private static final int RUNS = 10;
+
+    /**
+     * Erzeugt einen Flussgraph aus verschachtelten If-Else-Rauten und While-Schleifen, wie ihn der Generator erzeugt.
+     */
+    private static BlockGraph generateGraph(int size, long seed) {
+        final Random random = new Random(seed);
+        final List<FlowBasicBlock> blocks = new ArrayList<>(size + 16);
+
+        FlowBasicBlock current = newBlock(blocks);
+        while (blocks.size() < size) {
+            current = generateRegion(blocks, current, random, 0);
+        }
+
+        return BlockGraph.fromBlocks(blocks);
+    }
+
+    private static FlowBasicBlock generateRegion(List<FlowBasicBlock> blocks, FlowBasicBlock entry, Random random, int depth) {
+        final int kind = depth >= 6 ? 0 : random.nextInt(3);
+
+        switch (kind) {
+            case 1 -> {
+                // if-else
+
+                final FlowBasicBlock thenBlock = newBlock(blocks);
+                final FlowBasicBlock elseBlock = newBlock(blocks);
+                final FlowBasicBlock end = newBlock(blocks);
+                link(entry, thenBlock);
+                link(entry, elseBlock);
+                link(generateRegion(blocks, thenBlock, random, depth + 1), end);
+                link(generateRegion(blocks, elseBlock, random, depth + 1), end);
+                return end;
+            }
+            case 2 -> {
+                // while
+
+                final FlowBasicBlock header = newBlock(blocks);
+                final FlowBasicBlock body = newBlock(blocks);
+                final FlowBasicBlock end = newBlock(blocks);
+                link(entry, header);
+                link(header, body);
+                link(header, end);
+                link(generateRegion(blocks, body, random, depth + 1), header);
+                return end;
+            }
+            default -> {
+                // straight line
+
+                final FlowBasicBlock next = newBlock(blocks);
+                link(entry, next);
+                return next;
+            }
+        }
+    }
+
+    private static FlowBasicBlock newBlock(List<FlowBasicBlock> blocks) {
+        final FlowBasicBlock block = new FlowBasicBlock("B" + blocks.size());
+        blocks.add(block);
+        return block;
+    }
+
+    private static void link(FlowBasicBlock from, FlowBasicBlock to) {
+        from.addSuccessorBlock(to);
+        to.addPredecessorBlock(from);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000, 100_000})
+    void dominatorTreeBenchmark(int size) {
+        final BlockGraph graph = generateGraph(size, 42);
+
+        DominatorTree tree = null;
+        LoopNestingForest loops = null;
+
+        for (int i = 0; i < WARMUP; i++) {
+            tree = DominatorTree.fromBlockGraph(graph);
+            loops = LoopNestingForest.fromDominatorTree(tree);
+        }
+
+        long domTime = 0;
+        long loopTime = 0;
+        for (int i = 0; i < RUNS; i++) {
+            final long begin = System.nanoTime();
+            tree = DominatorTree.fromBlockGraph(graph);
+            final long middle = System.nanoTime();
+            loops = LoopNestingForest.fromDominatorTree(tree);
+            final long end = System.nanoTime();
+
+            domTime += middle - begin;
+            loopTime += end - middle;
+        }
+
+        long frontierSize = 0;
+        int maxDepth = 0;
+        for (int block = 0; block < graph.size(); block++) {
+            frontierSize += tree.getDominanceFrontier(block).length;
+            maxDepth = Math.max(maxDepth, loops.getLoopDepth(block));
+        }
+
+        System.out.printf("DominatorTree: %7d blocks, %6d loops (max depth %d), %7d frontier entries: "
+                          + "dominators + frontiers %8.3f ms, loop-nesting %8.3f ms%n",
+                          graph.size(), loops.getLoopHeaders().length, maxDepth, frontierSize,
+                          domTime / (RUNS * 1_000_000.0), loopTime / (RUNS * 1_000_000.0));
+
+        assertThat(tree.getReversePostorder()).hasSize(graph.size());
+    }
+}
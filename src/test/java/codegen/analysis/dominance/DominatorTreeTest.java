@@ -0,0 +1,137 @@
+package codegen.analysis.dominance;
+
+import codegen.TestCompiler;
+import codegen.analysis.BlockGraph;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DominatorTreeTest {
+
+    /**
+     * Erzeugt einen Graph mit den angegebenen Kanten, Kante i ist edges[i][0] -> edges[i][1].
+     */
+    private static BlockGraph buildGraph(int size, int[][] edges) {
+        final List<FlowBasicBlock> blocks = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            blocks.add(new FlowBasicBlock("B" + i));
+        }
+
+        for (int[] edge : edges) {
+            blocks.get(edge[0]).addSuccessorBlock(blocks.get(edge[1]));
+            blocks.get(edge[1]).addPredecessorBlock(blocks.get(edge[0]));
+        }
+
+        return BlockGraph.fromBlocks(blocks);
+    }
+
+    @Test
+    void diamondTest() {
+        final BlockGraph graph = buildGraph(4, new int[][]{{0, 1}, {0, 2}, {1, 3}, {2, 3}});
+        final DominatorTree tree = DominatorTree.fromBlockGraph(graph);
+
+        assertThat(tree.getImmediateDominator(0)).isEqualTo(-1);
+        assertThat(tree.getImmediateDominator(1)).isZero();
+        assertThat(tree.getImmediateDominator(2)).isZero();
+        assertThat(tree.getImmediateDominator(3)).isZero();
+
+        assertThat(tree.getDominanceFrontier(0)).isEmpty();
+        assertThat(tree.getDominanceFrontier(1)).containsExactly(3);
+        assertThat(tree.getDominanceFrontier(2)).containsExactly(3);
+        assertThat(tree.getChildren(0)).containsExactlyInAnyOrder(1, 2, 3);
+
+        assertThat(tree.dominates(0, 3)).isTrue();
+        assertThat(tree.dominates(1, 3)).isFalse();
+        assertThat(tree.strictlyDominates(3, 3)).isFalse();
+    }
+
+    @Test
+    void simpleLoopTest() {
+        final BlockGraph graph = buildGraph(4, new int[][]{{0, 1}, {1, 2}, {2, 1}, {1, 3}});
+        final DominatorTree tree = DominatorTree.fromBlockGraph(graph);
+        final LoopNestingForest loops = LoopNestingForest.fromDominatorTree(tree);
+
+        assertThat(tree.getImmediateDominator(2)).isEqualTo(1);
+        assertThat(tree.getImmediateDominator(3)).isEqualTo(1);
+        assertThat(tree.getDominanceFrontier(2)).containsExactly(1);
+        assertThat(tree.getDominanceFrontier(1)).containsExactly(1);
+
+        assertThat(loops.getLoopHeaders()).containsExactly(1);
+        assertThat(loops.getLoopDepth(0)).isZero();
+        assertThat(loops.getLoopDepth(1)).isEqualTo(1);
+        assertThat(loops.getLoopDepth(2)).isEqualTo(1);
+        assertThat(loops.getLoopDepth(3)).isZero();
+    }
+
+    @Test
+    void nestedLoopTest() {
+        final BlockGraph graph = buildGraph(6, new int[][]{{0, 1}, {1, 2}, {2, 3}, {3, 2}, {2, 4}, {4, 1}, {1, 5}});
+        final DominatorTree tree = DominatorTree.fromBlockGraph(graph);
+        final LoopNestingForest loops = LoopNestingForest.fromDominatorTree(tree);
+
+        assertThat(loops.getLoopHeaders()).containsExactly(1, 2);
+        assertThat(loops.getParentLoop(2)).isEqualTo(1);
+        assertThat(loops.getParentLoop(1)).isEqualTo(-1);
+
+        assertThat(loops.getLoopDepth(0)).isZero();
+        assertThat(loops.getLoopDepth(1)).isEqualTo(1);
+        assertThat(loops.getLoopDepth(2)).isEqualTo(2);
+        assertThat(loops.getLoopDepth(3)).isEqualTo(2);
+        assertThat(loops.getLoopDepth(4)).isEqualTo(1);
+        assertThat(loops.getLoopDepth(5)).isZero();
+
+        assertThat(loops.isInLoop(3, 1)).isTrue();
+        assertThat(loops.isInLoop(4, 2)).isFalse();
+    }
+
+    @Test
+    void unreachableBlockTest() {
+        final BlockGraph graph = buildGraph(3, new int[][]{{0, 1}, {2, 1}});
+        final DominatorTree tree = DominatorTree.fromBlockGraph(graph);
+
+        assertThat(tree.isReachable(2)).isFalse();
+        assertThat(tree.getImmediateDominator(2)).isEqualTo(-1);
+        assertThat(tree.getImmediateDominator(1)).isZero();
+        assertThat(tree.getReversePostorder()).containsExactly(0, 1);
+    }
+
+    @Test
+    void generatedNestedLoopTest() {
+        final FlowGraph graph = TestCompiler.generateGraph("class TestOutput {\n\tpublic static void main(String[] args) {\n"
+                                                           + "\t\tint i = 0;\n\t\tint j = 0;\n"
+                                                           + "\t\twhile (i < 5) {\n"
+                                                           + "\t\t\tj = 0;\n"
+                                                           + "\t\t\twhile (j < i) {\n\t\t\t\tj = j + 1;\n\t\t\t}\n"
+                                                           + "\t\t\ti = i + 1;\n"
+                                                           + "\t\t}\n"
+                                                           + "\t\tSystem.out.println(i);\n\t}\n}");
+
+        final DominatorTree tree = DominatorTree.fromFlowGraph(graph);
+        final BlockGraph blocks = tree.getBlockGraph();
+        final LoopNestingForest loops = LoopNestingForest.fromDominatorTree(tree);
+
+        // Der Einstiegsblock dominiert alles
+        for (int block = 0; block < blocks.size(); block++) {
+            if (tree.isReachable(block)) {
+                assertThat(tree.dominates(0, block)).isTrue();
+            }
+        }
+
+        assertThat(loops.getLoopHeaders()).hasSize(2);
+
+        for (FlowBasicBlock block : graph) {
+            if ("LOOPstart0".equals(block.getLabel())) {
+                assertThat(loops.getLoopDepth(block)).isEqualTo(1);
+            } else if ("LOOPstart1".equals(block.getLabel())) {
+                assertThat(loops.getLoopDepth(block)).isEqualTo(2);
+            } else if ("LOOPend0".equals(block.getLabel()) || "START".equals(block.getLabel())) {
+                assertThat(loops.getLoopDepth(block)).isZero();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package codegen.analysis.liveness;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Misst die {@link ParallelGraphColoring} auf großen, synthetischen Interferenzgraphen mit 1, 2, 4 und 8 Threads.
+ * Die Färbung muss bei jeder Threadanzahl gleich sein.
+ * Läuft nur mit "gradle benchmark".
+ */
+@Tag("benchmark")
+class ParallelGraphColoringBenchmark {
+
+    private static final int RUNS = 5;
+    private static final int[] THREADS = {1, 2, 4, 8};
+
+    /**
+     * Ein Graph aus zufälligen Lebensspannen, wie er bei langen Programmen entsteht.
+     * Zwei Variablen interferieren, wenn sich ihre Spannen überschneiden.
+     */
+    private static InterferenceGraph intervalGraph(int size, int maxLength, long seed) {
+        final Random random = new Random(seed);
+        final List<InterferenceNode> nodes = new ArrayList<>(size);
+        final int[] begin = new int[size];
+        final int[] end = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            nodes.add(new InterferenceNode(i));
+            begin[i] = i;
+            end[i] = i + 1 + random.nextInt(maxLength);
+        }
+
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size && begin[j] < end[i]; j++) {
+                nodes.get(i).addNeighbour(nodes.get(j));
+                nodes.get(j).addNeighbour(nodes.get(i));
+            }
+        }
+
+        return InterferenceGraph.fromNodes(nodes);
+    }
+
+    private static InterferenceGraph randomGraph(int size, int degree, long seed) {
+        final Random random = new Random(seed);
+        final List<InterferenceNode> nodes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            nodes.add(new InterferenceNode(i));
+        }
+
+        for (int i = 0; i < size * degree / 2; i++) {
+            final InterferenceNode left = nodes.get(random.nextInt(size));
+            final InterferenceNode right = nodes.get(random.nextInt(size));
+            left.addNeighbour(right);
+            right.addNeighbour(left);
+        }
+
+        return InterferenceGraph.fromNodes(nodes);
+    }
+
+    private static int[] colorsOf(InterferenceGraph graph) {
+        return graph.stream().mapToInt(InterferenceNode::getColor).toArray();
+    }
+
+    private static void benchmark(String name, InterferenceGraph graph) {
+        int[] reference = null;
+
+        for (int threads : THREADS) {
+            int colors = 0;
+            long time = 0;
+
+            // Warmup
+            ParallelGraphColoring.color(graph, 42, threads);
+
+            for (int i = 0; i < RUNS; i++) {
+                final long begin = System.nanoTime();
+                colors = ParallelGraphColoring.color(graph, 42, threads);
+                time += System.nanoTime() - begin;
+            }
+
+            System.out.printf("ParallelGraphColoring: %-8s %7d nodes, %d threads: %4d colors %9.3f ms%n",
+                              name, graph.size(), threads, colors, time / (RUNS * 1_000_000.0));
+
+            if (reference == null) {
+                reference = colorsOf(graph);
+            } else {
+                assertThat(colorsOf(graph)).isEqualTo(reference);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 50_000, 100_000})
+    void intervalGraphBenchmark(int size) {
+        benchmark("interval", intervalGraph(size, 32, 1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 50_000, 100_000})
+    void randomGraphBenchmark(int size) {
+        benchmark("random", randomGraph(size, 16, 2));
+    }
+}
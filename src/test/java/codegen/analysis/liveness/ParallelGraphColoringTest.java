@@ -0,0 +1,117 @@
+package codegen.analysis.liveness;
+
+import codegen.TestCompiler;
+import codegen.analysis.dataflow.DataFlowGraph;
+import codegen.flowgraph.FlowGraphGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelGraphColoringTest {
+
+    private static LivenessAnalysis initLivenessAnalysis(String program) {
+        final FlowGraphGenerator gen = TestCompiler.generator(program);
+
+        return LivenessAnalysis.fromDataFlowGraph(DataFlowGraph.fromFlowGraph(gen.generateGraph()), gen.getVarMap());
+    }
+
+    private static InterferenceGraph randomGraph(int size, int edges, long seed) {
+        final Random random = new Random(seed);
+        final List<InterferenceNode> nodes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            nodes.add(new InterferenceNode(i));
+        }
+
+        for (int i = 0; i < edges; i++) {
+            final InterferenceNode left = nodes.get(random.nextInt(size));
+            final InterferenceNode right = nodes.get(random.nextInt(size));
+            left.addNeighbour(right);
+            right.addNeighbour(left);
+        }
+
+        return InterferenceGraph.fromNodes(nodes);
+    }
+
+    private static void assertValidColoring(InterferenceGraph graph, int colors) {
+        for (InterferenceNode node : graph) {
+            assertThat(node.getColor()).isBetween(1, colors);
+
+            for (InterferenceNode neighbour : node.getNeighbourSet()) {
+                assertThat(neighbour.getColor()).isNotEqualTo(node.getColor());
+            }
+        }
+    }
+
+    private static List<Integer> colorsOf(InterferenceGraph graph) {
+        final List<Integer> colors = new ArrayList<>();
+        for (InterferenceNode node : graph) {
+            colors.add(node.getColor());
+        }
+
+        return colors;
+    }
+
+    @Test
+    void emptyGraphTest() {
+        assertThat(ParallelGraphColoring.color(InterferenceGraph.fromNodes(List.of()), 0, 2)).isZero();
+    }
+
+    @Test
+    void validColoringTest() {
+        final InterferenceGraph graph = randomGraph(5000, 20000, 1);
+        final int colors = ParallelGraphColoring.color(graph, 7, 4);
+
+        assertValidColoring(graph, colors);
+    }
+
+    @Test
+    void deterministicTest() {
+        final InterferenceGraph graph = randomGraph(20000, 100000, 2);
+
+        ParallelGraphColoring.color(graph, 42, 1);
+        final List<Integer> sequential = colorsOf(graph);
+
+        for (int parallelism : new int[]{2, 4, 8}) {
+            ParallelGraphColoring.color(graph, 42, parallelism);
+            assertThat(colorsOf(graph)).isEqualTo(sequential);
+        }
+    }
+
+    @Test
+    void completeGraphTest() {
+        final List<InterferenceNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            nodes.add(new InterferenceNode(i));
+        }
+        for (InterferenceNode left : nodes) {
+            for (InterferenceNode right : nodes) {
+                left.addNeighbour(right);
+            }
+        }
+
+        assertThat(ParallelGraphColoring.color(InterferenceGraph.fromNodes(nodes), 3, 4)).isEqualTo(6);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Factorial.stups", "Fibonacci.stups", "GeneralWhile.stups", "GeneralIfElse.stups",
+                            "Squares.stups", "Multiplication.stups", "CompileAllInOne1.stups"})
+    void examplesTest(String prog) throws URISyntaxException, IOException {
+        final Path path = Paths.get(ParallelGraphColoringTest.class.getClassLoader().getResource("examplePrograms/" + prog).toURI());
+        final LivenessAnalysis liveness = initLivenessAnalysis(Files.readString(path));
+
+        final int colors = liveness.doParallelColoring(0, 4);
+
+        assertThat(colors).isEqualTo(liveness.doParallelColoring(0, 1));
+    }
+}
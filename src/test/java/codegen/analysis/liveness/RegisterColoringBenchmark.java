@@ -0,0 +1,126 @@
+package codegen.analysis.liveness;
+
+import codegen.TestCompiler;
+import codegen.analysis.dataflow.DataFlowGraph;
+import codegen.flowgraph.FlowGraphGenerator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht die Registeranzahl der Greedy-Färbung mit der Chaitin-Briggs-Färbung
+ * auf den Beispielprogrammen und auf großen, zufällig erzeugten Programmen.
+ * Läuft nur mit "gradle benchmark".
+ */
+@Tag("benchmark")
+class RegisterColoringBenchmark {
+
+    private static final int RUNS = 5;
+
+    private static LivenessAnalysis initLivenessAnalysis(String program) {
+        final FlowGraphGenerator gen = TestCompiler.generator(program);
+
+        return LivenessAnalysis.fromDataFlowGraph(DataFlowGraph.fromFlowGraph(gen.generateGraph()), gen.getVarMap());
+    }
+
+    /**
+     * Ein Programm aus Blöcken, in denen je einige Variablen deklariert, kopiert und ausgegeben werden.
+     * Die Variablen verschiedener Blöcke sind nie gleichzeitig live.
+     */
+    private static String generateProgram(int statements, long seed) {
+        final Random random = new Random(seed);
+        final StringBuilder program = new StringBuilder("class TestOutput {\n\tpublic static void main(String[] args) {\n");
+
+        int variable = 0;
+        int count = 0;
+        while (count < statements) {
+            final int first = variable;
+            final int width = 2 + random.nextInt(4);
+
+            for (int i = 0; i < width; i++) {
+                if (i > 0 && random.nextBoolean()) {
+                    program.append("int v").append(variable).append(" = v").append(variable - 1).append(";\n");
+                } else {
+                    program.append("int v").append(variable).append(" = ").append(random.nextInt(100)).append(";\n");
+                }
+                variable++;
+                count++;
+            }
+
+            program.append("System.out.println(v").append(first);
+            for (int i = first + 1; i < variable; i++) {
+                program.append(" + v").append(i);
+            }
+            program.append(");\n");
+            count++;
+        }
+
+        return program.append("\t}\n}").toString();
+    }
+
+    @Test
+    void examplesReport() throws URISyntaxException, IOException {
+        final List<String> programs = List.of("CompileAllInOne1.stups", "Factorial.stups", "Fibonacci.stups",
+                                              "GeneralComment.stups", "GeneralIfElse.stups", "GeneralWhile.stups",
+                                              "Multiplication.stups", "Println.stups", "Squares.stups");
+
+        int greedyTotal = 0;
+        int coloringTotal = 0;
+
+        System.out.printf("%-28s %6s %15s %5s %9s %9s%n", "Program", "greedy", "chaitin-briggs", "int", "reference", "coalesced");
+        for (String prog : programs) {
+            final Path path = Paths.get(RegisterColoringBenchmark.class.getClassLoader().getResource("examplePrograms/" + prog).toURI());
+            final LivenessAnalysis liveness = initLivenessAnalysis(Files.readString(path));
+            final RegisterColoring coloring = liveness.getRegisterColoring();
+
+            greedyTotal += liveness.doGreedyColoring();
+            coloringTotal += coloring.getRegisterCount();
+
+            System.out.printf("%-28s %6d %15d %5d %9d %9d%n", prog, liveness.doGreedyColoring(), coloring.getRegisterCount(),
+                              coloring.getIntRegisterCount(), coloring.getReferenceRegisterCount(), coloring.getCoalescedMoves());
+        }
+        System.out.printf("%-28s %6d %15d%n", "Total", greedyTotal, coloringTotal);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {50, 100, 200})
+    void generatedProgramBenchmark(int statements) {
+        final String program = generateProgram(statements, 42);
+
+        long greedyTime = 0;
+        long coloringTime = 0;
+        int greedy = 0;
+        RegisterColoring coloring = null;
+
+        for (int i = 0; i < RUNS; i++) {
+            final LivenessAnalysis liveness = initLivenessAnalysis(program);
+
+            final long begin = System.nanoTime();
+            greedy = liveness.doGreedyColoring();
+            final long middle = System.nanoTime();
+            coloring = liveness.getRegisterColoring();
+            final long end = System.nanoTime();
+
+            greedyTime += middle - begin;
+            coloringTime += end - middle;
+        }
+
+        System.out.printf("RegisterColoring: %5d statements: greedy %4d registers %8.3f ms, "
+                          + "chaitin-briggs %4d registers (%d coalesced) %8.3f ms%n",
+                          statements, greedy, greedyTime / (RUNS * 1_000_000.0),
+                          coloring.getRegisterCount(), coloring.getCoalescedMoves(), coloringTime / (RUNS * 1_000_000.0));
+
+        assertThat(coloring.getRegisterCount()).isLessThanOrEqualTo(greedy);
+    }
+}
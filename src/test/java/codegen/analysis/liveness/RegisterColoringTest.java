@@ -0,0 +1,89 @@
+package codegen.analysis.liveness;
+
+import codegen.TestCompiler;
+import codegen.analysis.dataflow.DataFlowGraph;
+import codegen.flowgraph.FlowGraphGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegisterColoringTest {
+
+    private static LivenessAnalysis initLivenessAnalysis(String program) {
+        final FlowGraphGenerator gen = TestCompiler.generator(program);
+
+        return LivenessAnalysis.fromDataFlowGraph(DataFlowGraph.fromFlowGraph(gen.generateGraph()), gen.getVarMap());
+    }
+
+    private static LivenessAnalysis initBody(String body) {
+        return initLivenessAnalysis("class TestOutput {\n\tpublic static void main(String[] args) {\n" + body + "\n\t}\n}");
+    }
+
+    @Test
+    void coalesceCopyTest() {
+        // x ist eine Kopie von y, beide sind danach noch live
+        final LivenessAnalysis liveness = initBody("int y = 5; int x = y; System.out.println(x + y);");
+        final RegisterColoring coloring = liveness.getRegisterColoring();
+
+        assertThat(coloring.getRegisterCount()).isEqualTo(1);
+        assertThat(coloring.getCoalescedMoves()).isEqualTo(1);
+        assertThat(coloring.getColor("1")).isEqualTo(coloring.getColor("2"));
+    }
+
+    @Test
+    void interferingCopyTest() {
+        // y wird nach der Kopie verändert, x und y brauchen getrennte Register
+        final LivenessAnalysis liveness = initBody("int y = 5; int x = y; y = y + 1; System.out.println(x + y);");
+        final RegisterColoring coloring = liveness.getRegisterColoring();
+
+        assertThat(coloring.getRegisterCount()).isEqualTo(2);
+        assertThat(coloring.getColor("1")).isNotEqualTo(coloring.getColor("2"));
+    }
+
+    @Test
+    void typeClassTest() {
+        // i und s sind nie gleichzeitig live, dürfen sich als int und String aber kein Register teilen
+        final LivenessAnalysis liveness = initBody("int i = 1; System.out.println(i); String s = \"a\"; System.out.println(s);");
+        final RegisterColoring coloring = liveness.getRegisterColoring();
+
+        assertThat(liveness.doGreedyColoring()).isEqualTo(1);
+        assertThat(coloring.getIntRegisterCount()).isEqualTo(1);
+        assertThat(coloring.getReferenceRegisterCount()).isEqualTo(1);
+        assertThat(coloring.getRegisterCount()).isEqualTo(2);
+        assertThat(coloring.getColor("1")).isNotEqualTo(coloring.getColor("2"));
+    }
+
+    @Test
+    void optimisticColoringTest() {
+        // Ein Kreis aus vier Variablen: Jeder Node hat zwei Nachbarn, zwei Farben reichen trotzdem
+        final LivenessAnalysis liveness = initBody("int a = 1; int b = 2; System.out.println(a + b); int c = 3;"
+                                                   + "System.out.println(b + c); int d = 4; System.out.println(c + d);"
+                                                   + "a = 5; System.out.println(d + a);");
+
+        assertThat(liveness.getRegisterColoring().getRegisterCount()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Factorial.stups", "Fibonacci.stups", "GeneralWhile.stups", "GeneralIfElse.stups",
+                            "Squares.stups", "Multiplication.stups", "CompileAllInOne1.stups"})
+    void examplesNotWorseTest(String prog) throws URISyntaxException, IOException {
+        final Path path = Paths.get(RegisterColoringTest.class.getClassLoader().getResource("examplePrograms/" + prog).toURI());
+        final LivenessAnalysis liveness = initLivenessAnalysis(Files.readString(path));
+
+        final RegisterColoring coloring = liveness.getRegisterColoring();
+
+        System.out.println(prog + ": greedy " + liveness.doGreedyColoring() + ", chaitin-briggs " + coloring.getRegisterCount()
+                           + " (" + coloring.getIntRegisterCount() + " int, " + coloring.getReferenceRegisterCount() + " reference)");
+
+        // Die Greedy-Färbung kennt keine Typklassen, nur die int-Register sind direkt vergleichbar
+        assertThat(coloring.getIntRegisterCount()).isLessThanOrEqualTo(liveness.doGreedyColoring());
+    }
+}
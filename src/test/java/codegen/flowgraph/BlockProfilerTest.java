@@ -0,0 +1,81 @@
+package codegen.flowgraph;
+
+import codegen.CodeGenerationException;
+import codegen.TestCompiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BlockProfilerTest {
+
+    @Test
+    void countLoopTest() throws IOException, InterruptedException {
+        final String program = "class TestOutput {\n"
+                               + "\tpublic static void main(String[] args) {\n"
+                               + "\t\tint i = 0;\n"
+                               + "\t\twhile (i < 7) {\n"
+                               + "\t\t\ti = i + 1;\n"
+                               + "\t\t}\n"
+                               + "\t\tSystem.out.println(i);\n"
+                               + "\t}\n"
+                               + "}";
+        final FlowGraph graph = TestCompiler.generateGraph(program);
+        final FlowGraph reference = TestCompiler.generateGraph(program);
+        final Path profileFile = Paths.get(System.getProperty("user.dir"), graph.getHead().getProfileFile());
+        Files.deleteIfExists(profileFile);
+
+        BlockProfiler.instrument(graph);
+
+        assertThat(TestCompiler.compileAndRun(graph)).isEqualTo("7");
+
+        final BlockProfile profile = BlockProfile.fromFile(profileFile);
+        assertThat(profile.matches(reference)).isTrue();
+        assertThat(profile.getBlockCount()).isEqualTo(graph.getBlocks().size());
+
+        // Der Schleifenkopf läuft einmal öfter als der Rumpf
+        final int start = graph.getBlockByLabel("LOOPstart0").getOrdinal();
+        assertThat(profile.getCount(0)).isEqualTo(1);
+        assertThat(profile.getCount(start)).isEqualTo(8);
+        assertThat(profile.getLine(start)).isEqualTo(4);
+        assertThat(profile.getMaxCount()).isEqualTo(8);
+    }
+
+    @Test
+    void exceptionTest() throws IOException, InterruptedException {
+        final String program = "class TestOutput {\n"
+                               + "\tpublic static void main(String[] args) {\n"
+                               + "\t\tint i = 3;\n"
+                               + "\t\twhile (i > 0) {\n"
+                               + "\t\t\ti = i - 1;\n"
+                               + "\t\t}\n"
+                               + "\t\tSystem.out.println(10 / i);\n"
+                               + "\t}\n"
+                               + "}";
+        final FlowGraph graph = TestCompiler.generateGraph(program);
+        final Path profileFile = Paths.get(System.getProperty("user.dir"), graph.getHead().getProfileFile());
+        Files.deleteIfExists(profileFile);
+
+        BlockProfiler.instrument(graph);
+
+        // Die Zähler werden auch geschrieben, wenn main durch eine Exception verlassen wird
+        assertThat(TestCompiler.compileAndRun(graph)).contains("java.lang.ArithmeticException");
+
+        final BlockProfile profile = BlockProfile.fromFile(profileFile);
+        assertThat(profile.getCount(graph.getBlockByLabel("LOOPstart0").getOrdinal())).isEqualTo(4);
+    }
+
+    @Test
+    void invalidProfileTest(@TempDir Path directory) throws IOException {
+        final Path file = directory.resolve("Invalid.profile");
+        Files.writeString(file, "0 START 1 5\n2 - 3 4\n");
+
+        assertThatThrownBy(() -> BlockProfile.fromFile(file)).isInstanceOf(CodeGenerationException.class);
+    }
+}
@@ -0,0 +1,80 @@
+package codegen.flowgraph;
+
+import codegen.TestCompiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeNode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountedLoopTest {
+
+    /**
+     * Die erste Schleife im Programm.
+     */
+    private static SyntaxTreeNode parseLoop(String body) {
+        final SyntaxTree ast = TestCompiler.parse(TestCompiler.buildProgram(body));
+
+        final Deque<SyntaxTreeNode> stack = new ArrayDeque<>();
+        stack.push(ast.getRoot());
+        while (!stack.isEmpty()) {
+            final SyntaxTreeNode current = stack.pop();
+            if ("loop".equals(current.getName())) {
+                return current;
+            }
+            current.getChildren().forEach(stack::push);
+        }
+
+        throw new IllegalArgumentException("Keine Schleife im Programm");
+    }
+
+    @Test
+    void countUpTest() {
+        final Optional<CountedLoop> loop = CountedLoop.fromLoop(parseLoop("int i = 0; int s = 0; while (i < 10) { s = s + i; i = i + 2; }"));
+
+        assertThat(loop).isPresent();
+        assertThat(loop.get().getVariable()).isEqualTo("i");
+        assertThat(loop.get().getStep()).isEqualTo(2);
+        assertThat(loop.get().getExitJump()).isEqualTo("if_icmpge");
+        assertThat(loop.get().getUnrolledBound(4)).hasValue(4);
+    }
+
+    @Test
+    void countDownTest() {
+        final Optional<CountedLoop> loop = CountedLoop.fromLoop(parseLoop("int i = 10; while (0 < i) { i = i - 1; }"));
+
+        assertThat(loop).isPresent();
+        assertThat(loop.get().getStep()).isEqualTo(-1);
+        assertThat(loop.get().getExitJump()).isEqualTo("if_icmple");
+        assertThat(loop.get().getUnrolledBound(4)).hasValue(3);
+    }
+
+    @Test
+    void unrolledBoundOverflowTest() {
+        final Optional<CountedLoop> loop = CountedLoop.fromLoop(parseLoop("int i = 0; while (i >= 2147483640) { i = i - 5; }"));
+
+        assertThat(loop).isPresent();
+        assertThat(loop.get().getUnrolledBound(2)).hasValue(2147483645);
+        assertThat(loop.get().getUnrolledBound(4)).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "int i = 0; while (i < 10) { i = i - 1; }", // Falsche Richtung
+            "int i = 0; while (i != 10) { i = i + 1; }",
+            "int i = 0; int n = 10; while (i < n) { i = i + 1; }", // Keine konstante Grenze
+            "int i = 0; while (i < 10) { i = i + 1; System.out.println(i); }", // Inkrement nicht am Ende
+            "int i = 0; while (i < 10) { i = i * 2; i = i + 1; }", // Weitere Zuweisung
+            "int i = 0; int j = 0; while (i < 10) { while (j < 5) { j = j + 1; } i = i + 1; }", // Nicht innerste Schleife
+            "int i = 0; while (i < 10) { i = i + 0; }"
+    })
+    void notCountedTest(String body) {
+        assertThat(CountedLoop.fromLoop(parseLoop(body))).isEmpty();
+    }
+}
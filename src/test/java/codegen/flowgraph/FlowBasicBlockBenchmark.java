@@ -0,0 +1,141 @@
+package codegen.flowgraph;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht den Speicherverbrauch pro Instruction der kompakten {@link FlowBasicBlock}-Darstellung
+ * mit der früheren Darstellung als Liste von Objekten mit UUID und String-Argumenten.
+ * Läuft nur mit "gradle benchmark".
+ */
+@Tag("benchmark")
+class FlowBasicBlockBenchmark {
+
+    private static final int BLOCK_SIZE = 16;
+
+    /**
+     * Nachbildung der früheren {@link FlowInstruction}.
+     */
+    private static final class ObjectInstruction {
+
+        private final UUID id;
+        private final String instruction;
+        private final String[] args;
+
+        private ObjectInstruction(String instruction, String... args) {
+            this.id = UUID.randomUUID();
+            this.instruction = instruction;
+            this.args = args;
+        }
+    }
+
+    private interface Sink {
+        void add(String instruction, String... args);
+
+        void nextBlock();
+    }
+
+    /**
+     * Eine typische Folge aus Loads, Konstanten, Arithmetik, Stores und Sprüngen,
+     * die Argumente werden wie im {@link FlowGraphGenerator} jedes Mal neu erzeugt.
+     */
+    private static void generate(int instructions, Sink sink) {
+        final Random random = new Random(42);
+
+        for (int i = 0; i < instructions; i++) {
+            if (i % BLOCK_SIZE == BLOCK_SIZE - 1) {
+                sink.add("goto", "Loop" + (i / BLOCK_SIZE % 1000));
+                sink.nextBlock();
+                continue;
+            }
+
+            switch (i % 4) {
+                case 0 -> sink.add("iload", Integer.toString(random.nextInt(64)));
+                case 1 -> sink.add("ldc", Integer.toString(random.nextInt(1000)));
+                case 2 -> sink.add("iadd");
+                default -> sink.add("istore", Integer.toString(random.nextInt(64)));
+            }
+        }
+    }
+
+    private static long usedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100_000, 1_000_000, 4_000_000})
+    void memoryPerInstructionBenchmark(int instructions) {
+        final long objectBefore = usedMemory();
+        final List<List<ObjectInstruction>> objectBlocks = new ArrayList<>();
+        objectBlocks.add(new ArrayList<>());
+        generate(instructions, new Sink() {
+            @Override
+            public void add(String instruction, String... args) {
+                objectBlocks.get(objectBlocks.size() - 1).add(new ObjectInstruction(instruction, args));
+            }
+
+            @Override
+            public void nextBlock() {
+                objectBlocks.add(new ArrayList<>());
+            }
+        });
+        final long objectBytes = usedMemory() - objectBefore;
+        assertThat(objectBlocks.stream().mapToInt(List::size).sum()).isEqualTo(instructions);
+
+        // Die Tabelle der Labels und Konstanten gehört zur kompakten Darstellung und wird mitgemessen
+        final long compactBefore = usedMemory();
+        final ConstantTable constants = new ConstantTable();
+        final List<FlowBasicBlock> compactBlocks = new ArrayList<>();
+        compactBlocks.add(new FlowBasicBlock("", constants));
+        generate(instructions, new Sink() {
+            @Override
+            public void add(String instruction, String... args) {
+                compactBlocks.get(compactBlocks.size() - 1).addInstruction(instruction, args);
+            }
+
+            @Override
+            public void nextBlock() {
+                compactBlocks.add(new FlowBasicBlock("", constants));
+            }
+        });
+        final long compactBytes = usedMemory() - compactBefore;
+        assertThat(compactBlocks.stream().mapToInt(FlowBasicBlock::getInstructionCount).sum()).isEqualTo(instructions);
+
+        // Blockobjekte (ID, Label, Kantenmengen) gehören zu beiden Darstellungen, gemessen werden nur die Instructions
+        final long blockBytes = compactBlocks.size() * estimateEmptyBlock(constants);
+        final double objectPerInstruction = (double) objectBytes / instructions;
+        final double compactPerInstruction = (double) (compactBytes - blockBytes) / instructions;
+
+        System.out.printf("FlowBasicBlock: %8d instructions: objects %6.1f bytes/inst, compact %5.1f bytes/inst (%4.1fx), %d constants%n",
+                          instructions, objectPerInstruction, compactPerInstruction,
+                          objectPerInstruction / compactPerInstruction, constants.size());
+
+        assertThat(objectPerInstruction).isGreaterThan(10 * compactPerInstruction);
+    }
+
+    private static long estimateEmptyBlock(ConstantTable constants) {
+        final int count = 100_000;
+        final long before = usedMemory();
+        final List<FlowBasicBlock> blocks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            blocks.add(new FlowBasicBlock("", constants));
+        }
+        final long bytes = usedMemory() - before;
+        assertThat(blocks).hasSize(count);
+
+        return bytes / count;
+    }
+}
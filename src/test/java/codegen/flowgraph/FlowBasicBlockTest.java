@@ -0,0 +1,139 @@
+package codegen.flowgraph;
+
+import codegen.CodeGenerationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlowBasicBlockTest {
+
+    private static List<String> lines(FlowBasicBlock block) {
+        final List<String> lines = new ArrayList<>();
+        block.forEach(instruction -> lines.add(instruction.toString().trim()));
+
+        return lines;
+    }
+
+    @Test
+    void roundTripTest() {
+        final FlowBasicBlock block = new FlowBasicBlock("L0");
+        block.addInstruction("getstatic", "java/lang/System/out", "Ljava/io/PrintStream;");
+        block.addInstruction("ldc", "\"Hello World\"");
+        block.addInstruction("iload", "3");
+        block.addInstruction("bipush", "-7");
+        block.addInstruction("iinc", "2", "-1");
+        block.addInstruction("iadd");
+        block.addInstruction("ifeq", "L0");
+
+        assertThat(lines(block)).containsExactly("getstatic java/lang/System/out Ljava/io/PrintStream;",
+                                                 "ldc \"Hello World\"",
+                                                 "iload 3",
+                                                 "bipush -7",
+                                                 "iinc 2 -1",
+                                                 "iadd",
+                                                 "ifeq L0");
+        assertThat(block.toString()).startsWith("L0:\n\t\tgetstatic ");
+    }
+
+    @Test
+    void operandTest() {
+        final FlowBasicBlock block = new FlowBasicBlock();
+        block.addInstruction("istore", "5");
+        block.addInstruction("iinc", "4", "-2");
+        block.addInstruction(Opcode.ALOAD, 6);
+
+        assertThat(block.getOpcode(0)).isEqualTo(Opcode.ISTORE);
+        assertThat(block.getOperand(0)).isEqualTo(5);
+        assertThat(block.getInstruction(1).getSlot()).isEqualTo(4);
+        assertThat(block.getInstruction(1).getArgs()).containsExactly("4", "-2");
+        assertThat(block.getInstruction(2).getArgs()).containsExactly("6");
+        assertThat(block.getInstruction(2).getOpcode().isUse()).isTrue();
+        assertThat(block.getInstruction(1).getOpcode().isDef()).isTrue();
+    }
+
+    @Test
+    void constantsSharedTest() {
+        final ConstantTable constants = new ConstantTable();
+        final FlowBasicBlock first = new FlowBasicBlock("", constants);
+        final FlowBasicBlock second = new FlowBasicBlock("", constants);
+        first.addInstruction("goto", "Loop42");
+        second.addInstruction("goto", "Loop42");
+
+        assertThat(first.getOperand(0)).isEqualTo(second.getOperand(0));
+        assertThat(first.getInstruction(0).getArgs()).isSameAs(second.getInstruction(0).getArgs());
+        assertThat(constants.size()).isEqualTo(1);
+    }
+
+    @Test
+    void constantsCopiedTest() {
+        final FlowBasicBlock first = new FlowBasicBlock();
+        final FlowBasicBlock second = new FlowBasicBlock();
+        first.addInstruction("ldc", "\"a\"");
+        second.addInstruction("goto", "Loop42");
+        first.appendInstructions(second);
+
+        assertThat(first.getConstants().size()).isEqualTo(2);
+        assertThat(first.getInstruction(1).getArgs()).containsExactly("Loop42");
+    }
+
+    @Test
+    void stackEffectTest() {
+        final FlowBasicBlock block = new FlowBasicBlock();
+        block.addInstruction("invokevirtual", "java/io/PrintStream/println(Ljava/lang/String;)V");
+        block.addInstruction("invokestatic", "java/lang/Math/max(II)I");
+        block.addInstruction("if_icmpeq", "L1");
+        block.addInstruction("dup");
+
+        assertThat(block.getInstruction(0).getStackEffect()).isEqualTo(-2);
+        assertThat(block.getInstruction(1).getStackEffect()).isEqualTo(-1);
+        assertThat(block.getInstruction(2).getStackEffect()).isEqualTo(-2);
+        assertThat(block.getInstruction(3).getStackEffect()).isEqualTo(1);
+        assertThat(block.getInstruction(2).isJump()).isTrue();
+        assertThat(block.getInstruction(2).isGoto()).isFalse();
+    }
+
+    @Test
+    void growAppendRemoveTest() {
+        final FlowBasicBlock first = new FlowBasicBlock();
+        final FlowBasicBlock second = new FlowBasicBlock();
+        for (int i = 0; i < 100; i++) {
+            first.addInstruction("iload", String.valueOf(i));
+            second.addInstruction("istore", String.valueOf(i));
+        }
+
+        first.appendInstructions(second);
+        first.removeLastInstruction();
+        first.replaceLastInstruction("return");
+
+        assertThat(first.getInstructionCount()).isEqualTo(199);
+        assertThat(first.getInstruction(150).toString().trim()).isEqualTo("istore 50");
+        assertThat(first.getLastInstruction().orElseThrow().getOpcode()).isEqualTo(Opcode.RETURN);
+    }
+
+    @Test
+    void instructionNeighboursTest() {
+        final FlowBasicBlock block = new FlowBasicBlock();
+        block.addInstruction("iload", "1");
+        block.addInstruction("iload", "1");
+
+        final FlowInstruction first = block.getInstruction(0);
+
+        assertThat(first).isNotEqualTo(block.getInstruction(1));
+        assertThat(block.getInstructionSuccessorSet(first)).containsExactly(block.getInstruction(1));
+        assertThat(block.getInstructionPredecessorSet(block.getInstruction(1))).containsExactly(first);
+        assertThat(new FlowBasicBlock().getInstructionSuccessorSet(first)).isEmpty();
+    }
+
+    @Test
+    void invalidInstructionTest() {
+        final FlowBasicBlock block = new FlowBasicBlock();
+
+        assertThatThrownBy(() -> block.addInstruction("if_accmpeq", "L0")).isInstanceOf(CodeGenerationException.class);
+        assertThatThrownBy(() -> block.addInstruction("iload")).isInstanceOf(CodeGenerationException.class);
+        assertThatThrownBy(() -> block.addInstruction("iload", "x")).isInstanceOf(CodeGenerationException.class);
+    }
+}
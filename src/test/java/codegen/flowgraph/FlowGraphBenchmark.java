@@ -0,0 +1,62 @@
+package codegen.flowgraph;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Misst die Aufbauzeit eines {@link FlowGraph} mit vielen Sprüngen, die Zeit pro Instruction sollte konstant bleiben.
+ * Läuft nur mit "gradle benchmark".
+ */
+@Tag("benchmark")
+class FlowGraphBenchmark {
+
+    private static final int RUNS = 5;
+
+    /**
+     * Eine Kette von if-else-Konstrukten wie vom {@link FlowGraphGenerator}, jedes mit einem Vorwärts- und einem
+     * Rückwärtssprung, mehrere Sprünge gehen auf dasselbe Label.
+     */
+    private static FlowGraph build(int branches) {
+        final FlowGraph graph = new FlowGraph("bytecode", "TestOutput.java", "TestOutput", 10, 10);
+
+        for (int i = 0; i < branches; i++) {
+            graph.addLabel("Loop" + i);
+            graph.addInstruction("iload", "1");
+            graph.addInstruction("ldc", "1");
+            graph.addJump("if_icmpeq", "IfElse" + i);
+            graph.addInstruction("iload", "2");
+            graph.addJump("ifeq", "IfElseEnd" + i);
+            graph.addInstruction("iinc", "1", "1");
+            graph.addJump("goto", "IfElseEnd" + i);
+            graph.addLabel("IfElse" + i);
+            graph.addInstruction("iload", "1");
+            graph.addJump("ifne", "Loop" + i);
+            graph.addLabel("IfElseEnd" + i);
+        }
+        graph.addInstruction("return");
+
+        return graph;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000, 50_000})
+    void buildBenchmark(int branches) {
+        FlowGraph graph = null;
+        long time = 0;
+
+        for (int i = 0; i < RUNS; i++) {
+            final long begin = System.nanoTime();
+            graph = build(branches);
+            time += System.nanoTime() - begin;
+        }
+
+        final int instructions = graph.getBlocks().stream().mapToInt(FlowBasicBlock::getInstructionCount).sum();
+        System.out.printf("FlowGraph: %6d branches, %7d blocks: %9.3f ms, %6.1f ns/instruction%n",
+                          branches, graph.size(), time / (RUNS * 1_000_000.0), (double) time / (RUNS * instructions));
+
+        assertThat(graph.getBlockByLabel("IfElseEnd0").getBlockPredecessorSet()).hasSize(3);
+    }
+}
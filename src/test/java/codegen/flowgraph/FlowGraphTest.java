@@ -0,0 +1,83 @@
+package codegen.flowgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlowGraphTest {
+
+    private static FlowGraph graph() {
+        return new FlowGraph("bytecode", "TestOutput.java", "TestOutput", 10, 10);
+    }
+
+    @Test
+    void multipleForwardJumpsTest() {
+        final FlowGraph graph = graph();
+        graph.addInstruction("iload", "1");
+        graph.addJump("ifeq", "End");
+        graph.addInstruction("iload", "2");
+        graph.addJump("ifeq", "End");
+        graph.addInstruction("iload", "3");
+        graph.addJump("goto", "End");
+        graph.addLabel("End");
+        graph.addInstruction("return");
+
+        final FlowBasicBlock end = graph.getBlockByLabel("End");
+        final List<FlowBasicBlock> blocks = graph.getBlocks();
+
+        assertThat(end.getBlockPredecessorSet()).containsExactlyInAnyOrder(blocks.get(0), blocks.get(1), blocks.get(2),
+                                                                           blocks.get(3));
+        assertThat(blocks.get(2).getBlockSuccessorSet()).containsExactly(end);
+    }
+
+    @Test
+    void backwardJumpTest() {
+        final FlowGraph graph = graph();
+        graph.addLabel("Loop");
+        graph.addInstruction("iload", "1");
+        graph.addJump("ifne", "Loop");
+
+        final FlowBasicBlock loop = graph.getBlockByLabel("Loop");
+
+        assertThat(loop.getBlockSuccessorSet()).contains(loop);
+        assertThat(loop.getBlockPredecessorSet()).contains(loop);
+    }
+
+    @Test
+    void ordinalsAfterRemoveTest() {
+        final FlowGraph graph = graph();
+        graph.addInstruction("iload", "1");
+        graph.addJump("goto", "A");
+        graph.addLabel("A");
+        graph.addJump("goto", "B");
+        graph.addLabel("B");
+        graph.addInstruction("return");
+
+        final FlowBasicBlock a = graph.getBlockByLabel("A");
+        graph.removeBlocks(Set.of(a));
+        graph.rebuildEdges();
+
+        for (int i = 0; i < graph.size(); i++) {
+            assertThat(graph.getBlocks().get(i).getOrdinal()).isEqualTo(i);
+        }
+        assertThat(graph.getBlockByLabel("A")).isNull();
+        assertThat(graph.getBlockByLabel("B").getOrdinal()).isEqualTo(graph.size() - 1);
+    }
+
+    @Test
+    void newLabelTest() {
+        final FlowGraph graph = graph();
+        graph.addInstruction("iload", "1");
+        graph.addLabel("X0");
+        graph.addLabel("X2");
+        graph.addInstruction("return");
+
+        // Vergebene Labels werden nicht wiederholt, auch wenn ihr Block noch nicht im Graph ist
+        assertThat(graph.newLabel("X")).isEqualTo("X1");
+        assertThat(graph.newLabel("X")).isEqualTo("X3");
+        assertThat(graph.newLabel("Y")).isEqualTo("Y0");
+    }
+}
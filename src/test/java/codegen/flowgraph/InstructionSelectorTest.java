@@ -0,0 +1,117 @@
+package codegen.flowgraph;
+
+import codegen.TestCompiler;
+import codegen.optimization.MethodSplitter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import parser.ast.SethiUllmanLabeling;
+import parser.ast.SyntaxTree;
+import parser.ast.SyntaxTreeNode;
+import typechecker.TypeChecker;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstructionSelectorTest {
+
+    private static FlowGraph generateGraph(String program, List<SelectionRule> rules) {
+        return TestCompiler.generator(program).withRules(rules).generateGraph();
+    }
+
+    private static Stream<String> corpusArgs() throws URISyntaxException, IOException {
+        final List<String> programs = new ArrayList<>();
+        for (String example : List.of("GeneralComment.stups", "GeneralIfElse.stups", "Println.stups", "CompileAllInOne1.stups",
+                                      "Fibonacci.stups", "Factorial.stups", "Squares.stups", "Multiplication.stups")) {
+            programs.add(TestCompiler.readProgram(example));
+        }
+
+        return Stream.concat(programs.stream(), Stream.of(
+                "int i = 0; int s = 0; while (i < 10) { s = s + i * 2; i = i + 1; } System.out.println(s);",
+                "int i = 10; while (!(i <= 0)) { i = i - 3; } System.out.println(i);",
+                "int a = 5; if (0 < a) { a = 0 - a; } if (a == 0) { a = 1; } else { a = a * 1 + 0; } System.out.println(a);",
+                "boolean b = 3 > 2; if (b) { System.out.println(1 - 2 * (3 + 4)); } if (true) { System.out.println(b); }",
+                "String s = \"a\"; String t = s; if (s == t) { System.out.println(s); } int i = 0; i = 5 + i; System.out.println(i);",
+                "int i = 100000; i = i - 32768; System.out.println(i); i = i + 300; System.out.println(i);"
+        ).map(TestCompiler::buildProgram));
+    }
+
+    @ParameterizedTest
+    @MethodSource("corpusArgs")
+    void corpusTest(String program) throws IOException, InterruptedException {
+        final FlowGraph single = generateGraph(program, SelectionRules.SINGLE_NODE);
+        final FlowGraph combined = generateGraph(program, SelectionRules.DEFAULT);
+
+        // Die Muster über mehrere Knoten ändern nur den Code, nicht die Ausgabe
+        assertThat(MethodSplitter.methodSize(combined)).isLessThanOrEqualTo(MethodSplitter.methodSize(single));
+        assertThat(TestCompiler.compileAndRun(combined)).isEqualTo(TestCompiler.compileAndRun(single));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"i = i + 1;", "i = 1 + i;", "i = i - 1;", "i = i + 300;"})
+    void iincTest(String statement) {
+        final String code = generateGraph(TestCompiler.buildProgram("int i = 0; " + statement + " System.out.println(i);"),
+                                          SelectionRules.DEFAULT).toString();
+
+        assertThat(code).contains("iinc 1 ").doesNotContain("iadd", "isub");
+    }
+
+    @Test
+    void iincOutOfRangeTest() {
+        final String code = generateGraph(TestCompiler.buildProgram("int i = 0; i = i + 32768; System.out.println(i);"),
+                                          SelectionRules.DEFAULT).toString();
+
+        assertThat(code).doesNotContain("iinc").contains("iadd");
+    }
+
+    @Test
+    void compareAndBranchTest() {
+        final String program = TestCompiler.buildProgram("int a = 1; int b = 2; if (a < b) { System.out.println(a); }");
+
+        assertThat(generateGraph(program, SelectionRules.DEFAULT).toString())
+                .contains("if_icmpge IFfalse0")
+                .doesNotContain("ifeq", "LTtrue");
+        assertThat(generateGraph(program, SelectionRules.SINGLE_NODE).toString())
+                .contains("if_icmplt LTtrue1", "ifeq IFfalse0");
+    }
+
+    @Test
+    void compareWithZeroTest() {
+        final String code = generateGraph(TestCompiler.buildProgram("int a = 1; while (a > 0) { a = a - 1; } if (!(0 == a)) { System.out.println(a); }"),
+                                          SelectionRules.DEFAULT).toString();
+
+        assertThat(code).contains("ifle LOOPend0", "ifeq IFfalse1").doesNotContain("iconst_0");
+    }
+
+    @Test
+    void identityTest() {
+        final String code = generateGraph(TestCompiler.buildProgram("int a = 3; int b = a * 1 + 0; int c = 0 - b; System.out.println(c / 1);"),
+                                          SelectionRules.DEFAULT).toString();
+
+        assertThat(code).doesNotContain("imul", "iadd", "isub", "idiv").contains("ineg");
+    }
+
+    @Test
+    void costTest() {
+        final SyntaxTree ast = TestCompiler.parse(TestCompiler.buildProgram("int a = 1; boolean b = a < 5;"));
+        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(ast);
+        final FlowGraph graph = new FlowGraph("49.0", "", "TestOutput", 2, 3);
+        final InstructionSelector selector = new InstructionSelector(SelectionRules.DEFAULT, graph, Map.of("a", 1, "b", 2),
+                                                                     nodeTable, new SethiUllmanLabeling(), () -> 0);
+
+        final SyntaxTreeNode comparison = nodeTable.keySet().stream()
+                                                   .filter(node -> "LESS".equals(node.getValue()))
+                                                   .findFirst().orElseThrow();
+
+        // iload 1, iconst_5 und der Vergleich
+        assertThat(selector.getCost(comparison, Nonterminal.JUMP_FALSE)).isEqualTo(2 + 1 + 3);
+        assertThat(selector.getCost(comparison, Nonterminal.VALUE)).isEqualTo(2 + 1 + 8);
+    }
+}
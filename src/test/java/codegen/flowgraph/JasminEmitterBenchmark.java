@@ -0,0 +1,97 @@
+package codegen.flowgraph;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht das Schreiben großer Programme mit {@link JasminEmitter} gegen das Zusammensetzen
+ * eines Strings mit anschließendem {@link Files#writeString}.
+ * Gemessen werden Laufzeit und die im Thread allokierten Bytes.
+ * Läuft nur mit "gradle benchmark".
+ */
+@Tag("benchmark")
+class JasminEmitterBenchmark {
+
+    private static final int RUNS = 3;
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static FlowGraph generate(int instructions) {
+        final Random random = new Random(42);
+        final FlowGraph graph = new FlowGraph("55.0", "TestOutput.java", "TestOutput", 4, 64);
+
+        for (int i = 0; i < instructions; i++) {
+            switch (i % 8) {
+                case 0 -> graph.addInstruction("getstatic", "java/lang/System/out", "Ljava/io/PrintStream;");
+                case 1 -> graph.addInstruction("ldc", "\"Value " + random.nextInt(1000) + "\"");
+                case 2 -> graph.addInstruction("invokevirtual", "java/io/PrintStream/println(Ljava/lang/String;)V");
+                case 3 -> graph.addInstruction("iload", Integer.toString(random.nextInt(64)));
+                case 4 -> graph.addInstruction("ldc", Integer.toString(random.nextInt(100_000)));
+                case 5 -> graph.addInstruction("iadd");
+                case 6 -> graph.addInstruction("istore", Integer.toString(random.nextInt(64)));
+                default -> {
+                    graph.addJump("goto", "Label" + i);
+                    graph.addLabel("Label" + i);
+                }
+            }
+        }
+
+        return graph;
+    }
+
+    private static long allocated() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100_000, 1_000_000, 4_000_000})
+    void emitBenchmark(int instructions, @TempDir Path directory) throws IOException {
+        final FlowGraph graph = generate(instructions);
+        final Path stringFile = directory.resolve("String.j");
+        final Path streamFile = directory.resolve("Stream.j");
+
+        long stringTime = 0;
+        long stringBytes = 0;
+        long streamTime = 0;
+        long streamBytes = 0;
+
+        for (int i = 0; i < RUNS; i++) {
+            final long stringAllocated = allocated();
+            final long stringBegin = System.nanoTime();
+            final String source = graph.getHead()
+                                  + graph.getBlocks().stream().map(FlowBasicBlock::toString).collect(Collectors.joining())
+                                  + graph.getTail();
+            Files.writeString(stringFile, source);
+            stringTime += System.nanoTime() - stringBegin;
+            stringBytes += allocated() - stringAllocated;
+
+            final long streamAllocated = allocated();
+            final long streamBegin = System.nanoTime();
+            JasminEmitter.emit(graph, streamFile);
+            streamTime += System.nanoTime() - streamBegin;
+            streamBytes += allocated() - streamAllocated;
+        }
+
+        final long size = Files.size(streamFile);
+        System.out.printf("JasminEmitter: %7d instructions, %6.1f MB: "
+                          + "string %8.1f ms %8.1f MB allocated, stream %8.1f ms %6.1f MB allocated%n",
+                          instructions, size / 1e6,
+                          stringTime / (RUNS * 1e6), stringBytes / (RUNS * 1e6),
+                          streamTime / (RUNS * 1e6), streamBytes / (RUNS * 1e6));
+
+        assertThat(Files.mismatch(stringFile, streamFile)).isEqualTo(-1);
+        assertThat(streamBytes).isLessThan(stringBytes);
+    }
+}
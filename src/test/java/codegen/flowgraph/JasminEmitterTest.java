@@ -0,0 +1,70 @@
+package codegen.flowgraph;
+
+import codegen.TestCompiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JasminEmitterTest {
+
+    /**
+     * Die Ausgabe, wie sie vor dem Emitter aus den einzelnen Teilen zusammengesetzt wurde.
+     */
+    private static String concatenated(FlowGraph graph) {
+        return graph.getHead()
+               + graph.getBlocks().stream().map(FlowBasicBlock::toString).collect(Collectors.joining())
+               + graph.getTail();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"CompileAllInOne1.stups", "Factorial.stups", "Fibonacci.stups", "GeneralIfElse.stups",
+                            "GeneralWhile.stups", "Println.stups", "Squares.stups"})
+    void examplesTest(String prog) throws URISyntaxException, IOException {
+        final Path path = Paths.get(JasminEmitterTest.class.getClassLoader().getResource("examplePrograms/" + prog).toURI());
+        final FlowGraph graph = TestCompiler.generateGraph(Files.readString(path));
+
+        final StringWriter out = new StringWriter();
+        JasminEmitter.emit(graph, out);
+
+        assertThat(out.toString()).isEqualTo(concatenated(graph));
+    }
+
+    @Test
+    void operandsTest() throws IOException {
+        final FlowGraph graph = new FlowGraph("55.0", "TestOutput.java", "TestOutput", 3, 2);
+        graph.addInstruction("bipush", "-128");
+        graph.addInstruction("sipush", "32767");
+        graph.addInstruction("iinc", "1", "-5");
+        graph.addInstruction("ldc", "\"a b\"");
+        graph.addJump("ifeq", "End");
+        graph.addLabel("End");
+
+        final StringWriter out = new StringWriter();
+        JasminEmitter.emit(graph, out);
+
+        assertThat(out.toString()).isEqualTo(concatenated(graph))
+                                  .contains("\t\tbipush -128\n\t\tsipush 32767\n\t\tiinc 1 -5\n\t\tldc \"a b\"\n");
+    }
+
+    @Test
+    void fileTest(@TempDir Path directory) throws IOException {
+        final FlowGraph graph = TestCompiler.generateGraph("class TestOutput {\n\tpublic static void main(String[] args) {\n"
+                                                           + "System.out.println(\"Grüße\");\n\t}\n}");
+        final Path file = directory.resolve("TestOutput.j");
+
+        JasminEmitter.emit(graph, file);
+
+        assertThat(Files.readString(file)).isEqualTo(graph.toString()).contains("Grüße");
+    }
+}
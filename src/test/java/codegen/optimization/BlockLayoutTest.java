@@ -0,0 +1,116 @@
+package codegen.optimization;
+
+import codegen.TestCompiler;
+import codegen.flowgraph.BlockProfile;
+import codegen.flowgraph.BlockProfiler;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowInstruction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockLayoutTest {
+
+    private static FlowGraph generateGraph(String body) {
+        final FlowGraph graph = TestCompiler.generateBody(body);
+        ControlFlowSimplification.run(graph);
+
+        return graph;
+    }
+
+    private static int indexOfInstruction(FlowGraph graph, String instruction) {
+        final List<FlowBasicBlock> blocks = graph.getBlocks();
+
+        for (int i = 0; i < blocks.size(); i++) {
+            for (FlowInstruction inst : blocks.get(i)) {
+                if (inst.toString().trim().equals(instruction)) {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean endsWithConditional(FlowBasicBlock block) {
+        return block.getLastInstruction().map(last -> last.isJump() && !last.isGoto()).orElse(false);
+    }
+
+    private static Stream<Arguments> layoutProgramsArgs() {
+        return Stream.of(
+                Arguments.of("int a = 1; int b = 2; System.out.println(a + b);",
+                             "3"),
+                Arguments.of("int i = 0; int s = 0; while (i < 10) { if (i > 7) { s = s + 2; } else { s = s + 1; } i = i + 1; }"
+                             + "System.out.println(s);",
+                             "12"),
+                Arguments.of("int i = 0; int j = 0; int s = 0; while (i < 4) { j = 0; while (j < i) { s = s + j; j = j + 1; } i = i + 1; }"
+                             + "System.out.println(s);",
+                             "4"),
+                Arguments.of("int i = 0; System.out.println(i); while (i < 5) { i = i + 1; }",
+                             "0"),
+                Arguments.of("int a = 5; boolean b = (a > 2) && (a < 9); if (b) { System.out.println(a); }",
+                             "5"),
+                Arguments.of("int a = 5; if (a == 5) { a = 1; } else { a = 2; } if (a != 1) { System.out.println(0); } else { System.out.println(a); }",
+                             "1")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("layoutProgramsArgs")
+    void layoutProgramsTest(String body, String result) throws IOException, InterruptedException {
+        final FlowGraph graph = generateGraph(body);
+        BlockLayout.run(graph);
+
+        assertThat(TestCompiler.compileAndRun(graph)).isEqualTo(result);
+    }
+
+    @Test
+    void loopRotationTest() {
+        final FlowGraph graph = generateGraph("int i = 0; while (i < 10) { i = i + 1; } System.out.println(i);");
+        BlockLayout.run(graph);
+
+        // Der Rumpf fällt in den Schleifenkopf, nur der Einstieg springt noch hinein
+        final FlowBasicBlock header = graph.getBlockByLabel("LOOPstart0");
+        final FlowBasicBlock before = graph.getBlocks().get(header.getOrdinal() - 1);
+        assertThat(before.getLastInstruction()).hasValueSatisfying(last -> assertThat(last.isJump()).isFalse());
+        assertThat(graph.getBlocks().get(0).getLastInstruction().orElseThrow().toString()).contains("goto LOOPstart0");
+        assertThat(header.getBlockPredecessorSet()).hasSize(2);
+    }
+
+    @Test
+    void profileLayoutTest() throws IOException, InterruptedException {
+        final String body = "int i = 0; int a = 0; while (i < 10) { i = i + 1; } if (i > 100) { a = a + 3; } else { a = a + 2; }"
+                            + "System.out.println(a);";
+        final FlowGraph profiled = generateGraph(body);
+        final FlowGraph graph = generateGraph(body);
+        BlockLayout.run(profiled);
+        BlockLayout.run(graph);
+
+        // Statisch sind beide Zweige gleich wahrscheinlich, der then-Zweig bleibt der Fallthrough
+        assertThat(endsWithConditional(graph.getBlocks().get(indexOfInstruction(graph, "iinc 1 3") - 1))).isTrue();
+
+        final Path profileFile = Paths.get(System.getProperty("user.dir"), profiled.getHead().getProfileFile());
+        Files.deleteIfExists(profileFile);
+        BlockProfiler.instrument(profiled);
+        assertThat(TestCompiler.compileAndRun(profiled)).isEqualTo("2");
+
+        final BlockProfile profile = BlockProfile.fromFile(profileFile);
+        assertThat(profile.matches(graph)).isTrue();
+        BlockLayout.run(graph, profile);
+
+        // Mit dem Profil folgt der immer genommene else-Zweig auf die Bedingung
+        assertThat(endsWithConditional(graph.getBlocks().get(indexOfInstruction(graph, "iinc 1 2") - 1))).isTrue();
+        assertThat(TestCompiler.compileAndRun(graph)).isEqualTo("2");
+    }
+}
@@ -0,0 +1,110 @@
+package codegen.optimization;
+
+import codegen.TestCompiler;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.FlowInstruction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ControlFlowSimplificationTest {
+
+    private static void assertSimplified(FlowGraph graph) {
+        final List<FlowBasicBlock> blocks = graph.getBlocks();
+
+        for (int i = 0; i < blocks.size(); i++) {
+            final FlowBasicBlock block = blocks.get(i);
+            final Optional<FlowInstruction> last = block.getLastInstruction();
+
+            // Kein goto auf den folgenden Block
+            if (last.isPresent() && last.get().isGoto() && i + 1 < blocks.size()) {
+                assertThat(last.get().getArgs()[0]).isNotEqualTo(blocks.get(i + 1).getLabel());
+            }
+
+            // Kein Sprung auf einen Block, der nur aus einem goto besteht
+            if (last.isPresent() && last.get().isJump()) {
+                final String target = last.get().getArgs()[0];
+                blocks.stream()
+                      .filter(other -> other.getLabel().equals(target))
+                      .forEach(other -> assertThat(other.getInstructionCount() == 1
+                                                   && other.getLastInstruction().orElseThrow().isGoto()).isFalse());
+            }
+
+            // Predecessor/Successor-Mengen sind konsistent
+            for (FlowBasicBlock successor : block.getBlockSuccessorSet()) {
+                assertThat(blocks).contains(successor);
+                assertThat(successor.getBlockPredecessorSet()).contains(block);
+            }
+            for (FlowBasicBlock predecessor : block.getBlockPredecessorSet()) {
+                assertThat(blocks).contains(predecessor);
+                assertThat(predecessor.getBlockSuccessorSet()).contains(block);
+            }
+
+            // Alle Blöcke außer dem ersten sind erreichbar
+            if (i > 0) {
+                assertThat(block.getBlockPredecessorSet()).isNotEmpty();
+            }
+        }
+    }
+
+    @Test
+    void emptyElseTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int a = 3; if (a > 2) { System.out.println(a); } System.out.println(a + 1);");
+        final int before = graph.size();
+
+        assertThat(ControlFlowSimplification.run(graph)).isPositive();
+        assertThat(graph.size()).isLessThan(before);
+        assertSimplified(graph);
+    }
+
+    @Test
+    void nestedBranchesTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int i = 0; while (i < 3) { if (i == 1) { if (i > 0) { i = i + 1; } } else { i = i + 1; } }"
+                                                          + "System.out.println(i);");
+        final int before = graph.size();
+
+        ControlFlowSimplification.run(graph);
+
+        assertThat(graph.size()).isLessThan(before);
+        assertSimplified(graph);
+    }
+
+    @Test
+    void idempotentTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int a = 0; if (a < 1) { a = 1; } else { if (a < 2) { a = 2; } } System.out.println(a);");
+        ControlFlowSimplification.run(graph);
+        final String simplified = graph.toString();
+
+        assertThat(ControlFlowSimplification.run(graph)).isZero();
+        assertThat(graph).hasToString(simplified);
+    }
+
+    private static Stream<Arguments> simplifiedProgramsArgs() {
+        return Stream.of(
+                Arguments.of("int a = 3; if (a > 2) { System.out.println(a); } System.out.println(a + 1);", "3\n4"),
+                Arguments.of("int i = 0; while (i < 3) { if (i == 1) { if (i > 0) { System.out.println(i); } } else { System.out.println(i * 10); } i = i + 1; }", "0\n1\n20"),
+                Arguments.of("int i = 0; int j = 0; while (i < 3) { j = 0; while (j < i) { j = j + 1; } i = i + 1; } System.out.println(i + j);", "5"),
+                Arguments.of("boolean b = 1 < 2 && 3 > 2; if (!b) { System.out.println(1); } else { if (b == true) { System.out.println(2); } }", "2"),
+                Arguments.of("int a = 0; while (a < 10) { a = a + 3; } if (a == 12) { } else { a = 0; } System.out.println(a);", "12")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("simplifiedProgramsArgs")
+    void simplifiedProgramsTest(String body, String result) throws IOException, InterruptedException {
+        final FlowGraph graph = TestCompiler.generateBody(body);
+        ControlFlowSimplification.run(graph);
+        assertSimplified(graph);
+
+        assertThat(TestCompiler.compileAndRun(graph)).isEqualTo(result);
+    }
+}
@@ -0,0 +1,99 @@
+package codegen.optimization;
+
+import codegen.TestCompiler;
+import codegen.analysis.StackDepthAnalysis;
+import codegen.flowgraph.FlowGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrossJumpingTest {
+
+    private static FlowGraph generateGraph(String body) {
+        final FlowGraph graph = TestCompiler.generateBody(body);
+        ControlFlowSimplification.run(graph);
+
+        return graph;
+    }
+
+    private static long count(FlowGraph graph, String instruction) {
+        return graph.getBlocks().stream()
+                    .flatMap(block -> block.toString().lines())
+                    .filter(line -> line.trim().startsWith(instruction))
+                    .count();
+    }
+
+    private static Stream<Arguments> crossJumpingProgramsArgs() {
+        return Stream.of(
+                Arguments.of("int a = 5; if (a > 2) { System.out.println(a + 1); } else { System.out.println(a - 1); }",
+                             "6"),
+                Arguments.of("int a = 5; int b = 0; if (a < 2) { b = a * 2; } else { b = a * 3; } System.out.println(b);",
+                             "15"),
+                Arguments.of("int i = 0; while (i < 6) { if (i > 2) { System.out.println(i * 2); } else { System.out.println(i * 3); } i = i + 1; }",
+                             "0\n3\n6\n6\n8\n10"),
+                Arguments.of("int a = 1; if (a == 1) { a = 7; } else { if (a == 2) { a = 7; } else { a = 7; } } System.out.println(a);",
+                             "7"),
+                Arguments.of("int a = 1; int b = 2; if (a > b) { a = 3; } else { b = 3; } System.out.println(a + b);",
+                             "4")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("crossJumpingProgramsArgs")
+    void crossJumpingProgramsTest(String body, String result) throws IOException, InterruptedException {
+        final FlowGraph graph = generateGraph(body);
+        final int before = MethodSplitter.methodSize(graph);
+        final int saved = CrossJumping.run(graph);
+
+        assertThat(MethodSplitter.methodSize(graph)).isEqualTo(before - saved);
+        assertThat(StackDepthAnalysis.fromFlowGraph(graph).getMaxDepth()).isLessThanOrEqualTo(graph.getHead().getStackSize());
+        assertThat(TestCompiler.compileAndRun(graph)).isEqualTo(result);
+    }
+
+    @Test
+    void printlnTailTest() {
+        final FlowGraph graph = generateGraph("int a = 5; if (a > 2) { System.out.println(a + 1); } else { System.out.println(a - 1); }");
+        final int saved = CrossJumping.run(graph);
+
+        assertThat(saved).isEqualTo(3);
+        assertThat(count(graph, "invokevirtual")).isEqualTo(1);
+        assertThat(graph.getBlockByLabel("XJUMP0")).isNotNull();
+    }
+
+    @Test
+    void storeTailTest() {
+        final FlowGraph graph = generateGraph("int a = 5; int b = 0; if (a < 2) { b = a * 2; } else { b = a * 3; } System.out.println(b);");
+        CrossJumping.run(graph);
+
+        // Die Zweige teilen sich imul und die Zuweisung an b, dazu kommen die Deklarationen
+        assertThat(count(graph, "imul")).isEqualTo(1);
+        assertThat(count(graph, "istore")).isEqualTo(3);
+    }
+
+    @Test
+    void differentTailsTest() {
+        final FlowGraph graph = generateGraph("int a = 1; int b = 2; if (a > b) { a = 3; } else { b = 3; } System.out.println(a + b);");
+        final String before = graph.toString();
+
+        assertThat(CrossJumping.run(graph)).isZero();
+        assertThat(graph.toString()).isEqualTo(before);
+    }
+
+    @Test
+    void statisticsTest() {
+        final FlowGraph graph = generateGraph("int a = 5; if (a > 2) { System.out.println(a + 1); } else { System.out.println(a - 1); }");
+        final PassManager manager = PassManager.empty().addPass(PassManager.CROSS_JUMPING);
+        manager.run(graph);
+
+        final PassStatistics stats = manager.getStatistics().get(manager.getStatistics().size() - 1);
+        assertThat(stats.getName()).isEqualTo(PassManager.CROSS_JUMPING);
+        assertThat(stats.getBytesSaved()).isEqualTo(3);
+        assertThat(manager.printStatistics()).contains("bytes");
+    }
+}
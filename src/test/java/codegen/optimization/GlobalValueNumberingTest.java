@@ -0,0 +1,105 @@
+package codegen.optimization;
+
+import codegen.TestCompiler;
+import codegen.flowgraph.FlowBasicBlock;
+import codegen.flowgraph.FlowGraph;
+import codegen.ssa.SsaGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalValueNumberingTest {
+
+    private static long countInstructions(FlowGraph graph, String opcode) {
+        return StreamSupport.stream(graph.spliterator(), false)
+                            .flatMap(block -> StreamSupport.stream(block.spliterator(), false))
+                            .filter(instruction -> opcode.equals(instruction.getInstruction()))
+                            .count();
+    }
+
+    @Test
+    void dominatingExpressionTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int a = 3; int b = 4; int c = a * b;"
+                                                          + "if (c > 5) { c = a * b + 1; } else { c = a * b - 1; }"
+                                                          + "System.out.println(c + a * b);");
+        final SsaGraph ssa = SsaGraph.fromFlowGraph(graph);
+
+        assertThat(GlobalValueNumbering.run(ssa)).isGreaterThanOrEqualTo(3);
+        assertThat(countInstructions(ssa.toFlowGraph(), "imul")).isEqualTo(1);
+    }
+
+    @Test
+    void commutativeExpressionTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int a = 3; int b = 4; System.out.println(a + b); System.out.println(b + a);"
+                                                          + "System.out.println(a - b); System.out.println(b - a);");
+        final SsaGraph ssa = SsaGraph.fromFlowGraph(graph);
+        GlobalValueNumbering.run(ssa);
+        final FlowGraph optimized = ssa.toFlowGraph();
+
+        assertThat(countInstructions(optimized, "iadd")).isEqualTo(1);
+        assertThat(countInstructions(optimized, "isub")).isEqualTo(2);
+    }
+
+    @Test
+    void siblingBranchesTest() {
+        // Keiner der beiden Zweige dominiert den anderen
+        final FlowGraph graph = TestCompiler.generateBody("int a = 3; int b = 4; int c = 0;"
+                                                          + "if (a < b) { c = a + b; } else { c = a + b; }"
+                                                          + "System.out.println(c);");
+        final SsaGraph ssa = SsaGraph.fromFlowGraph(graph);
+        GlobalValueNumbering.run(ssa);
+
+        assertThat(countInstructions(ssa.toFlowGraph(), "iadd")).isEqualTo(2);
+    }
+
+    private static Stream<Arguments> optimizedProgramsArgs() {
+        return Stream.of(
+                Arguments.of("int a = 3; int b = 4; int c = a * b; if (c > 5) { c = a * b + 1; } else { c = b * a - 1; } System.out.println(c + a * b);", "25"),
+                Arguments.of("int i = 0; int s = 0; while (i < 4) { s = s + i * i; System.out.println(i * i + s); i = i + 1; }", "0\n2\n9\n23"),
+                Arguments.of("int a = 7; int b = 2; System.out.println(a / b + a % b); System.out.println(a / b * (a % b));", "4\n3"),
+                Arguments.of("boolean x = 1 < 2; boolean y = 1 < 2; System.out.println(x == y && (x || y));", "true")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("optimizedProgramsArgs")
+    void optimizedProgramsTest(String body, String result) throws IOException, InterruptedException {
+        final SsaGraph ssa = SsaGraph.fromFlowGraph(TestCompiler.generateBody(body));
+        GlobalValueNumbering.run(ssa);
+        final FlowGraph optimized = ssa.toFlowGraph();
+        System.out.println(optimized);
+
+        assertThat(TestCompiler.compileAndRun(optimized)).isEqualTo(result);
+    }
+
+    @Test
+    void repeatedRoundTripTest() throws IOException, InterruptedException {
+        // Jede Runde gvn -> dce -> simplify-cfg übersetzt neu aus der SSA-Form, die Zwischenblöcke für kritische
+        // Kanten aus früheren Runden bleiben dabei erhalten und neue dürfen ihre Labels nicht wiederverwenden
+        final String body = "int a = 1; int b = 2; int c = 3;"
+                            + "if (7 * c < a) { int i = 0; while (i < 4) { i = i + 1; } }"
+                            + "int j = 0; while (j < 2) { if (b <= c - c) { int k = 0; while (k < 3) { a = 8; k = k + 1; } } b = -1; j = j + 1; }"
+                            + "System.out.println(a + b + c);";
+        final FlowGraph graph = PassManager.empty()
+                                           .addPass(PassManager.SIMPLIFY_CFG)
+                                           .addFixpoint(4, PassManager.GVN, PassManager.DCE, PassManager.SIMPLIFY_CFG)
+                                           .run(TestCompiler.generateBody(body));
+
+        final List<String> labels = StreamSupport.stream(graph.spliterator(), false)
+                                                 .map(FlowBasicBlock::getLabel)
+                                                 .filter(label -> !label.isBlank())
+                                                 .collect(Collectors.toList());
+
+        assertThat(labels).doesNotHaveDuplicates();
+        assertThat(TestCompiler.compileAndRun(graph)).isEqualTo("10");
+    }
+}
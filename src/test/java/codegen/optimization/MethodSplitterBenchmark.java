@@ -0,0 +1,78 @@
+package codegen.optimization;
+
+import codegen.TestCompiler;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.JasminEmitter;
+import codegen.flowgraph.SplitProgram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht die Laufzeit eines Programms mit mehr als 8000 Byte in main gegen die aufgeteilte Variante.
+ * HotSpot kompiliert die ungeteilte main wegen DontCompileHugeMethods nicht, die Teile schon.
+ * Verglichen werden Teile knapp unter HUGE_METHOD_LIMIT und Teile mit PART_SIZE.
+ * Läuft nur mit "gradle benchmark".
+ */
+@Tag("benchmark")
+class MethodSplitterBenchmark {
+
+    private static final int RUNS = 3;
+
+    private static FlowGraph generateGraph(int loops, int iterations) {
+        final StringBuilder program = new StringBuilder();
+        program.append("class TestOutput {\n\tpublic static void main(String[] args) {\n");
+        program.append("int sum = 0; int i = 0;\n");
+        for (int loop = 0; loop < loops; loop++) {
+            program.append("i = 0; while (i < ").append(iterations).append(") { sum = sum + i * ")
+                   .append(loop % 7 + 1).append(" - ").append(loop).append("; i = i + 1; }\n");
+        }
+        program.append("System.out.println(sum);\n\t}\n}");
+
+        return TestCompiler.generateGraph(program.toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"200000, 8000", "200000, 1000", "1000000, 8000", "1000000, 1000"})
+    void splitBenchmark(int iterations, int limit, @TempDir Path directory) throws IOException, InterruptedException {
+        final FlowGraph graph = generateGraph(200, iterations);
+        final SplitProgram program = MethodSplitter.split(graph, limit);
+
+        final Path huge = directory.resolve("huge");
+        final Path split = directory.resolve("split");
+        huge.toFile().mkdir();
+        split.toFile().mkdir();
+        JasminEmitter.emit(graph, huge.resolve("TestOutput.j"));
+        JasminEmitter.emit(program, split.resolve("TestOutput.j"));
+        TestCompiler.assemble(huge);
+        TestCompiler.assemble(split);
+
+        long hugeTime = 0;
+        long splitTime = 0;
+        String hugeOutput = "";
+        String splitOutput = "";
+
+        for (int i = 0; i < RUNS; i++) {
+            final long hugeBegin = System.nanoTime();
+            hugeOutput = TestCompiler.run(huge);
+            hugeTime += System.nanoTime() - hugeBegin;
+
+            final long splitBegin = System.nanoTime();
+            splitOutput = TestCompiler.run(split);
+            splitTime += System.nanoTime() - splitBegin;
+        }
+
+        System.out.printf("MethodSplitter: %7d iterations, limit %4d, main %5d bytes, %2d parts: huge %8.1f ms, split %8.1f ms%n",
+                          iterations, limit, MethodSplitter.methodSize(graph), program.getMethods().size(),
+                          hugeTime / (RUNS * 1e6), splitTime / (RUNS * 1e6));
+
+        assertThat(MethodSplitter.methodSize(graph)).isGreaterThan(MethodSplitter.HUGE_METHOD_LIMIT);
+        assertThat(splitOutput).isEqualTo(hugeOutput);
+    }
+}
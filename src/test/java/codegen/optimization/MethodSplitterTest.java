@@ -0,0 +1,67 @@
+package codegen.optimization;
+
+import codegen.TestCompiler;
+import codegen.flowgraph.FlowGraph;
+import codegen.flowgraph.SplitProgram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MethodSplitterTest {
+
+    private static Stream<Arguments> splitProgramsArgs() {
+        return Stream.of(
+                Arguments.of("int a = 1; int b = 2; System.out.println(a); System.out.println(b); a = a + b; System.out.println(a * b);",
+                             "1\n2\n6"),
+                Arguments.of("String s = \"x\"; int i = 0; while (i < 3) { System.out.println(s); i = i + 1; } System.out.println(i);",
+                             "x\nx\nx\n3"),
+                Arguments.of("int i = 0; int j = 0; while (i < 3) { j = 0; while (j < i) { j = j + 1; } i = i + 1; } System.out.println(i + j);"
+                             + "while (i > 0) { i = i - 1; } System.out.println(i);",
+                             "5\n0"),
+                Arguments.of("boolean b = (1 < 2) && (3 > 2); String s = \"a\"; if (b == false) { System.out.println(1); } else { System.out.println(2); }"
+                             + "if (b) { System.out.println(s); } else { System.out.println(3); } System.out.println(b);",
+                             "2\na\ntrue"),
+                Arguments.of("int a = 5; int b = 7; if (a > 2) { a = a * 2; } else { a = 0; }"
+                             + "System.out.println(a); a = a + 1; System.out.println(a);",
+                             "10\n11")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("splitProgramsArgs")
+    void splitProgramsTest(String body, String result) throws IOException, InterruptedException {
+        final FlowGraph graph = TestCompiler.generateBody(body);
+        final SplitProgram program = MethodSplitter.split(graph, 24);
+
+        assertThat(program.getMethods()).hasSizeGreaterThan(1);
+        assertThat(TestCompiler.compileAndRun(program)).isEqualTo(result);
+    }
+
+    @Test
+    void limitTest() {
+        final StringBuilder body = new StringBuilder("int a = 0;");
+        for (int i = 0; i < 200; i++) {
+            body.append("a = a + ").append(i).append("; System.out.println(a);");
+        }
+        final FlowGraph graph = TestCompiler.generateBody(body.toString());
+
+        final SplitProgram program = MethodSplitter.split(graph, 100);
+
+        assertThat(MethodSplitter.methodSize(graph)).isGreaterThan(1000);
+        assertThat(program.getMethods()).allSatisfy(method -> assertThat(MethodSplitter.methodSize(method)).isLessThanOrEqualTo(100));
+        assertThat(program.getFields()).containsOnlyKeys("local1");
+    }
+
+    @Test
+    void noSplitTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int a = 1; System.out.println(a);");
+
+        assertThat(MethodSplitter.split(graph, MethodSplitter.HUGE_METHOD_LIMIT).getMethods()).hasSize(1);
+    }
+}
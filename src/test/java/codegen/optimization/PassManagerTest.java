@@ -0,0 +1,222 @@
+package codegen.optimization;
+
+import codegen.TestCompiler;
+import codegen.analysis.AnalysisManager;
+import codegen.flowgraph.FlowGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PassManagerTest {
+
+    private static final int GENERATED_PROGRAMS = 30;
+
+    private static OptimizationPass identity(String name, List<String> dependencies) {
+        return new OptimizationPass() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public List<String> getDependencies() {
+                return dependencies;
+            }
+
+            @Override
+            public int apply(FlowGraph graph, AnalysisManager analyses) {
+                return 0;
+            }
+        };
+    }
+
+    @Test
+    void levelPipelineTest() {
+        assertThat(PassManager.fromLevel(OptimizationLevel.O0).getPipeline()).isEmpty();
+        assertThat(PassManager.fromLevel(OptimizationLevel.O1).getPipeline()).containsExactly("simplify-cfg");
+        assertThat(PassManager.fromLevel(OptimizationLevel.O2).getPipeline()).containsExactly("simplify-cfg",
+                                                                                             "[gvn, dce, simplify-cfg]",
+                                                                                             "block-layout",
+                                                                                             "stack-scheduling",
+                                                                                             "cross-jumping");
+    }
+
+    @Test
+    void levelFlagTest() {
+        assertThat(OptimizationLevel.fromFlag("-O2")).isEqualTo(OptimizationLevel.O2);
+        assertThat(OptimizationLevel.isFlag("-O3")).isFalse();
+        assertThatThrownBy(() -> OptimizationLevel.fromFlag("-O3")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void dependencyTest() {
+        final PassManager manager = PassManager.empty()
+                                               .register(identity("a", List.of()))
+                                               .register(identity("b", List.of("a")))
+                                               .register(identity("c", List.of("b", "a")))
+                                               .addPass("c")
+                                               .addPass("a");
+
+        assertThat(manager.getPipeline()).containsExactly("a", "b", "c", "a");
+    }
+
+    @Test
+    void cyclicDependencyTest() {
+        final PassManager manager = PassManager.empty()
+                                               .register(identity("a", List.of("b")))
+                                               .register(identity("b", List.of("a")));
+
+        assertThatThrownBy(() -> manager.addPass("a")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> manager.addPass("unknown")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fixpointTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int a = 3; int b = 4; int c = a * b; int d = 0;"
+                                                          + "if (c > 5) { d = a * b + 1; } System.out.println(c + d);");
+        final PassManager manager = PassManager.fromLevel(OptimizationLevel.O2);
+        manager.run(graph);
+
+        // Blockanordnung, Stack-Allokation und Cross-Jumping laufen nach der Fixpunkt-Gruppe
+        final List<PassStatistics> statistics = manager.getStatistics().stream()
+                                                       .filter(stats -> !stats.getName().equals(PassManager.BLOCK_LAYOUT))
+                                                       .filter(stats -> !stats.getName().equals(PassManager.STACK_SCHEDULING))
+                                                       .filter(stats -> !stats.getName().equals(PassManager.CROSS_JUMPING))
+                                                       .collect(Collectors.toList());
+        final PassStatistics last = statistics.get(statistics.size() - 1);
+
+        // Die letzte Iteration der Fixpunkt-Gruppe verändert nichts mehr
+        assertThat(last.getIteration()).isGreaterThan(1).isLessThanOrEqualTo(4);
+        assertThat(statistics.stream().filter(stats -> stats.getIteration() == last.getIteration()))
+                .noneMatch(PassStatistics::hasChanged);
+    }
+
+    @Test
+    void statisticsTest() {
+        final FlowGraph graph = TestCompiler.generateBody("int a = 3; if (a > 2) { System.out.println(a); } System.out.println(a + 1);");
+        final int blocks = graph.size();
+        final PassManager manager = PassManager.fromLevel(OptimizationLevel.O1);
+        final FlowGraph optimized = manager.run(graph);
+
+        assertThat(manager.getStatistics()).hasSize(1);
+
+        final PassStatistics stats = manager.getStatistics().get(0);
+        assertThat(stats.getName()).isEqualTo("simplify-cfg");
+        assertThat(stats.getNanos()).isPositive();
+        assertThat(stats.getBlocksBefore()).isEqualTo(blocks);
+        assertThat(stats.getBlocksAfter()).isEqualTo(optimized.size());
+        assertThat(stats.getBlocksAfter()).isLessThan(blocks);
+        assertThat(stats.getChanges()).isPositive();
+        assertThat(stats.getBytesAfter()).isEqualTo(MethodSplitter.methodSize(optimized));
+        assertThat(stats.getBytesSaved()).isPositive();
+        assertThat(stats.hasChanged()).isTrue();
+        assertThat(manager.printStatistics()).contains("simplify-cfg");
+    }
+
+    private static Stream<Arguments> optimizedProgramsArgs() {
+        return Stream.of(
+                Arguments.of("int a = 3; int b = 4; int c = a * b; if (c > 5) { c = a * b + 1; } else { c = b * a - 1; } System.out.println(c + a * b);", "25"),
+                Arguments.of("int i = 0; int s = 0; while (i < 4) { s = s + i * i; System.out.println(i * i + s); i = i + 1; }", "0\n2\n9\n23"),
+                Arguments.of("int i = 0; while (i < 3) { if (i == 1) { if (i > 0) { System.out.println(i); } } else { System.out.println(i * 10); } i = i + 1; }", "0\n1\n20"),
+                Arguments.of("boolean x = 1 < 2; boolean y = 1 < 2; System.out.println(x == y && (x || y));", "true")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("optimizedProgramsArgs")
+    void optimizedProgramsTest(String body, String result) throws IOException, InterruptedException {
+        for (OptimizationLevel level : OptimizationLevel.values()) {
+            final FlowGraph optimized = PassManager.fromLevel(level).run(TestCompiler.generateBody(body));
+
+            assertThat(TestCompiler.compileAndRun(optimized)).isEqualTo(result);
+        }
+    }
+
+    // Differentialtest
+
+    private static final String[] VARIABLES = {"a", "b", "c"};
+    private static final String[] ARITHMETIC = {"+", "-", "*"};
+    private static final String[] COMPARISONS = {"<", "<=", ">", ">=", "==", "!="};
+
+    /**
+     * Ein zufälliges Programm aus Zuweisungen, Ausgaben, if/else und gezählten while-Schleifen.
+     * Die Schleifen terminieren immer, Division kommt nicht vor.
+     */
+    private static String generateProgram(long seed) {
+        final Random random = new Random(seed);
+        final StringBuilder program = new StringBuilder("int a = 1; int b = 2; int c = 3; ");
+        final int[] loops = {0};
+
+        generateStatements(program, random, loops, 4, 10 + random.nextInt(6));
+        program.append("System.out.println(a + b + c);");
+
+        return program.toString();
+    }
+
+    private static void generateStatements(StringBuilder program, Random random, int[] loops, int depth, int count) {
+        for (int i = 0; i < count; i++) {
+            switch (depth == 0 ? random.nextInt(2) : random.nextInt(5)) {
+                case 0 -> program.append(VARIABLES[random.nextInt(3)]).append(" = ")
+                                 .append(generateExpression(random, 2)).append(" % 1000; ");
+                case 1 -> program.append("System.out.println(").append(VARIABLES[random.nextInt(3)]).append("); ");
+                case 2, 3 -> {
+                    program.append("if (").append(generateExpression(random, 1)).append(' ')
+                           .append(COMPARISONS[random.nextInt(COMPARISONS.length)]).append(' ')
+                           .append(generateExpression(random, 1)).append(") { ");
+                    generateStatements(program, random, loops, depth - 1, 1 + random.nextInt(2));
+                    program.append("} ");
+
+                    if (random.nextBoolean()) {
+                        program.append("else { ");
+                        generateStatements(program, random, loops, depth - 1, 1 + random.nextInt(2));
+                        program.append("} ");
+                    }
+                }
+                default -> {
+                    final String counter = "l" + loops[0]++;
+                    program.append("int ").append(counter).append(" = 0; while (")
+                           .append(counter).append(" < ").append(1 + random.nextInt(4)).append(") { ");
+                    generateStatements(program, random, loops, depth - 1, 1 + random.nextInt(2));
+                    program.append(counter).append(" = ").append(counter).append(" + 1; } ");
+                }
+            }
+        }
+    }
+
+    private static String generateExpression(Random random, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return random.nextBoolean() ? VARIABLES[random.nextInt(3)] : String.valueOf(random.nextInt(10));
+        }
+
+        return "(" + generateExpression(random, depth - 1) + " " + ARITHMETIC[random.nextInt(3)]
+               + " " + generateExpression(random, depth - 1) + ")";
+    }
+
+    private static LongStream generatedProgramsArgs() {
+        return LongStream.range(0, GENERATED_PROGRAMS);
+    }
+
+    /**
+     * Vergleicht die Ausgabe mit -O2 mit der unoptimierten Ausgabe.
+     */
+    @ParameterizedTest
+    @MethodSource("generatedProgramsArgs")
+    void generatedProgramsTest(long seed) throws IOException, InterruptedException {
+        final String program = generateProgram(seed);
+        final String expected = TestCompiler.compileAndRun(PassManager.fromLevel(OptimizationLevel.O0).run(TestCompiler.generateBody(program)));
+        final FlowGraph optimized = PassManager.fromLevel(OptimizationLevel.O2).run(TestCompiler.generateBody(program));
+
+        assertThat(TestCompiler.compileAndRun(optimized)).as(program).isEqualTo(expected);
+    }
+}
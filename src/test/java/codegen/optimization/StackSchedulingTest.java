@@ -0,0 +1,123 @@
+package codegen.optimization;
+
+import codegen.TestCompiler;
+import codegen.analysis.Analysis;
+import codegen.analysis.AnalysisManager;
+import codegen.analysis.BlockGraph;
+import codegen.analysis.StackDepthAnalysis;
+import codegen.analysis.dataflow.GenKillSolver;
+import codegen.analysis.dataflow.LivenessProblem;
+import codegen.flowgraph.FlowGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StackSchedulingTest {
+
+    private static FlowGraph generateGraph(String program) {
+        final FlowGraph graph = TestCompiler.generateGraph(program);
+        ControlFlowSimplification.run(graph);
+
+        return graph;
+    }
+
+    private static FlowGraph schedule(String program) {
+        final FlowGraph graph = generateGraph(program);
+        StackScheduling.run(graph, new AnalysisManager().get(Analysis.LIVE_VARIABLES, graph));
+
+        return graph;
+    }
+
+    private static Stream<String> programsArgs() throws URISyntaxException, IOException {
+        final List<String> programs = new ArrayList<>();
+        for (String example : List.of("GeneralComment.stups", "GeneralIfElse.stups", "Println.stups", "CompileAllInOne1.stups",
+                                      "Fibonacci.stups", "Factorial.stups", "Squares.stups", "Multiplication.stups")) {
+            programs.add(Files.readString(Paths.get(StackSchedulingTest.class.getClassLoader()
+                                                                             .getResource("examplePrograms/" + example).toURI())));
+        }
+
+        return Stream.concat(programs.stream(), Stream.of(
+                "int a = 3; int b = a * 7; System.out.println(b);",
+                "int a = 3; int b = a * a; int c = b - a; System.out.println(c); System.out.println(b);",
+                "int a = 3; if (a > 1) { a = a + 1; } System.out.println(a);",
+                "int i = 0; int s = 0; while (i < 5) { int t = s + i; s = t * 2; i = i + 1; } System.out.println(s);",
+                "String s = \"x\"; String t = s; System.out.println(t); boolean b = 1 < 2; System.out.println(b);"
+        ).map(TestCompiler::buildProgram));
+    }
+
+    @ParameterizedTest
+    @MethodSource("programsArgs")
+    void programsTest(String program) throws IOException, InterruptedException {
+        final FlowGraph original = generateGraph(program);
+        final FlowGraph scheduled = schedule(program);
+
+        assertThat(TestCompiler.compileAndRun(scheduled)).isEqualTo(TestCompiler.compileAndRun(original));
+        assertThat(MethodSplitter.methodSize(scheduled)).isLessThanOrEqualTo(MethodSplitter.methodSize(original));
+        assertThat(scheduled.getHead().getLocalCount()).isLessThanOrEqualTo(original.getHead().getLocalCount());
+        assertThat(StackDepthAnalysis.fromFlowGraph(scheduled).getMaxDepth()).isLessThanOrEqualTo(scheduled.getHead().getStackSize());
+    }
+
+    @ParameterizedTest
+    @MethodSource("programsArgs")
+    void livenessTest(String program) {
+        final FlowGraph graph = schedule(program);
+        final BlockGraph blocks = BlockGraph.fromFlowGraph(graph);
+
+        // Jeder verbliebene Load liest eine Zuweisung, am Anfang von main lebt also keine Variable
+        assertThat(GenKillSolver.solve(blocks, LivenessProblem.fromBlockGraph(blocks)).getIn(0).isEmpty()).isTrue();
+    }
+
+    @Test
+    void swapTest() throws IOException, InterruptedException {
+        final FlowGraph graph = schedule(TestCompiler.buildProgram("int a = 3; int b = a * 7; System.out.println(b);"));
+
+        assertThat(graph.toString()).contains("swap").doesNotContain("istore", "iload");
+        assertThat(graph.getHead().getLocalCount()).isEqualTo(1);
+        assertThat(TestCompiler.compileAndRun(graph)).isEqualTo("21");
+    }
+
+    @Test
+    void dupTest() throws IOException, InterruptedException {
+        final FlowGraph graph = schedule(TestCompiler.buildProgram("int a = 3; int b = a * a; System.out.println(b);"));
+
+        assertThat(graph.toString()).contains("dup").doesNotContain("istore", "iload");
+        assertThat(TestCompiler.compileAndRun(graph)).isEqualTo("9");
+    }
+
+    @Test
+    void liveOutTest() throws IOException, InterruptedException {
+        final FlowGraph graph = schedule(TestCompiler.buildProgram("int a = 3; if (a > 1) { a = a + 1; } System.out.println(a);"));
+
+        // a wird nach der Verzweigung gelesen und muss in einer Variable bleiben
+        assertThat(graph.toString()).contains("dup", "istore 1", "iload 1");
+        assertThat(TestCompiler.compileAndRun(graph)).isEqualTo("4");
+    }
+
+    @Test
+    void deadStoreTest() {
+        final FlowGraph graph = schedule(TestCompiler.buildProgram("int a = 3; int b = 4; a = 5; System.out.println(b);"));
+
+        assertThat(graph.toString()).doesNotContain("iconst_3", "iconst_5", "pop");
+        assertThat(graph.getHead().getLocalCount()).isEqualTo(1);
+    }
+
+    @Test
+    void compactLocalsTest() throws IOException, InterruptedException {
+        final FlowGraph graph = schedule(TestCompiler.buildProgram("int a = 4; int b = 2; a = a * b; while (a > 0) { a = a - 3; } System.out.println(a);"));
+
+        // Nur das Produkt lebt über den ersten Block hinaus und rückt in den frei gewordenen Slot 1
+        assertThat(graph.getHead().getLocalCount()).isEqualTo(2);
+        assertThat(graph.toString()).contains("iconst_4 \n\t\ticonst_2 \n\t\timul", "istore 1").doesNotContain("istore 2");
+        assertThat(TestCompiler.compileAndRun(graph)).isEqualTo("-1");
+    }
+}
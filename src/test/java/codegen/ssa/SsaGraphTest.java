@@ -0,0 +1,114 @@
+package codegen.ssa;
+
+import codegen.TestCompiler;
+import codegen.flowgraph.FlowGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SsaGraphTest {
+
+    private static long countPhis(SsaGraph ssa, boolean stack) {
+        return ssa.getBlocks().stream()
+                  .flatMap(block -> block.getPhis().stream())
+                  .filter(phi -> phi.isStackPhi() == stack)
+                  .count();
+    }
+
+    @Test
+    void straightLineHasNoPhisTest() {
+        final FlowGraph graph = TestCompiler.generateGraph(TestCompiler.buildProgram("int a = 1; int b = a + 2; a = b * a; System.out.println(a);"));
+        final SsaGraph ssa = SsaGraph.fromFlowGraph(graph);
+
+        assertThat(countPhis(ssa, false)).isZero();
+        assertThat(countPhis(ssa, true)).isZero();
+        assertThat(ssa.toString()).doesNotContain("istore", "iload");
+    }
+
+    @Test
+    void loopVariablesGetPhisTest() {
+        final FlowGraph graph = TestCompiler.generateGraph(TestCompiler.buildProgram("int i = 0; int j = 5; while (i < 10) { i = i + 1; } System.out.println(i + j);"));
+        final SsaGraph ssa = SsaGraph.fromFlowGraph(graph);
+
+        // j is never changed in the loop, the trivial phi is removed
+        assertThat(countPhis(ssa, false)).isEqualTo(1);
+    }
+
+    @Test
+    void comparisonGetsStackPhiTest() {
+        final FlowGraph graph = TestCompiler.generateGraph(TestCompiler.buildProgram("boolean b = 1 < 2; System.out.println(b);"));
+        final SsaGraph ssa = SsaGraph.fromFlowGraph(graph);
+
+        assertThat(countPhis(ssa, true)).isEqualTo(1);
+    }
+
+    @Test
+    void deadCodeTest() {
+        final FlowGraph graph = TestCompiler.generateGraph(TestCompiler.buildProgram("int a = 1; int b = a * 2; int c = b + 3; System.out.println(a);"));
+        final SsaGraph ssa = SsaGraph.fromFlowGraph(graph);
+        final int before = ssa.instructionCount();
+
+        assertThat(ssa.removeDeadCode()).isPositive();
+        assertThat(ssa.instructionCount()).isLessThan(before);
+    }
+
+    private static Stream<Arguments> roundTripProgramsArgs() {
+        return Stream.of(
+                Arguments.of("GeneralComment.stups", "Test"),
+                Arguments.of("GeneralIfElse.stups", "x ist kleiner als y.\nx und y sind gleich gross."),
+                Arguments.of("Println.stups", "Hey\ntrue\n5\n1\nHey\nfalse"),
+                Arguments.of("CompileAllInOne1.stups", "0\nfalse\nELSE"),
+                Arguments.of("Fibonacci.stups", "1\n2\n3\n5\n8\n13\n21\n34"),
+                Arguments.of("Factorial.stups", "1\n2\n6\n24\n120"),
+                Arguments.of("Squares.stups", "1\n4\n9\n16\n25\n36\n49\n64\n81\n100"),
+                Arguments.of("Multiplication.stups", "5\n10\n15\n20"),
+                Arguments.of("GeneralWhile.stups", "1\n2\n3\n5\n8\n13\n21\n34\n55\n89\n144")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("roundTripProgramsArgs")
+    void roundTripProgramsTest(String prog, String result) throws IOException, InterruptedException {
+        final FlowGraph graph = TestCompiler.generateGraph(TestCompiler.readProgram(prog));
+        final SsaGraph ssa = SsaGraph.fromFlowGraph(graph);
+        final FlowGraph roundTrip = ssa.toFlowGraph();
+        System.out.println(ssa);
+        System.out.println(roundTrip);
+
+        assertThat(roundTrip.getHead().getStackSize()).isLessThanOrEqualTo(graph.getHead().getStackSize());
+
+        assertThat(TestCompiler.compileAndRun(roundTrip)).isEqualTo(result);
+    }
+
+    private static Stream<Arguments> roundTripSnippetsArgs() {
+        return Stream.of(
+                Arguments.of("int i = 0; while (i <= 5) { System.out.println(i); i = i + 1; }", "0\n1\n2\n3\n4\n5"),
+                Arguments.of("int a = 1; int b = 2; int t = 0; int n = 0; while (n < 3) { t = a; a = b; b = t; n = n + 1; } System.out.println(a); System.out.println(b);", "2\n1"),
+                Arguments.of("int i = 10; if (i == 10) { i = 2 * 5 - 3 * 2; i = i + 1; } else { i = -1; } System.out.println(i);", "5"),
+                Arguments.of("boolean b = true && false || false && true || (5 < 6 == false); System.out.println(b);", "false"),
+                Arguments.of("int x = 3; System.out.println(x < 4 == (x * x > 8));", "true"),
+                Arguments.of("String s = \"a\"; int i = 0; while (i < 2) { System.out.println(s); i = i + 1; }", "a\na"),
+                Arguments.of("int i = 0; int j = 0; while (i < 3) { j = 0; while (j < i) { System.out.println(i * 10 + j); j = j + 1; } i = i + 1; }", "10\n20\n21"),
+                Arguments.of("int i = 6; int j = i - 4; System.out.println(i / j + i % j + j - i);", "-1")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("roundTripSnippetsArgs")
+    void roundTripSnippetsTest(String body, String result) throws IOException, InterruptedException {
+        final FlowGraph graph = TestCompiler.generateGraph(TestCompiler.buildProgram(body));
+        final SsaGraph ssa = SsaGraph.fromFlowGraph(graph);
+        ssa.removeDeadCode();
+        final FlowGraph roundTrip = ssa.toFlowGraph();
+        System.out.println(ssa);
+        System.out.println(roundTrip);
+
+        assertThat(TestCompiler.compileAndRun(roundTrip)).isEqualTo(result);
+    }
+}
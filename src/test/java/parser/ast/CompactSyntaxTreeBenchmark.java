@@ -0,0 +1,44 @@
+package parser.ast;
+
+import codegen.TestCompiler;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vergleicht den Speicherbedarf pro Knoten von {@link SyntaxTreeNode}-Objekten und {@link CompactSyntaxTree}
+ * für generierte Programme wachsender Größe.
+ * Läuft nur mit "gradle benchmark".
+ */
+@Tag("benchmark")
+class CompactSyntaxTreeBenchmark {
+
+    private static SyntaxTree generateTree(int statements) {
+        final StringBuilder program = new StringBuilder();
+        program.append("class TestOutput {\n\tpublic static void main(String[] args) {\n");
+        program.append("int sum = 0; int i = 0;\n");
+        for (int statement = 0; statement < statements; statement++) {
+            program.append("if (sum > ").append(statement).append(") { sum = sum - i * ").append(statement % 7 + 1)
+                   .append("; } else { System.out.println(\"Zeile ").append(statement).append("\"); }\n");
+        }
+        program.append("System.out.println(sum);\n\t}\n}");
+
+        return TestCompiler.parse(program.toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 300, 600})
+    void bytesPerNodeBenchmark(int statements) {
+        final SyntaxTree ast = generateTree(statements);
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(ast);
+
+        final double objectBytes = (double) CompactSyntaxTree.estimateBytes(ast) / compact.size();
+
+        System.out.printf("CompactSyntaxTree: %5d statements, %7d nodes: objects %6.1f bytes/node, compact %5.1f bytes/node%n",
+                          statements, compact.size(), objectBytes, compact.getBytesPerNode());
+
+        assertThat(compact.getBytesPerNode()).isLessThan(objectBytes);
+    }
+}
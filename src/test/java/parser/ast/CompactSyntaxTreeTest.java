@@ -0,0 +1,192 @@
+package parser.ast;
+
+import codegen.TestCompiler;
+import codegen.analysis.StackSizeAnalyzer;
+import codegen.flowgraph.FlowGraphGenerator;
+import org.junit.jupiter.api.Test;
+import typechecker.TypeChecker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactSyntaxTreeTest {
+
+    private static final String PROGRAM = "int a = 1; boolean b = a < 2 * (a - 3); String s = \"Hallo\";\n"
+                                           + "if (b && !false) { a = a + 1; } else { System.out.println(s); }\n"
+                                           + "while (a < 10) { a = a + 1; }\n"
+                                           + "System.out.println(a == 10);";
+
+    private static SyntaxTree parse(String program) {
+        return TestCompiler.parse(TestCompiler.buildProgram(program));
+    }
+
+    @Test
+    void roundTripTest() {
+        final SyntaxTree ast = parse(PROGRAM);
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(ast);
+
+        assertThat(compact.size()).isEqualTo(ast.size());
+        assertThat(compact.toSyntaxTree()).isEqualTo(ast);
+        assertThat(compact).hasToString(ast.toString());
+    }
+
+    @Test
+    void indexTest() {
+        final SyntaxTree ast = parse(PROGRAM);
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(ast);
+        final List<Integer> indices = new ArrayList<>();
+
+        CompactSyntaxTree.forEachIndex(ast, (node, index) -> {
+            indices.add(index);
+
+            assertThat(compact.getName(index)).isEqualTo(node.getName());
+            assertThat(compact.getValue(index)).isEqualTo(node.getValue());
+            assertThat(compact.getLine(index)).isEqualTo(node.getLine());
+            assertThat(compact.getOperator(index)).isEqualTo(node.getOperator());
+            assertThat(compact.getChildCount(index)).isEqualTo(node.getChildren().size());
+            assertThat(compact.toNode(index)).isEqualTo(node);
+        });
+
+        // Präorder, jeder Index genau einmal
+        assertThat(indices).hasSize(compact.size()).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void internTest() {
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(parse(PROGRAM));
+        final int expr = compact.getKind("expr");
+
+        assertThat(expr).isNotEqualTo(CompactSyntaxTree.NONE);
+        assertThat(compact.getKind("NO_SUCH_NODE")).isEqualTo(CompactSyntaxTree.NONE);
+
+        for (int node = 0; node < compact.size(); node++) {
+            assertThat(compact.getKind(node) == expr).isEqualTo(compact.getOperator(node) != null);
+        }
+    }
+
+    @Test
+    void operatorOnlyOnExprTest() {
+        // Eine Variable kann genauso heißen wie ein Operator
+        final SyntaxTreeNode root = new SyntaxTreeNode("assignment", 1);
+        root.setValue("ADD");
+        final SyntaxTreeNode expr = new SyntaxTreeNode("expr", 1);
+        expr.setValue("ADD");
+        root.addChild(expr);
+
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(new SyntaxTree(root));
+
+        assertThat(compact.getOperator(0)).isNull();
+        assertThat(compact.getOperator(1)).isEqualTo(Operator.ADD);
+    }
+
+    @Test
+    void cursorTest() {
+        // Wurzel -> (A -> (C), B)
+        final SyntaxTreeNode root = new SyntaxTreeNode("Wurzel", 1);
+        final SyntaxTreeNode childA = new SyntaxTreeNode("A", 2);
+        final SyntaxTreeNode childB = new SyntaxTreeNode("B", 3);
+        final SyntaxTreeNode childC = new SyntaxTreeNode("C", 4);
+        root.addChild(childA);
+        root.addChild(childB);
+        childA.addChild(childC);
+
+        final SyntaxTreeCursor cursor = CompactSyntaxTree.fromSyntaxTree(new SyntaxTree(root)).cursor();
+
+        assertThat(cursor.getName()).isEqualTo("Wurzel");
+        assertThat(cursor.toParent()).isFalse();
+        assertThat(cursor.getChildCount()).isEqualTo(2);
+
+        assertThat(cursor.toFirstChild()).isTrue();
+        assertThat(cursor.getName()).isEqualTo("A");
+        assertThat(cursor.getDepth()).isEqualTo(1);
+
+        assertThat(cursor.toFirstChild()).isTrue();
+        assertThat(cursor.getName()).isEqualTo("C");
+        assertThat(cursor.getLine()).isEqualTo(4);
+        assertThat(cursor.isEmpty()).isTrue();
+        assertThat(cursor.toFirstChild()).isFalse();
+        assertThat(cursor.toNextSibling()).isFalse();
+
+        assertThat(cursor.toParent()).isTrue();
+        assertThat(cursor.toNextSibling()).isTrue();
+        assertThat(cursor.getName()).isEqualTo("B");
+        assertThat(cursor.toNextSibling()).isFalse();
+
+        assertThat(cursor.toParent()).isTrue();
+        assertThat(cursor.getNode()).isZero();
+
+        cursor.toChild(1);
+        assertThat(cursor.getName()).isEqualTo("B");
+        assertThat(cursor.toParent()).isTrue();
+
+        assertThatThrownBy(() -> cursor.toChild(2)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThat(cursor.getNode()).isZero();
+    }
+
+    @Test
+    void deepCursorTest() {
+        // Tiefer als der anfängliche Pfad des Cursors
+        final SyntaxTreeNode root = new SyntaxTreeNode("block_cnt", 1);
+        SyntaxTreeNode current = root;
+        for (int i = 0; i < 100; i++) {
+            final SyntaxTreeNode child = new SyntaxTreeNode("block_cnt", 1);
+            current.addChild(child);
+            current = child;
+        }
+
+        final SyntaxTreeCursor cursor = CompactSyntaxTree.fromSyntaxTree(new SyntaxTree(root)).cursor();
+        while (cursor.toFirstChild()) {
+            assertThat(cursor.getNode()).isEqualTo(cursor.getDepth());
+        }
+        assertThat(cursor.getDepth()).isEqualTo(100);
+
+        while (cursor.toParent()) {
+            assertThat(cursor.getNode()).isEqualTo(cursor.getDepth());
+        }
+        assertThat(cursor.getNode()).isZero();
+    }
+
+    @Test
+    void typeCheckerTest() {
+        final SyntaxTree ast = parse(PROGRAM);
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(ast);
+        final String[] nodeTypes = TypeChecker.validate(compact);
+        final Map<SyntaxTreeNode, String> nodeTable = TypeChecker.validate(ast);
+
+        CompactSyntaxTree.forEachIndex(ast, (node, index) -> assertThat(nodeTable.get(node)).isEqualTo(nodeTypes[index]));
+
+        for (int node = 0; node < compact.size(); node++) {
+            if (compact.getOperator(node) != null) {
+                assertThat(nodeTypes[node]).isEqualTo(compact.getOperator(node).getResultType());
+            }
+        }
+    }
+
+    @Test
+    void phasesTest() {
+        final SyntaxTree ast = parse(PROGRAM);
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(ast);
+
+        assertThat(StackSizeAnalyzer.runStackModel(compact)).isEqualTo(StackSizeAnalyzer.runStackModel(ast));
+
+        final String fromObjects = FlowGraphGenerator.fromAST(ast, TypeChecker.validate(ast), "TestOutput")
+                                                     .generateGraph().toString();
+        final String fromCompact = FlowGraphGenerator.fromAST(compact, TypeChecker.validate(compact), "TestOutput", 0)
+                                                     .generateGraph().toString();
+
+        assertThat(fromCompact).isEqualTo(fromObjects);
+    }
+
+    @Test
+    void bytesTest() {
+        final SyntaxTree ast = parse(PROGRAM);
+        final CompactSyntaxTree compact = CompactSyntaxTree.fromSyntaxTree(ast);
+
+        assertThat(compact.getBytes()).isPositive();
+        assertThat(compact.getBytes()).isLessThan(CompactSyntaxTree.estimateBytes(ast));
+    }
+}
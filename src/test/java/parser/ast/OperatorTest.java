@@ -0,0 +1,88 @@
+package parser.ast;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OperatorTest {
+
+    @Test
+    void resolveTest() {
+        final SyntaxTreeNode node = new SyntaxTreeNode("expr", 1);
+        assertThat(node.getOperator()).isNull();
+
+        node.setValue("LESS");
+        assertThat(node.getOperator()).isEqualTo(Operator.LESS);
+
+        node.setOperator(Operator.GREATER);
+        assertThat(node.getValue()).isEqualTo("GREATER");
+        assertThat(node.deepCopy().getOperator()).isEqualTo(Operator.GREATER);
+
+        node.setName("assignment");
+        assertThat(node.getOperator()).isNull();
+    }
+
+    @Test
+    void onlyExprTest() {
+        // Eine Variable kann genauso heißen wie ein Operator
+        final SyntaxTreeNode node = new SyntaxTreeNode("IDENTIFIER", 1);
+        node.setValue("ADD");
+
+        assertThat(node.getOperator()).isNull();
+    }
+
+    @Test
+    void arityTest() {
+        assertThat(Operator.NOT.accepts(1)).isTrue();
+        assertThat(Operator.NOT.accepts(2)).isFalse();
+        assertThat(Operator.SUB.accepts(1)).isTrue();
+        assertThat(Operator.SUB.accepts(2)).isTrue();
+        assertThat(Operator.MUL.accepts(1)).isFalse();
+
+        assertThat(Operator.ADD.getStackEffect(2)).isEqualTo(-1);
+        assertThat(Operator.SUB.getStackEffect(1)).isZero();
+        assertThatThrownBy(() -> Operator.NOT.getStackEffect(2)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void precedenceTest() {
+        assertThat(Operator.MUL.getPrecedence()).isLessThan(Operator.ADD.getPrecedence());
+        assertThat(Operator.ADD.getPrecedence()).isLessThan(Operator.LESS.getPrecedence());
+        assertThat(Operator.EQUAL.getPrecedence()).isLessThan(Operator.AND.getPrecedence());
+        assertThat(Operator.AND.getPrecedence()).isLessThan(Operator.OR.getPrecedence());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Operator.class)
+    void mirrorTest(Operator operator) {
+        if (operator.isCommutative()) {
+            assertThat(operator.mirror()).isEqualTo(operator);
+        }
+        if (operator.mirror() != null) {
+            assertThat(operator.mirror().mirror()).isEqualTo(operator);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Operator.class)
+    void negateTest(Operator operator) {
+        if (operator.isComparison()) {
+            assertThat(operator.negate()).isNotEqualTo(operator);
+            assertThat(operator.negate().negate()).isEqualTo(operator);
+        } else {
+            assertThatThrownBy(operator::negate).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void instructionTest() {
+        assertThat(Operator.fromInstruction("iadd")).contains(Operator.ADD);
+        assertThat(Operator.fromInstruction("irem")).contains(Operator.MOD);
+        assertThat(Operator.fromInstruction("ineg")).isEmpty();
+        assertThat(Operator.LESS.getCondition()).isEqualTo("lt");
+        assertThat(Operator.fromToken("ASSIGN")).isNull();
+    }
+}
@@ -0,0 +1,81 @@
+package parser.ast;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SethiUllmanLabelingTest {
+
+    private static SyntaxTreeNode literal(String value) {
+        final SyntaxTreeNode node = new SyntaxTreeNode("INTEGER_LIT", 1);
+        node.setValue(value);
+
+        return node;
+    }
+
+    private static SyntaxTreeNode expr(String operator, SyntaxTreeNode... children) {
+        final SyntaxTreeNode node = new SyntaxTreeNode("expr", 1);
+        node.setValue(operator);
+        node.setChildren(children);
+
+        return node;
+    }
+
+    private static SyntaxTreeNode par(SyntaxTreeNode child) {
+        final SyntaxTreeNode node = new SyntaxTreeNode("par_expr", 1);
+        node.setChildren(child);
+
+        return node;
+    }
+
+    @Test
+    void leafTest() {
+        final SethiUllmanLabeling labeling = new SethiUllmanLabeling();
+
+        assertThat(labeling.getNeed(literal("1"))).isEqualTo(1);
+        assertThat(labeling.getLeftToRightNeed(literal("1"))).isEqualTo(1);
+    }
+
+    @Test
+    void balancedTest() {
+        // (1 + 2) * (3 + 4)
+        final SyntaxTreeNode tree = expr("MUL", par(expr("ADD", literal("1"), literal("2"))),
+                                         par(expr("ADD", literal("3"), literal("4"))));
+        final SethiUllmanLabeling labeling = new SethiUllmanLabeling();
+
+        assertThat(labeling.getNeed(tree)).isEqualTo(3);
+        assertThat(labeling.getLeftToRightNeed(tree)).isEqualTo(3);
+        assertThat(labeling.isRightFirst(tree)).isFalse();
+    }
+
+    @Test
+    void rightHeavySubTest() {
+        // 1 - 2 * (3 + 4)
+        final SyntaxTreeNode tree = expr("SUB", literal("1"),
+                                         expr("MUL", literal("2"), par(expr("ADD", literal("3"), literal("4")))));
+        final SethiUllmanLabeling labeling = new SethiUllmanLabeling();
+
+        assertThat(labeling.getNeed(tree)).isEqualTo(2);
+        assertThat(labeling.getLeftToRightNeed(tree)).isEqualTo(4);
+        assertThat(labeling.isRightFirst(tree)).isTrue();
+    }
+
+    @Test
+    void comparisonIsNotRightFirstTest() {
+        // 1 < 2 + 3, Vergleiche stellt der SyntaxTreeRebalancer um
+        final SyntaxTreeNode tree = expr("LESS", literal("1"), expr("ADD", literal("2"), literal("3")));
+        final SethiUllmanLabeling labeling = new SethiUllmanLabeling();
+
+        assertThat(labeling.getNeed(tree)).isEqualTo(2);
+        assertThat(labeling.isRightFirst(tree)).isFalse();
+    }
+
+    @Test
+    void notTest() {
+        final SyntaxTreeNode tree = expr("NOT", literal("1"));
+        final SethiUllmanLabeling labeling = new SethiUllmanLabeling();
+
+        assertThat(labeling.getNeed(tree)).isEqualTo(2);
+        assertThat(labeling.getNeed(par(tree))).isEqualTo(2);
+    }
+}
@@ -172,4 +172,57 @@ class SyntaxTreeRebalancerTest {
         assertThat(tree.size()).isEqualTo(5);
         assertThat(tree.getRoot().getValue()).isEqualTo("SUB");
     }
+
+    //expr: LESS
+    //├── INTEGER_LIT: 1
+    //└── expr: SUB
+    //    ├── INTEGER_LIT: 2
+    //    └── INTEGER_LIT: 3
+    private static SyntaxTree tree4() {
+        final SyntaxTree tree = new SyntaxTree(new SyntaxTreeNode("expr", 1));
+        tree.getRoot().setValue("LESS");
+
+        final SyntaxTreeNode left = new SyntaxTreeNode("INTEGER_LIT", 1);
+        left.setValue("1");
+
+        final SyntaxTreeNode right = new SyntaxTreeNode("expr", 1);
+        right.setValue("SUB");
+
+        final SyntaxTreeNode rleft = new SyntaxTreeNode("INTEGER_LIT", 1);
+        rleft.setValue("2");
+
+        final SyntaxTreeNode rright = new SyntaxTreeNode("INTEGER_LIT", 1);
+        rright.setValue("3");
+
+        right.setChildren(rleft, rright);
+        tree.getRoot().setChildren(left, right);
+
+        return tree;
+    }
+
+    @Test
+    void testTree4OrderByStackNeed() {
+        final SyntaxTree tree = tree4();
+
+        SyntaxTreeRebalancer.orderByStackNeed(tree);
+
+        // 1 < 2 - 3 wird zu 2 - 3 > 1, die Subtraktion selbst bleibt unverändert
+        assertThat(tree.getRoot().getValue()).isEqualTo("GREATER");
+        assertThat(tree.getRoot().getChildren().get(0).getValue()).isEqualTo("SUB");
+        assertThat(tree.getRoot().getChildren().get(0).getChildren().get(0).getValue()).isEqualTo("2");
+        assertThat(tree.getRoot().getChildren().get(1).getValue()).isEqualTo("1");
+    }
+
+    @Test
+    void testTree4OrderByStackNeedNonCommutative() {
+        final SyntaxTree tree = tree4();
+        tree.getRoot().setValue("SUB");
+
+        SyntaxTreeRebalancer.orderByStackNeed(tree);
+
+        // SUB wird erst im Codegenerator mit swap umgestellt
+        final SyntaxTree expected = tree4();
+        expected.getRoot().setValue("SUB");
+        assertThat(tree).isEqualTo(expected);
+    }
 }